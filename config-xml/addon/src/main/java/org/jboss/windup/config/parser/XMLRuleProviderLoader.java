@@ -6,7 +6,11 @@
  */
 package org.jboss.windup.config.parser;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
 import java.net.URL;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -17,13 +21,23 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 
 import org.jboss.forge.furnace.Furnace;
 import org.jboss.forge.furnace.addons.Addon;
@@ -34,17 +48,26 @@ import org.jboss.windup.config.loader.RuleLoaderContext;
 import org.jboss.windup.config.loader.RuleProviderLoader;
 import org.jboss.windup.util.Logging;
 import org.jboss.windup.util.exception.WindupException;
+import org.jboss.windup.util.file.FileHashes;
 import org.jboss.windup.util.furnace.FileExtensionFilter;
 import org.jboss.windup.util.furnace.FurnaceClasspathScanner;
+import org.jboss.windup.util.threading.WindupExecutors;
 import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
 
 /**
  * This {@link RuleProviderLoader} searches for and loads {@link AbstractRuleProvider}s from XML files that within all
  * addons, with filenames that end in ".windup.xml".
  *
+ * The files are read and parsed in parallel, and the parsed documents are kept (softly referenced) between loads, keyed by the addon (including
+ * its version) or rules directory that contains them and by the SHA-1 hash of their contents. Loading the rules again in the same runtime (for
+ * example for each request from the tooling) then only has to turn the unchanged documents into {@link RuleProvider}s. This is still done one
+ * file at a time, in the same order as before, as the element handlers are not thread safe.
+ *
  * @author <a href="mailto:lincolnbaxter@gmail.com">Lincoln Baxter, III</a>
  *
  */
+@Singleton
 public class XMLRuleProviderLoader implements RuleProviderLoader
 {
     private static final Logger LOG = Logging.get(XMLRuleProviderLoader.class);
@@ -56,83 +79,177 @@ public class XMLRuleProviderLoader implements RuleProviderLoader
     @Inject
     private FurnaceClasspathScanner scanner;
 
+    private final ConcurrentMap<String, SoftReference<Document>> documentCache = new ConcurrentHashMap<>();
+
     @Override
-    public List<RuleProvider> getProviders(RuleLoaderContext ruleLoaderContext)
+    public synchronized List<RuleProvider> getProviders(RuleLoaderContext ruleLoaderContext)
     {
+        List<RulesetFile> rulesetFiles = new ArrayList<>();
+        for (Map.Entry<Addon, List<URL>> addonFiles : getAddonWindupXmlFiles().entrySet())
+        {
+            Addon addon = addonFiles.getKey();
+            for (URL resource : addonFiles.getValue())
+                rulesetFiles.add(new RulesetFile(resource, addon, null));
+        }
+
+        for (Path userRulesPath : ruleLoaderContext.getRulePaths())
+        {
+            // Log the files found
+            final Collection<URL> userXmlRulesetFiles = getWindupUserDirectoryXmlFiles(userRulesPath);
+            StringBuilder sb = new StringBuilder("\nFound " + userXmlRulesetFiles.size() + " user XML rules in: " + userRulesPath);
+            for (URL resource : userXmlRulesetFiles)
+                sb.append("\n\t" + resource.toString());
+            LOG.info(sb.toString());
+
+            for (URL resource : userXmlRulesetFiles)
+                rulesetFiles.add(new RulesetFile(resource, null, userRulesPath));
+        }
+
+        parseDocuments(rulesetFiles);
+
         List<RuleProvider> providers = new ArrayList<>();
+        for (RulesetFile rulesetFile : rulesetFiles)
+        {
+            URL resource = rulesetFile.resource;
+            try
+            {
+                ParserContext parser = new ParserContext(furnace, ruleLoaderContext);
 
-        DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-        dbFactory.setNamespaceAware(true);
-        DocumentBuilder dBuilder;
+                if (rulesetFile.addon != null)
+                {
+                    parser.setAddonContainingInputXML(rulesetFile.addon);
+                }
+                else
+                {
+                    parser.setXmlInputPath(Paths.get(resource.toURI()));
+                    parser.setXmlInputRootPath(rulesetFile.userRulesPath);
+                }
 
+                parser.processElement(rulesetFile.document.getDocumentElement());
+                List<AbstractRuleProvider> parsedProviders = parser.getRuleProviders();
+                setOrigin(parsedProviders, resource);
+                providers.addAll(parsedProviders);
+            }
+            catch (Exception e)
+            {
+                throw new WindupException("Failed to parse XML configuration at: " + resource.toString() + " due to: " + e.getMessage(), e);
+            }
+        }
+
+        return providers;
+    }
+
+    /**
+     * Reads and parses all of the given files in parallel, reusing the cached documents of the files that have not changed. The cached documents
+     * of files that were not part of this load are dropped.
+     */
+    private void parseDocuments(List<RulesetFile> rulesetFiles)
+    {
+        final DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+        dbFactory.setNamespaceAware(true);
         try
         {
-            dBuilder = dbFactory.newDocumentBuilder();
+            // fully build the documents while parsing, so that reading a cached document later does not modify it
+            dbFactory.setFeature("http://apache.org/xml/features/dom/defer-node-expansion", false);
         }
-        catch (Exception e)
+        catch (ParserConfigurationException e)
         {
-            throw new WindupException("Failed to build xml parser due to: " + e.getMessage(), e);
+            LOG.fine("Deferred node expansion could not be disabled for: " + dbFactory.getClass().getName());
         }
 
-        for (Map.Entry<Addon, List<URL>> addonFiles : getAddonWindupXmlFiles().entrySet())
-        {
-            Addon addon = addonFiles.getKey();
-            List<URL> urls = addonFiles.getValue();
-            for (URL resource : urls)
+        final ThreadLocal<DocumentBuilder> documentBuilders = ThreadLocal.withInitial(() -> {
+            synchronized (dbFactory)
             {
                 try
                 {
-                    Document doc = dBuilder.parse(resource.toURI().toString());
-                    ParserContext parser = new ParserContext(furnace, ruleLoaderContext);
-
-                    parser.setAddonContainingInputXML(addon);
-
-                    parser.processElement(doc.getDocumentElement());
-                    List<AbstractRuleProvider> parsedProviders = parser.getRuleProviders();
-                    setOrigin(parsedProviders, resource);
-                    providers.addAll(parsedProviders);
+                    return dbFactory.newDocumentBuilder();
                 }
                 catch (Exception e)
                 {
-                    throw new WindupException("Failed to parse XML configuration at: " + resource.toString()
-                                + " due to: " + e.getMessage(), e);
+                    throw new WindupException("Failed to build xml parser due to: " + e.getMessage(), e);
                 }
             }
-        }
+        });
 
-        for (Path userRulesPath : ruleLoaderContext.getRulePaths())
+        final AtomicInteger cacheHits = new AtomicInteger();
+        ExecutorService executor = WindupExecutors.newFixedThreadPool(WindupExecutors.getDefaultThreadCount());
+        try
         {
-            // Log the files found
-            final Collection<URL> userXmlRulesetFiles = getWindupUserDirectoryXmlFiles(userRulesPath);
-            StringBuilder sb = new StringBuilder("\nFound " + userXmlRulesetFiles.size() + " user XML rules in: " + userRulesPath);
-            for (URL resource : userXmlRulesetFiles)
-                sb.append("\n\t" + resource.toString());
-            LOG.info(sb.toString());
+            List<Future<?>> futures = new ArrayList<>(rulesetFiles.size());
+            for (final RulesetFile rulesetFile : rulesetFiles)
+            {
+                futures.add(executor.submit(() -> {
+                    loadDocument(rulesetFile, documentBuilders.get(), cacheHits);
+                    return null;
+                }));
+            }
 
-            // Parse each file
-            for (URL resource : userXmlRulesetFiles)
+            for (int i = 0; i < futures.size(); i++)
             {
                 try
                 {
-                    Document doc = dBuilder.parse(resource.toURI().toString());
-                    ParserContext parser = new ParserContext(furnace, ruleLoaderContext);
-
-                    parser.setXmlInputPath(Paths.get(resource.toURI()));
-                    parser.setXmlInputRootPath(userRulesPath);
-
-                    parser.processElement(doc.getDocumentElement());
-                    List<AbstractRuleProvider> parsedProviders = parser.getRuleProviders();
-                    setOrigin(parsedProviders, resource);
-                    providers.addAll(parsedProviders);
+                    futures.get(i).get();
                 }
-                catch (Exception e)
+                catch (ExecutionException e)
+                {
+                    Throwable cause = e.getCause();
+                    throw new WindupException("Failed to parse XML configuration at: " + rulesetFiles.get(i).resource.toString() + " due to: "
+                                + cause.getMessage(), cause);
+                }
+                catch (InterruptedException e)
                 {
-                    throw new WindupException("Failed to parse XML configuration at: " + resource.toString() + " due to: " + e.getMessage(), e);
+                    Thread.currentThread().interrupt();
+                    throw new WindupException("Interrupted while parsing the XML rules", e);
                 }
             }
         }
+        finally
+        {
+            executor.shutdownNow();
+        }
 
-        return providers;
+        Set<String> cacheKeys = new HashSet<>();
+        for (RulesetFile rulesetFile : rulesetFiles)
+            cacheKeys.add(rulesetFile.cacheKey);
+        documentCache.keySet().retainAll(cacheKeys);
+
+        LOG.info("Parsed " + (rulesetFiles.size() - cacheHits.get()) + " XML rule files, and reused " + cacheHits.get() + " unchanged ones");
+    }
+
+    private void loadDocument(RulesetFile rulesetFile, DocumentBuilder dBuilder, AtomicInteger cacheHits) throws Exception
+    {
+        byte[] contents = readContents(rulesetFile.resource);
+        String contentHash = FileHashes.compute(new ByteArrayInputStream(contents), false).getSHA1Hash();
+        String source = rulesetFile.addon != null ? rulesetFile.addon.getId().toCoordinates() : String.valueOf(rulesetFile.userRulesPath);
+        rulesetFile.cacheKey = source + "|" + rulesetFile.resource.toExternalForm() + "|" + contentHash;
+
+        SoftReference<Document> cached = documentCache.get(rulesetFile.cacheKey);
+        Document document = cached == null ? null : cached.get();
+        if (document != null)
+        {
+            cacheHits.incrementAndGet();
+        }
+        else
+        {
+            InputSource inputSource = new InputSource(new ByteArrayInputStream(contents));
+            inputSource.setSystemId(rulesetFile.resource.toURI().toString());
+            document = dBuilder.parse(inputSource);
+            documentCache.put(rulesetFile.cacheKey, new SoftReference<>(document));
+        }
+        rulesetFile.document = document;
+    }
+
+    private static byte[] readContents(URL resource) throws IOException
+    {
+        try (InputStream is = resource.openStream())
+        {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1)
+                os.write(buffer, 0, read);
+            return os.toByteArray();
+        }
     }
 
     private void setOrigin(List<AbstractRuleProvider> providers, URL resource)
@@ -197,4 +314,23 @@ public class XMLRuleProviderLoader implements RuleProviderLoader
     private boolean pathMatchesNamePattern(Path file) {
         return file.getFileName().toString().toLowerCase().endsWith("." + XML_RULES_EXTENSION);
     }
+
+    /**
+     * A rules file from either an {@link Addon} or a user rules directory, and its parsed {@link Document}.
+     */
+    private static class RulesetFile
+    {
+        private final URL resource;
+        private final Addon addon;
+        private final Path userRulesPath;
+        private String cacheKey;
+        private Document document;
+
+        RulesetFile(URL resource, Addon addon, Path userRulesPath)
+        {
+            this.resource = resource;
+            this.addon = addon;
+            this.userRulesPath = userRulesPath;
+        }
+    }
 }
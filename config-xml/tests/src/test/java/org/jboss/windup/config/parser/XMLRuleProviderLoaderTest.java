@@ -1,7 +1,14 @@
 package org.jboss.windup.config.parser;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
 import javax.inject.Inject;
@@ -16,6 +23,7 @@ import org.jboss.windup.config.RuleProvider;
 import org.jboss.windup.config.loader.RuleLoaderContext;
 import org.jboss.windup.config.phase.DiscoveryPhase;
 import org.jboss.windup.graph.GraphContextFactory;
+import org.jboss.windup.util.exception.WindupException;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -85,6 +93,103 @@ public class XMLRuleProviderLoaderTest
         checkRule3(rule3);
     }
 
+    @Test
+    public void testCachedDocuments() throws Exception
+    {
+        Path userRulesPath = Files.createTempDirectory("XMLRuleProviderLoaderTest");
+        Path rulesFile = userRulesPath.resolve("cached.windup.xml");
+        Path brokenFile = userRulesPath.resolve("broken.windup.xml");
+        Logger loaderLog = Logger.getLogger(XMLRuleProviderLoader.class.getName());
+        ParseSummaryHandler parseSummaries = new ParseSummaryHandler();
+        loaderLog.addHandler(parseSummaries);
+        try
+        {
+            writeRuleset(rulesFile, "cachedruleprovider");
+            RuleLoaderContext ruleLoaderContext = new RuleLoaderContext(Collections.singletonList(userRulesPath), null);
+
+            List<RuleProvider> providers = loader.getProviders(ruleLoaderContext);
+            Assert.assertEquals(2, providers.size());
+
+            // nothing has changed, so every document is reused
+            providers = loader.getProviders(ruleLoaderContext);
+            Assert.assertEquals(2, providers.size());
+            Assert.assertEquals("Parsed 0 XML rule files, and reused 2 unchanged ones", parseSummaries.getLast());
+
+            // only the changed file is parsed again, and the providers come from its new contents
+            writeRuleset(rulesFile, "changedruleprovider");
+            providers = loader.getProviders(ruleLoaderContext);
+            Assert.assertEquals("Parsed 1 XML rule files, and reused 1 unchanged ones", parseSummaries.getLast());
+            boolean changedProviderFound = false;
+            for (RuleProvider provider : providers)
+                changedProviderFound |= "changedruleprovider".equals(provider.getMetadata().getID());
+            Assert.assertTrue(changedProviderFound);
+
+            // a parse error is reported with the location of the file that could not be parsed
+            Files.write(brokenFile, "<ruleset xmlns=\"http://windup.jboss.org/schema/jboss-ruleset\" id=\"broken\"><rules>"
+                        .getBytes(StandardCharsets.UTF_8));
+            try
+            {
+                loader.getProviders(ruleLoaderContext);
+                Assert.fail("The broken rules file should not have been parsed");
+            }
+            catch (WindupException e)
+            {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains(brokenFile.toUri().toURL().toString()));
+            }
+        }
+        finally
+        {
+            loaderLog.removeHandler(parseSummaries);
+            Files.deleteIfExists(rulesFile);
+            Files.deleteIfExists(brokenFile);
+            Files.deleteIfExists(userRulesPath);
+        }
+    }
+
+    /**
+     * Collects the summaries that the loader logs of how many files were parsed, and how many cached documents were reused.
+     */
+    private static class ParseSummaryHandler extends Handler
+    {
+        private final List<String> summaries = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void publish(LogRecord record)
+        {
+            if (record.getMessage() != null && record.getMessage().startsWith("Parsed "))
+                summaries.add(record.getMessage());
+        }
+
+        String getLast()
+        {
+            return summaries.isEmpty() ? null : summaries.get(summaries.size() - 1);
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    private void writeRuleset(Path file, String id) throws Exception
+    {
+        String xml = "<?xml version=\"1.0\"?>\n"
+                    + "<ruleset xmlns=\"http://windup.jboss.org/schema/jboss-ruleset\" id=\"" + id + "\" phase=\"DiscoveryPhase\">\n"
+                    + "    <rules>\n"
+                    + "        <rule>\n"
+                    + "            <when><true/></when>\n"
+                    + "            <perform><log message=\"" + id + "\"/></perform>\n"
+                    + "        </rule>\n"
+                    + "    </rules>\n"
+                    + "</ruleset>\n";
+        Files.write(file, xml.getBytes(StandardCharsets.UTF_8));
+    }
+
     private void checkRule1(RuleBuilder rule)
     {
         // check the conditions
@@ -224,7 +224,8 @@ public class Iteration extends DefaultOperationBuilder
 
         if (!hasCommitOperation || !hasIterationOperation)
         {
-            int frameCount = Iterables.size(frames);
+            // only check whether there are more than 100, as the results may be large and are not necessarily a collection
+            int frameCount = Iterables.size(Iterables.limit(frames, 101));
             if (frameCount > 100)
             {
                 if (!hasCommitOperation)
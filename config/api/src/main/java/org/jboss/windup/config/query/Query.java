@@ -3,10 +3,8 @@ package org.jboss.windup.config.query;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
 
 import com.google.common.collect.Iterables;
 import org.jboss.forge.furnace.util.Predicate;
@@ -16,6 +14,7 @@ import org.jboss.windup.config.condition.GraphCondition;
 import org.jboss.windup.config.operation.Iteration;
 import org.jboss.windup.config.selectors.FramesSelector;
 import org.jboss.windup.graph.GraphTypeManager;
+import org.jboss.windup.graph.frames.FramedVertexIdCollection;
 import org.jboss.windup.graph.frames.VertexFromFramedIterable;
 import org.jboss.windup.graph.model.WindupVertexFrame;
 import org.jboss.windup.util.ExecutionStatistics;
@@ -25,7 +24,6 @@ import org.ocpsoft.rewrite.context.EvaluationContext;
 
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.frames.FramedGraphQuery;
-import com.tinkerpop.frames.structures.FramedVertexIterable;
 import com.tinkerpop.gremlin.java.GremlinPipeline;
 import com.tinkerpop.pipes.PipeFunction;
 
@@ -202,20 +200,16 @@ public class Query extends GraphCondition implements QueryBuilderFind, QueryBuil
             {
                 Iterable<Vertex> startingVertices = getStartingVertices(event);
                 GremlinPipeline<Vertex, Vertex> pipeline = new GremlinPipeline<>(startingVertices);
-                Set<WindupVertexFrame> frames = new HashSet<>();
                 for (QueryGremlinCriterion c : query.getPipelineCriteria())
                 {
                     c.query(event, pipeline);
                 }
 
-                FramedVertexIterable<WindupVertexFrame> framedVertexIterable = new FramedVertexIterable<>(
-                            event.getGraphContext().getFramed(), pipeline,
-                            WindupVertexFrame.class);
-                for (WindupVertexFrame frame : framedVertexIterable)
-                {
-                    frames.add(frame);
-                }
-                return frames;
+                /*
+                 * The pipeline is read as the results are iterated, only the (distinct) vertex ids are kept, and the frames are created one by
+                 * one. Some queries return most of the graph, and the rules can start on the first results without waiting for all of them.
+                 */
+                return FramedVertexIdCollection.collect(event.getGraphContext().getFramed(), pipeline, WindupVertexFrame.class);
             }
 
             private Iterable<Vertex> getStartingVertices(GraphRewrite event)
@@ -45,7 +45,10 @@ public class FernflowerDecompiler extends AbstractDecompiler
     }
 
 
-    private Map<String, Object> getOptions()
+    /**
+     * Gets the options that are passed to Fernflower.
+     */
+    public Map<String, Object> getOptions()
     {
         Map<String, Object> options = new HashMap<>();
         options.put(IFernflowerPreferences.MAX_PROCESSING_METHOD, 30);
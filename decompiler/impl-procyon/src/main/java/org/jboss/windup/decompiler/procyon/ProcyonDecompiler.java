@@ -8,12 +8,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.TreeMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -31,7 +31,6 @@ import org.jboss.windup.decompiler.decompiler.AbstractDecompiler;
 import org.jboss.windup.decompiler.util.Filter;
 import org.jboss.windup.util.Checks;
 import org.jboss.windup.util.ExecutionStatistics;
-import org.jboss.windup.util.exception.WindupException;
 
 import com.strobel.assembler.InputTypeLoader;
 import com.strobel.assembler.metadata.ClasspathTypeLoader;
@@ -61,7 +60,14 @@ import com.strobel.io.PathHelper;
 public class ProcyonDecompiler extends AbstractDecompiler
 {
     private static final Logger log = Logger.getLogger(ProcyonDecompiler.class.getName());
+
+    /**
+     * Procyon can hang on some classes, so the decompilation of a single type is aborted after this time.
+     */
+    private static final long DECOMPILE_TIMEOUT_MILLIS = 60000L;
+
     private final ProcyonConfiguration procyonConf;
+    private ProcyonWorkerPool workerPool;
 
     public ProcyonDecompiler()
     {
@@ -82,14 +88,61 @@ public class ProcyonDecompiler extends AbstractDecompiler
         return log;
     }
 
+    @Override
+    public void setExecutorService(ExecutorService service, int numberOfThreads)
+    {
+        super.setExecutorService(service, numberOfThreads);
+        closeWorkerPool();
+    }
+
+    @Override
+    public void close()
+    {
+        super.close();
+        closeWorkerPool();
+    }
+
+    /**
+     * Gets the pool of Procyon workers, with one worker for each of the threads that run the decompilation tasks.
+     */
+    private synchronized ProcyonWorkerPool getWorkerPool()
+    {
+        if (workerPool == null)
+            workerPool = new ProcyonWorkerPool(getNumberOfThreads());
+        return workerPool;
+    }
+
+    private synchronized void closeWorkerPool()
+    {
+        if (workerPool != null)
+        {
+            workerPool.close();
+            workerPool = null;
+        }
+    }
+
+    /**
+     * Decompiles the given type on one of the pooled workers, and fails if this takes longer than {@link #DECOMPILE_TIMEOUT_MILLIS}.
+     */
+    private File decompileTypeOnWorker(final DecompilerSettings settings, final String typeName) throws Exception
+    {
+        return getWorkerPool().decompile(settings, new ProcyonWorkerPool.Decompilation()
+        {
+            @Override
+            public File decompile(MetadataSystem metadataSystem) throws Exception
+            {
+                return decompileType(settings, metadataSystem, typeName);
+            }
+        }, DECOMPILE_TIMEOUT_MILLIS);
+    }
+
 
     public Collection<Callable<File>> getDecompileTasks(final Map<String, List<ClassDecompileRequest>> requestMap, final DecompilationListener listener)
     {
         final AtomicInteger current = new AtomicInteger(0);
         Collection<Callable<File>> tasks = new ArrayList<>();
 
-        final Map<Path, DecompilerSettings> settingsByOutputDirectory = new TreeMap<>();
-        final Map<Path, Queue<MetadataSystem>> metadataSystemCaches = new TreeMap<>();
+        final Map<Path, DecompilerSettings> settingsByOutputDirectory = new ConcurrentHashMap<>();
         final Map<Path, AtomicInteger> countByOutputDirectory = new TreeMap<>();
 
         for (Map.Entry<String, List<ClassDecompileRequest>> entry : requestMap.entrySet())
@@ -102,11 +155,6 @@ public class ProcyonDecompiler extends AbstractDecompiler
                             new ClasspathTypeLoader());
                 settings.setTypeLoader(typeLoader);
                 settingsByOutputDirectory.put(mainRequest.getOutputDirectory(), settings);
-
-                final Queue<MetadataSystem> metadataSystemCache = new LinkedList<>();
-                refreshMetadataCache(metadataSystemCache, settings);
-                metadataSystemCaches.put(mainRequest.getOutputDirectory(), metadataSystemCache);
-
                 countByOutputDirectory.put(mainRequest.getOutputDirectory(), new AtomicInteger(1));
             }
             else
@@ -119,7 +167,6 @@ public class ProcyonDecompiler extends AbstractDecompiler
         {
             final ClassDecompileRequest mainRequest = entry.getValue().get(0);
 
-            // TODO - This approach is a hack, but it should work around the Procyon decompiler hangs for now
             Callable<File> callable = new Callable<File>()
             {
                 @Override
@@ -127,44 +174,18 @@ public class ProcyonDecompiler extends AbstractDecompiler
                 {
                     List<String> classFilePaths = pathsFromDecompilationRequests(entry.getValue());
                     final DecompilerSettings settings = settingsByOutputDirectory.get(mainRequest.getOutputDirectory());
-                    Queue<MetadataSystem> metadataSystemCache = metadataSystemCaches.get(mainRequest.getOutputDirectory());
 
-                    MetadataSystem metadataSystem = null;
                     try
                     {
-                        synchronized (metadataSystemCache)
-                        {
-                            if (current.incrementAndGet() % 50 == 0)
-                            {
-                                log.info("Decompiling " + current + " / " + requestMap.size());
-                                refreshMetadataCache(metadataSystemCache, settings);
-                            }
-                            metadataSystem = metadataSystemCache.remove();
-                        }
+                        if (current.incrementAndGet() % 50 == 0)
+                            log.info("Decompiling " + current + " / " + requestMap.size());
 
                         ExecutionStatistics.get().begin("ProcyonDecompiler.decompileIndividualItem");
                         String typeName = mainRequest.getClassFile().normalize().toAbsolutePath().toString()
                                     .substring(mainRequest.getRootDirectory().normalize().toAbsolutePath().toString().length() + 1);
                         typeName = StringUtils.removeEnd(typeName, ".class");
-                        final DecompileExecutor t = new DecompileExecutor(settings, metadataSystem, typeName);
-                        // TODO - This approach is a hack, but it should work around the Procyon decompiler hangs
-                        // for now
-                        t.start();
-                        t.join(60000L); // wait up to ten seconds
-                        if (!t.success)
-                        {
-                            if (t.e == null)
-                            {
-                                t.cancelDecompilation();
-                                throw new RuntimeException("Failed to decompile within 60 seconds... attempting abort", t.e);
-                            }
-                            else
-                            {
-                                throw new RuntimeException(t.e);
-                            }
-                        }
 
-                        File outputFile = t.outputFile;
+                        File outputFile = decompileTypeOnWorker(settings, typeName);
                         if (outputFile != null)
                             listener.fileDecompiled(classFilePaths, outputFile.getAbsolutePath());
                         return outputFile;
@@ -178,19 +199,8 @@ public class ProcyonDecompiler extends AbstractDecompiler
                     }
                     finally
                     {
-                        if (metadataSystem != null)
-                        {
-                            synchronized (metadataSystemCache)
-                            {
-                                metadataSystemCache.add(metadataSystem);
-                            }
-                        }
-
                         if (countByOutputDirectory.get(mainRequest.getOutputDirectory()).decrementAndGet() == 0)
-                        {
                             settingsByOutputDirectory.remove(mainRequest.getOutputDirectory());
-                            metadataSystemCaches.remove(mainRequest.getOutputDirectory());
-                        }
                         ExecutionStatistics.get().end("ProcyonDecompiler.decompileIndividualItem");
                     }
                     return null;
@@ -373,9 +383,6 @@ public class ProcyonDecompiler extends AbstractDecompiler
             final Enumeration<JarEntry> entries = jar.entries();
             Collection<Callable<File>> tasks = new ArrayList<>();
 
-            final Queue<MetadataSystem> metadataSystemCache = new LinkedList<>();
-            refreshMetadataCache(metadataSystemCache, settings);
-
             while (entries.hasMoreElements())
             {
                 final JarEntry entry = entries.nextElement();
@@ -405,45 +412,18 @@ public class ProcyonDecompiler extends AbstractDecompiler
 
                 final String typeName = StringUtils.removeEnd(name, ".class");
 
-                // TODO - This approach is a hack, but it should work around the Procyon decompiler hangs for now
                 Callable<File> callable = new Callable<File>()
                 {
                     @Override
                     public File call() throws Exception
                     {
-                        MetadataSystem metadataSystem = null;
                         try
                         {
-                            synchronized (metadataSystemCache)
-                            {
-                                if (current.incrementAndGet() % 50 == 0)
-                                {
-                                    log.info("Decompiling " + current + " / " + jarEntryCount);
-                                    refreshMetadataCache(metadataSystemCache, settings);
-                                }
-                                metadataSystem = metadataSystemCache.remove();
-                            }
+                            if (current.incrementAndGet() % 50 == 0)
+                                log.info("Decompiling " + current + " / " + jarEntryCount);
 
                             ExecutionStatistics.get().begin("ProcyonDecompiler.decompileIndividualItem");
-                            final DecompileExecutor t = new DecompileExecutor(settings, metadataSystem, typeName);
-                            // TODO - This approach is a hack, but it should work around the Procyon decompiler hangs
-                            // for now
-                            t.start();
-                            t.join(60000L); // timeout if it is taking too long
-                            if (!t.success)
-                            {
-                                if (t.e == null)
-                                {
-                                    t.cancelDecompilation();
-                                    throw new RuntimeException("Failed to decompile file within 60 seconds... attempting abort", t.e);
-                                }
-                                else
-                                {
-                                    throw new RuntimeException(t.e);
-                                }
-                            }
-
-                            File outputFile = t.outputFile;
+                            File outputFile = decompileTypeOnWorker(settings, typeName);
                             if (outputFile != null)
                             {
                                 listener.fileDecompiled(Collections.singletonList(name), outputFile.getAbsolutePath());
@@ -461,13 +441,6 @@ public class ProcyonDecompiler extends AbstractDecompiler
                         }
                         finally
                         {
-                            if (metadataSystem != null)
-                            {
-                                synchronized (metadataSystemCache)
-                                {
-                                    metadataSystemCache.add(metadataSystem);
-                                }
-                            }
                             ExecutionStatistics.get().end("ProcyonDecompiler.decompileIndividualItem");
                         }
                         return null;
@@ -502,77 +475,6 @@ public class ProcyonDecompiler extends AbstractDecompiler
         }
     }
 
-    /**
-     * The metadata cache can become huge over time. This simply flushes it periodically.
-     */
-    private void refreshMetadataCache(final Queue<MetadataSystem> metadataSystemCache, final DecompilerSettings settings)
-    {
-        metadataSystemCache.clear();
-        for (int i = 0; i < this.getNumberOfThreads(); i++)
-        {
-            metadataSystemCache.add(new NoRetryMetadataSystem(settings.getTypeLoader()));
-        }
-    }
-
-    private class DecompileExecutor extends Thread
-    {
-        private DecompilerSettings settings;
-        private MetadataSystem metadataSystem;
-        private String typeName;
-        private Exception e;
-        private File outputFile;
-        private boolean success;
-
-        public DecompileExecutor(DecompilerSettings settings, MetadataSystem metadataSystem, String typeName)
-        {
-            this.settings = settings;
-            this.metadataSystem = metadataSystem;
-            this.typeName = typeName;
-            setDaemon(true);
-        }
-
-        @Override
-        public void run()
-        {
-            try
-            {
-                this.outputFile = decompileType(settings, metadataSystem, typeName);
-                this.success = true;
-            }
-            catch (Exception e)
-            {
-                this.e = e;
-            }
-        }
-
-        @SuppressWarnings("deprecation")
-        public void cancelDecompilation()
-        {
-            this.interrupt();
-
-            // sleep up to 10 seconds
-            for (int i = 0; i < 10; i++)
-            {
-                if (this.isAlive())
-                {
-                    try
-                    {
-                        Thread.sleep(1000L);
-                    }
-                    catch (InterruptedException e)
-                    {
-                        throw new WindupException("Interrupted while attempting to abort thread", e);
-                    }
-                }
-            }
-            if (this.isAlive())
-            {
-                // make one last (desperate) attempt to kill it
-                this.stop();
-            }
-        }
-    }
-
     /**
      * Decompiles a single type.
      * 
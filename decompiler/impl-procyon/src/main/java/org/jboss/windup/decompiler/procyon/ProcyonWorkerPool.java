@@ -0,0 +1,275 @@
+package org.jboss.windup.decompiler.procyon;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.NoRetryMetadataSystem;
+import com.strobel.decompiler.DecompilerSettings;
+
+/**
+ * A pool of long lived threads that run Procyon. Each worker keeps its own {@link MetadataSystem} for each of the {@link DecompilerSettings} (and
+ * therefore type loader) that it has recently been used with, so that the loaded types are reused between classes without any locking.
+ *
+ * Procyon can hang on some classes. If a class takes longer than the timeout, the worker running it is interrupted and replaced by a new one. A
+ * worker that does not react to the interrupt is left to finish on its own (it is a daemon thread, and never gets another task).
+ *
+ * Closing the pool cancels the running and queued decompilations, and callers that are still waiting for a free worker fail within
+ * {@link #IDLE_WORKER_POLL_MILLIS}.
+ */
+class ProcyonWorkerPool implements AutoCloseable
+{
+    private static final Logger log = Logger.getLogger(ProcyonWorkerPool.class.getName());
+
+    /**
+     * The metadata system can become huge over time, so it is replaced after it has been used for this many classes.
+     */
+    private static final int METADATA_SYSTEM_REFRESH_INTERVAL = 250;
+
+    /**
+     * The maximum number of metadata systems (one per {@link DecompilerSettings}) that each worker keeps.
+     */
+    private static final int MAX_METADATA_SYSTEMS_PER_WORKER = 4;
+
+    private static final long ABORT_WAIT_MILLIS = 10000L;
+
+    /**
+     * How often callers that are waiting for a free worker check whether the pool has been closed.
+     */
+    static final long IDLE_WORKER_POLL_MILLIS = 100L;
+
+    private final AtomicInteger workerIndex = new AtomicInteger(0);
+    private final BlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<>();
+    private final Set<Worker> workers = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    ProcyonWorkerPool(int size)
+    {
+        for (int i = 0; i < size; i++)
+            idleWorkers.add(startWorker());
+    }
+
+    /**
+     * Decompiles a type on one of the workers. This waits for a free worker, and then for up to the given timeout for the decompilation to
+     * complete.
+     */
+    File decompile(final DecompilerSettings settings, final Decompilation decompilation, long timeoutMillis) throws Exception
+    {
+        final Worker worker = takeIdleWorker();
+        FutureTask<File> task = new FutureTask<>(new Callable<File>()
+        {
+            @Override
+            public File call() throws Exception
+            {
+                return decompilation.decompile(worker.getMetadataSystem(settings));
+            }
+        });
+        worker.tasks.add(task);
+        // the pool may have been closed (and the worker aborted) after the worker was taken
+        if (closed)
+            task.cancel(true);
+
+        try
+        {
+            File result = task.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            release(worker);
+            return result;
+        }
+        catch (ExecutionException e)
+        {
+            release(worker);
+            if (e.getCause() instanceof Exception)
+                throw (Exception) e.getCause();
+            else
+                throw e;
+        }
+        catch (CancellationException e)
+        {
+            throw new IllegalStateException("The decompiler was closed before the decompilation completed", e);
+        }
+        catch (TimeoutException e)
+        {
+            replace(worker);
+            throw new RuntimeException("Failed to decompile within " + (timeoutMillis / 1000) + " seconds... attempting abort", e);
+        }
+        catch (InterruptedException e)
+        {
+            replace(worker);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        for (Worker worker : workers)
+            worker.abort();
+        workers.clear();
+        idleWorkers.clear();
+    }
+
+    /**
+     * Waits for a free worker, failing if the pool is closed in the meantime.
+     */
+    private Worker takeIdleWorker() throws InterruptedException
+    {
+        while (true)
+        {
+            if (closed)
+                throw new IllegalStateException("The decompiler has already been closed");
+
+            Worker worker = idleWorkers.poll(IDLE_WORKER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (worker != null)
+            {
+                if (!closed)
+                    return worker;
+
+                worker.abort();
+            }
+        }
+    }
+
+    /**
+     * Returns the worker to the pool, or stops it if the pool has been closed.
+     */
+    private void release(Worker worker)
+    {
+        if (closed)
+            worker.abort();
+        else
+            idleWorkers.add(worker);
+    }
+
+    private Worker startWorker()
+    {
+        Worker worker = new Worker("ProcyonWorker-" + workerIndex.incrementAndGet());
+        workers.add(worker);
+        worker.start();
+        return worker;
+    }
+
+    /**
+     * Aborts the given (hanging) worker, and adds a new one to the pool in its place.
+     */
+    private void replace(Worker worker)
+    {
+        workers.remove(worker);
+        if (!closed)
+            idleWorkers.add(startWorker());
+
+        worker.abort();
+        try
+        {
+            worker.join(ABORT_WAIT_MILLIS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if (worker.isAlive())
+            log.warning("Decompiler thread " + worker.getName() + " did not react to being interrupted, and is left to finish on its own");
+    }
+
+    /**
+     * Decompiles a single type with the given {@link MetadataSystem}.
+     */
+    interface Decompilation
+    {
+        File decompile(MetadataSystem metadataSystem) throws Exception;
+    }
+
+    private static class Worker extends Thread
+    {
+        private final BlockingQueue<FutureTask<File>> tasks = new LinkedBlockingQueue<>();
+        private volatile FutureTask<File> current;
+        private final Map<DecompilerSettings, CachedMetadataSystem> metadataSystems = new LinkedHashMap<DecompilerSettings, CachedMetadataSystem>(
+                    MAX_METADATA_SYSTEMS_PER_WORKER + 1, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DecompilerSettings, CachedMetadataSystem> eldest)
+            {
+                return size() > MAX_METADATA_SYSTEMS_PER_WORKER;
+            }
+        };
+
+        public Worker(String name)
+        {
+            super(name);
+            setDaemon(true);
+        }
+
+        /**
+         * Cancels the queued and running decompilations, and stops this worker.
+         */
+        void abort()
+        {
+            // cancelled first, so that the callers see the cancellation rather than the failure caused by the interrupt
+            FutureTask<File> running = current;
+            if (running != null)
+                running.cancel(true);
+            FutureTask<File> task;
+            while ((task = tasks.poll()) != null)
+                task.cancel(true);
+            interrupt();
+        }
+
+        /**
+         * Only called on this worker's own thread.
+         */
+        MetadataSystem getMetadataSystem(DecompilerSettings settings)
+        {
+            CachedMetadataSystem cached = metadataSystems.get(settings);
+            if (cached == null || cached.uses >= METADATA_SYSTEM_REFRESH_INTERVAL)
+            {
+                cached = new CachedMetadataSystem(new NoRetryMetadataSystem(settings.getTypeLoader()));
+                metadataSystems.put(settings, cached);
+            }
+            cached.uses++;
+            return cached.metadataSystem;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                while (!isInterrupted())
+                {
+                    current = tasks.take();
+                    current.run();
+                    current = null;
+                }
+            }
+            catch (InterruptedException e)
+            {
+                // the pool has been closed, or this worker has been replaced
+            }
+        }
+    }
+
+    private static class CachedMetadataSystem
+    {
+        private final MetadataSystem metadataSystem;
+        private int uses;
+
+        public CachedMetadataSystem(MetadataSystem metadataSystem)
+        {
+            this.metadataSystem = metadataSystem;
+        }
+    }
+}
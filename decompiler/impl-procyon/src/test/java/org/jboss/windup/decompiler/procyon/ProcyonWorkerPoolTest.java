@@ -0,0 +1,136 @@
+package org.jboss.windup.decompiler.procyon;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.strobel.assembler.InputTypeLoader;
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.decompiler.DecompilerSettings;
+
+public class ProcyonWorkerPoolTest
+{
+    private static final long TIMEOUT_MILLIS = 60000L;
+
+    @Test
+    public void testDecompile() throws Exception
+    {
+        final File expected = new File("Decompiled.java");
+        try (ProcyonWorkerPool pool = new ProcyonWorkerPool(1))
+        {
+            File result = pool.decompile(createSettings(), new ProcyonWorkerPool.Decompilation()
+            {
+                @Override
+                public File decompile(MetadataSystem metadataSystem)
+                {
+                    Assert.assertNotNull(metadataSystem);
+                    return expected;
+                }
+            }, TIMEOUT_MILLIS);
+            Assert.assertSame(expected, result);
+        }
+    }
+
+    /**
+     * The only worker is busy, so the second caller waits for it. Closing the pool must fail both callers, instead of leaving the waiting one
+     * blocked forever.
+     */
+    @Test
+    public void testCloseWhileWorkIsQueued() throws Exception
+    {
+        final ProcyonWorkerPool pool = new ProcyonWorkerPool(1);
+        final DecompilerSettings settings = createSettings();
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try
+        {
+            Future<File> busy = callers.submit(new Callable<File>()
+            {
+                @Override
+                public File call() throws Exception
+                {
+                    return pool.decompile(settings, new ProcyonWorkerPool.Decompilation()
+                    {
+                        @Override
+                        public File decompile(MetadataSystem metadataSystem) throws Exception
+                        {
+                            running.countDown();
+                            release.await();
+                            return null;
+                        }
+                    }, TIMEOUT_MILLIS);
+                }
+            });
+            Assert.assertTrue(running.await(10, TimeUnit.SECONDS));
+
+            Future<File> queued = callers.submit(new Callable<File>()
+            {
+                @Override
+                public File call() throws Exception
+                {
+                    return pool.decompile(settings, new ProcyonWorkerPool.Decompilation()
+                    {
+                        @Override
+                        public File decompile(MetadataSystem metadataSystem)
+                        {
+                            Assert.fail("The pool was closed before a worker was free");
+                            return null;
+                        }
+                    }, TIMEOUT_MILLIS);
+                }
+            });
+            Thread.sleep(3 * ProcyonWorkerPool.IDLE_WORKER_POLL_MILLIS);
+            Assert.assertFalse(queued.isDone());
+
+            pool.close();
+
+            assertClosed(queued);
+            assertClosed(busy);
+        }
+        finally
+        {
+            release.countDown();
+            callers.shutdownNow();
+        }
+
+        try
+        {
+            pool.decompile(settings, null, TIMEOUT_MILLIS);
+            Assert.fail("A closed pool should not accept any more work");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+    }
+
+    private static DecompilerSettings createSettings()
+    {
+        DecompilerSettings settings = new DecompilerSettings();
+        settings.setTypeLoader(new InputTypeLoader());
+        return settings;
+    }
+
+    private void assertClosed(Future<File> future) throws Exception
+    {
+        try
+        {
+            future.get(10, TimeUnit.SECONDS);
+            Assert.fail("The decompilation should have failed, as the pool was closed");
+        }
+        catch (ExecutionException e)
+        {
+            Assert.assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
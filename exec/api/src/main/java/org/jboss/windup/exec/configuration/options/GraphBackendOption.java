@@ -0,0 +1,97 @@
+package org.jboss.windup.exec.configuration.options;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.jboss.windup.config.AbstractConfigurationOption;
+import org.jboss.windup.config.InputType;
+import org.jboss.windup.config.ValidationResult;
+import org.jboss.windup.graph.GraphBackend;
+
+/**
+ * Specifies where the graph is stored during the execution. With {@link #BERKELEYJE} (the default), the graph is stored on disk in the "graph"
+ * directory of the output, and can be loaded again after the execution (for example, by the tooling). With {@link #INMEMORY}, and with
+ * {@link #AUTO} for small inputs, the graph is only kept in memory, and the output directory then only contains the reports.
+ */
+public class GraphBackendOption extends AbstractConfigurationOption
+{
+    public static final String NAME = "graphBackend";
+
+    public static final String AUTO = "auto";
+    public static final String INMEMORY = "inmemory";
+    public static final String BERKELEYJE = "berkeleyje";
+
+    @Override
+    public Collection<?> getAvailableValues()
+    {
+        return Arrays.asList(AUTO, INMEMORY, BERKELEYJE);
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public String getLabel()
+    {
+        return "Graph Storage Backend";
+    }
+
+    @Override
+    public String getDescription()
+    {
+        return "Where to store the graph: \"" + BERKELEYJE + "\" (on disk, so that it can be loaded again after the execution, default), \""
+                    + INMEMORY + "\" (faster, but the graph is not kept after the execution), or \"" + AUTO
+                    + "\" to keep it in memory only for small inputs.";
+    }
+
+    @Override
+    public InputType getUIType()
+    {
+        return InputType.SELECT_ONE;
+    }
+
+    @Override
+    public Class<String> getType()
+    {
+        return String.class;
+    }
+
+    @Override
+    public boolean isRequired()
+    {
+        return false;
+    }
+
+    @Override
+    public Object getDefaultValue()
+    {
+        return BERKELEYJE;
+    }
+
+    @Override
+    public ValidationResult validate(Object value)
+    {
+        if (value != null && !getAvailableValues().contains(value))
+            return new ValidationResult(ValidationResult.Level.ERROR,
+                        NAME + " value (" + value + ") not found, must be one of: " + getAvailableValues());
+
+        return ValidationResult.SUCCESS;
+    }
+
+    /**
+     * Gets the {@link GraphBackend} for the given option value, or null if it should be selected automatically. If no value was given, this
+     * returns {@link GraphBackend#BERKELEYJE}.
+     */
+    public static GraphBackend getBackend(Object value)
+    {
+        if (AUTO.equals(value))
+            return null;
+        else if (INMEMORY.equals(value))
+            return GraphBackend.INMEMORY;
+        else
+            return GraphBackend.BERKELEYJE;
+    }
+}
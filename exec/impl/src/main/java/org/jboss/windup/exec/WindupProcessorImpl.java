@@ -1,6 +1,11 @@
 package org.jboss.windup.exec;
 
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
@@ -38,6 +43,7 @@ import org.jboss.windup.config.phase.ReportGenerationPhase;
 import org.jboss.windup.config.phase.ReportRenderingPhase;
 import org.jboss.windup.exec.configuration.WindupConfiguration;
 import org.jboss.windup.exec.configuration.options.ExcludeTagsOption;
+import org.jboss.windup.exec.configuration.options.GraphBackendOption;
 import org.jboss.windup.exec.configuration.options.IncludeTagsOption;
 import org.jboss.windup.exec.configuration.options.SourceOption;
 import org.jboss.windup.exec.configuration.options.TargetOption;
@@ -45,6 +51,7 @@ import org.jboss.windup.exec.rulefilters.AndPredicate;
 import org.jboss.windup.exec.rulefilters.RuleProviderPhasePredicate;
 import org.jboss.windup.exec.rulefilters.SourceAndTargetPredicate;
 import org.jboss.windup.exec.rulefilters.TaggedRuleProviderPredicate;
+import org.jboss.windup.graph.GraphBackend;
 import org.jboss.windup.graph.GraphContext;
 import org.jboss.windup.graph.GraphContextFactory;
 import org.jboss.windup.graph.model.TechnologyReferenceModel;
@@ -73,6 +80,13 @@ public class WindupProcessorImpl implements WindupProcessor
 {
     private static final Logger LOG = Logging.get(WindupProcessorImpl.class);
 
+    /**
+     * The system property that sets the combined input size (in bytes) up to which the graph is kept in memory, if the {@link GraphBackendOption}
+     * is set to {@link GraphBackendOption#AUTO}.
+     */
+    public static final String IN_MEMORY_GRAPH_THRESHOLD_PROPERTY = "windup.graph.inMemoryThreshold";
+    private static final long DEFAULT_IN_MEMORY_GRAPH_THRESHOLD = 20L * 1024L * 1024L;
+
     @Inject
     private RuleLoader ruleLoader;
 
@@ -101,7 +115,7 @@ public class WindupProcessorImpl implements WindupProcessor
             // Since we created it, we should clean it up
             autoCloseGraph = true;
             Path graphPath = configuration.getOutputDirectory().resolve(GraphContextFactory.DEFAULT_GRAPH_SUBDIRECTORY);
-            GraphContext graphContext = this.graphContextFactory.create(graphPath);
+            GraphContext graphContext = this.graphContextFactory.create(graphPath, selectGraphBackend(configuration));
             configuration.setGraphContext(graphContext);
         }
 
@@ -348,6 +362,68 @@ public class WindupProcessorImpl implements WindupProcessor
         Checks.checkDirectoryToBeFilled(outputDirectory.toFile(), "Output directory");
     }
 
+    /**
+     * Uses the {@link GraphBackend} from the {@link GraphBackendOption} ({@link GraphBackend#BERKELEYJE} by default). With
+     * {@link GraphBackendOption#AUTO}, the graph is kept in memory for small inputs, unless the reports will not be rendered or the work
+     * directories are kept (in which case the graph on disk is one of the results of the execution).
+     */
+    private GraphBackend selectGraphBackend(WindupConfiguration configuration)
+    {
+        GraphBackend backend = GraphBackendOption.getBackend(configuration.getOptionValue(GraphBackendOption.NAME));
+        if (backend != null)
+            return backend;
+
+        if (Boolean.TRUE.equals(configuration.getOptionValue(SkipReportsRenderingOption.NAME)))
+        {
+            LOG.info("Using graph backend " + GraphBackend.BERKELEYJE + " (reports rendering is skipped)");
+            return GraphBackend.BERKELEYJE;
+        }
+
+        if (Boolean.TRUE.equals(configuration.getOptionValue(KeepWorkDirsOption.NAME)))
+        {
+            LOG.info("Using graph backend " + GraphBackend.BERKELEYJE + " (work directories are kept)");
+            return GraphBackend.BERKELEYJE;
+        }
+
+        long threshold = Long.getLong(IN_MEMORY_GRAPH_THRESHOLD_PROPERTY, DEFAULT_IN_MEMORY_GRAPH_THRESHOLD);
+        long inputSize = getInputSize(configuration.getInputPaths(), threshold);
+        backend = inputSize <= threshold ? GraphBackend.INMEMORY : GraphBackend.BERKELEYJE;
+        LOG.info("Using graph backend " + backend + " (input size " + (inputSize > threshold ? "over " + threshold : inputSize) + " bytes)");
+        return backend;
+    }
+
+    /**
+     * Gets the combined size of all files in the given paths. This stops counting once the size exceeds the given limit.
+     */
+    private long getInputSize(Collection<Path> inputPaths, final long limit)
+    {
+        final long[] size = new long[1];
+        try
+        {
+            for (Path inputPath : inputPaths)
+            {
+                Files.walkFileTree(inputPath, new SimpleFileVisitor<Path>()
+                {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                    {
+                        size[0] += attrs.size();
+                        return size[0] > limit ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                    }
+                });
+
+                if (size[0] > limit)
+                    break;
+            }
+        }
+        catch (IOException e)
+        {
+            LOG.log(Level.WARNING, "Failed to determine the size of the input due to: " + e.getMessage(), e);
+            return Long.MAX_VALUE;
+        }
+        return size[0];
+    }
+
     private void printConfigInfo(WindupConfiguration windupConfiguration)
     {
         LOG.info("");
@@ -0,0 +1,483 @@
+package com.tinkerpop.frames;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javassist.bytecode.AccessFlag;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.DuplicateMemberException;
+import javassist.bytecode.FieldInfo;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+
+/**
+ * Creates the frame instances for a {@link FramedGraph}.
+ *
+ * For each combination of frame interfaces, this generates a class that implements all of the interfaces. Each method of the class calls the
+ * {@link FramedMethod} that was resolved for it when the class was generated, so calls do not go through {@link Proxy} and do not need to look
+ * up the handler of the method. The classes are defined in a separate class loader for each {@link FramedGraph}, so they can be unloaded along
+ * with the graph.
+ *
+ * If a class cannot be generated for some combination of interfaces (for example, because one of them is not public), a {@link Proxy} is
+ * used for it instead, as before.
+ */
+class FrameClassFactory
+{
+    private static final Logger LOG = Logger.getLogger(FrameClassFactory.class.getName());
+
+    private static final String FRAMES_PACKAGE_PREFIX = FramedGraph.class.getPackage().getName() + ".";
+    private static final String GENERATED_CLASS_PREFIX = FRAMES_PACKAGE_PREFIX + "generated.Frame$";
+    private static final String FRAMED_METHOD = FramedMethod.class.getName();
+    private static final String METHODS_FIELD = "METHODS";
+    private static final String ELEMENT_FIELD = "element";
+    private static final String INVOKE_DESCRIPTOR = "(Ljava/lang/Object;" + descriptor(FramedElement.class) + "[Ljava/lang/Object;)Ljava/lang/Object;";
+
+    private static final AtomicInteger classIndex = new AtomicInteger(0);
+
+    private final FramedGraph<?> framedGraph;
+    private final ConcurrentMap<ClassLoader, GeneratedClassLoader> classLoaders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Collection<Class<?>>, FrameClass> frameClasses = new ConcurrentHashMap<>();
+
+    FrameClassFactory(FramedGraph<?> framedGraph)
+    {
+        this.framedGraph = framedGraph;
+    }
+
+    /**
+     * Creates a frame that implements all of the given interfaces, for the given element.
+     */
+    Object createFrame(ClassLoader classLoader, Class<?> kind, Collection<Class<?>> types, FramedElement framedElement)
+    {
+        FrameClass frameClass = frameClasses.get(types);
+        if (frameClass == null)
+        {
+            frameClass = createFrameClass(classLoader, kind, types);
+            FrameClass existing = frameClasses.putIfAbsent(new HashSet<>(types), frameClass);
+            if (existing != null)
+                frameClass = existing;
+        }
+
+        if (frameClass.constructor == null)
+            return Proxy.newProxyInstance(classLoader, types.toArray(new Class[types.size()]), framedElement);
+
+        try
+        {
+            return frameClass.constructor.newInstance(framedElement);
+        }
+        catch (InstantiationException | IllegalAccessException | InvocationTargetException e)
+        {
+            throw new RuntimeException("Failed to create frame for: " + types, e);
+        }
+    }
+
+    private FrameClass createFrameClass(ClassLoader classLoader, Class<?> kind, Collection<Class<?>> types)
+    {
+        GeneratedClassLoader generatedClassLoader = classLoaders.get(classLoader);
+        if (generatedClassLoader == null)
+        {
+            generatedClassLoader = new GeneratedClassLoader(classLoader);
+            GeneratedClassLoader existing = classLoaders.putIfAbsent(classLoader, generatedClassLoader);
+            if (existing != null)
+                generatedClassLoader = existing;
+        }
+
+        Class<?>[] interfaces = types.toArray(new Class[types.size()]);
+        try
+        {
+            String unsupported = getUnsupportedType(generatedClassLoader, interfaces);
+            if (unsupported != null)
+            {
+                LOG.fine("Using a proxy for frame " + types + ", as a class cannot be generated for it: " + unsupported);
+                return new FrameClass(null);
+            }
+
+            Class<?> generatedClass = generateClass(generatedClassLoader, kind, interfaces);
+            return new FrameClass(generatedClass.getConstructor(FramedElement.class));
+        }
+        catch (Exception | LinkageError e)
+        {
+            LOG.log(Level.WARNING, "Failed to generate class for frame " + types + ", using a proxy instead", e);
+            return new FrameClass(null);
+        }
+    }
+
+    private Class<?> generateClass(GeneratedClassLoader classLoader, Class<?> kind, Class<?>[] interfaces) throws IOException, ReflectiveOperationException, DuplicateMemberException
+    {
+        String className = GENERATED_CLASS_PREFIX + kind.getSimpleName() + "$" + classIndex.incrementAndGet();
+
+        ClassFile classFile = new ClassFile(false, className, Object.class.getName());
+        classFile.setMajorVersion(ClassFile.JAVA_5);
+        classFile.setAccessFlags(AccessFlag.PUBLIC | AccessFlag.FINAL | AccessFlag.SUPER);
+        String[] interfaceNames = new String[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++)
+            interfaceNames[i] = interfaces[i].getName();
+        classFile.setInterfaces(interfaceNames);
+
+        ConstPool constPool = classFile.getConstPool();
+        FieldInfo methodsField = new FieldInfo(constPool, METHODS_FIELD, "[" + descriptor(FramedMethod.class));
+        methodsField.setAccessFlags(AccessFlag.PUBLIC | AccessFlag.STATIC);
+        classFile.addField(methodsField);
+        FieldInfo elementField = new FieldInfo(constPool, ELEMENT_FIELD, descriptor(FramedElement.class));
+        elementField.setAccessFlags(AccessFlag.PRIVATE | AccessFlag.FINAL);
+        classFile.addField(elementField);
+
+        addConstructor(classFile);
+
+        List<Method> methods = getMethods(interfaces);
+        FramedMethod[] framedMethods = new FramedMethod[methods.size()];
+        for (int i = 0; i < methods.size(); i++)
+        {
+            Method method = methods.get(i);
+            framedMethods[i] = FramedMethod.resolve(framedGraph.getConfig(), method);
+            addMethod(classFile, method, i);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes))
+        {
+            classFile.write(out);
+        }
+        Class<?> generatedClass = classLoader.define(className, bytes.toByteArray());
+        generatedClass.getField(METHODS_FIELD).set(null, framedMethods);
+        return generatedClass;
+    }
+
+    private void addConstructor(ClassFile classFile) throws DuplicateMemberException
+    {
+        ConstPool constPool = classFile.getConstPool();
+        Bytecode code = new Bytecode(constPool, 0, 2);
+        code.addAload(0);
+        code.addInvokespecial(Object.class.getName(), MethodInfo.nameInit, "()V");
+        code.addAload(0);
+        code.addAload(1);
+        code.addPutfield(classFile.getName(), ELEMENT_FIELD, descriptor(FramedElement.class));
+        code.addOpcode(Opcode.RETURN);
+
+        MethodInfo constructor = new MethodInfo(constPool, MethodInfo.nameInit, "(" + descriptor(FramedElement.class) + ")V");
+        constructor.setAccessFlags(AccessFlag.PUBLIC);
+        constructor.setCodeAttribute(code.toCodeAttribute());
+        classFile.addMethod(constructor);
+    }
+
+    /**
+     * Adds a method that calls <code>METHODS[index].invoke(this, element, arguments)</code>, and converts the result to the return type.
+     */
+    private void addMethod(ClassFile classFile, Method method, int index) throws DuplicateMemberException
+    {
+        ConstPool constPool = classFile.getConstPool();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Bytecode code = new Bytecode(constPool, 0, 0);
+
+        code.addGetstatic(classFile.getName(), METHODS_FIELD, "[" + descriptor(FramedMethod.class));
+        code.addIconst(index);
+        code.addOpcode(Opcode.AALOAD);
+        code.addAload(0);
+        code.addAload(0);
+        code.addGetfield(classFile.getName(), ELEMENT_FIELD, descriptor(FramedElement.class));
+
+        int local = 1;
+        if (parameterTypes.length == 0)
+        {
+            // the same as for a proxy
+            code.addOpcode(Opcode.ACONST_NULL);
+        }
+        else
+        {
+            code.addIconst(parameterTypes.length);
+            code.addAnewarray(Object.class.getName());
+            for (int i = 0; i < parameterTypes.length; i++)
+            {
+                code.addOpcode(Opcode.DUP);
+                code.addIconst(i);
+                local += addLoadArgument(code, parameterTypes[i], local);
+                code.addOpcode(Opcode.AASTORE);
+            }
+        }
+        code.addInvokevirtual(FRAMED_METHOD, "invoke", INVOKE_DESCRIPTOR);
+        addReturn(code, method.getReturnType());
+        code.setMaxLocals(local);
+
+        MethodInfo methodInfo = new MethodInfo(constPool, method.getName(), descriptor(method));
+        methodInfo.setAccessFlags(AccessFlag.PUBLIC);
+        methodInfo.setCodeAttribute(code.toCodeAttribute());
+        classFile.addMethod(methodInfo);
+    }
+
+    /**
+     * Loads the argument in the given local variable and boxes it if needed. Returns the number of local variable slots used by the argument.
+     */
+    private int addLoadArgument(Bytecode code, Class<?> type, int local)
+    {
+        if (!type.isPrimitive())
+        {
+            code.addAload(local);
+            return 1;
+        }
+
+        Class<?> wrapper = getWrapper(type);
+        int size = 1;
+        if (type == long.class)
+        {
+            code.addLload(local);
+            size = 2;
+        }
+        else if (type == double.class)
+        {
+            code.addDload(local);
+            size = 2;
+        }
+        else if (type == float.class)
+        {
+            code.addFload(local);
+        }
+        else
+        {
+            code.addIload(local);
+        }
+        code.addInvokestatic(wrapper.getName(), "valueOf", "(" + descriptor(type) + ")" + descriptor(wrapper));
+        return size;
+    }
+
+    private void addReturn(Bytecode code, Class<?> returnType)
+    {
+        if (returnType == void.class)
+        {
+            code.addOpcode(Opcode.POP);
+            code.addOpcode(Opcode.RETURN);
+        }
+        else if (!returnType.isPrimitive())
+        {
+            if (returnType != Object.class)
+                code.addCheckcast(returnType.getName());
+            code.addOpcode(Opcode.ARETURN);
+        }
+        else
+        {
+            Class<?> wrapper = getWrapper(returnType);
+            code.addCheckcast(wrapper.getName());
+            code.addInvokevirtual(wrapper.getName(), returnType.getName() + "Value", "()" + descriptor(returnType));
+            if (returnType == long.class)
+                code.addOpcode(Opcode.LRETURN);
+            else if (returnType == double.class)
+                code.addOpcode(Opcode.DRETURN);
+            else if (returnType == float.class)
+                code.addOpcode(Opcode.FRETURN);
+            else
+                code.addOpcode(Opcode.IRETURN);
+        }
+    }
+
+    /**
+     * Gets the methods that the generated class has to implement. If several interfaces declare the same method, the annotated declaration of the
+     * most specific interface is used, as the handler is chosen by its annotations.
+     */
+    private static List<Method> getMethods(Class<?>[] interfaces) throws NoSuchMethodException
+    {
+        Map<String, List<Method>> methodsBySignature = new LinkedHashMap<>();
+        for (Class<?> type : interfaces)
+        {
+            for (Method method : type.getMethods())
+            {
+                if (Modifier.isStatic(method.getModifiers()))
+                    continue;
+                addMethod(methodsBySignature, method);
+            }
+        }
+        addMethod(methodsBySignature, Object.class.getMethod("hashCode"));
+        addMethod(methodsBySignature, Object.class.getMethod("equals", Object.class));
+        addMethod(methodsBySignature, Object.class.getMethod("toString"));
+
+        List<Method> result = new ArrayList<>(methodsBySignature.size());
+        for (List<Method> candidates : methodsBySignature.values())
+        {
+            Method selected = null;
+            for (Method candidate : candidates)
+            {
+                if (candidate.getAnnotations().length == 0)
+                    continue;
+
+                if (selected == null || (selected.getDeclaringClass() != candidate.getDeclaringClass()
+                            && selected.getDeclaringClass().isAssignableFrom(candidate.getDeclaringClass())))
+                    selected = candidate;
+            }
+            result.add(selected != null ? selected : candidates.get(0));
+        }
+        return result;
+    }
+
+    private static void addMethod(Map<String, List<Method>> methodsBySignature, Method method)
+    {
+        String signature = method.getName() + descriptor(method);
+        List<Method> methods = methodsBySignature.get(signature);
+        if (methods == null)
+        {
+            methods = new ArrayList<>();
+            methodsBySignature.put(signature, methods);
+        }
+        methods.add(method);
+    }
+
+    /**
+     * Checks that the generated class will be able to implement the interfaces, and to see the same types in their methods as the interfaces
+     * themselves. Returns a description of the problem, or null if there is none.
+     */
+    private static String getUnsupportedType(ClassLoader classLoader, Class<?>[] interfaces) throws NoSuchMethodException
+    {
+        for (Class<?> type : interfaces)
+        {
+            if (!Modifier.isPublic(type.getModifiers()))
+                return type + " is not public";
+            if (!isVisible(classLoader, type))
+                return type + " is not visible";
+        }
+
+        for (Method method : getMethods(interfaces))
+        {
+            Class<?> returnType = method.getReturnType();
+            while (returnType.isArray())
+                returnType = returnType.getComponentType();
+            if (!returnType.isPrimitive() && !Modifier.isPublic(returnType.getModifiers()))
+                return "the return type of " + method + " is not public";
+
+            List<Class<?>> signatureTypes = new ArrayList<>();
+            signatureTypes.add(returnType);
+            for (Class<?> parameterType : method.getParameterTypes())
+                signatureTypes.add(parameterType);
+
+            for (Class<?> signatureType : signatureTypes)
+            {
+                if (!isVisible(classLoader, signatureType))
+                    return signatureType + " in " + method + " is not visible";
+            }
+        }
+        return null;
+    }
+
+    private static boolean isVisible(ClassLoader classLoader, Class<?> type)
+    {
+        while (type.isArray())
+            type = type.getComponentType();
+        if (type.isPrimitive())
+            return true;
+
+        try
+        {
+            return Class.forName(type.getName(), false, classLoader) == type;
+        }
+        catch (ClassNotFoundException | LinkageError e)
+        {
+            return false;
+        }
+    }
+
+    private static Class<?> getWrapper(Class<?> primitive)
+    {
+        if (primitive == boolean.class)
+            return Boolean.class;
+        else if (primitive == byte.class)
+            return Byte.class;
+        else if (primitive == char.class)
+            return Character.class;
+        else if (primitive == short.class)
+            return Short.class;
+        else if (primitive == int.class)
+            return Integer.class;
+        else if (primitive == long.class)
+            return Long.class;
+        else if (primitive == float.class)
+            return Float.class;
+        else
+            return Double.class;
+    }
+
+    private static String descriptor(Method method)
+    {
+        StringBuilder result = new StringBuilder("(");
+        for (Class<?> parameterType : method.getParameterTypes())
+            result.append(descriptor(parameterType));
+        return result.append(")").append(descriptor(method.getReturnType())).toString();
+    }
+
+    private static String descriptor(Class<?> type)
+    {
+        if (type == void.class)
+            return "V";
+        else if (type == boolean.class)
+            return "Z";
+        else if (type == byte.class)
+            return "B";
+        else if (type == char.class)
+            return "C";
+        else if (type == short.class)
+            return "S";
+        else if (type == int.class)
+            return "I";
+        else if (type == long.class)
+            return "J";
+        else if (type == float.class)
+            return "F";
+        else if (type == double.class)
+            return "D";
+        else if (type.isArray())
+            return type.getName().replace('.', '/');
+        else
+            return "L" + type.getName().replace('.', '/') + ";";
+    }
+
+    private static class FrameClass
+    {
+        private final Constructor<?> constructor;
+
+        public FrameClass(Constructor<?> constructor)
+        {
+            this.constructor = constructor;
+        }
+    }
+
+    /**
+     * Defines the generated classes. Everything else is loaded by the class loader that would have been used for the proxy, except for the
+     * frames classes themselves, which always come from the class loader of the {@link FramedGraph}.
+     */
+    private static class GeneratedClassLoader extends ClassLoader
+    {
+        private static final ClassLoader FRAMES_CLASS_LOADER = FramedGraph.class.getClassLoader();
+
+        public GeneratedClassLoader(ClassLoader parent)
+        {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+        {
+            if (name.startsWith(FRAMES_PACKAGE_PREFIX) && !name.startsWith(GENERATED_CLASS_PREFIX) && FRAMES_CLASS_LOADER != null)
+                return FRAMES_CLASS_LOADER.loadClass(name);
+
+            return super.loadClass(name, resolve);
+        }
+
+        Class<?> define(String name, byte[] bytes)
+        {
+            return defineClass(name, bytes, 0, bytes.length, FramedGraph.class.getProtectionDomain());
+        }
+    }
+}
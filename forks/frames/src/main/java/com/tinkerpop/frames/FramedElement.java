@@ -182,7 +182,7 @@ public class FramedElement implements InvocationHandler {
         return false;
     }
     
-    private Boolean proxyEquals(final Object other) {
+    Boolean proxyEquals(final Object other) {
         if (other instanceof VertexFrame) {
             return this.getElement().equals(((VertexFrame) other).asVertex());
         } if (other instanceof EdgeFrame) {
@@ -194,6 +194,10 @@ public class FramedElement implements InvocationHandler {
         }
     }
 
+    Direction getDirection() {
+        return direction;
+    }
+
     public Element getElement() {
         Element element = elementReference.get();
         if (element == null) {
@@ -1,7 +1,6 @@
 package com.tinkerpop.frames;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
@@ -42,6 +41,7 @@ public class FramedGraph<T extends Graph> implements Graph, WrapperGraph<T> {
 
 	private FramedGraphConfiguration config;
 	private boolean configViaFactory;
+	private final FrameClassFactory frameClassFactory = new FrameClassFactory(this);
 
 	public FramedGraph()
 	{
@@ -109,9 +109,8 @@ public class FramedGraph<T extends Graph> implements Graph, WrapperGraph<T> {
 			resolvedTypes.addAll(Arrays.asList(typeResolver.resolveTypes(
 					vertex, kind)));
 		}
-		return (F) Proxy.newProxyInstance(config.getFrameClassLoaderResolver().resolveClassLoader(kind),
-				resolvedTypes.toArray(new Class[resolvedTypes.size()]),
-				new FramedElement(this, vertex));
+		return (F) frameClassFactory.createFrame(config.getFrameClassLoaderResolver().resolveClassLoader(kind), kind,
+				resolvedTypes, new FramedElement(this, vertex));
 	}
 
 	/**
@@ -145,9 +144,8 @@ public class FramedGraph<T extends Graph> implements Graph, WrapperGraph<T> {
 			resolvedTypes.addAll(Arrays.asList(typeResolver.resolveTypes(edge,
 					kind)));
 		}
-		return (F) Proxy.newProxyInstance(config.getFrameClassLoaderResolver().resolveClassLoader(kind),
-				resolvedTypes.toArray(new Class[resolvedTypes.size()]),
-				new FramedElement(this, edge, direction));
+		return (F) frameClassFactory.createFrame(config.getFrameClassLoaderResolver().resolveClassLoader(kind), kind,
+				resolvedTypes, new FramedElement(this, edge, direction));
 	}
 	
 	/**
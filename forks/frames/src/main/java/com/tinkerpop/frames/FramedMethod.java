@@ -0,0 +1,114 @@
+package com.tinkerpop.frames;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import com.tinkerpop.frames.annotations.AnnotationHandler;
+import com.tinkerpop.frames.modules.MethodHandler;
+
+/**
+ * The handler of a single method of a generated frame class (see {@link FrameClassFactory}). The handler is resolved once, when the class is
+ * generated, so that each call goes directly to the {@link MethodHandler} or {@link AnnotationHandler} of the method.
+ *
+ * This is only public so that the generated classes can call it.
+ */
+public final class FramedMethod
+{
+    private static final int METHOD_HANDLER = 0;
+    private static final int ANNOTATION_HANDLER = 1;
+    private static final int HASH_CODE = 2;
+    private static final int EQUALS = 3;
+    private static final int TO_STRING = 4;
+    private static final int ELEMENT = 5;
+    private static final int UNHANDLED = 6;
+
+    private final int kind;
+    private final Method method;
+    private final Annotation annotation;
+    private final MethodHandler methodHandler;
+    private final AnnotationHandler annotationHandler;
+
+    private FramedMethod(int kind, Method method, Annotation annotation, MethodHandler<?> methodHandler, AnnotationHandler<?> annotationHandler)
+    {
+        this.kind = kind;
+        this.method = method;
+        this.annotation = annotation;
+        this.methodHandler = methodHandler;
+        this.annotationHandler = annotationHandler;
+    }
+
+    /**
+     * Resolves the handler for the given method, in the same order as {@link FramedElement#invoke(Object, Method, Object[])}: method handlers
+     * first, then annotation handlers, and then the methods that frames implements itself.
+     */
+    static FramedMethod resolve(FramedGraphConfiguration config, Method method)
+    {
+        Annotation[] annotations = method.getAnnotations();
+        Map<Class<? extends Annotation>, MethodHandler<?>> methodHandlers = config.getMethodHandlers();
+        for (Annotation annotation : annotations)
+        {
+            MethodHandler<?> methodHandler = methodHandlers.get(annotation.annotationType());
+            if (methodHandler != null)
+                return new FramedMethod(METHOD_HANDLER, method, annotation, methodHandler, null);
+        }
+
+        Map<Class<? extends Annotation>, AnnotationHandler<?>> annotationHandlers = config.getAnnotationHandlers();
+        for (Annotation annotation : annotations)
+        {
+            AnnotationHandler<?> annotationHandler = annotationHandlers.get(annotation.annotationType());
+            if (annotationHandler != null)
+                return new FramedMethod(ANNOTATION_HANDLER, method, annotation, null, annotationHandler);
+        }
+
+        String name = method.getName();
+        int parameters = method.getParameterTypes().length;
+        if (name.equals("hashCode") && parameters == 0)
+            return new FramedMethod(HASH_CODE, method, null, null, null);
+        else if (name.equals("equals") && parameters == 1 && method.getParameterTypes()[0] == Object.class)
+            return new FramedMethod(EQUALS, method, null, null, null);
+        else if (name.equals("toString") && parameters == 0)
+            return new FramedMethod(TO_STRING, method, null, null, null);
+        else if ((name.equals("asVertex") || name.equals("asEdge")) && parameters == 0)
+            return new FramedMethod(ELEMENT, method, null, null, null);
+
+        return new FramedMethod(UNHANDLED, method, null, null, null);
+    }
+
+    /**
+     * Calls the handler of this method for the given frame.
+     */
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object frame, FramedElement framedElement, Object[] arguments)
+    {
+        switch (kind)
+        {
+        case METHOD_HANDLER:
+            return methodHandler.processElement(frame, method, arguments, annotation, framedElement.framedGraph, framedElement.getElement());
+        case ANNOTATION_HANDLER:
+            return annotationHandler.processElement(annotation, method, arguments, framedElement.framedGraph, framedElement.getElement(),
+                        framedElement.getDirection());
+        case HASH_CODE:
+            return framedElement.getElement().hashCode();
+        case EQUALS:
+            return framedElement.proxyEquals(arguments[0]);
+        case TO_STRING:
+            return framedElement.getElement().toString();
+        case ELEMENT:
+            return framedElement.getElement();
+        default:
+            if (method.getAnnotations().length == 0)
+                throw new UnhandledMethodException("The method " + method.getDeclaringClass().getName() + "." + method.getName()
+                            + " has no annotations, therefore frames cannot handle the method.");
+
+            throw new UnhandledMethodException("The method " + method.getDeclaringClass().getName() + "." + method.getName()
+                        + " was not annotated with any annotations that the framed graph is configured for. Please check your frame interface and/or graph configuration.");
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FramedMethod [" + method + "]";
+    }
+}
@@ -1,7 +1,11 @@
 package com.tinkerpop.frames;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Proxy;
 
 import org.junit.Test;
 
@@ -152,4 +156,21 @@ public class FramedElementTest {
         Person marko = framedGraph.getVertex(1, Person.class);    	
         marko.unhandledNoHandler();
     }
+
+    @Test
+    public void testGeneratedFrameClass() {
+        Graph graph = TinkerGraphFactory.createTinkerGraph();
+        FramedGraph<Graph> framedGraph = new FramedGraphFactory().create(graph);
+
+        Person marko = framedGraph.getVertex(1, Person.class);
+        Person vadas = framedGraph.getVertex(2, Person.class);
+        assertFalse(Proxy.isProxyClass(marko.getClass()));
+        assertSame(marko.getClass(), vadas.getClass());
+        assertEquals(graph.getVertex(1), marko.asVertex());
+
+        Created markoCreatedLop = framedGraph.getEdge(9, Direction.OUT, Created.class);
+        assertFalse(Proxy.isProxyClass(markoCreatedLop.getClass()));
+        markoCreatedLop.setWeight(0.5f);
+        assertEquals(0.5f, markoCreatedLop.getWeight(), 0.01f);
+    }
 }
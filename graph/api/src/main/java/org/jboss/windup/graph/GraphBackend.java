@@ -0,0 +1,20 @@
+package org.jboss.windup.graph;
+
+/**
+ * Describes where the data of a {@link GraphContext} is stored. (For use with {@link GraphContextFactory#create(java.nio.file.Path, GraphBackend)}.)
+ */
+public enum GraphBackend
+{
+    /**
+     * Stores the graph in BerkeleyJE in the graph directory, so that it can be loaded again later with
+     * {@link GraphContextFactory#load(java.nio.file.Path)}. This is suitable for inputs of any size, and is the default.
+     */
+    BERKELEYJE,
+
+    /**
+     * Keeps the graph on the heap. This avoids the overhead of disk storage for small inputs, however the graph cannot be loaded again once it has
+     * been closed. The graph directory then only contains the search index and the configuration, and
+     * {@link GraphContextFactory#load(java.nio.file.Path)} fails for it.
+     */
+    INMEMORY
+}
@@ -18,13 +18,21 @@ public interface GraphContextFactory
      */
     GraphContext create(Path dir);
 
+    /**
+     * Create a new {@link GraphContext} using the given {@link Path} as a file storage location, with the graph data stored in the given
+     * {@link GraphBackend}. (<b>**WARNING**: This will potentially delete all data in the given directory.</b>)
+     */
+    GraphContext create(Path dir, GraphBackend backend);
+
     /**
      * Create a new {@link GraphContext} using a temporary file storage location.
      */
     GraphContext create();
     
     /**
-     * Loads a {@link GraphContext} using the given {@link Path} as a file storage location. 
+     * Loads a {@link GraphContext} using the given {@link Path} as a file storage location. This only works for graphs that were stored with
+     * {@link GraphBackend#BERKELEYJE}, and throws a {@link org.jboss.windup.util.exception.WindupException} for a graph that was only kept in
+     * memory ({@link GraphBackend#INMEMORY}).
      */
     GraphContext load(Path dir);
 
@@ -5,10 +5,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.thinkaurelius.titan.graphdb.internal.AbstractElement;
 import com.thinkaurelius.titan.graphdb.relations.StandardEdge;
@@ -48,9 +50,33 @@ public class GraphTypeManager implements TypeResolver, FrameInitializer
 {
     private static final Logger LOG = Logger.getLogger(GraphTypeManager.class.getName());
 
+    /**
+     * The maximum number of distinct type lists for which the resolved types are cached.
+     */
+    private static final int MAX_RESOLVED_TYPES_CACHE_SIZE = 10000;
+    private static final Class<?>[] NO_RESOLVED_TYPES = new Class<?>[0];
+
     private Map<String, Class<? extends WindupFrame<?>>> registeredTypes;
     private TypeRegistry typeRegistry;
 
+    /*
+     * The same few hundred combinations of types are resolved over and over again, so the results are cached by the list of type values. The
+     * least recently used combinations are dropped once the cache is full. The cached arrays are never handed out, only copies of them.
+     */
+    private final Map<TypeValues, Class<?>[]> resolvedTypesCache = Collections.synchronizedMap(new LinkedHashMap<TypeValues, Class<?>[]>(16,
+                0.75f, true)
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TypeValues, Class<?>[]> eldest)
+        {
+            return size() > MAX_RESOLVED_TYPES_CACHE_SIZE;
+        }
+    });
+    private final AtomicLong resolvedTypesCacheHits = new AtomicLong();
+    private final AtomicLong resolvedTypesCacheMisses = new AtomicLong();
+
     public GraphTypeManager()
     {
     }
@@ -358,8 +384,37 @@ public class GraphTypeManager implements TypeResolver, FrameInitializer
             throw new WindupException(String.format("Unknown element type: %s", abstractElement.getClass().getName()));
 
 
-        List<Class<?>> resultClasses = new ArrayList<>();
+        List<String> values = new ArrayList<>();
         for (String value : valuesAll)
+            values.add(value);
+
+        TypeValues key = new TypeValues(typeHoldingTypeField, values);
+        Class<?>[] resolvedTypes = resolvedTypesCache.get(key);
+        if (resolvedTypes != null)
+        {
+            resolvedTypesCacheHits.incrementAndGet();
+        }
+        else
+        {
+            resolvedTypesCacheMisses.incrementAndGet();
+            resolvedTypes = resolve(typeHoldingTypeField, values);
+            resolvedTypesCache.put(key, resolvedTypes);
+        }
+
+        if (resolvedTypes == NO_RESOLVED_TYPES)
+            return new Class[] { defaultType, VertexFrame.class };
+        // the callers may modify the array, so they get a copy of the cached one
+        return resolvedTypes.clone();
+    }
+
+    /**
+     * Resolves the given type values to the lowest level subclasses, followed by {@link VertexFrame}. Returns {@link #NO_RESOLVED_TYPES} if none
+     * of the values are registered types.
+     */
+    private Class<?>[] resolve(Class<?> typeHoldingTypeField, List<String> values)
+    {
+        List<Class<?>> resultClasses = new ArrayList<>();
+        for (String value : values)
         {
             Class<?> type = getTypeRegistry().getType(typeHoldingTypeField, value);
             if (type != null)
@@ -391,7 +446,57 @@ public class GraphTypeManager implements TypeResolver, FrameInitializer
             resultClasses.add(VertexFrame.class);
             return resultClasses.toArray(new Class<?>[resultClasses.size()]);
         }
-        return new Class[] { defaultType, VertexFrame.class };
+        return NO_RESOLVED_TYPES;
+    }
+
+    /**
+     * Gets the number of times that the types of an element were found in the cache of resolved types.
+     */
+    public long getResolvedTypesCacheHits()
+    {
+        return resolvedTypesCacheHits.get();
+    }
+
+    /**
+     * Gets the number of times that the types of an element had to be resolved from the type registry.
+     */
+    public long getResolvedTypesCacheMisses()
+    {
+        return resolvedTypesCacheMisses.get();
+    }
+
+    /**
+     * The key of the resolved types cache. The order of the values is kept, as it determines the order of the resolved types.
+     */
+    private static class TypeValues
+    {
+        private final Class<?> typeHoldingTypeField;
+        private final List<String> values;
+        private final int hashCode;
+
+        public TypeValues(Class<?> typeHoldingTypeField, List<String> values)
+        {
+            this.typeHoldingTypeField = typeHoldingTypeField;
+            this.values = values;
+            this.hashCode = 31 * typeHoldingTypeField.hashCode() + values.hashCode();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof TypeValues))
+                return false;
+            TypeValues other = (TypeValues) obj;
+            return typeHoldingTypeField.equals(other.typeHoldingTypeField) && values.equals(other.values);
+        }
     }
 
     @Override
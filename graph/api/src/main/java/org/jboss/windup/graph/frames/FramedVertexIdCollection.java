@@ -0,0 +1,131 @@
+package org.jboss.windup.graph.frames;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.frames.FramedGraph;
+import com.tinkerpop.frames.VertexFrame;
+
+/**
+ * A distinct collection of vertices, which reads its source lazily, only keeps the ids of the vertices it has seen, and frames each vertex as it
+ * is iterated.
+ *
+ * The vertices are returned in the order of the source, without duplicates. The first iteration streams the source, so the work on the first
+ * results can start before the rest have been read. Later iterations (and the rest of the first one, if another iteration has already gone
+ * further) look the vertices up again by id, which keeps large query results (for example all of the files in the graph) small in memory. The
+ * vertices that have been removed since they were read are skipped.
+ */
+public class FramedVertexIdCollection<T extends VertexFrame> extends AbstractCollection<T>
+{
+    private final FramedGraph<? extends Graph> framedGraph;
+    private final Class<T> kind;
+    private final Iterator<Vertex> source;
+    private final List<Object> ids = new ArrayList<>();
+    private final Set<Object> distinctIds = new HashSet<>();
+
+    private FramedVertexIdCollection(FramedGraph<? extends Graph> framedGraph, Class<T> kind, Iterator<Vertex> source)
+    {
+        this.framedGraph = framedGraph;
+        this.kind = kind;
+        this.source = source;
+    }
+
+    /**
+     * Creates a collection of the given vertices, dropping duplicates. Nothing is read from the vertices until the collection is used.
+     */
+    public static <T extends VertexFrame> FramedVertexIdCollection<T> collect(FramedGraph<? extends Graph> framedGraph, Iterable<Vertex> vertices,
+                Class<T> kind)
+    {
+        return new FramedVertexIdCollection<>(framedGraph, kind, vertices.iterator());
+    }
+
+    /**
+     * Returns the number of distinct vertices. This reads the rest of the source, and it may be more than the number of frames returned by the
+     * iterator, if some of the vertices have been removed since they were read.
+     */
+    @Override
+    public int size()
+    {
+        while (readNext() != null)
+            ;
+        return ids.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return !iterator().hasNext();
+    }
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            private int index = 0;
+            private Vertex next;
+
+            @Override
+            public boolean hasNext()
+            {
+                while (next == null)
+                {
+                    if (index < ids.size())
+                    {
+                        next = framedGraph.getVertex(ids.get(index++));
+                    }
+                    else
+                    {
+                        next = readNext();
+                        if (next == null)
+                            break;
+                        index++;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public T next()
+            {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                Vertex vertex = next;
+                next = null;
+                return framedGraph.frame(vertex, kind);
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Reads the source up to the next vertex that has not been seen yet, and records its id. Returns null at the end of the source.
+     */
+    private Vertex readNext()
+    {
+        while (source.hasNext())
+        {
+            Vertex vertex = source.next();
+            Object id = vertex.getId();
+            if (distinctIds.add(id))
+            {
+                ids.add(id);
+                return vertex;
+            }
+        }
+        return null;
+    }
+}
@@ -52,13 +52,20 @@ public class GraphContextFactoryImpl implements GraphContextFactory
 
     @Override
     public GraphContext create(Path graphDir)
+    {
+        return create(graphDir, GraphBackend.BERKELEYJE);
+    }
+
+    @Override
+    public GraphContext create(Path graphDir, GraphBackend backend)
     {
         return ExecutionStatistics.performBenchmarked(GraphContextFactory.class.getName() + ".create(Path)", () ->
             new GraphContextImpl(
                   getFurnace(),
                   getGraphTypeManager(),
                   getGraphApiCompositeClassLoaderProvider(),
-                  graphDir).create()
+                  graphDir,
+                  backend).create()
         );
     }
 
@@ -28,6 +28,7 @@ import org.jboss.windup.graph.listeners.BeforeGraphCloseListener;
 import org.jboss.windup.graph.model.WindupFrame;
 import org.jboss.windup.graph.model.WindupVertexFrame;
 import org.jboss.windup.graph.service.GraphService;
+import org.jboss.windup.util.exception.WindupException;
 
 import com.sleepycat.je.LockMode;
 import com.thinkaurelius.titan.core.Cardinality;
@@ -57,9 +58,23 @@ public class GraphContextImpl implements GraphContext
 {
     private static final Logger LOG = Logger.getLogger(GraphContextImpl.class.getName());
 
+    /**
+     * The system property that sets the percentage of the heap used by the BerkeleyJE cache.
+     */
+    public static final String BERKELEY_CACHE_PERCENTAGE_PROPERTY = "windup.graph.berkeleyCachePercentage";
+
+    /**
+     * Sets the berkeley cache to a relatively small value by default to reduce the memory footprint. This is actually more important than
+     * performance on some of the smaller machines out there, and the performance decrease seems to be minimal.
+     */
+    private static final int DEFAULT_BERKELEY_CACHE_PERCENTAGE = 1;
+
+    private static final String CONFIGURATION_FILE = "TitanConfiguration.properties";
+
     private final Furnace furnace;
     private final GraphTypeManager graphTypeManager;
     private final Path graphDir;
+    private final GraphBackend backend;
     private final GraphApiCompositeClassLoaderProvider classLoaderProvider;
     /**
      * Used to save all the {@link BeforeGraphCloseListener}s that are also {@link AfterGraphInitializationListener}. This is due a need to call
@@ -75,11 +90,18 @@ public class GraphContextImpl implements GraphContext
 
     public GraphContextImpl(Furnace furnace, GraphTypeManager typeManager,
                 GraphApiCompositeClassLoaderProvider classLoaderProvider, Path graphDir)
+    {
+        this(furnace, typeManager, classLoaderProvider, graphDir, GraphBackend.BERKELEYJE);
+    }
+
+    public GraphContextImpl(Furnace furnace, GraphTypeManager typeManager,
+                GraphApiCompositeClassLoaderProvider classLoaderProvider, Path graphDir, GraphBackend backend)
     {
         this.furnace = furnace;
         this.graphTypeManager = typeManager;
         this.classLoaderProvider = classLoaderProvider;
         this.graphDir = graphDir;
+        this.backend = backend;
     }
 
     public GraphContextImpl create()
@@ -94,6 +116,9 @@ public class GraphContextImpl implements GraphContext
 
     public GraphContextImpl load()
     {
+        if (backend != GraphBackend.BERKELEYJE || isInMemoryGraph(graphDir))
+            throw new WindupException("The graph in " + graphDir + " was only kept in memory, and cannot be loaded.");
+
         TitanGraph titan = initializeTitanGraph();
         createFramed(titan);
         fireListeners();
@@ -298,7 +323,7 @@ public class GraphContextImpl implements GraphContext
 
     private TitanGraph initializeTitanGraph()
     {
-        LOG.fine("Initializing graph.");
+        LOG.fine("Initializing graph (" + backend + ").");
 
         Path lucene = graphDir.resolve("graphsearch");
         Path berkeley = graphDir.resolve("titangraph");
@@ -309,17 +334,21 @@ public class GraphContextImpl implements GraphContext
         // Sets a unique id in order to fix WINDUP-697. This causes Titan to not attempt to generate and ID,
         // as the Titan id generation code fails on machines with broken network configurations.
         conf.setProperty("graph.unique-instance-id", "windup_" + System.nanoTime() + "_" + RandomStringUtils.randomAlphabetic(6));
-        conf.setProperty("storage.directory", berkeley.toAbsolutePath().toString());
-        conf.setProperty("storage.backend", "berkeleyje");
-
-        // Sets the berkeley cache to a relatively small value to reduce the memory footprint.
-        // This is actually more important than performance on some of the smaller machines out there, and
-        // the performance decrease seems to be minimal.
-        conf.setProperty("storage.berkeleydb.cache-percentage", 1);
-
-        // Set READ UNCOMMITTED to improve performance
-        conf.setProperty("storage.berkeleydb.lock-mode", LockMode.READ_UNCOMMITTED);
-        conf.setProperty("storage.berkeleydb.isolation-level", BerkeleyJEStoreManager.IsolationLevel.READ_UNCOMMITTED);
+        if (backend == GraphBackend.INMEMORY)
+        {
+            conf.setProperty("storage.backend", "inmemory");
+        }
+        else
+        {
+            conf.setProperty("storage.directory", berkeley.toAbsolutePath().toString());
+            conf.setProperty("storage.backend", "berkeleyje");
+            conf.setProperty("storage.berkeleydb.cache-percentage",
+                        Integer.getInteger(BERKELEY_CACHE_PERCENTAGE_PROPERTY, DEFAULT_BERKELEY_CACHE_PERCENTAGE));
+
+            // Set READ UNCOMMITTED to improve performance
+            conf.setProperty("storage.berkeleydb.lock-mode", LockMode.READ_UNCOMMITTED);
+            conf.setProperty("storage.berkeleydb.isolation-level", BerkeleyJEStoreManager.IsolationLevel.READ_UNCOMMITTED);
+        }
 
         // Increase storage write buffer since we basically do a large bulk load during the first phases.
         // See http://s3.thinkaurelius.com/docs/titan/current/bulk-loading.html
@@ -342,10 +371,29 @@ public class GraphContextImpl implements GraphContext
         conf.setProperty("index.search.backend", "lucene");
         conf.setProperty("index.search.directory", lucene.toAbsolutePath().toString());
 
-        writeToPropertiesFile(conf, graphDir.resolve("TitanConfiguration.properties").toFile());
+        writeToPropertiesFile(conf, graphDir.resolve(CONFIGURATION_FILE).toFile());
         return TitanFactory.open(conf);
     }
 
+    /**
+     * Checks the configuration that was written when the graph in the given directory was created.
+     */
+    private static boolean isInMemoryGraph(Path graphDir)
+    {
+        File file = graphDir.resolve(CONFIGURATION_FILE).toFile();
+        if (!file.isFile())
+            return false;
+
+        try
+        {
+            return "inmemory".equals(new PropertiesConfiguration(file).getString("storage.backend"));
+        }
+        catch (ConfigurationException ex)
+        {
+            throw new RuntimeException("Failed reading Titan config from " + file.getAbsolutePath() + ": " + ex.getMessage(), ex);
+        }
+    }
+
     public Configuration getConfiguration()
     {
         return conf;
@@ -380,6 +428,8 @@ public class GraphContextImpl implements GraphContext
         {
             LOG.warning("Could not call before shutdown listeners during close due to: " + e.getMessage());
         }
+        LOG.fine("Resolved frame types cache hits: " + graphTypeManager.getResolvedTypesCacheHits() + ", misses: "
+                    + graphTypeManager.getResolvedTypesCacheMisses());
         this.eventGraph.getBaseGraph().shutdown();
     }
 
@@ -0,0 +1,141 @@
+package org.jboss.windup.graph.iterable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.jboss.windup.graph.frames.FramedVertexIdCollection;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import com.tinkerpop.frames.FramedGraph;
+import com.tinkerpop.frames.FramedGraphFactory;
+import com.tinkerpop.frames.VertexFrame;
+
+public class FramedVertexIdCollectionTest
+{
+    private TinkerGraph graph;
+    private FramedGraph<TinkerGraph> framedGraph;
+
+    @Before
+    public void setUp()
+    {
+        graph = new TinkerGraph();
+        framedGraph = new FramedGraphFactory().create(graph);
+    }
+
+    @After
+    public void tearDown()
+    {
+        graph.shutdown();
+    }
+
+    @Test
+    public void testKeepsTheOrderOfTheSourceWithoutDuplicates()
+    {
+        Vertex c = graph.addVertex("c");
+        Vertex a = graph.addVertex("a");
+        Vertex b = graph.addVertex("b");
+
+        FramedVertexIdCollection<VertexFrame> collection = collect(c, a, c, b, a);
+
+        Assert.assertEquals(Arrays.asList("c", "a", "b"), ids(collection));
+        Assert.assertEquals(3, collection.size());
+        // the second iteration looks the vertices up again, in the same order
+        Assert.assertEquals(Arrays.asList("c", "a", "b"), ids(collection));
+    }
+
+    @Test
+    public void testReadsTheSourceLazily()
+    {
+        Vertex a = graph.addVertex("a");
+        Vertex b = graph.addVertex("b");
+        final List<Vertex> source = Arrays.asList(a, b);
+        final List<Vertex> read = new ArrayList<>();
+        FramedVertexIdCollection<VertexFrame> collection = FramedVertexIdCollection.collect(framedGraph, new Iterable<Vertex>()
+        {
+            @Override
+            public Iterator<Vertex> iterator()
+            {
+                final Iterator<Vertex> iterator = source.iterator();
+                return new Iterator<Vertex>()
+                {
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Vertex next()
+                    {
+                        Vertex vertex = iterator.next();
+                        read.add(vertex);
+                        return vertex;
+                    }
+
+                    @Override
+                    public void remove()
+                    {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        }, VertexFrame.class);
+        Assert.assertTrue(read.isEmpty());
+
+        Iterator<VertexFrame> first = collection.iterator();
+        Assert.assertEquals("a", first.next().asVertex().getId());
+        Assert.assertEquals(1, read.size());
+
+        // a second iteration replays what has been read so far, and continues with the source
+        Iterator<VertexFrame> second = collection.iterator();
+        Assert.assertEquals("a", second.next().asVertex().getId());
+        Assert.assertEquals("b", second.next().asVertex().getId());
+        Assert.assertFalse(second.hasNext());
+        Assert.assertEquals(2, read.size());
+
+        Assert.assertEquals("b", first.next().asVertex().getId());
+        Assert.assertFalse(first.hasNext());
+    }
+
+    @Test
+    public void testSkipsRemovedVertices()
+    {
+        Vertex a = graph.addVertex("a");
+        Vertex b = graph.addVertex("b");
+        Vertex c = graph.addVertex("c");
+        FramedVertexIdCollection<VertexFrame> collection = collect(a, b, c);
+        Assert.assertEquals(3, collection.size());
+
+        graph.removeVertex(b);
+        Assert.assertEquals(Arrays.asList("a", "c"), ids(collection));
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        FramedVertexIdCollection<VertexFrame> collection = collect();
+        Assert.assertTrue(collection.isEmpty());
+        Assert.assertEquals(0, collection.size());
+        Assert.assertFalse(collection.iterator().hasNext());
+    }
+
+    private FramedVertexIdCollection<VertexFrame> collect(Vertex... vertices)
+    {
+        return FramedVertexIdCollection.collect(framedGraph, Arrays.asList(vertices), VertexFrame.class);
+    }
+
+    private static List<Object> ids(Iterable<VertexFrame> frames)
+    {
+        List<Object> result = new ArrayList<>();
+        for (VertexFrame frame : frames)
+            result.add(frame.asVertex().getId());
+        return result;
+    }
+}
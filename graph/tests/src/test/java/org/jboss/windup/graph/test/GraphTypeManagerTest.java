@@ -0,0 +1,68 @@
+package org.jboss.windup.graph.test;
+
+import java.util.Arrays;
+
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.forge.arquillian.AddonDependencies;
+import org.jboss.forge.arquillian.AddonDependency;
+import org.jboss.forge.arquillian.archive.AddonArchive;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.windup.graph.GraphContext;
+import org.jboss.windup.graph.GraphContextFactory;
+import org.jboss.windup.graph.GraphTypeManager;
+import org.jboss.windup.graph.typedgraph.TestFooModel;
+import org.jboss.windup.graph.typedgraph.TestFooSubModel;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.frames.VertexFrame;
+
+@RunWith(Arquillian.class)
+public class GraphTypeManagerTest
+{
+    @Deployment
+    @AddonDependencies({
+                @AddonDependency(name = "org.jboss.windup.graph:windup-graph"),
+                @AddonDependency(name = "org.jboss.forge.furnace.container:cdi")
+    })
+    public static AddonArchive getDeployment()
+    {
+        AddonArchive archive = ShrinkWrap.create(AddonArchive.class)
+                    .addBeansXML()
+                    .addClasses(TestFooModel.class, TestFooSubModel.class);
+        return archive;
+    }
+
+    @Inject
+    private GraphContextFactory factory;
+
+    /**
+     * The resolved types are cached, but each caller must get its own array, so that changing it does not affect the types of other elements.
+     */
+    @Test
+    public void testResolvedTypesAreNotShared() throws Exception
+    {
+        try (GraphContext context = factory.create())
+        {
+            GraphTypeManager typeManager = context.getGraphTypeManager();
+            Vertex first = context.create(TestFooSubModel.class).asVertex();
+            Vertex second = context.create(TestFooSubModel.class).asVertex();
+            context.commit();
+
+            long hits = typeManager.getResolvedTypesCacheHits();
+            Class<?>[] firstTypes = typeManager.resolveTypes(first, TestFooModel.class);
+            Assert.assertEquals(Arrays.<Class<?>> asList(TestFooSubModel.class, VertexFrame.class), Arrays.asList(firstTypes));
+
+            firstTypes[0] = TestFooModel.class;
+            Class<?>[] secondTypes = typeManager.resolveTypes(second, TestFooModel.class);
+            Assert.assertNotSame(firstTypes, secondTypes);
+            Assert.assertEquals(Arrays.<Class<?>> asList(TestFooSubModel.class, VertexFrame.class), Arrays.asList(secondTypes));
+            Assert.assertTrue(typeManager.getResolvedTypesCacheHits() > hits);
+        }
+    }
+}
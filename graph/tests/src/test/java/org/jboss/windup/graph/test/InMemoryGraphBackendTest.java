@@ -0,0 +1,78 @@
+package org.jboss.windup.graph.test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.inject.Inject;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.forge.arquillian.AddonDependencies;
+import org.jboss.forge.arquillian.AddonDependency;
+import org.jboss.forge.arquillian.archive.AddonArchive;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.windup.graph.GraphBackend;
+import org.jboss.windup.graph.GraphContext;
+import org.jboss.windup.graph.GraphContextFactory;
+import org.jboss.windup.graph.service.GraphService;
+import org.jboss.windup.graph.typedgraph.TestFooModel;
+import org.jboss.windup.graph.typedgraph.TestFooSubModel;
+import org.jboss.windup.util.exception.WindupException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(Arquillian.class)
+public class InMemoryGraphBackendTest
+{
+    @Deployment
+    @AddonDependencies({
+                @AddonDependency(name = "org.jboss.windup.graph:windup-graph"),
+                @AddonDependency(name = "org.jboss.forge.furnace.container:cdi")
+    })
+    public static AddonArchive getDeployment()
+    {
+        AddonArchive archive = ShrinkWrap.create(AddonArchive.class)
+                    .addBeansXML()
+                    .addClasses(TestFooModel.class, TestFooSubModel.class);
+        return archive;
+    }
+
+    @Inject
+    private GraphContextFactory factory;
+
+    @Test
+    public void testInMemoryGraph() throws Exception
+    {
+        Path graphDir = Files.createTempDirectory("InMemoryGraphBackendTest");
+        try
+        {
+            try (GraphContext context = factory.create(graphDir, GraphBackend.INMEMORY))
+            {
+                GraphService<TestFooModel> fooService = context.service(TestFooModel.class);
+                fooService.create().setProp1("first");
+                context.create(TestFooSubModel.class).setProp1("second");
+                context.commit();
+
+                Assert.assertEquals(2, fooService.count(fooService.findAll()));
+                Assert.assertEquals("second", context.getUnique(TestFooSubModel.class).getProp1());
+                Assert.assertFalse(Files.exists(graphDir.resolve("titangraph")));
+            }
+
+            try
+            {
+                factory.load(graphDir);
+                Assert.fail("An in-memory graph should not be loadable");
+            }
+            catch (WindupException e)
+            {
+                // expected
+            }
+        }
+        finally
+        {
+            FileUtils.deleteQuietly(graphDir.toFile());
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package org.jboss.windup.reporting.freemarker;
 
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
@@ -9,12 +11,10 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Callable;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.jboss.forge.furnace.Furnace;
-import org.jboss.forge.furnace.lock.LockMode;
 import org.jboss.windup.config.GraphRewrite;
 import org.jboss.windup.config.Variables;
 import org.jboss.windup.config.operation.Iteration;
@@ -98,7 +98,7 @@ public class FreeMarkerIterationOperation extends AbstractIterationOperation<Rep
 
             LOG.info("Reporting: Writing template \"" + templatePath + "\" to output file \"" + outputPath.toAbsolutePath().toString() + "\"");
 
-            Configuration freemarkerConfig = FreeMarkerUtil.getDefaultFreemarkerConfiguration();
+            Configuration freemarkerConfig = FreeMarkerUtil.getSharedFreemarkerConfiguration(event);
 
             Template template = freemarkerConfig.getTemplate(templatePath);
 
@@ -118,20 +118,12 @@ public class FreeMarkerIterationOperation extends AbstractIterationOperation<Rep
 
             // also, extension functions (these are kept separate from vars in order to prevent them
             // from being stored in the associated data with the reportmodel)
-            final Map<String, Object> freeMarkerExtensions;
-            freeMarkerExtensions = furnace.getLockManager().performLocked(LockMode.WRITE, new Callable<Map<String, Object>>()
-            {
-                @Override
-                public Map<String, Object> call() throws Exception
-                {
-                    return FreeMarkerUtil.findFreeMarkerExtensions(furnace, event);
-                }
-            });
+            Map<String, Object> freeMarkerExtensions = FreeMarkerUtil.getSharedFreeMarkerExtensions(furnace, event);
 
             Map<String, Object> objects = new HashMap<>(vars);
             objects.putAll(freeMarkerExtensions);
 
-            try (FileWriter fw = new FileWriter(outputPath.toFile()))
+            try (Writer fw = new BufferedWriter(new FileWriter(outputPath.toFile()), FreeMarkerUtil.OUTPUT_BUFFER_SIZE))
             {
                 template.process(objects, fw);
             }
@@ -1,7 +1,9 @@
 package org.jboss.windup.reporting.freemarker;
 
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -67,7 +69,7 @@ public class FreeMarkerOperation extends GraphOperation
             LOG.info("Reporting: Writing template \"" + templatePath + "\" to output file \""
                         + outputPath.toAbsolutePath().toString() + "\"");
 
-            freemarker.template.Configuration freemarkerConfig = FreeMarkerUtil.getDefaultFreemarkerConfiguration();
+            freemarker.template.Configuration freemarkerConfig = FreeMarkerUtil.getSharedFreemarkerConfiguration(event);
             Template template = freemarkerConfig.getTemplate(templatePath);
 
             Variables varStack = Variables.instance(event);
@@ -79,12 +81,12 @@ public class FreeMarkerOperation extends GraphOperation
             vars.put("event", event);
 
             // also, extension functions
-            Map<String, Object> freeMarkerExtensions = FreeMarkerUtil.findFreeMarkerExtensions(furnace, event);
+            Map<String, Object> freeMarkerExtensions = FreeMarkerUtil.getSharedFreeMarkerExtensions(furnace, event);
 
             Map<String, Object> objects = new HashMap<>(vars);
             objects.putAll(freeMarkerExtensions);
 
-            try (FileWriter fw = new FileWriter(outputPath.toFile()))
+            try (Writer fw = new BufferedWriter(new FileWriter(outputPath.toFile()), FreeMarkerUtil.OUTPUT_BUFFER_SIZE))
             {
                 template.process(objects, fw);
             }
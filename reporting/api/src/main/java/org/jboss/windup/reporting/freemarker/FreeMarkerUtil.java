@@ -5,10 +5,12 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import freemarker.template.Configuration;
 import freemarker.template.DefaultObjectWrapperBuilder;
 import org.jboss.forge.furnace.Furnace;
+import org.jboss.forge.furnace.lock.LockMode;
 import org.jboss.forge.furnace.services.Imported;
 import org.jboss.windup.config.GraphRewrite;
 import org.jboss.windup.config.Variables;
@@ -25,6 +27,14 @@ import freemarker.template.SimpleSequence;
  */
 public class FreeMarkerUtil
 {
+    private static final String SHARED_CONFIGURATION_KEY = FreeMarkerUtil.class.getName() + "_sharedConfiguration";
+    private static final String SHARED_EXTENSIONS_KEY = FreeMarkerUtil.class.getName() + "_sharedExtensions";
+
+    /**
+     * The size of the buffer that the rendered reports are written through.
+     */
+    static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
     /**
      * Gets the default configuration for Freemarker within Windup.
      */
@@ -41,6 +51,53 @@ public class FreeMarkerUtil
         return configuration;
     }
 
+    /**
+     * Gets the Freemarker configuration that is shared by all of the reports rendered for the given event. The parsed templates are cached in
+     * this configuration, so each template is only loaded and parsed once per execution. The configuration is safe to use from several threads.
+     */
+    public static Configuration getSharedFreemarkerConfiguration(GraphRewrite event)
+    {
+        synchronized (event)
+        {
+            Configuration configuration = (Configuration) event.getRewriteContext().get(SHARED_CONFIGURATION_KEY);
+            if (configuration == null)
+            {
+                configuration = getDefaultFreemarkerConfiguration();
+                // the templates do not change during an execution
+                configuration.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+                event.getRewriteContext().put(SHARED_CONFIGURATION_KEY, configuration);
+            }
+            return configuration;
+        }
+    }
+
+    /**
+     * Gets the freemarker extensions (see {@link #findFreeMarkerExtensions(Furnace, GraphRewrite)}) for the given event. These are only looked
+     * up once per execution, and the returned map must not be modified.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> getSharedFreeMarkerExtensions(final Furnace furnace, final GraphRewrite event)
+    {
+        synchronized (event)
+        {
+            Map<String, Object> extensions = (Map<String, Object>) event.getRewriteContext().get(SHARED_EXTENSIONS_KEY);
+            if (extensions == null)
+            {
+                extensions = furnace.getLockManager().performLocked(LockMode.WRITE, new Callable<Map<String, Object>>()
+                {
+                    @Override
+                    public Map<String, Object> call() throws Exception
+                    {
+                        return findFreeMarkerExtensions(furnace, event);
+                    }
+                });
+                extensions = Collections.unmodifiableMap(extensions);
+                event.getRewriteContext().put(SHARED_EXTENSIONS_KEY, extensions);
+            }
+            return extensions;
+        }
+    }
+
     /**
      * Converts a FreeMarker {@link SimpleSequence} to a {@link Set}.
      *
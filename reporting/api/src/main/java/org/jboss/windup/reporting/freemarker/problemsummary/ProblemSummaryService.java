@@ -95,7 +95,9 @@ public class ProblemSummaryService
         }
 
         ClassificationService classificationService = new ClassificationService(graphContext);
-        for (ClassificationModel classification : classificationService.findAll())
+        final Iterable<ClassificationModel> classifications = projectModels == null ? classificationService.findAll()
+                    : classificationService.getClassificationsForProjects(projectModels);
+        for (ClassificationModel classification : classifications)
         {
             Set<String> tags = classification.getTags();
             if (!TagUtil.checkMatchingTags(tags, includeTags, excludeTags, false))
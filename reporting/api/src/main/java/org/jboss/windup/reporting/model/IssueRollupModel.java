@@ -0,0 +1,87 @@
+package org.jboss.windup.reporting.model;
+
+import org.jboss.windup.graph.model.ProjectModel;
+import org.jboss.windup.reporting.category.IssueCategoryModel;
+import org.jboss.windup.reporting.service.IssueRollupService;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.frames.Adjacency;
+import com.tinkerpop.frames.Property;
+import com.tinkerpop.frames.modules.typedgraph.TypeValue;
+
+/**
+ * Contains the number of {@link InlineHintModel}s or {@link ClassificationModel}s in a single {@link ProjectModel} that have the same
+ * {@link IssueCategoryModel}, effort and tags. These are created by {@link IssueRollupService} before the reports are generated, so that the
+ * reports do not need to scan all of the issues for each project.
+ */
+@TypeValue(IssueRollupModel.TYPE)
+public interface IssueRollupModel extends TaggableModel
+{
+    String TYPE = "IssueRollupModel";
+    String TYPE_PREFIX = TYPE + ":";
+    String PROJECT_MODEL = TYPE_PREFIX + "projectModel";
+    String ISSUE_CATEGORY = TYPE_PREFIX + "issueCategory";
+    String ISSUE_TYPE = TYPE_PREFIX + "issueType";
+    String EFFORT = TYPE_PREFIX + "effort";
+    String COUNT = TYPE_PREFIX + "count";
+
+    /**
+     * Contains the {@link ProjectModel} that contains the files of the issues.
+     */
+    @Adjacency(label = PROJECT_MODEL, direction = Direction.OUT)
+    ProjectModel getProjectModel();
+
+    /**
+     * Contains the {@link ProjectModel} that contains the files of the issues.
+     */
+    @Adjacency(label = PROJECT_MODEL, direction = Direction.OUT)
+    void setProjectModel(ProjectModel projectModel);
+
+    /**
+     * Contains the {@link IssueCategoryModel} of the issues.
+     */
+    @Adjacency(label = ISSUE_CATEGORY, direction = Direction.OUT)
+    IssueCategoryModel getIssueCategory();
+
+    /**
+     * Contains the {@link IssueCategoryModel} of the issues.
+     */
+    @Adjacency(label = ISSUE_CATEGORY, direction = Direction.OUT)
+    void setIssueCategory(IssueCategoryModel issueCategory);
+
+    /**
+     * Contains the type of the issues ({@link InlineHintModel#TYPE} or {@link ClassificationModel#TYPE}).
+     */
+    @Property(ISSUE_TYPE)
+    String getIssueType();
+
+    /**
+     * Contains the type of the issues ({@link InlineHintModel#TYPE} or {@link ClassificationModel#TYPE}).
+     */
+    @Property(ISSUE_TYPE)
+    void setIssueType(String issueType);
+
+    /**
+     * Contains the effort of each of the issues.
+     */
+    @Property(EFFORT)
+    int getEffort();
+
+    /**
+     * Contains the effort of each of the issues.
+     */
+    @Property(EFFORT)
+    void setEffort(int effort);
+
+    /**
+     * Contains the number of issues (for classifications, this is the number of files in the project that have the classification).
+     */
+    @Property(COUNT)
+    int getCount();
+
+    /**
+     * Contains the number of issues (for classifications, this is the number of files in the project that have the classification).
+     */
+    @Property(COUNT)
+    void setCount(int count);
+}
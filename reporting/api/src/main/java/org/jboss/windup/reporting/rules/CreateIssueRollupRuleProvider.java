@@ -0,0 +1,42 @@
+package org.jboss.windup.reporting.rules;
+
+import org.jboss.windup.config.AbstractRuleProvider;
+import org.jboss.windup.config.GraphRewrite;
+import org.jboss.windup.config.loader.RuleLoaderContext;
+import org.jboss.windup.config.metadata.RuleMetadata;
+import org.jboss.windup.config.operation.GraphOperation;
+import org.jboss.windup.config.phase.PreReportGenerationPhase;
+import org.jboss.windup.reporting.model.IssueRollupModel;
+import org.jboss.windup.reporting.service.IssueRollupService;
+import org.ocpsoft.rewrite.config.Configuration;
+import org.ocpsoft.rewrite.config.ConfigurationBuilder;
+import org.ocpsoft.rewrite.context.EvaluationContext;
+
+/**
+ * Summarizes all of the hints and classifications into {@link IssueRollupModel}s once all of the migration rules have run, so that the effort
+ * reports of each application can be created from these.
+ */
+@RuleMetadata(phase = PreReportGenerationPhase.class)
+public class CreateIssueRollupRuleProvider extends AbstractRuleProvider
+{
+    @Override
+    public Configuration getConfiguration(RuleLoaderContext ruleLoaderContext)
+    {
+        return ConfigurationBuilder.begin()
+                    .addRule()
+                    .perform(new GraphOperation()
+                    {
+                        @Override
+                        public void perform(GraphRewrite event, EvaluationContext context)
+                        {
+                            new IssueRollupService(event.getGraphContext()).createRollups();
+                        }
+
+                        @Override
+                        public String toString()
+                        {
+                            return "CreateIssueRollups";
+                        }
+                    });
+    }
+}
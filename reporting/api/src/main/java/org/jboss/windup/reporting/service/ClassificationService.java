@@ -1,5 +1,8 @@
 package org.jboss.windup.reporting.service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.logging.Logger;
 import java.util.Map;
 import java.util.Set;
@@ -89,6 +92,27 @@ public class ClassificationService extends GraphService<ClassificationModel>
         return new FramedVertexIterable<>(getGraphContext().getFramed(), pipeline, ClassificationModel.class);
     }
 
+    /**
+     * Returns all of the {@link ClassificationModel}s that are attached to a file in one of the given {@link ProjectModel}s.
+     */
+    public Iterable<ClassificationModel> getClassificationsForProjects(Iterable<ProjectModel> projectModels)
+    {
+        List<Vertex> projectVertices = new ArrayList<>();
+        for (ProjectModel projectModel : projectModels)
+            projectVertices.add(projectModel.asVertex());
+
+        GremlinPipeline<Vertex, Vertex> pipeline = new GremlinPipeline<>(projectVertices);
+        pipeline.out(ProjectModel.PROJECT_MODEL_TO_FILE);
+        pipeline.in(ClassificationModel.FILE_MODEL).has(WindupVertexFrame.TYPE_PROP, Text.CONTAINS, ClassificationModel.TYPE);
+
+        Set<ClassificationModel> results = new LinkedHashSet<>();
+        for (Vertex v : pipeline)
+        {
+            results.add(frame(v));
+        }
+        return results;
+    }
+
     /**
      * <p>
      * Returns the total effort points in all of the {@link ClassificationModel}s
@@ -104,6 +128,10 @@ public class ClassificationService extends GraphService<ClassificationModel>
     public Map<Integer, Integer> getMigrationEffortByPoints(ProjectModelTraversal traversal, Set<String> includeTags, Set<String> excludeTags,
                                                             boolean recursive, boolean includeZero)
     {
+        IssueRollupService rollupService = new IssueRollupService(getGraphContext());
+        if (rollupService.hasRollups())
+            return rollupService.getMigrationEffortByPoints(ClassificationModel.TYPE, traversal, includeTags, excludeTags, recursive, includeZero);
+
         MapSumEffortAccumulatorFunction<Integer> accumulator = new MapSumEffortAccumulatorFunction()
         {
             public Integer vertexToKey(Vertex effortReportVertex)
@@ -122,6 +150,10 @@ public class ClassificationService extends GraphService<ClassificationModel>
     public Map<IssueCategoryModel, Integer> getMigrationEffortBySeverity(GraphRewrite event,
         ProjectModelTraversal traversal, Set<String> includeTags, Set<String> excludeTags, boolean recursive)
     {
+        IssueRollupService rollupService = new IssueRollupService(getGraphContext());
+        if (rollupService.hasRollups())
+            return rollupService.getMigrationEffortBySeverity(ClassificationModel.TYPE, traversal, includeTags, excludeTags, recursive);
+
         MapSumEffortAccumulatorFunction<IssueCategoryModel> accumulator =  new MapSumEffortAccumulatorFunction<IssueCategoryModel>()
         {
             public IssueCategoryModel vertexToKey(Vertex effortReportVertex)
@@ -155,6 +155,10 @@ public class InlineHintService extends GraphService<InlineHintModel>
     public Map<Integer, Integer> getMigrationEffortByPoints(
         ProjectModelTraversal traversal, Set<String> includeTags, Set<String> excludeTags, boolean recursive, boolean includeZero)
     {
+        IssueRollupService rollupService = new IssueRollupService(getGraphContext());
+        if (rollupService.hasRollups())
+            return rollupService.getMigrationEffortByPoints(InlineHintModel.TYPE, traversal, includeTags, excludeTags, recursive, includeZero);
+
         MapSumEffortAccumulatorFunction<Integer> accumulator = new MapSumEffortAccumulatorFunction(){
             public Object vertexToKey(Vertex effortReportVertex) {
                 Integer migrationEffort = effortReportVertex.getProperty(EffortReportModel.EFFORT);
@@ -171,6 +175,10 @@ public class InlineHintService extends GraphService<InlineHintModel>
     public Map<IssueCategoryModel, Integer> getMigrationEffortBySeverity(GraphRewrite event, ProjectModelTraversal traversal, Set<String> includeTags, Set<String> excludeTags,
                                                                     boolean recursive)
     {
+        IssueRollupService rollupService = new IssueRollupService(getGraphContext());
+        if (rollupService.hasRollups())
+            return rollupService.getMigrationEffortBySeverity(InlineHintModel.TYPE, traversal, includeTags, excludeTags, recursive);
+
         MapSumEffortAccumulatorFunction<IssueCategoryModel> accumulator = new MapSumEffortAccumulatorFunction<IssueCategoryModel>()
         {
             public IssueCategoryModel vertexToKey(Vertex effortReportVertex)
@@ -0,0 +1,202 @@
+package org.jboss.windup.reporting.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.jboss.windup.graph.GraphContext;
+import org.jboss.windup.graph.model.ProjectModel;
+import org.jboss.windup.graph.model.resource.FileModel;
+import org.jboss.windup.graph.service.GraphService;
+import org.jboss.windup.graph.traversal.ProjectModelTraversal;
+import org.jboss.windup.reporting.category.IssueCategoryModel;
+import org.jboss.windup.reporting.model.ClassificationModel;
+import org.jboss.windup.reporting.model.InlineHintModel;
+import org.jboss.windup.reporting.model.IssueRollupModel;
+import org.jboss.windup.reporting.model.TagSetModel;
+import org.jboss.windup.reporting.model.TaggableModel;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Creates and queries the {@link IssueRollupModel}s, which summarize the {@link InlineHintModel}s and {@link ClassificationModel}s of each
+ * {@link ProjectModel}.
+ */
+public class IssueRollupService extends GraphService<IssueRollupModel>
+{
+    private static final Logger LOG = Logger.getLogger(IssueRollupService.class.getName());
+
+    public IssueRollupService(GraphContext context)
+    {
+        super(context, IssueRollupModel.class);
+    }
+
+    /**
+     * Walks all of the {@link InlineHintModel}s and {@link ClassificationModel}s once, and stores their number for each combination of project,
+     * type, {@link IssueCategoryModel}, effort and tags. Any previously created rollups are replaced.
+     */
+    public void createRollups()
+    {
+        List<IssueRollupModel> existing = new ArrayList<>();
+        for (IssueRollupModel rollup : findAll())
+            existing.add(rollup);
+        for (IssueRollupModel rollup : existing)
+            remove(rollup);
+
+        Map<List<Object>, Rollup> rollups = new LinkedHashMap<>();
+        for (InlineHintModel hint : new InlineHintService(getGraphContext()).findAll())
+        {
+            FileModel file = hint.getFile();
+            if (file == null || file.getProjectModel() == null)
+                continue;
+
+            addIssues(rollups, InlineHintModel.TYPE, file.getProjectModel(), hint.getIssueCategory(), hint.getEffort(), hint, 1);
+        }
+
+        for (ClassificationModel classification : new ClassificationService(getGraphContext()).findAll())
+        {
+            // classifications are counted once for each file that they are attached to
+            Map<ProjectModel, Integer> filesByProject = new LinkedHashMap<>();
+            for (FileModel file : classification.getFileModels())
+            {
+                ProjectModel project = file.getProjectModel();
+                if (project == null)
+                    continue;
+
+                Integer count = filesByProject.get(project);
+                filesByProject.put(project, count == null ? 1 : count + 1);
+            }
+
+            if (filesByProject.isEmpty())
+                continue;
+
+            IssueCategoryModel issueCategory = classification.getIssueCategory();
+            for (Map.Entry<ProjectModel, Integer> entry : filesByProject.entrySet())
+                addIssues(rollups, ClassificationModel.TYPE, entry.getKey(), issueCategory, classification.getEffort(), classification, entry.getValue());
+        }
+
+        for (Rollup rollup : rollups.values())
+        {
+            IssueRollupModel model = create();
+            model.setIssueType(rollup.issueType);
+            model.setProjectModel(rollup.project);
+            if (rollup.issueCategory != null)
+                model.setIssueCategory(rollup.issueCategory);
+            if (rollup.tags != null)
+                model.setTagModel(rollup.tags);
+            model.setEffort(rollup.effort);
+            model.setCount(rollup.count);
+        }
+        LOG.info("Created " + rollups.size() + " issue rollups");
+    }
+
+    /**
+     * Returns true if {@link #createRollups()} has created any rollups in this graph.
+     */
+    public boolean hasRollups()
+    {
+        return findAll().iterator().hasNext();
+    }
+
+    /**
+     * Returns the number of issues of the given type ({@link InlineHintModel#TYPE} or {@link ClassificationModel#TYPE}) in the projects of the
+     * given {@link ProjectModelTraversal}. The key is the effort level and the value contains the number of incidents.
+     */
+    public Map<Integer, Integer> getMigrationEffortByPoints(String issueType, ProjectModelTraversal traversal, Set<String> includeTags,
+                Set<String> excludeTags, boolean recursive, boolean includeZero)
+    {
+        Map<Integer, Integer> results = new HashMap<>();
+        for (IssueRollupModel rollup : getRollups(issueType, traversal, includeTags, excludeTags, recursive))
+        {
+            int effort = rollup.getEffort();
+            if (!includeZero && effort <= 0)
+                continue;
+
+            Integer count = results.get(effort);
+            results.put(effort, count == null ? rollup.getCount() : count + rollup.getCount());
+        }
+        return results;
+    }
+
+    /**
+     * Returns the number of issues of the given type ({@link InlineHintModel#TYPE} or {@link ClassificationModel#TYPE}) in the projects of the
+     * given {@link ProjectModelTraversal} by {@link IssueCategoryModel}.
+     */
+    public Map<IssueCategoryModel, Integer> getMigrationEffortBySeverity(String issueType, ProjectModelTraversal traversal, Set<String> includeTags,
+                Set<String> excludeTags, boolean recursive)
+    {
+        Map<IssueCategoryModel, Integer> results = new HashMap<>();
+        for (IssueRollupModel rollup : getRollups(issueType, traversal, includeTags, excludeTags, recursive))
+        {
+            IssueCategoryModel issueCategory = rollup.getIssueCategory();
+            Integer count = results.get(issueCategory);
+            results.put(issueCategory, count == null ? rollup.getCount() : count + rollup.getCount());
+        }
+        return results;
+    }
+
+    private List<IssueRollupModel> getRollups(String issueType, ProjectModelTraversal traversal, Set<String> includeTags, Set<String> excludeTags,
+                boolean recursive)
+    {
+        boolean checkTags = !includeTags.isEmpty() || !excludeTags.isEmpty();
+
+        List<IssueRollupModel> results = new ArrayList<>();
+        for (Vertex projectVertex : traversal.getAllProjectsAsVertices(recursive))
+        {
+            for (Vertex rollupVertex : projectVertex.getVertices(Direction.IN, IssueRollupModel.PROJECT_MODEL))
+            {
+                IssueRollupModel rollup = frame(rollupVertex);
+                if (!issueType.equals(rollup.getIssueType()))
+                    continue;
+
+                // only check tags if we have some passed in
+                if (checkTags && !rollup.matchesTags(includeTags, excludeTags))
+                    continue;
+
+                results.add(rollup);
+            }
+        }
+        return results;
+    }
+
+    private static void addIssues(Map<List<Object>, Rollup> rollups, String issueType, ProjectModel project, IssueCategoryModel issueCategory,
+                int effort, TaggableModel issue, int count)
+    {
+        TagSetModel tags = issue.getTagModel();
+        List<Object> key = Arrays.asList(issueType, project.asVertex().getId(), issueCategory == null ? null : issueCategory.asVertex().getId(),
+                    effort, tags == null ? null : tags.asVertex().getId());
+
+        Rollup rollup = rollups.get(key);
+        if (rollup == null)
+        {
+            rollup = new Rollup(issueType, project, issueCategory, effort, tags);
+            rollups.put(key, rollup);
+        }
+        rollup.count += count;
+    }
+
+    private static class Rollup
+    {
+        private final String issueType;
+        private final ProjectModel project;
+        private final IssueCategoryModel issueCategory;
+        private final int effort;
+        private final TagSetModel tags;
+        private int count;
+
+        public Rollup(String issueType, ProjectModel project, IssueCategoryModel issueCategory, int effort, TagSetModel tags)
+        {
+            this.issueType = issueType;
+            this.project = project;
+            this.issueCategory = issueCategory;
+            this.effort = effort;
+            this.tags = tags;
+        }
+    }
+}
@@ -3,9 +3,9 @@ package org.jboss.windup.reporting.rules.rendering;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -101,45 +101,38 @@ public class RenderReportRuleProvider extends AbstractRuleProvider
         {
             Iterable<? extends WindupVertexFrame> reportModelsIterable = Variables.instance(event)
                         .findVariable(Iteration.DEFAULT_VARIABLE_LIST_STRING);
-            final Queue<WindupVertexFrame> reportModels = new ConcurrentLinkedDeque<>();
+            final List<WindupVertexFrame> reportModels = new ArrayList<>();
             for (WindupVertexFrame frame : reportModelsIterable)
                 reportModels.add(frame);
             final FreeMarkerIterationOperation freeMarkerIterationOperation = FreeMarkerIterationOperation.create(furnace);
             final IterationProgress iterationProgress = IterationProgress.monitoring("Rendering Reports", 100);
 
             int threadCount = WindupExecutors.getDefaultThreadCount();
-            ExecutorService executorService = WindupExecutors.newFixedThreadPool(WindupExecutors.getDefaultThreadCount());
+            ExecutorService executorService = WindupExecutors.newFixedThreadPool(threadCount);
 
             // Set the frames as iteration progress uses this
             event.getRewriteContext().put(Iteration.DEFAULT_VARIABLE_LIST_STRING, reportModels);
             iterationProgress.perform(event, context);
 
-            for (int i = 0; i < threadCount; i++)
+            for (WindupVertexFrame reportModelObject : reportModels)
             {
+                final ReportModel reportModel = (ReportModel) reportModelObject;
                 executorService.submit(new Callable<Void>()
                 {
                     @Override
                     public Void call() throws Exception
                     {
-                        while (true)
+                        try
                         {
-                            final ReportModel reportModel;
-                            WindupVertexFrame reportModelObject = reportModels.remove();
-                            if (reportModelObject == null)
-                                return null;
-                            reportModel = (ReportModel) reportModelObject;
-
-                            try
-                            {
-                                Thread.currentThread().setName(reportModel.getTemplatePath() + "_" + reportModel.getReportFilename());
-                                iterationProgress.perform(event, context);
-                                freeMarkerIterationOperation.perform(event, context, reportModel);
-                            }
-                            catch (Throwable t)
-                            {
-                                LOG.log(Level.WARNING, "Failed to render freemarker report:\n    " + reportModel + "\n    " + t.getMessage(), t);
-                            }
+                            Thread.currentThread().setName(reportModel.getTemplatePath() + "_" + reportModel.getReportFilename());
+                            iterationProgress.perform(event, context);
+                            freeMarkerIterationOperation.perform(event, context, reportModel);
                         }
+                        catch (Throwable t)
+                        {
+                            LOG.log(Level.WARNING, "Failed to render freemarker report:\n    " + reportModel + "\n    " + t.getMessage(), t);
+                        }
+                        return null;
                     }
                 });
             }
@@ -10,6 +10,7 @@ import javax.inject.Inject;
 import org.apache.commons.io.FileUtils;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.forge.furnace.Furnace;
 import org.jboss.forge.arquillian.AddonDependency;
 import org.jboss.forge.arquillian.AddonDependencies;
 import org.jboss.forge.arquillian.archive.AddonArchive;
@@ -21,6 +22,8 @@ import org.jboss.windup.graph.GraphContext;
 import org.jboss.windup.graph.GraphContextFactory;
 import org.jboss.windup.graph.model.WindupConfigurationModel;
 import org.jboss.windup.graph.service.FileService;
+import org.jboss.windup.reporting.freemarker.FreeMarkerIterationOperation;
+import org.jboss.windup.reporting.freemarker.FreeMarkerUtil;
 import org.jboss.windup.reporting.model.ApplicationReportModel;
 import org.junit.Assert;
 import org.junit.Test;
@@ -53,6 +56,9 @@ public class FreeMarkerIterationOperationTest
     @Inject
     private TestFreeMarkerOperationRuleProvider provider;
 
+    @Inject
+    private Furnace furnace;
+
     private Path tempFolder;
 
     @Test
@@ -74,6 +80,38 @@ public class FreeMarkerIterationOperationTest
         }
     }
 
+    /**
+     * All of the reports of an execution are rendered with the same configuration, so the template is only parsed once.
+     */
+    @Test
+    public void testReportsShareTheConfiguration() throws Exception
+    {
+        try (GraphContext context = factory.create())
+        {
+            GraphRewrite event = new GraphRewrite(context);
+            DefaultEvaluationContext evaluationContext = ReportingTestUtil.createEvalContext(event);
+            fillData(context);
+
+            FreeMarkerIterationOperation operation = FreeMarkerIterationOperation.create(furnace);
+            for (int i = 0; i < 3; i++)
+            {
+                ApplicationReportModel reportModel = context.getFramed().addVertex(null, ApplicationReportModel.class);
+                reportModel.setTemplatePath("/reports/templates/FreeMarkerOperationTest.ftl");
+                reportModel.setReportFilename("sharedconfiguration" + i + ".html");
+                operation.perform(event, evaluationContext, reportModel);
+            }
+
+            for (int i = 0; i < 3; i++)
+            {
+                Path outputFile = tempFolder.resolve("reports").resolve("sharedconfiguration" + i + ".html");
+                Assert.assertEquals("Test freemarker report", FileUtils.readFileToString(outputFile.toFile()));
+            }
+            Assert.assertSame(FreeMarkerUtil.getSharedFreemarkerConfiguration(event), FreeMarkerUtil.getSharedFreemarkerConfiguration(event));
+            Assert.assertNotSame(FreeMarkerUtil.getSharedFreemarkerConfiguration(event),
+                        FreeMarkerUtil.getSharedFreemarkerConfiguration(new GraphRewrite(context)));
+        }
+    }
+
     private void fillData(final GraphContext context) throws Exception
     {
         WindupConfigurationModel cfgModel = context.getFramed().addVertex(null, WindupConfigurationModel.class);
@@ -23,6 +23,7 @@ import org.jboss.windup.graph.service.ProjectService;
 import org.jboss.windup.graph.traversal.ProjectModelTraversal;
 import org.jboss.windup.reporting.model.InlineHintModel;
 import org.jboss.windup.reporting.service.InlineHintService;
+import org.jboss.windup.reporting.service.IssueRollupService;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -89,6 +90,30 @@ public class InlineHintServiceTest
         }
     }
 
+    @Test
+    public void testHintEffortFromRollups() throws Exception
+    {
+        try (GraphContext context = factory.create())
+        {
+            InlineHintService inlineHintService = new InlineHintService(context);
+
+            ProjectModel projectModel = fillData(context);
+            ProjectModelTraversal projectModelTraversal = new ProjectModelTraversal(projectModel);
+            Set<String> emptySet = Collections.emptySet();
+            final Map<Integer, Integer> scannedEffort = inlineHintService.getMigrationEffortByPoints(projectModelTraversal, emptySet, emptySet, true, true);
+
+            IssueRollupService rollupService = new IssueRollupService(context);
+            rollupService.createRollups();
+            Assert.assertTrue(rollupService.hasRollups());
+
+            final Map<Integer, Integer> rollupEffort = inlineHintService.getMigrationEffortByPoints(projectModelTraversal, emptySet, emptySet, true, true);
+            Assert.assertEquals(scannedEffort, rollupEffort);
+            Assert.assertEquals(Integer.valueOf(1), rollupEffort.get(50));
+            Assert.assertEquals(Integer.valueOf(1), rollupEffort.get(100));
+            Assert.assertEquals(Integer.valueOf(1), rollupEffort.get(3));
+        }
+    }
+
     @Test
     public void testFindHintsForProject() throws Exception
     {
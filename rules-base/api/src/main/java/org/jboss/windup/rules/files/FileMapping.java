@@ -166,9 +166,27 @@ public class FileMapping extends GraphRule implements PreRulesetEvaluation, File
             result = new ArrayList<>();
             mappings.put(pattern, result);
         }
+
+        // the returned list may be modified, so the mappings need to be compiled again
+        event.getRewriteContext().put(FileMappingMatcher.class, null);
         return result;
     }
 
+    /**
+     * Get a {@link FileMappingMatcher} for all of the mappings of the {@link GraphRewrite} event. The matcher is compiled once, and then reused
+     * until the mappings change.
+     */
+    public static FileMappingMatcher getMatcher(GraphRewrite event)
+    {
+        FileMappingMatcher matcher = (FileMappingMatcher) event.getRewriteContext().get(FileMappingMatcher.class);
+        if (matcher == null)
+        {
+            matcher = new FileMappingMatcher(getMappings(event));
+            event.getRewriteContext().put(FileMappingMatcher.class, matcher);
+        }
+        return matcher;
+    }
+
     /**
      * Add a {@link WindupVertexFrame} type to the list of mappings for the given pattern and {@link GraphRewrite}
      * event.
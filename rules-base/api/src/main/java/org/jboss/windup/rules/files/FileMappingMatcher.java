@@ -0,0 +1,203 @@
+package org.jboss.windup.rules.files;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Pattern;
+
+import org.jboss.windup.graph.model.WindupVertexFrame;
+
+/**
+ * Matches file paths against all of the {@link FileMapping} patterns at once. The patterns are compiled when the matcher is created.
+ *
+ * Patterns that only check the end of the path (for example <code>.*\.tld$</code>) are put into a trie of the reversed suffixes, so all of them
+ * are checked by walking the path backwards once. Other patterns are matched with their precompiled {@link Pattern}.
+ */
+public class FileMappingMatcher
+{
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private final List<String> patterns = new ArrayList<>();
+    private final List<List<Class<? extends WindupVertexFrame>>> types = new ArrayList<>();
+    private final List<Pattern> compiledPatterns = new ArrayList<>();
+    private final List<Integer> regexIndexes = new ArrayList<>();
+    private final SuffixNode suffixes = new SuffixNode();
+
+    /**
+     * Compiles the given mappings of patterns to {@link WindupVertexFrame} types, as returned by {@link FileMapping#getMappings(org.jboss.windup.config.GraphRewrite)}.
+     */
+    public FileMappingMatcher(Map<String, List<Class<? extends WindupVertexFrame>>> mappings)
+    {
+        for (Entry<String, List<Class<? extends WindupVertexFrame>>> entry : mappings.entrySet())
+        {
+            int index = patterns.size();
+            patterns.add(entry.getKey());
+            types.add(new ArrayList<>(entry.getValue()));
+            compiledPatterns.add(Pattern.compile(entry.getKey()));
+
+            String suffix = getLiteralSuffix(entry.getKey());
+            if (suffix == null)
+                regexIndexes.add(index);
+            else
+                suffixes.add(suffix, index);
+        }
+    }
+
+    /**
+     * Gets the patterns that match the whole given path, along with their types, in the order in which the mappings were given.
+     */
+    public Map<String, List<Class<? extends WindupVertexFrame>>> getMatches(String path)
+    {
+        if (path == null || patterns.isEmpty())
+            return Collections.emptyMap();
+
+        boolean[] matched = new boolean[patterns.size()];
+        boolean any = false;
+        if (containsLineTerminator(path))
+        {
+            // ".*" does not match line terminators, so the suffix trie does not apply to these
+            for (int i = 0; i < compiledPatterns.size(); i++)
+                any |= matched[i] = compiledPatterns.get(i).matcher(path).matches();
+        }
+        else
+        {
+            any = suffixes.match(path, matched);
+            for (Integer index : regexIndexes)
+            {
+                if (compiledPatterns.get(index).matcher(path).matches())
+                    any = matched[index] = true;
+            }
+        }
+
+        if (!any)
+            return Collections.emptyMap();
+
+        Map<String, List<Class<? extends WindupVertexFrame>>> result = new LinkedHashMap<>();
+        for (int i = 0; i < matched.length; i++)
+        {
+            if (matched[i])
+                result.put(patterns.get(i), types.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * If the given regex is of the form <code>.*literal</code> (optionally starting with <code>^</code> and ending with <code>$</code>), returns
+     * the literal. Otherwise, returns null.
+     */
+    static String getLiteralSuffix(String regex)
+    {
+        int start = regex.startsWith("^") ? 1 : 0;
+        if (!regex.startsWith(".*", start))
+            return null;
+        start += 2;
+
+        int end = regex.length();
+        if (end > start && regex.charAt(end - 1) == '$' && !isEscaped(regex, end - 1))
+            end--;
+
+        StringBuilder literal = new StringBuilder();
+        for (int i = start; i < end; i++)
+        {
+            char c = regex.charAt(i);
+            if (c == '\\')
+            {
+                if (i + 1 >= end)
+                    return null;
+                char escaped = regex.charAt(++i);
+                // escaped letters and digits are character classes or back references, not literals
+                if (Character.isLetterOrDigit(escaped))
+                    return null;
+                literal.append(escaped);
+            }
+            else if (REGEX_METACHARACTERS.indexOf(c) != -1)
+            {
+                return null;
+            }
+            else
+            {
+                literal.append(c);
+            }
+        }
+        return literal.toString();
+    }
+
+    private static boolean isEscaped(String regex, int index)
+    {
+        int backslashes = 0;
+        for (int i = index - 1; i >= 0 && regex.charAt(i) == '\\'; i--)
+            backslashes++;
+        return backslashes % 2 == 1;
+    }
+
+    private static boolean containsLineTerminator(String path)
+    {
+        for (int i = 0; i < path.length(); i++)
+        {
+            char c = path.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029')
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FileMappingMatcher " + patterns;
+    }
+
+    /**
+     * A node in the trie of reversed suffixes.
+     */
+    private static class SuffixNode
+    {
+        private Map<Character, SuffixNode> children;
+        private int[] indexes = new int[0];
+
+        void add(String suffix, int index)
+        {
+            SuffixNode node = this;
+            for (int i = suffix.length() - 1; i >= 0; i--)
+            {
+                if (node.children == null)
+                    node.children = new HashMap<>();
+
+                SuffixNode child = node.children.get(suffix.charAt(i));
+                if (child == null)
+                {
+                    child = new SuffixNode();
+                    node.children.put(suffix.charAt(i), child);
+                }
+                node = child;
+            }
+            node.indexes = Arrays.copyOf(node.indexes, node.indexes.length + 1);
+            node.indexes[node.indexes.length - 1] = index;
+        }
+
+        /**
+         * Marks the indexes of all suffixes of the given path, and returns true if there were any.
+         */
+        boolean match(String path, boolean[] matched)
+        {
+            boolean any = false;
+            SuffixNode node = this;
+            int position = path.length();
+            while (node != null)
+            {
+                for (int index : node.indexes)
+                    any = matched[index] = true;
+
+                if (node.children == null || position == 0)
+                    break;
+                node = node.children.get(path.charAt(--position));
+            }
+            return any;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.jboss.windup.graph.model.WindupVertexFrame;
 import org.jboss.windup.graph.model.resource.FileModel;
 import org.jboss.windup.graph.service.FileService;
 import org.jboss.windup.graph.service.GraphService;
+import org.jboss.windup.rules.files.condition.regex.FileContentScanner;
 import org.jboss.windup.rules.files.condition.regex.StreamRegexMatchListener;
 import org.jboss.windup.rules.files.condition.regex.StreamRegexMatchedEvent;
 import org.jboss.windup.rules.files.condition.regex.StreamRegexMatcher;
@@ -122,7 +123,11 @@ public class FileContent extends ParameterizedGraphCondition implements FileCont
     public void setParameterStore(ParameterStore store)
     {
         if (contentPattern != null)
+        {
             contentPattern.setParameterStore(store);
+            // registered again for each execution, as the patterns of the previous one are cleared
+            FileContentScanner.registerPattern(contentPattern.getCompiledPattern(store).pattern());
+        }
         if (filenamePattern != null)
             filenamePattern.setParameterStore(store);
     }
@@ -186,6 +191,7 @@ public class FileContent extends ParameterizedGraphCondition implements FileCont
         fileNameInput(fileModels, event, store);
         allInput(fileModels, event, store);
 
+        final FileContentScanner scanner = FileContentScanner.instance(event);
         final List<FileLocationModel> results = new ArrayList<>();
         for (final FileModel fileModel : fileModels)
         {
@@ -204,8 +210,6 @@ public class FileContent extends ParameterizedGraphCondition implements FileCont
             final ParameterizedPatternResult parsedFileNamePattern2 = parsedFileNamePattern;
             try
             {
-                Reader reader = new FileReader(fileModel.asFile());
-
                 Pattern fileContentsRegex = contentPattern.getCompiledPattern(store);
                 StreamRegexMatchListener matchListener = new StreamRegexMatchListener()
                 {
@@ -246,6 +250,18 @@ public class FileContent extends ParameterizedGraphCondition implements FileCont
                     }
                 };
 
+                List<StreamRegexMatchedEvent> matches = null;
+                if (scanner != null)
+                    matches = scanner.getMatches(fileModel.asFile(), fileContentsRegex.pattern());
+
+                if (matches != null)
+                {
+                    for (StreamRegexMatchedEvent matchEvent : matches)
+                        matchListener.regexMatched(matchEvent);
+                    continue;
+                }
+
+                Reader reader = new FileReader(fileModel.asFile());
                 Modifier regexModifier = StreamRegexMatcher.create(fileContentsRegex.pattern(), matchListener);
                 try (ModifyingReader modifyingReader = new ModifyingReader(reader, regexModifier))
                 {
@@ -0,0 +1,309 @@
+package org.jboss.windup.rules.files.condition.regex;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jboss.windup.config.GraphRewrite;
+import org.jboss.windup.rules.files.condition.FileContent;
+import org.jboss.windup.util.ExecutionStatistics;
+
+/**
+ * Scans the contents of each file once for all of the patterns used by {@link FileContent} conditions.
+ * <p>
+ * The first time that a file is requested, it is read and all registered patterns are matched against its contents in a single pass. The
+ * matches for each pattern are kept, so that the other {@link FileContent} conditions can use them without reading the file again. Line and
+ * column numbers follow the same (0-based) semantics as the {@link StreamRegexMatcher}. The results are kept for the most recently requested
+ * files, up to the number given by the {@link #CACHE_SIZE_PROPERTY} system property (default {@value #DEFAULT_CACHE_SIZE}). At most
+ * {@value #MAX_REGISTERED_PATTERNS} patterns are scanned for up front, and any others are scanned for separately when they are first requested.
+ * <p>
+ * Only text files of up to {@link #MAX_SCANNED_FILE_SIZE} bytes are loaded into memory. Larger files, and binary files (containing a NUL
+ * character near the start), are left to the streaming matcher of the caller, as before.
+ *
+ * @see FileContentScannerLifecycleListener
+ */
+public class FileContentScanner
+{
+    /**
+     * The number of files for which the matches are kept.
+     */
+    public static final String CACHE_SIZE_PROPERTY = "windup.fileContent.cacheSize";
+    static final int DEFAULT_CACHE_SIZE = 100000;
+    static final int MAX_REGISTERED_PATTERNS = 10000;
+
+    private static final Set<String> registeredRegexes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private static final Pattern LINE_BREAK = Pattern.compile("\r\n|\r|\n");
+
+    /**
+     * Files larger than this are not decoded into memory, and are streamed by the caller instead.
+     */
+    static final long MAX_SCANNED_FILE_SIZE = 16L * 1024L * 1024L;
+    private static final int BINARY_CHECK_SIZE = 8192;
+
+    private final Map<String, Pattern> compiledPatterns = new ConcurrentHashMap<>();
+    private final Map<String, ScannedFile> scannedFiles;
+    private Set<String> registeredRegexesSnapshot = Collections.emptySet();
+
+    public FileContentScanner()
+    {
+        this(Integer.getInteger(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE));
+    }
+
+    private FileContentScanner(final int cacheSize)
+    {
+        this.scannedFiles = Collections.synchronizedMap(new LinkedHashMap<String, ScannedFile>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ScannedFile> eldest)
+            {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Gets the {@link FileContentScanner} registered for the given event, or null if none was registered.
+     */
+    public static FileContentScanner instance(GraphRewrite event)
+    {
+        return (FileContentScanner) event.getRewriteContext().get(FileContentScanner.class);
+    }
+
+    /**
+     * Registers a new {@link FileContentScanner} with the given event.
+     */
+    static void register(GraphRewrite event)
+    {
+        event.getRewriteContext().put(FileContentScanner.class, new FileContentScanner());
+    }
+
+    /**
+     * Registers a pattern that should be matched whenever a file is scanned. This is ignored once {@link #MAX_REGISTERED_PATTERNS} patterns have
+     * been registered.
+     */
+    public static void registerPattern(String regex)
+    {
+        if (registeredRegexes.size() < MAX_REGISTERED_PATTERNS)
+            registeredRegexes.add(regex);
+    }
+
+    /**
+     * Forgets all of the registered patterns, so that the patterns of a previous execution in the same runtime are not scanned for again.
+     */
+    static void clearPatterns()
+    {
+        registeredRegexes.clear();
+    }
+
+    /**
+     * Returns all matches of the given regex within the given file, in the order in which they occur. If the file has not been scanned before, it is
+     * scanned for all registered patterns at once.
+     * <p>
+     * Returns null if the file is larger than {@link #MAX_SCANNED_FILE_SIZE}, or if it is binary. In that case, the caller needs to stream the file
+     * itself.
+     */
+    public List<StreamRegexMatchedEvent> getMatches(File file, String regex) throws IOException
+    {
+        if (file.length() > MAX_SCANNED_FILE_SIZE)
+            return null;
+
+        String key = file.getAbsolutePath();
+        ScannedFile scannedFile = scannedFiles.get(key);
+        if (scannedFile == null || !scannedFile.isCurrent(file))
+        {
+            Set<String> regexes = getRegisteredRegexes();
+            if (!regexes.contains(regex))
+            {
+                regexes = new HashSet<>(regexes);
+                regexes.add(regex);
+            }
+            scannedFile = scan(file, regexes);
+            scannedFiles.put(key, scannedFile);
+        }
+        else if (scannedFile.binary)
+        {
+            return null;
+        }
+        else if (!scannedFile.regexes.contains(regex))
+        {
+            // The pattern was registered after this file was scanned, so scan the file for it alone
+            ScannedFile single = scan(file, Collections.singleton(regex));
+            scannedFile = scannedFile.merge(single);
+            scannedFiles.put(key, scannedFile);
+        }
+
+        if (scannedFile.binary)
+            return null;
+
+        List<StreamRegexMatchedEvent> result = scannedFile.matches.get(regex);
+        return result == null ? Collections.<StreamRegexMatchedEvent> emptyList() : result;
+    }
+
+    private ScannedFile scan(File file, Set<String> regexes) throws IOException
+    {
+        ExecutionStatistics.get().begin("FileContentScanner.scan");
+        try
+        {
+            long lastModified = file.lastModified();
+            long length = file.length();
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            if (isBinary(bytes))
+                return new ScannedFile(lastModified, length, regexes, null);
+
+            CharSequence contents = decode(bytes);
+            int[] lineStarts = getLineStarts(contents);
+
+            Map<String, List<StreamRegexMatchedEvent>> matches = new HashMap<>();
+            for (String regex : regexes)
+            {
+                Matcher matcher = getPattern(regex).matcher(contents);
+                List<StreamRegexMatchedEvent> regexMatches = null;
+                while (matcher.find())
+                {
+                    if (regexMatches == null)
+                        regexMatches = new ArrayList<>();
+
+                    int line = getLine(lineStarts, matcher.start());
+                    int column = matcher.start() - lineStarts[line];
+                    regexMatches.add(new StreamRegexMatchedEvent(matcher.group(), line, column));
+                }
+
+                if (regexMatches != null)
+                    matches.put(regex, regexMatches);
+            }
+            return new ScannedFile(lastModified, length, regexes, matches);
+        }
+        finally
+        {
+            ExecutionStatistics.get().end("FileContentScanner.scan");
+        }
+    }
+
+    /**
+     * Returns a copy of the registered patterns. The copy is shared by all files scanned until another pattern is registered.
+     */
+    private synchronized Set<String> getRegisteredRegexes()
+    {
+        // Patterns are only unregistered between executions (before this scanner is created), so a change in size means that the snapshot is
+        // out of date
+        if (registeredRegexesSnapshot.size() != registeredRegexes.size())
+            registeredRegexesSnapshot = Collections.unmodifiableSet(new HashSet<>(registeredRegexes));
+        return registeredRegexesSnapshot;
+    }
+
+    private Pattern getPattern(String regex)
+    {
+        Pattern pattern = compiledPatterns.get(regex);
+        if (pattern == null)
+        {
+            pattern = Pattern.compile(regex);
+            compiledPatterns.put(regex, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * Returns true if the start of the file contains a NUL byte, which text files (in the encodings that rules are written for) do not.
+     */
+    private static boolean isBinary(byte[] bytes)
+    {
+        int checked = Math.min(bytes.length, BINARY_CHECK_SIZE);
+        for (int i = 0; i < checked; i++)
+        {
+            if (bytes[i] == 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Decodes the file contents with the platform default charset (as {@link java.io.FileReader} does), replacing any malformed input.
+     * <p>
+     * The file is read into the heap rather than memory mapped, as a mapping would keep the file locked (on Windows) until it is garbage collected.
+     */
+    private static CharSequence decode(byte[] bytes) throws IOException
+    {
+        return Charset.defaultCharset().newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                    .decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Returns the offset at which each line starts, treating "\r\n", "\r" and "\n" as line breaks.
+     */
+    static int[] getLineStarts(CharSequence contents)
+    {
+        int[] lineStarts = new int[16];
+        int lines = 1;
+        Matcher matcher = LINE_BREAK.matcher(contents);
+        while (matcher.find())
+        {
+            if (lines == lineStarts.length)
+                lineStarts = Arrays.copyOf(lineStarts, lines * 2);
+            lineStarts[lines++] = matcher.end();
+        }
+        return Arrays.copyOf(lineStarts, lines);
+    }
+
+    /**
+     * Returns the (0-based) line containing the given offset.
+     */
+    static int getLine(int[] lineStarts, int offset)
+    {
+        int index = Arrays.binarySearch(lineStarts, offset);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private static class ScannedFile
+    {
+        private final long lastModified;
+        private final long length;
+        private final Set<String> regexes;
+        /**
+         * Null for binary files, which are not scanned.
+         */
+        private final Map<String, List<StreamRegexMatchedEvent>> matches;
+        private final boolean binary;
+
+        public ScannedFile(long lastModified, long length, Set<String> regexes, Map<String, List<StreamRegexMatchedEvent>> matches)
+        {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.regexes = regexes;
+            this.matches = matches;
+            this.binary = matches == null;
+        }
+
+        public boolean isCurrent(File file)
+        {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+
+        public ScannedFile merge(ScannedFile other)
+        {
+            Set<String> mergedRegexes = new HashSet<>(regexes);
+            mergedRegexes.addAll(other.regexes);
+            Map<String, List<StreamRegexMatchedEvent>> mergedMatches = new HashMap<>(matches);
+            mergedMatches.putAll(other.matches);
+            return new ScannedFile(lastModified, length, mergedRegexes, mergedMatches);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.jboss.windup.rules.files.condition.regex;
+
+import org.jboss.windup.config.AbstractRuleLifecycleListener;
+import org.jboss.windup.config.GraphRewrite;
+
+/**
+ * Registers a fresh {@link FileContentScanner} before each execution of Windup, and forgets the patterns registered by previous executions.
+ */
+public class FileContentScannerLifecycleListener extends AbstractRuleLifecycleListener
+{
+    @Override
+    public void beforeExecution(GraphRewrite event)
+    {
+        FileContentScanner.clearPatterns();
+        FileContentScanner.register(event);
+    }
+}
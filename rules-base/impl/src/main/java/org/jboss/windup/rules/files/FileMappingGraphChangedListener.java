@@ -6,10 +6,9 @@ import java.util.Map.Entry;
 import java.util.logging.Logger;
 
 import org.jboss.windup.config.GraphRewrite;
+import org.jboss.windup.graph.GraphTypeManager;
 import org.jboss.windup.graph.model.WindupVertexFrame;
 import org.jboss.windup.graph.model.resource.FileModel;
-import org.jboss.windup.graph.service.FileService;
-import org.jboss.windup.graph.service.GraphService;
 
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Vertex;
@@ -39,30 +38,27 @@ public class FileMappingGraphChangedListener implements GraphChangedListener
         if ( ! FileModel.FILE_PATH.equals(key))
             return;
 
-        FileService fileService = new FileService(event.getGraphContext());
-        FileModel model = fileService.frame(vertex);
-
-        if ( model.isDirectory())
+        // Compare the value being set to "fileType" against the compiled file mapping patterns.
+        Map<String, List<Class<? extends WindupVertexFrame>>> matches = FileMapping.getMatcher(event).getMatches((String) setValue);
+        if (matches.isEmpty())
             return;
 
-        Map<String, List<Class<? extends WindupVertexFrame>>> mappings = FileMapping.getMappings(event);
+        if (Boolean.TRUE.equals(vertex.getProperty(FileModel.IS_DIRECTORY)))
+            return;
 
-        // Compare the value being set to "fileType" against file mapping patterns.
-        // If it matches, add the vertex types to this vertex.
-        for (Entry<String, List<Class<? extends WindupVertexFrame>>> entry : mappings.entrySet())
+        // Add the types of all matching patterns to the vertex at once, without framing it for each type.
+        GraphTypeManager typeManager = event.getGraphContext().getGraphTypeManager();
+        for (Entry<String, List<Class<? extends WindupVertexFrame>>> entry : matches.entrySet())
         {
             String pattern = entry.getKey();
             List<Class<? extends WindupVertexFrame>> types = entry.getValue();
 
-            if (((String) setValue).matches(pattern))
+            for (Class<? extends WindupVertexFrame> type : types)
             {
-                for (Class<? extends WindupVertexFrame> type : types)
-                {
-                    GraphService.addTypeToModel(event.getGraphContext(), model, type);
-                }
-                LOG.fine("Mapped file [" + model.getFilePath() + "] matching pattern [" + pattern + "] "
-                    + "to the following [" + types.size() + "] types: " + types);
+                typeManager.addTypeToElement(type, vertex);
             }
+            LOG.fine("Mapped file [" + setValue + "] matching pattern [" + pattern + "] "
+                + "to the following [" + types.size() + "] types: " + types);
         }
     }
 
@@ -0,0 +1,138 @@
+package org.jboss.windup.rules.apps.condition;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.windup.rules.files.condition.regex.FileContentScanner;
+import org.jboss.windup.rules.files.condition.regex.StreamRegexMatchListener;
+import org.jboss.windup.rules.files.condition.regex.StreamRegexMatchedEvent;
+import org.jboss.windup.rules.files.condition.regex.StreamRegexMatcher;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.rwitzel.streamflyer.core.ModifyingReader;
+
+public class FileContentScannerTest
+{
+    private static final String CONTENTS = "first line with a needle\r\nsecond line\rthird needle line\n\nneedle at the start\nlast needle";
+
+    @Test
+    public void testMatchesAreSameAsStreamMatcher() throws Exception
+    {
+        File file = File.createTempFile("FileContentScannerTest", ".txt");
+        try
+        {
+            FileUtils.write(file, CONTENTS);
+
+            FileContentScanner.registerPattern("needle");
+            FileContentScanner.registerPattern("line");
+            FileContentScanner scanner = new FileContentScanner();
+
+            for (String regex : new String[] { "needle", "line", "s[a-z]+" })
+            {
+                List<StreamRegexMatchedEvent> expected = streamMatches(regex);
+                List<StreamRegexMatchedEvent> actual = scanner.getMatches(file, regex);
+
+                Assert.assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++)
+                {
+                    Assert.assertEquals(expected.get(i).getMatch(), actual.get(i).getMatch());
+                    Assert.assertEquals(expected.get(i).getLineNumber(), actual.get(i).getLineNumber());
+                    Assert.assertEquals(expected.get(i).getColumnNumber(), actual.get(i).getColumnNumber());
+                }
+            }
+
+            Assert.assertTrue(scanner.getMatches(file, "haystack").isEmpty());
+        }
+        finally
+        {
+            FileUtils.deleteQuietly(file);
+        }
+    }
+
+    @Test
+    public void testLargeAndBinaryFilesAreNotLoaded() throws Exception
+    {
+        File largeFile = File.createTempFile("FileContentScannerTest", ".txt");
+        File binaryFile = File.createTempFile("FileContentScannerTest", ".bin");
+        try
+        {
+            try (RandomAccessFile file = new RandomAccessFile(largeFile, "rw"))
+            {
+                file.setLength(17L * 1024L * 1024L);
+            }
+            FileUtils.writeByteArrayToFile(binaryFile, new byte[] { 'n', 'e', 'e', 'd', 'l', 'e', 0, 1, 2 });
+
+            FileContentScanner scanner = new FileContentScanner();
+            Assert.assertNull(scanner.getMatches(largeFile, "needle"));
+            Assert.assertNull(scanner.getMatches(binaryFile, "needle"));
+            // the binary check is kept, so the file is not read again
+            Assert.assertNull(scanner.getMatches(binaryFile, "needle"));
+        }
+        finally
+        {
+            FileUtils.deleteQuietly(largeFile);
+            FileUtils.deleteQuietly(binaryFile);
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedFilesAreEvicted() throws Exception
+    {
+        File first = File.createTempFile("FileContentScannerTest", ".txt");
+        File second = File.createTempFile("FileContentScannerTest", ".txt");
+        try
+        {
+            FileUtils.write(first, CONTENTS);
+            FileUtils.write(second, CONTENTS);
+
+            FileContentScanner scanner;
+            System.setProperty(FileContentScanner.CACHE_SIZE_PROPERTY, "1");
+            try
+            {
+                scanner = new FileContentScanner();
+            }
+            finally
+            {
+                System.clearProperty(FileContentScanner.CACHE_SIZE_PROPERTY);
+            }
+
+            List<StreamRegexMatchedEvent> matches = scanner.getMatches(first, "needle");
+            Assert.assertSame(matches, scanner.getMatches(first, "needle"));
+
+            scanner.getMatches(second, "needle");
+            List<StreamRegexMatchedEvent> rescanned = scanner.getMatches(first, "needle");
+            Assert.assertNotSame(matches, rescanned);
+            Assert.assertEquals(matches.size(), rescanned.size());
+        }
+        finally
+        {
+            FileUtils.deleteQuietly(first);
+            FileUtils.deleteQuietly(second);
+        }
+    }
+
+    private List<StreamRegexMatchedEvent> streamMatches(String regex) throws Exception
+    {
+        final List<StreamRegexMatchedEvent> result = new ArrayList<>();
+        StreamRegexMatcher matcher = StreamRegexMatcher.create(regex, new StreamRegexMatchListener()
+        {
+            @Override
+            public void regexMatched(StreamRegexMatchedEvent event)
+            {
+                result.add(event);
+            }
+        });
+        try (ModifyingReader reader = new ModifyingReader(new StringReader(CONTENTS), matcher))
+        {
+            char[] buffer = new char[1024];
+            while (reader.read(buffer) != -1)
+                ;
+        }
+        return result;
+    }
+}
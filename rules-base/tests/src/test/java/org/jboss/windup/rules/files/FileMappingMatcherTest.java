@@ -0,0 +1,99 @@
+package org.jboss.windup.rules.files;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.jboss.windup.graph.model.ProjectModel;
+import org.jboss.windup.graph.model.WindupVertexFrame;
+import org.jboss.windup.graph.model.resource.FileModel;
+import org.jboss.windup.graph.model.resource.SourceFileModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FileMappingMatcherTest
+{
+    private static final String XML = "^.*\\.xml$";
+    private static final String WEB_INF_XML = "^.*/WEB-INF/.*\\.xml$";
+    private static final String WEB_XML = ".*web\\.xml";
+    private static final String TLD = ".*\\.tld$";
+
+    @Test
+    public void testMatchesAreInTheOrderOfTheMappings()
+    {
+        FileMappingMatcher matcher = new FileMappingMatcher(createMappings());
+
+        Map<String, List<Class<? extends WindupVertexFrame>>> matches = matcher.getMatches("/app/WEB-INF/web.xml");
+
+        // the suffix patterns and the other regular expressions are reported in the order of the mappings
+        Assert.assertEquals(Arrays.asList(XML, WEB_INF_XML, WEB_XML), new ArrayList<>(matches.keySet()));
+        Assert.assertEquals(Collections.singletonList(FileModel.class), matches.get(XML));
+        Assert.assertEquals(Arrays.asList(SourceFileModel.class, ProjectModel.class), matches.get(WEB_INF_XML));
+        Assert.assertEquals(Collections.singletonList(SourceFileModel.class), matches.get(WEB_XML));
+
+        Assert.assertEquals(Arrays.asList(XML), new ArrayList<>(matcher.getMatches("/app/META-INF/application.xml").keySet()));
+        Assert.assertEquals(Arrays.asList(TLD), new ArrayList<>(matcher.getMatches("/app/WEB-INF/tags.tld").keySet()));
+    }
+
+    @Test
+    public void testNonMatchingPath()
+    {
+        FileMappingMatcher matcher = new FileMappingMatcher(createMappings());
+
+        Assert.assertTrue(matcher.getMatches("/app/WEB-INF/readme.txt").isEmpty());
+        Assert.assertTrue(matcher.getMatches("/app/WEB-INF/web.xml.bak").isEmpty());
+        Assert.assertTrue(matcher.getMatches("xml").isEmpty());
+        Assert.assertTrue(matcher.getMatches(null).isEmpty());
+        Assert.assertTrue(new FileMappingMatcher(Collections.emptyMap()).getMatches("/app/web.xml").isEmpty());
+    }
+
+    /**
+     * The matcher must give the same results as matching each of the patterns on its own.
+     */
+    @Test
+    public void testSameResultsAsThePatterns()
+    {
+        Map<String, List<Class<? extends WindupVertexFrame>>> mappings = createMappings();
+        FileMappingMatcher matcher = new FileMappingMatcher(mappings);
+
+        List<String> paths = Arrays.asList("/app/WEB-INF/web.xml", "web.xml", ".xml", "/a/WEB-INF/b/c.tld", "/a/WEB-INF/\nweb.xml", "/a/b.XML", "");
+        for (String path : paths)
+        {
+            List<String> expected = new ArrayList<>();
+            for (String pattern : mappings.keySet())
+            {
+                if (Pattern.compile(pattern).matcher(path).matches())
+                    expected.add(pattern);
+            }
+            Assert.assertEquals(path, expected, new ArrayList<>(matcher.getMatches(path).keySet()));
+        }
+    }
+
+    @Test
+    public void testLiteralSuffix()
+    {
+        Assert.assertEquals(".xml", FileMappingMatcher.getLiteralSuffix(XML));
+        Assert.assertEquals("web.xml", FileMappingMatcher.getLiteralSuffix(WEB_XML));
+        Assert.assertEquals(".tld", FileMappingMatcher.getLiteralSuffix(TLD));
+        Assert.assertEquals("a$", FileMappingMatcher.getLiteralSuffix(".*a\\$"));
+
+        Assert.assertNull(FileMappingMatcher.getLiteralSuffix(WEB_INF_XML));
+        Assert.assertNull(FileMappingMatcher.getLiteralSuffix("web\\.xml"));
+        Assert.assertNull(FileMappingMatcher.getLiteralSuffix(".*\\d\\.xml"));
+        Assert.assertNull(FileMappingMatcher.getLiteralSuffix(".*\\.(xml|tld)"));
+    }
+
+    private static Map<String, List<Class<? extends WindupVertexFrame>>> createMappings()
+    {
+        Map<String, List<Class<? extends WindupVertexFrame>>> mappings = new LinkedHashMap<>();
+        mappings.put(XML, Collections.<Class<? extends WindupVertexFrame>> singletonList(FileModel.class));
+        mappings.put(WEB_INF_XML, Arrays.<Class<? extends WindupVertexFrame>> asList(SourceFileModel.class, ProjectModel.class));
+        mappings.put(WEB_XML, Collections.<Class<? extends WindupVertexFrame>> singletonList(SourceFileModel.class));
+        mappings.put(TLD, Collections.<Class<? extends WindupVertexFrame>> singletonList(FileModel.class));
+        return mappings;
+    }
+}
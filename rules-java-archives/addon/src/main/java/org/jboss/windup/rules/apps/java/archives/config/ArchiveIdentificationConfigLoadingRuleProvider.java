@@ -1,10 +1,19 @@
 package org.jboss.windup.rules.apps.java.archives.config;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.inject.Inject;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
 import org.jboss.forge.furnace.util.Visitor;
 import org.jboss.windup.config.AbstractRuleProvider;
 import org.jboss.windup.config.GraphRewrite;
@@ -12,9 +21,12 @@ import org.jboss.windup.config.loader.RuleLoaderContext;
 import org.jboss.windup.config.metadata.RuleMetadata;
 import org.jboss.windup.config.operation.GraphOperation;
 import org.jboss.windup.config.phase.InitializationPhase;
+import org.jboss.windup.rules.apps.java.archives.identify.ArchiveIdentificationIndex;
+import org.jboss.windup.rules.apps.java.archives.identify.ArchiveIdentificationIndexBuilder;
 import org.jboss.windup.rules.apps.java.archives.identify.CompositeArchiveIdentificationService;
 import org.jboss.windup.rules.apps.java.archives.identify.InMemoryArchiveIdentificationService;
 import org.jboss.windup.rules.apps.java.archives.identify.LuceneArchiveIdentificationService;
+import org.jboss.windup.rules.apps.java.archives.identify.MappedArchiveIdentificationService;
 import org.jboss.windup.util.Logging;
 import org.jboss.windup.util.PathUtil;
 import org.jboss.windup.util.exception.WindupException;
@@ -35,6 +47,9 @@ public class ArchiveIdentificationConfigLoadingRuleProvider extends AbstractRule
 {
     private static final Logger log = Logging.get(ArchiveIdentificationConfigLoadingRuleProvider.class);
 
+    private static final String INDEX_DIRECTORY = "archive-identification";
+    private static final String INDEX_FILE = "archive-identification.index";
+
     @Inject
     private CompositeArchiveIdentificationService identifier;
 
@@ -43,64 +58,188 @@ public class ArchiveIdentificationConfigLoadingRuleProvider extends AbstractRule
     {
         return ConfigurationBuilder.begin()
                     .addRule()
-                    .perform(new AddDelimitedFileIndexOperation())
-                    .addRule()
-                    .perform(new AddLuceneFileIndexOperation());
+                    .perform(new AddArchiveIdentificationIndexOperation());
     }
 
-    private class AddDelimitedFileIndexOperation extends GraphOperation
+    /**
+     * Combines all of the text and Lucene identification data into a single {@link ArchiveIdentificationIndex}. The index is stored in the user
+     * cache directory, and is only rebuilt when the identification data changes. If the index cannot be used, the data is loaded into separate
+     * {@link InMemoryArchiveIdentificationService}s and {@link LuceneArchiveIdentificationService}s instead.
+     */
+    private class AddArchiveIdentificationIndexOperation extends GraphOperation
     {
         @Override
         public void perform(GraphRewrite event, EvaluationContext context)
         {
-            Visitor<File> visitor = new Visitor<File>()
+            final List<File> textFiles = new ArrayList<>();
+            final List<File> luceneDirectories = new ArrayList<>();
+            Visitor<File> textVisitor = new Visitor<File>()
             {
                 @Override
                 public void visit(File file)
                 {
-                    try
-                    {
-                        log.info("Loading archive identification data from [" + file.getAbsolutePath() + "]");
-                        identifier.addIdentifier(new InMemoryArchiveIdentificationService().addMappingsFrom(file));
-                    }
-                    catch (Exception e)
-                    {
-                        throw new WindupException("Failed to load identification data from file [" + file + "]", e);
-                    }
+                    textFiles.add(file);
                 }
             };
+            Visitor<File> luceneVisitor = new Visitor<File>()
+            {
+                @Override
+                public void visit(File file)
+                {
+                    luceneDirectories.add(file.getParentFile());
+                }
+            };
+
+            FileSuffixPredicate textPredicate = new FileSuffixPredicate("\\.archive-metadata\\.txt");
+            FileVisit.visit(PathUtil.getUserCacheDir().resolve("nexus-indexer-data").toFile(), textPredicate, textVisitor);
+            FileVisit.visit(PathUtil.getWindupCacheDir().resolve("nexus-indexer-data").toFile(), textPredicate, textVisitor);
+
+            FileSuffixPredicate lucenePredicate = new FileSuffixPredicate("archive-metadata\\.lucene\\.marker");
+            FileVisit.visit(PathUtil.getUserCacheDir().resolve("nexus-indexer-data").toFile(), lucenePredicate, luceneVisitor);
+            FileVisit.visit(PathUtil.getWindupCacheDir().resolve("nexus-indexer-data").toFile(), lucenePredicate, luceneVisitor);
+
+            if (textFiles.isEmpty() && luceneDirectories.isEmpty())
+                return;
 
-            FileSuffixPredicate predicate = new FileSuffixPredicate("\\.archive-metadata\\.txt");
-            FileVisit.visit(PathUtil.getUserCacheDir().resolve("nexus-indexer-data").toFile(), predicate, visitor);
-            FileVisit.visit(PathUtil.getWindupCacheDir().resolve("nexus-indexer-data").toFile(), predicate, visitor);
+            try
+            {
+                addIndex(textFiles, luceneDirectories);
+            }
+            catch (Exception e)
+            {
+                log.log(Level.WARNING, "Failed to use the archive identification index, loading the identification data directly instead", e);
+                addSources(textFiles, luceneDirectories);
+            }
         }
-    }
 
-    private class AddLuceneFileIndexOperation extends GraphOperation
-    {
-        @Override
-        public void perform(GraphRewrite event, EvaluationContext context)
+        private void addIndex(List<File> textFiles, List<File> luceneDirectories) throws IOException
         {
-            Visitor<File> visitor = new Visitor<File>()
+            String fingerprint = getFingerprint(textFiles, luceneDirectories);
+            Path indexFile = PathUtil.getUserCacheDir().resolve(INDEX_DIRECTORY).resolve(INDEX_FILE);
+
+            ArchiveIdentificationIndex index = openExistingIndex(indexFile, fingerprint);
+
+            if (index == null)
             {
-                @Override
-                public void visit(File file)
+                /*
+                 * Each build uses its own work directory, so that concurrent executions sharing the user cache do not delete each other's files.
+                 * It is next to the index, so the finished index can be moved into place atomically.
+                 */
+                Path workDirectory = Files.createTempDirectory(Files.createDirectories(indexFile.getParent()), "work");
+                try (ArchiveIdentificationIndexBuilder builder = new ArchiveIdentificationIndexBuilder(workDirectory))
                 {
-                    try
+                    for (File file : textFiles)
                     {
-                        log.info("Loading archive identification data from [" + file.getAbsolutePath() + "]");
-                        identifier.addIdentifier(new LuceneArchiveIdentificationService(file.getParentFile()));
+                        log.info("Indexing archive identification data from [" + file.getAbsolutePath() + "]");
+                        builder.addMappingsFrom(file);
                     }
-                    catch (Exception e)
+                    for (File directory : luceneDirectories)
                     {
-                        throw new WindupException("Failed to load identification data from file [" + file + "]", e);
+                        log.info("Indexing archive identification data from [" + directory.getAbsolutePath() + "]");
+                        builder.addLuceneIndex(directory);
                     }
+                    builder.build(indexFile, fingerprint);
                 }
-            };
+                finally
+                {
+                    FileUtils.deleteQuietly(workDirectory.toFile());
+                }
+                index = ArchiveIdentificationIndex.open(indexFile);
+            }
+
+            MappedArchiveIdentificationService service = new MappedArchiveIdentificationService(index);
+            if (identifier.hasIdentifier(service))
+            {
+                service.close();
+            }
+            else
+            {
+                log.info("Loaded archive identification data from " + index);
+                identifier.addIdentifier(service);
+            }
+        }
+
+        /**
+         * Opens the index, if it exists and was built from the same identification data.
+         */
+        private ArchiveIdentificationIndex openExistingIndex(Path indexFile, String fingerprint) throws IOException
+        {
+            if (!Files.isRegularFile(indexFile))
+                return null;
+
+            ArchiveIdentificationIndex index;
+            try
+            {
+                index = ArchiveIdentificationIndex.open(indexFile);
+            }
+            catch (IOException | WindupException e)
+            {
+                log.warning("Rebuilding the archive identification index, as the existing one could not be read: " + e.getMessage());
+                return null;
+            }
+
+            if (!fingerprint.equals(index.getSourceFingerprint()))
+            {
+                index.close();
+                return null;
+            }
+            return index;
+        }
+
+        private void addSources(List<File> textFiles, List<File> luceneDirectories)
+        {
+            for (File file : textFiles)
+            {
+                try
+                {
+                    log.info("Loading archive identification data from [" + file.getAbsolutePath() + "]");
+                    identifier.addIdentifier(new InMemoryArchiveIdentificationService().addMappingsFrom(file));
+                }
+                catch (Exception e)
+                {
+                    throw new WindupException("Failed to load identification data from file [" + file + "]", e);
+                }
+            }
 
-            FileSuffixPredicate predicate = new FileSuffixPredicate("archive-metadata\\.lucene\\.marker");
-            FileVisit.visit(PathUtil.getUserCacheDir().resolve("nexus-indexer-data").toFile(), predicate, visitor);
-            FileVisit.visit(PathUtil.getWindupCacheDir().resolve("nexus-indexer-data").toFile(), predicate, visitor);
+            for (File directory : luceneDirectories)
+            {
+                try
+                {
+                    log.info("Loading archive identification data from [" + directory.getAbsolutePath() + "]");
+                    identifier.addIdentifier(new LuceneArchiveIdentificationService(directory));
+                }
+                catch (Exception e)
+                {
+                    throw new WindupException("Failed to load identification data from [" + directory + "]", e);
+                }
+            }
+        }
+
+        /**
+         * Describes the identification data by the location, size and modification time of each file, so that the index is rebuilt whenever any
+         * of these change.
+         */
+        private String getFingerprint(List<File> textFiles, List<File> luceneDirectories)
+        {
+            StringBuilder description = new StringBuilder();
+            for (File file : textFiles)
+                appendFile(description, file);
+
+            for (File directory : luceneDirectories)
+            {
+                File[] files = directory.listFiles();
+                if (files == null)
+                    continue;
+                Arrays.sort(files);
+                for (File file : files)
+                    appendFile(description, file);
+            }
+            return DigestUtils.sha1Hex(description.toString());
+        }
+
+        private void appendFile(StringBuilder description, File file)
+        {
+            description.append(file.getAbsolutePath()).append('|').append(file.length()).append('|').append(file.lastModified()).append('\n');
         }
     }
 }
@@ -0,0 +1,216 @@
+package org.jboss.windup.rules.apps.java.archives.identify;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.jboss.windup.util.exception.WindupException;
+
+/**
+ * A read-only, memory-mapped index of SHA-1 hashes to archive coordinates, as written by {@link ArchiveIdentificationIndexBuilder}.
+ *
+ * The file contains a header, followed by fixed size records (the 20 byte SHA-1 hash and the offset of the coordinate) sorted by hash, followed by
+ * the coordinates. Lookups are done by a binary search over the records, directly against the hex string, so that nothing is allocated unless the
+ * hash is found.
+ */
+public class ArchiveIdentificationIndex implements Closeable
+{
+    static final int MAGIC = 0x57414958;
+    static final int VERSION = 1;
+    static final int KEY_SIZE = 20;
+    static final int RECORD_SIZE = KEY_SIZE + 4;
+
+    /**
+     * The coordinate is stored as a single "GROUP_ID:ARTIFACT_ID[:PACKAGING[:CLASSIFIER]]:VERSION" string.
+     */
+    static final byte COORDINATE_STRING = 0;
+
+    /**
+     * The coordinate is stored as separate group id, artifact id, packaging, classifier and version fields (each of which may be null).
+     */
+    static final byte COORDINATE_FIELDS = 1;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final String sourceFingerprint;
+    private final int recordCount;
+    private final MappedByteBuffer records;
+    private final MappedByteBuffer data;
+
+    private ArchiveIdentificationIndex(Path file) throws IOException
+    {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try
+        {
+            CountingInputStream headerStream = new CountingInputStream(Channels.newInputStream(channel));
+            DataInputStream header = new DataInputStream(headerStream);
+            if (header.readInt() != MAGIC || header.readInt() != VERSION)
+                throw new WindupException("Not a supported archive identification index: " + file);
+
+            this.sourceFingerprint = header.readUTF();
+            long records = header.readLong();
+            long dataSize = header.readLong();
+            if (records * RECORD_SIZE > Integer.MAX_VALUE || dataSize > Integer.MAX_VALUE)
+                throw new WindupException("Archive identification index is too large: " + file);
+
+            long recordsStart = headerStream.count;
+            this.recordCount = (int) records;
+            this.records = channel.map(FileChannel.MapMode.READ_ONLY, recordsStart, records * RECORD_SIZE);
+            this.data = channel.map(FileChannel.MapMode.READ_ONLY, recordsStart + records * RECORD_SIZE, dataSize);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the index at the given location.
+     */
+    public static ArchiveIdentificationIndex open(Path file) throws IOException
+    {
+        return new ArchiveIdentificationIndex(file);
+    }
+
+    /**
+     * Gets the location of the index.
+     */
+    public Path getFile()
+    {
+        return file;
+    }
+
+    /**
+     * Gets the value that was given to {@link ArchiveIdentificationIndexBuilder#build(Path, String)}, in order to describe the sources of the index.
+     */
+    public String getSourceFingerprint()
+    {
+        return sourceFingerprint;
+    }
+
+    /**
+     * Gets the number of hashes in the index.
+     */
+    public int size()
+    {
+        return recordCount;
+    }
+
+    /**
+     * Gets the offset of the coordinate for the given SHA-1 hash (as a hex string), or -1 if the hash is not in the index.
+     */
+    public int find(String sha1)
+    {
+        if (!isValidHash(sha1))
+            return -1;
+
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(mid, sha1);
+            if (comparison < 0)
+                low = mid + 1;
+            else if (comparison > 0)
+                high = mid - 1;
+            else
+                return records.getInt(mid * RECORD_SIZE + KEY_SIZE);
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the coordinate at the given offset (as returned by {@link #find(String)}). This returns either a single element array containing the
+     * coordinate string, or an array of the group id, artifact id, packaging, classifier and version.
+     */
+    public String[] getCoordinate(int offset)
+    {
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(offset);
+        byte type = buffer.get();
+        String[] fields = new String[type == COORDINATE_STRING ? 1 : 5];
+        for (int i = 0; i < fields.length; i++)
+        {
+            short length = buffer.getShort();
+            if (length >= 0)
+            {
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                fields[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return fields;
+    }
+
+    private int compare(int record, String sha1)
+    {
+        int base = record * RECORD_SIZE;
+        for (int i = 0; i < KEY_SIZE; i++)
+        {
+            int expected = (Character.digit(sha1.charAt(i * 2), 16) << 4) | Character.digit(sha1.charAt(i * 2 + 1), 16);
+            int actual = records.get(base + i) & 0xFF;
+            if (actual != expected)
+                return actual < expected ? -1 : 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Indicates whether the given string is a hex encoded SHA-1 hash.
+     */
+    static boolean isValidHash(String sha1)
+    {
+        if (sha1 == null || sha1.length() != KEY_SIZE * 2)
+            return false;
+
+        for (int i = 0; i < sha1.length(); i++)
+        {
+            if (Character.digit(sha1.charAt(i), 16) == -1)
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ArchiveIdentificationIndex [" + file + ", " + recordCount + " hashes]";
+    }
+
+    private static class CountingInputStream extends InputStream
+    {
+        private final InputStream delegate;
+        private long count;
+
+        public CountingInputStream(InputStream delegate)
+        {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int result = delegate.read();
+            if (result != -1)
+                count++;
+            return result;
+        }
+    }
+}
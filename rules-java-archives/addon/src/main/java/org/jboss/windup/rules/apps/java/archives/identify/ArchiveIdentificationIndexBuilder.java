@@ -0,0 +1,400 @@
+package org.jboss.windup.rules.apps.java.archives.identify;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.LineIterator;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.SimpleFSDirectory;
+import org.apache.lucene.util.Bits;
+import org.jboss.windup.maven.nexusindexer.client.DocTo;
+import org.jboss.windup.util.Logging;
+import org.jboss.windup.util.exception.WindupException;
+
+/**
+ * Builds an {@link ArchiveIdentificationIndex} from the SHA-1 to coordinate mappings of text files (see
+ * {@link InMemoryArchiveIdentificationService#addMappingsFrom(File)}) and Lucene indexes (see {@link LuceneArchiveIdentificationService}).
+ *
+ * The mappings are sorted in chunks, which are written to the work directory and merged at the end, so the full set of mappings never needs to be
+ * in memory. If the same hash is added more than once, the first mapping wins (the same as with {@link CompositeArchiveIdentificationService}).
+ */
+public class ArchiveIdentificationIndexBuilder implements Closeable
+{
+    private static final Logger LOG = Logging.get(ArchiveIdentificationIndexBuilder.class);
+
+    private static final int DEFAULT_CHUNK_SIZE = 500000;
+
+    private final Path workDirectory;
+    private final int chunkSize;
+    private final List<Path> chunks = new ArrayList<>();
+
+    private byte[] keys;
+    private byte[][] values;
+    private int count;
+    private int invalidHashes;
+
+    public ArchiveIdentificationIndexBuilder(Path workDirectory)
+    {
+        this(workDirectory, DEFAULT_CHUNK_SIZE);
+    }
+
+    ArchiveIdentificationIndexBuilder(Path workDirectory, int chunkSize)
+    {
+        this.workDirectory = workDirectory;
+        this.chunkSize = chunkSize;
+        this.keys = new byte[chunkSize * ArchiveIdentificationIndex.KEY_SIZE];
+        this.values = new byte[chunkSize][];
+    }
+
+    /**
+     * Adds a mapping to a coordinate in the "GROUP_ID:ARTIFACT_ID[:PACKAGING[:CLASSIFIER]]:VERSION" format.
+     */
+    public ArchiveIdentificationIndexBuilder addMapping(String sha1, String coordinate) throws IOException
+    {
+        return add(sha1, encode(ArchiveIdentificationIndex.COORDINATE_STRING, coordinate));
+    }
+
+    /**
+     * Adds a mapping to a coordinate with the given fields (each of which may be null).
+     */
+    public ArchiveIdentificationIndexBuilder addMapping(String sha1, String groupId, String artifactId, String packaging, String classifier,
+                String version) throws IOException
+    {
+        return add(sha1, encode(ArchiveIdentificationIndex.COORDINATE_FIELDS, groupId, artifactId, packaging, classifier, version));
+    }
+
+    /**
+     * Adds the mappings from a text file containing lines in the "SHA1 GROUP_ID:ARTIFACT_ID[:PACKAGING[:CLASSIFIER]]:VERSION" format.
+     */
+    public ArchiveIdentificationIndexBuilder addMappingsFrom(File file) throws IOException
+    {
+        try (FileInputStream inputStream = new FileInputStream(file))
+        {
+            LineIterator iterator = IOUtils.lineIterator(inputStream, "UTF-8");
+            int lineNumber = 0;
+            while (iterator.hasNext())
+            {
+                lineNumber++;
+                String line = iterator.next();
+                if (line.startsWith("#") || line.trim().isEmpty())
+                    continue;
+                String[] parts = StringUtils.split(line, ' ');
+                if (parts.length < 2)
+                    throw new IllegalArgumentException("Expected 'SHA1 GROUP_ID:ARTIFACT_ID:[PACKAGING:[COORDINATE:]]VERSION', but was: [" + line
+                                + "] in [" + file + "] at line [" + lineNumber + "]");
+
+                addMapping(parts[0], parts[1]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds all of the mappings from the Lucene index in the given directory.
+     */
+    public ArchiveIdentificationIndexBuilder addLuceneIndex(File directory) throws IOException
+    {
+        Set<String> fields = new HashSet<>(Arrays.asList(DocTo.Fields.SHA1, LuceneArchiveIdentificationService.GROUP_ID,
+                    LuceneArchiveIdentificationService.ARTIFACT_ID, LuceneArchiveIdentificationService.PACKAGING,
+                    LuceneArchiveIdentificationService.CLASSIFIER, LuceneArchiveIdentificationService.VERSION));
+
+        try (Directory index = new SimpleFSDirectory(directory); DirectoryReader reader = DirectoryReader.open(index))
+        {
+            Bits liveDocs = MultiFields.getLiveDocs(reader);
+            for (int i = 0; i < reader.maxDoc(); i++)
+            {
+                if (liveDocs != null && !liveDocs.get(i))
+                    continue;
+
+                Document doc = reader.document(i, fields);
+                String sha1 = doc.get(DocTo.Fields.SHA1);
+                if (sha1 == null)
+                    continue;
+
+                addMapping(sha1, doc.get(LuceneArchiveIdentificationService.GROUP_ID), doc.get(LuceneArchiveIdentificationService.ARTIFACT_ID),
+                            doc.get(LuceneArchiveIdentificationService.PACKAGING), doc.get(LuceneArchiveIdentificationService.CLASSIFIER),
+                            doc.get(LuceneArchiveIdentificationService.VERSION));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Writes the index with all of the added mappings to the given file. The file is replaced atomically, so an existing index at the same
+     * location stays usable until the new one is complete.
+     */
+    public void build(Path indexFile, String sourceFingerprint) throws IOException
+    {
+        if (count > 0)
+            writeChunk();
+
+        if (invalidHashes > 0)
+            LOG.warning("Skipped " + invalidHashes + " mappings with invalid SHA-1 hashes while building: " + indexFile);
+
+        Path recordsFile = Files.createTempFile(workDirectory, "records", ".tmp");
+        Path dataFile = Files.createTempFile(workDirectory, "data", ".tmp");
+        Path tempIndexFile = Files.createTempFile(workDirectory, "index", ".tmp");
+        try
+        {
+            long recordCount = 0;
+            long dataSize = 0;
+            try (DataOutputStream recordsOut = newOutputStream(recordsFile); DataOutputStream dataOut = newOutputStream(dataFile))
+            {
+                PriorityQueue<ChunkReader> queue = new PriorityQueue<>(Math.max(1, chunks.size()), new Comparator<ChunkReader>()
+                {
+                    @Override
+                    public int compare(ChunkReader o1, ChunkReader o2)
+                    {
+                        int result = compareKeys(o1.key, 0, o2.key, 0);
+                        return result != 0 ? result : Integer.compare(o1.chunkIndex, o2.chunkIndex);
+                    }
+                });
+
+                List<ChunkReader> readers = new ArrayList<>();
+                try
+                {
+                    for (int i = 0; i < chunks.size(); i++)
+                    {
+                        ChunkReader reader = new ChunkReader(chunks.get(i), i);
+                        readers.add(reader);
+                        if (reader.next())
+                            queue.add(reader);
+                    }
+
+                    byte[] previousKey = null;
+                    while (!queue.isEmpty())
+                    {
+                        ChunkReader reader = queue.poll();
+                        if (previousKey == null || compareKeys(previousKey, 0, reader.key, 0) != 0)
+                        {
+                            if (dataSize > Integer.MAX_VALUE)
+                                throw new WindupException("Too many archive identification mappings for a single index: " + indexFile);
+
+                            recordsOut.write(reader.key);
+                            recordsOut.writeInt((int) dataSize);
+                            dataOut.write(reader.value);
+                            dataSize += reader.value.length;
+                            recordCount++;
+                            previousKey = reader.key.clone();
+                        }
+
+                        if (reader.next())
+                            queue.add(reader);
+                    }
+                }
+                finally
+                {
+                    for (ChunkReader reader : readers)
+                        reader.close();
+                }
+            }
+
+            try (DataOutputStream indexOut = newOutputStream(tempIndexFile))
+            {
+                indexOut.writeInt(ArchiveIdentificationIndex.MAGIC);
+                indexOut.writeInt(ArchiveIdentificationIndex.VERSION);
+                indexOut.writeUTF(sourceFingerprint);
+                indexOut.writeLong(recordCount);
+                indexOut.writeLong(dataSize);
+            }
+            try (FileChannel out = FileChannel.open(tempIndexFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND))
+            {
+                append(recordsFile, out);
+                append(dataFile, out);
+            }
+
+            Files.createDirectories(indexFile.toAbsolutePath().getParent());
+            Files.move(tempIndexFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOG.info("Wrote archive identification index with " + recordCount + " hashes to: " + indexFile);
+        }
+        finally
+        {
+            Files.deleteIfExists(recordsFile);
+            Files.deleteIfExists(dataFile);
+            Files.deleteIfExists(tempIndexFile);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        for (Path chunk : chunks)
+            FileUtils.deleteQuietly(chunk.toFile());
+        chunks.clear();
+    }
+
+    private ArchiveIdentificationIndexBuilder add(String sha1, byte[] value) throws IOException
+    {
+        if (!ArchiveIdentificationIndex.isValidHash(sha1))
+        {
+            invalidHashes++;
+            return this;
+        }
+
+        int base = count * ArchiveIdentificationIndex.KEY_SIZE;
+        for (int i = 0; i < ArchiveIdentificationIndex.KEY_SIZE; i++)
+            keys[base + i] = (byte) ((Character.digit(sha1.charAt(i * 2), 16) << 4) | Character.digit(sha1.charAt(i * 2 + 1), 16));
+        values[count] = value;
+        count++;
+
+        if (count == chunkSize)
+            writeChunk();
+        return this;
+    }
+
+    /**
+     * Sorts the current chunk (keeping the order in which equal hashes were added) and writes it to the work directory.
+     */
+    private void writeChunk() throws IOException
+    {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++)
+            order[i] = i;
+
+        Arrays.sort(order, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(Integer o1, Integer o2)
+            {
+                return compareKeys(keys, o1 * ArchiveIdentificationIndex.KEY_SIZE, keys, o2 * ArchiveIdentificationIndex.KEY_SIZE);
+            }
+        });
+
+        Path chunk = Files.createTempFile(workDirectory, "chunk", ".tmp");
+        chunks.add(chunk);
+        try (DataOutputStream out = newOutputStream(chunk))
+        {
+            for (Integer index : order)
+            {
+                out.write(keys, index * ArchiveIdentificationIndex.KEY_SIZE, ArchiveIdentificationIndex.KEY_SIZE);
+                out.writeInt(values[index].length);
+                out.write(values[index]);
+                values[index] = null;
+            }
+        }
+        count = 0;
+    }
+
+    private static byte[] encode(byte type, String... fields)
+    {
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            for (String field : fields)
+            {
+                if (field == null)
+                {
+                    out.writeShort(-1);
+                }
+                else
+                {
+                    byte[] fieldBytes = field.getBytes(StandardCharsets.UTF_8);
+                    if (fieldBytes.length > Short.MAX_VALUE)
+                        throw new IllegalArgumentException("Coordinate field is too long: " + field);
+                    out.writeShort(fieldBytes.length);
+                    out.write(fieldBytes);
+                }
+            }
+            out.flush();
+            return bytes.toByteArray();
+        }
+        catch (IOException e)
+        {
+            throw new WindupException("Failed to encode coordinate: " + Arrays.toString(fields), e);
+        }
+    }
+
+    private static int compareKeys(byte[] left, int leftOffset, byte[] right, int rightOffset)
+    {
+        for (int i = 0; i < ArchiveIdentificationIndex.KEY_SIZE; i++)
+        {
+            int result = Integer.compare(left[leftOffset + i] & 0xFF, right[rightOffset + i] & 0xFF);
+            if (result != 0)
+                return result;
+        }
+        return 0;
+    }
+
+    private static DataOutputStream newOutputStream(Path file) throws IOException
+    {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+    }
+
+    private static void append(Path file, FileChannel out) throws IOException
+    {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long position = 0;
+            long size = in.size();
+            while (position < size)
+                position += in.transferTo(position, size - position, out);
+        }
+    }
+
+    private static class ChunkReader implements Closeable
+    {
+        private final DataInputStream in;
+        private final int chunkIndex;
+        private final byte[] key = new byte[ArchiveIdentificationIndex.KEY_SIZE];
+        private byte[] value;
+
+        public ChunkReader(Path chunk, int chunkIndex) throws IOException
+        {
+            InputStream stream = Files.newInputStream(chunk);
+            this.in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024));
+            this.chunkIndex = chunkIndex;
+        }
+
+        public boolean next() throws IOException
+        {
+            try
+            {
+                in.readFully(key);
+            }
+            catch (EOFException e)
+            {
+                return false;
+            }
+            value = new byte[in.readInt()];
+            in.readFully(value);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            in.close();
+        }
+    }
+}
@@ -57,4 +57,12 @@ public class CompositeArchiveIdentificationService implements ArchiveIdentificat
         return this;
     }
 
+    /**
+     * Indicates whether an {@link ArchiveIdentificationService} equal to the given one has already been added.
+     */
+    public boolean hasIdentifier(ArchiveIdentificationService identifier)
+    {
+        return this.identifiers.contains(identifier);
+    }
+
 }
@@ -22,11 +22,11 @@ public class LuceneArchiveIdentificationService extends org.jboss.windup.maven.n
     private static final Logger LOG = Logging.get(LuceneArchiveIdentificationService.class);
 
     private static final String SHA1 = "sha1";
-    private static final String GROUP_ID = "groupId";
-    private static final String ARTIFACT_ID = "artifactId";
-    private static final String PACKAGING = "packaging";
-    private static final String CLASSIFIER = "classifier";
-    private static final String VERSION = "version";
+    static final String GROUP_ID = "groupId";
+    static final String ARTIFACT_ID = "artifactId";
+    static final String PACKAGING = "packaging";
+    static final String CLASSIFIER = "classifier";
+    static final String VERSION = "version";
 
 
     public LuceneArchiveIdentificationService(File directory)
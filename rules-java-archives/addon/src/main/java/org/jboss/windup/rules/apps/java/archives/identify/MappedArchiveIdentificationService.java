@@ -0,0 +1,87 @@
+package org.jboss.windup.rules.apps.java.archives.identify;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jboss.forge.addon.dependencies.Coordinate;
+import org.jboss.forge.addon.dependencies.builder.CoordinateBuilder;
+
+/**
+ * Identifies archives by their hash, using an {@link ArchiveIdentificationIndex}. The {@link Coordinate}s are only created for the hashes that are
+ * found, and are then reused for later lookups of the same coordinate.
+ */
+public class MappedArchiveIdentificationService implements ArchiveIdentificationService, Closeable
+{
+    private final ArchiveIdentificationIndex index;
+    private final ConcurrentMap<Integer, Coordinate> coordinates = new ConcurrentHashMap<>();
+
+    public MappedArchiveIdentificationService(ArchiveIdentificationIndex index)
+    {
+        this.index = index;
+    }
+
+    @Override
+    public Coordinate getCoordinate(String sha1)
+    {
+        int offset = index.find(sha1);
+        if (offset == -1)
+            return null;
+
+        Coordinate coordinate = coordinates.get(offset);
+        if (coordinate == null)
+        {
+            coordinate = createCoordinate(index.getCoordinate(offset));
+            Coordinate existing = coordinates.putIfAbsent(offset, coordinate);
+            if (existing != null)
+                coordinate = existing;
+        }
+        return coordinate;
+    }
+
+    private Coordinate createCoordinate(String[] fields)
+    {
+        if (fields.length == 1)
+            return CoordinateBuilder.create(fields[0]);
+
+        return CoordinateBuilder.create()
+                    .setGroupId(fields[0])
+                    .setArtifactId(fields[1])
+                    .setPackaging(fields[2])
+                    .setClassifier(fields[3])
+                    .setVersion(fields[4]);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        index.close();
+    }
+
+    /**
+     * Two services are equal if they use the same index file, built from the same data.
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof MappedArchiveIdentificationService))
+            return false;
+        ArchiveIdentificationIndex other = ((MappedArchiveIdentificationService) obj).index;
+        return index.getFile().equals(other.getFile()) && index.getSourceFingerprint().equals(other.getSourceFingerprint());
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return index.getFile().hashCode() * 31 + index.getSourceFingerprint().hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MappedArchiveIdentificationService [" + index + "]";
+    }
+}
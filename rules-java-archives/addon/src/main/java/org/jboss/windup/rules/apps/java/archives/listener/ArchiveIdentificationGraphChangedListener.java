@@ -5,7 +5,6 @@ import java.io.InputStream;
 import java.util.Map;
 import java.util.logging.Logger;
 
-import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jboss.forge.addon.dependencies.Coordinate;
 import org.jboss.windup.graph.GraphContext;
@@ -20,6 +19,7 @@ import org.jboss.windup.rules.apps.java.archives.model.ArchiveCoordinateModel;
 import org.jboss.windup.rules.apps.java.archives.model.IdentifiedArchiveModel;
 import org.jboss.windup.rules.apps.java.archives.model.IgnoredArchiveModel;
 import org.jboss.windup.util.exception.WindupException;
+import org.jboss.windup.util.file.FileHashes;
 
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Vertex;
@@ -97,32 +97,23 @@ public final class ArchiveIdentificationGraphChangedListener implements GraphCha
         }
     }
 
+    /**
+     * Sets the hashes, unless they have already been computed (for example, while the parent archive was being unzipped).
+     */
     private void setArchiveHashes(ArchiveModel payload)
     {
-        if (payload.getMD5Hash() == null)
+        if (payload.getMD5Hash() != null && payload.getSHA1Hash() != null)
+            return;
+
+        try (InputStream is = payload.asInputStream())
         {
-            try (InputStream is = payload.asInputStream())
-            {
-                String md5 = DigestUtils.md5Hex(is);
-                payload.setMD5Hash(md5);
-            }
-            catch (IOException e)
-            {
-                throw new WindupException("Failed to read archive file at: " + payload.getFilePath() + " due to: " + e.getMessage(), e);
-            }
+            FileHashes hashes = FileHashes.compute(is, false);
+            payload.setMD5Hash(hashes.getMD5Hash());
+            payload.setSHA1Hash(hashes.getSHA1Hash());
         }
-
-        if (payload.getSHA1Hash() == null)
+        catch (IOException e)
         {
-            try (InputStream is = payload.asInputStream())
-            {
-                String sha1 = DigestUtils.sha1Hex(is);
-                payload.setSHA1Hash(sha1);
-            }
-            catch (IOException e)
-            {
-                throw new WindupException("Failed to read archive file at: " + payload.getFilePath() + " due to: " + e.getMessage(), e);
-            }
+            throw new WindupException("Failed to read archive file at: " + payload.getFilePath() + " due to: " + e.getMessage(), e);
         }
     }
 
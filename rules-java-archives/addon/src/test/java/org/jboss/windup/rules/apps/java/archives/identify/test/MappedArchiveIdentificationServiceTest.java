@@ -0,0 +1,64 @@
+package org.jboss.windup.rules.apps.java.archives.identify.test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.forge.addon.dependencies.Coordinate;
+import org.jboss.windup.rules.apps.java.archives.identify.ArchiveIdentificationIndex;
+import org.jboss.windup.rules.apps.java.archives.identify.ArchiveIdentificationIndexBuilder;
+import org.jboss.windup.rules.apps.java.archives.identify.MappedArchiveIdentificationService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedArchiveIdentificationServiceTest
+{
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        tempDir = Files.createTempDirectory("MappedArchiveIdentificationServiceTest");
+    }
+
+    @After
+    public void tearDown()
+    {
+        FileUtils.deleteQuietly(tempDir.toFile());
+    }
+
+    @Test
+    public void testTextMappings() throws Exception
+    {
+        File textFile = tempDir.resolve("test.archive-metadata.txt").toFile();
+        FileUtils.write(textFile, "# SHA1 GROUP_ID:ARTIFACT_ID:VERSION\n"
+                    + "4e031bb61df09069aeb2bffb4019e7a5034a4ee0 junit:junit:4.11\n"
+                    + "000005ce9bd9867e24cdc33c06e88a65edce71db org.example:first:jar:tests:1.0\n"
+                    + "4e031bb61df09069aeb2bffb4019e7a5034a4ee0 junit:junit:4.12\n");
+
+        Path indexFile = tempDir.resolve("test.index");
+        try (ArchiveIdentificationIndexBuilder builder = new ArchiveIdentificationIndexBuilder(tempDir))
+        {
+            builder.addMappingsFrom(textFile);
+            builder.build(indexFile, "test");
+        }
+
+        try (MappedArchiveIdentificationService service = new MappedArchiveIdentificationService(ArchiveIdentificationIndex.open(indexFile)))
+        {
+            Coordinate junit = service.getCoordinate("4e031bb61df09069aeb2bffb4019e7a5034a4ee0");
+            Assert.assertEquals("junit", junit.getArtifactId());
+            Assert.assertEquals("4.11", junit.getVersion());
+            Assert.assertSame(junit, service.getCoordinate("4E031BB61DF09069AEB2BFFB4019E7A5034A4EE0"));
+
+            Coordinate first = service.getCoordinate("000005ce9bd9867e24cdc33c06e88a65edce71db");
+            Assert.assertEquals("tests", first.getClassifier());
+
+            Assert.assertNull(service.getCoordinate("55555555564e84315e83c6ba4a855b07ba51166b"));
+            Assert.assertNull(service.getCoordinate("not a hash"));
+            Assert.assertNull(service.getCoordinate(null));
+        }
+    }
+}
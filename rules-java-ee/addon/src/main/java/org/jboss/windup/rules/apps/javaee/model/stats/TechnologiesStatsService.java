@@ -1,19 +1,12 @@
 package org.jboss.windup.rules.apps.javaee.model.stats;
 
-import com.tinkerpop.blueprints.Vertex;
 import org.apache.commons.lang3.StringUtils;
 import org.jboss.windup.graph.GraphContext;
-import org.jboss.windup.graph.model.BelongsToProject;
 import org.jboss.windup.graph.model.ProjectModel;
 import org.jboss.windup.graph.model.resource.FileModel;
 import org.jboss.windup.graph.service.GraphService;
 
 import com.tinkerpop.frames.FramedGraphQuery;
-import com.tinkerpop.pipes.filter.BackFilterPipe;
-import com.tinkerpop.pipes.transform.OutPipe;
-import com.tinkerpop.pipes.util.Pipeline;
-import com.tinkerpop.pipes.util.StartPipe;
-import java.io.Serializable;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -21,7 +14,6 @@ import java.util.logging.Logger;
 import java.util.stream.StreamSupport;
 
 import org.apache.commons.collections4.CollectionUtils;
-import org.jboss.windup.graph.frames.TypeAwareFramedGraphQuery;
 import org.jboss.windup.graph.model.WindupVertexFrame;
 import org.jboss.windup.rules.apps.java.archives.model.IdentifiedArchiveModel;
 import org.jboss.windup.rules.apps.java.model.JarArchiveModel;
@@ -118,62 +110,85 @@ public class TechnologiesStatsService extends GraphService<TechnologiesStatsMode
 
     public Map<ProjectModel, Map<String, Integer>> countTechnologiesUsage()
     {
-        Map<String, Map<ProjectModel, Integer>> technologyUsage = new HashMap<>();
+        // All of the counters are filled by a single walk over the counted types.
+        TechnologyUsageCounter counter = new TechnologyUsageCounter(getGraphContext());
 
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_EJB_STATELESS, this.countByType(EjbSessionBeanModel.class, EjbBeanBaseModel.SESSION_TYPE, "stateless"));
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_EJB_STATEFUL, this.countByType(EjbSessionBeanModel.class,  EjbBeanBaseModel.SESSION_TYPE, "stateful"));
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_EJB_MESSAGEDRIVEN, this.countByType(EjbMessageDrivenModel.class));
+        Map<ProjectModel, Integer> ejbStateless = counter.countByType(EjbSessionBeanModel.class, EjbBeanBaseModel.SESSION_TYPE, "stateless");
+        Map<ProjectModel, Integer> ejbStateful = counter.countByType(EjbSessionBeanModel.class, EjbBeanBaseModel.SESSION_TYPE, "stateful");
+        Map<ProjectModel, Integer> ejbMessageDriven = counter.countByType(EjbMessageDrivenModel.class);
         // TODO: stats.setStatsServicesEjb___(item(countByType(EjbDeploymentDescriptorModel.class)));
 
         // Amounts
         // For the commented, we don't have a graph representation.
-        Map<ProjectModel, Integer> count = this.sum(
-                this.countByType(EjbEntityBeanModel.class),
-                this.countByType(JPAEntityModel.class)
-        );
-
-        // PersistenceEntityModel covers also HibernateEntityModel.
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_JPA_ENTITITES, count);
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_JPA_NAMEDQUERIES, countByType(JPANamedQueryModel.class));
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_JPA_PERSISTENCEUNITS, countByType(JPAPersistenceUnitModel.class));
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_RMI_SERVICES, countByType(RMIServiceModel.class));
-
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_HIBERNATE_CONFIGURATIONFILES, countByType(HibernateConfigurationFileModel.class));
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_HIBERNATE_ENTITIES, countByType(HibernateEntityModel.class));
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_HIBERNATE_MAPPINGFILES, countByType(HibernateMappingFileModel.class));
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_HIBERNATE_SESSIONFACTORIES, countByType(HibernateSessionFactoryModel.class));
+        Map<ProjectModel, Integer> ejbEntities = counter.countByType(EjbEntityBeanModel.class);
+        Map<ProjectModel, Integer> jpaEntities = counter.countByType(JPAEntityModel.class);
+        Map<ProjectModel, Integer> jpaNamedQueries = counter.countByType(JPANamedQueryModel.class);
+        Map<ProjectModel, Integer> jpaPersistenceUnits = counter.countByType(JPAPersistenceUnitModel.class);
+        Map<ProjectModel, Integer> rmiServices = counter.countByType(RMIServiceModel.class);
 
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVERRESOURCES_DB_JDBCDATASOURCES, this.countByType(DataSourceModel.class, new HashMap<String, Serializable>(){{
-            put(DataSourceModel.IS_XA, false);
-        }}));
+        Map<ProjectModel, Integer> hibernateConfigurationFiles = counter.countByType(HibernateConfigurationFileModel.class);
+        Map<ProjectModel, Integer> hibernateEntities = counter.countByType(HibernateEntityModel.class);
+        Map<ProjectModel, Integer> hibernateMappingFiles = counter.countByType(HibernateMappingFileModel.class);
+        Map<ProjectModel, Integer> hibernateSessionFactories = counter.countByType(HibernateSessionFactoryModel.class);
 
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVERRESOURCES_DB_XAJDBCDATASOURCES, this.countByType(DataSourceModel.class, new HashMap<String, Serializable>(){{
-            put(DataSourceModel.IS_XA, true);
-        }}));
+        Map<ProjectModel, Integer> jdbcDataSources = counter.countByType(DataSourceModel.class, DataSourceModel.IS_XA, false);
+        Map<ProjectModel, Integer> xaJdbcDataSources = counter.countByType(DataSourceModel.class, DataSourceModel.IS_XA, true);
 
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_HTTP_JAX_RS, this.countByType(JaxRSWebServiceModel.class));
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_HTTP_JAX_WS, this.countByType(JaxWSWebServiceModel.class));
+        Map<ProjectModel, Integer> jaxRs = counter.countByType(JaxRSWebServiceModel.class);
+        Map<ProjectModel, Integer> jaxWs = counter.countByType(JaxWSWebServiceModel.class);
 
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVERRESOURCES_MSG_JMS_QUEUES, this.countByType(JmsDestinationModel.class,
-                JmsDestinationModel.DESTINATION_TYPE, JmsDestinationType.QUEUE.name()));
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVERRESOURCES_MSG_JMS_TOPICS, this.countByType(JmsDestinationModel.class,
-                JmsDestinationModel.DESTINATION_TYPE, JmsDestinationType.TOPIC.name()));
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVERRESOURCES_MSG_JMS_CONNECTIONFACTORIES, this.countByType(JmsConnectionFactoryModel.class));
+        Map<ProjectModel, Integer> jmsQueues = counter.countByType(JmsDestinationModel.class, JmsDestinationModel.DESTINATION_TYPE,
+                JmsDestinationType.QUEUE.name());
+        Map<ProjectModel, Integer> jmsTopics = counter.countByType(JmsDestinationModel.class, JmsDestinationModel.DESTINATION_TYPE,
+                JmsDestinationType.TOPIC.name());
+        Map<ProjectModel, Integer> jmsConnectionFactories = counter.countByType(JmsConnectionFactoryModel.class);
 
         //stats.setStatsServerResourcesSecurityRealms(item(countByType(.class)));
-        technologyUsage.put(TechnologiesStatsModel.STATS_SERVERRESOURCES_JNDI_TOTALENTRIES, this.countByType(JNDIResourceModel.class));
+        Map<ProjectModel, Integer> jndiEntries = counter.countByType(JNDIResourceModel.class);
 
         // Not sure how to get this number. Maybe JavaClassFileModel.getJavaClass() ?
-        technologyUsage.put(TechnologiesStatsModel.STATS_JAVA_CLASSES_ORIGINAL, this.countJavaClassesOriginal());
-        technologyUsage.put(TechnologiesStatsModel.STATS_JAVA_CLASSES_TOTAL, this.countByType(JavaClassModel.class));
+        Map<ProjectModel, Integer> javaClassesOriginal = counter.countDecompiledJavaClasses();
+        Map<ProjectModel, Integer> javaClassesTotal = counter.countByType(JavaClassModel.class);
 
-        // We are not able to tell which of the jars are original. We can substract known opensource libs.
-        technologyUsage.put(TechnologiesStatsModel.STATS_JAVA_JARS_ORIGINAL, this.diff(
-                this.countByType(JarArchiveModel.class),
-                this.countByType(IdentifiedArchiveModel.class))
-        );
-        technologyUsage.put(TechnologiesStatsModel.STATS_JAVA_JARS_TOTAL, this.countByType(JarArchiveModel.class));
+        Map<ProjectModel, Integer> jars = counter.countByType(JarArchiveModel.class);
+        Map<ProjectModel, Integer> identifiedArchives = counter.countByType(IdentifiedArchiveModel.class);
+
+        counter.count();
+
+        Map<String, Map<ProjectModel, Integer>> technologyUsage = new HashMap<>();
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_EJB_STATELESS, ejbStateless);
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_EJB_STATEFUL, ejbStateful);
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_EJB_MESSAGEDRIVEN, ejbMessageDriven);
+
+        // PersistenceEntityModel covers also HibernateEntityModel.
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_JPA_ENTITITES, this.sum(ejbEntities, jpaEntities));
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_JPA_NAMEDQUERIES, jpaNamedQueries);
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_JPA_PERSISTENCEUNITS, jpaPersistenceUnits);
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_RMI_SERVICES, rmiServices);
+
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_HIBERNATE_CONFIGURATIONFILES, hibernateConfigurationFiles);
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_HIBERNATE_ENTITIES, hibernateEntities);
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_HIBERNATE_MAPPINGFILES, hibernateMappingFiles);
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_HIBERNATE_SESSIONFACTORIES, hibernateSessionFactories);
+
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVERRESOURCES_DB_JDBCDATASOURCES, jdbcDataSources);
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVERRESOURCES_DB_XAJDBCDATASOURCES, xaJdbcDataSources);
+
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_HTTP_JAX_RS, jaxRs);
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVICES_HTTP_JAX_WS, jaxWs);
 
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVERRESOURCES_MSG_JMS_QUEUES, jmsQueues);
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVERRESOURCES_MSG_JMS_TOPICS, jmsTopics);
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVERRESOURCES_MSG_JMS_CONNECTIONFACTORIES, jmsConnectionFactories);
+
+        technologyUsage.put(TechnologiesStatsModel.STATS_SERVERRESOURCES_JNDI_TOTALENTRIES, jndiEntries);
+
+        technologyUsage.put(TechnologiesStatsModel.STATS_JAVA_CLASSES_ORIGINAL, javaClassesOriginal);
+        technologyUsage.put(TechnologiesStatsModel.STATS_JAVA_CLASSES_TOTAL, javaClassesTotal);
+
+        // We are not able to tell which of the jars are original. We can substract known opensource libs.
+        technologyUsage.put(TechnologiesStatsModel.STATS_JAVA_JARS_ORIGINAL, this.diff(jars, identifiedArchives));
+        technologyUsage.put(TechnologiesStatsModel.STATS_JAVA_JARS_TOTAL, jars);
 
         return this.groupByProjectModel(technologyUsage);
     }
@@ -222,63 +237,6 @@ public class TechnologiesStatsService extends GraphService<TechnologiesStatsMode
         return result;
     }
 
-    private <T extends WindupVertexFrame> Map<ProjectModel, Integer> countByType(Class<T> clazz)
-    {
-        return countByType(clazz, null);
-    }
-
-    private <T extends WindupVertexFrame> Map<ProjectModel, Integer> countByType(Class<T> clazz, String propName, Serializable value)
-    {
-        ///LOG.info("Counting: Frame class == " + clazz.getSimpleName() + " && " + propName + " == " + value);
-        return countByType(clazz, propName == null ? null : new HashMap<String, Serializable>(){{put(propName, value);}});
-    }
-
-    private <T extends WindupVertexFrame> Map<ProjectModel, Integer> countByType(Class<T> clazz, Map<String, Serializable> props)
-    {
-        FramedGraphQuery query = this.getGraphContext().getQuery().type(clazz);
-
-        if (props != null)
-        {
-            for (Map.Entry<String, Serializable> prop : props.entrySet())
-            {
-                String propName = prop.getKey();
-                Serializable value = prop.getValue();
-
-                if (value == null)
-                    query = query.has(propName);
-                else
-                    query = query.has(propName, value);
-            }
-        }
-
-        Map<ProjectModel, Integer> projectCount = new HashMap<>();
-        Iterable<T> vertices = query.vertices(clazz);
-
-        for (T vertex : vertices)
-        {
-            if (vertex instanceof BelongsToProject)
-            {
-                for (ProjectModel projectModel : ((BelongsToProject) vertex).getRootProjectModels())
-                {
-                    projectCount.put(projectModel, projectCount.getOrDefault(projectModel, 0) + 1);
-                }
-            }
-            else
-            {
-                String errorMessage = "Not instance of " +
-                        BelongsToProject.class.getName() +
-                        "\n" +
-                        clazz.getName();
-
-                LOG.warning(errorMessage);
-            }
-        }
-
-        LOG.info("Counted: Frame class == " + clazz.getSimpleName() + " && " + (props == null ? "no" : props.size()));
-
-        return projectCount;
-    }
-
     public Map<ProjectModel, Map<String, Integer>> countFilesBySuffix()
     {
         Map<ProjectModel, Map<String, Integer>> result = new HashMap<>();
@@ -371,45 +329,4 @@ public class TechnologiesStatsService extends GraphService<TechnologiesStatsMode
         LOG.info(" ==> " + count);
         return count;
     }
-
-    // Methods for individual statistic items
-    private Map<ProjectModel, Integer> countJavaClassesOriginal()
-    {
-        // TODO: Fix this
-        // new Pipeline<Vertex, Vertex>().
-        Iterable<Vertex> startVertices = new TypeAwareFramedGraphQuery(this.getGraphContext().getFramed()).type(JavaClassModel.class).vertices();
-        Pipeline<Vertex, Vertex> pipeline = new Pipeline<>();
-        pipeline.addPipe(new StartPipe(startVertices));
-        final OutPipe outPipe = new OutPipe(JavaClassModel.DECOMPILED_SOURCE);
-        // The BackFilterPipe needs to wrap all pipes which it "go back before".
-        // This means ...out(...).back(1);
-        pipeline.addPipe(new BackFilterPipe(outPipe));
-
-        Map<ProjectModel, Integer> map = new HashMap<>();
-
-        Iterable<JavaClassModel> javaClassModels = this.getGraphContext().getFramed().frameVertices(pipeline, JavaClassModel.class);
-
-        javaClassModels.forEach(item -> {
-            FileModel fileModel = item.getDecompiledSource();
-
-            if (fileModel == null)
-            {
-                LOG.warning("Unexpected fileModel null");
-                return;
-            }
-
-            ProjectModel projectModel = fileModel.getProjectModel();
-
-            if (projectModel == null)
-            {
-                LOG.warning("Unexpected projectModel null");
-                return;
-            }
-
-            ProjectModel rootProjectModel = projectModel.getRootProjectModel();
-            map.put(rootProjectModel, map.getOrDefault(rootProjectModel, 0) + 1);
-        });
-
-        return map;
-    }
 }
@@ -0,0 +1,238 @@
+package org.jboss.windup.rules.apps.javaee.model.stats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.jboss.windup.graph.GraphContext;
+import org.jboss.windup.graph.GraphTypeManager;
+import org.jboss.windup.graph.frames.TypeAwareFramedGraphQuery;
+import org.jboss.windup.graph.model.BelongsToProject;
+import org.jboss.windup.graph.model.ProjectModel;
+import org.jboss.windup.graph.model.WindupVertexFrame;
+import org.jboss.windup.graph.model.resource.FileModel;
+import org.jboss.windup.rules.apps.java.model.JavaClassModel;
+import org.jboss.windup.util.Logging;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * Counts the vertices of several model types for each root {@link ProjectModel}, visiting each vertex only once.
+ *
+ * The counters are registered first, and are all filled by a single call to {@link #count()}. This walks the type index of each registered type,
+ * and checks the types of each vertex against all of the counters with a bitmask. A vertex that has several of the registered types is only
+ * processed when the first of these types is walked.
+ *
+ * The bitmask holds up to 64 types. If more types are registered, they are walked in rounds of 64, and a vertex is processed once per round, for
+ * the counters of the types in that round.
+ */
+class TechnologyUsageCounter
+{
+    private static final Logger LOG = Logging.get(TechnologyUsageCounter.class);
+
+    private final GraphContext graphContext;
+    private final Map<String, Integer> typeIndexes = new LinkedHashMap<>();
+    private final List<Class<? extends WindupVertexFrame>> types = new ArrayList<>();
+    private final List<Counter> counters = new ArrayList<>();
+
+    TechnologyUsageCounter(GraphContext graphContext)
+    {
+        this.graphContext = graphContext;
+    }
+
+    /**
+     * Registers a counter for all vertices of the given type. The returned map is filled by {@link #count()}.
+     */
+    Map<ProjectModel, Integer> countByType(Class<? extends WindupVertexFrame> type)
+    {
+        return countByType(type, null, null);
+    }
+
+    /**
+     * Registers a counter for the vertices of the given type that have the given property value. The returned map is filled by {@link #count()}.
+     */
+    Map<ProjectModel, Integer> countByType(Class<? extends WindupVertexFrame> type, String propertyName, Object propertyValue)
+    {
+        Counter counter = new Counter(getTypeIndex(type), propertyName, propertyValue);
+        counters.add(counter);
+        return counter.counts;
+    }
+
+    /**
+     * Registers a counter for the {@link JavaClassModel}s that have a decompiled source, by the project of that source file. The returned map is
+     * filled by {@link #count()}.
+     */
+    Map<ProjectModel, Integer> countDecompiledJavaClasses()
+    {
+        Counter counter = new DecompiledJavaClassCounter(getTypeIndex(JavaClassModel.class));
+        counters.add(counter);
+        return counter.counts;
+    }
+
+    /**
+     * Walks the vertices of all of the registered types, and fills the counters.
+     */
+    void count()
+    {
+        for (int firstIndex = 0; firstIndex < types.size(); firstIndex += Long.SIZE)
+        {
+            int endIndex = Math.min(types.size(), firstIndex + Long.SIZE);
+            for (int i = firstIndex; i < endIndex; i++)
+            {
+                Class<? extends WindupVertexFrame> type = types.get(i);
+                long previousTypes = (1L << (i - firstIndex)) - 1;
+                int vertices = 0;
+
+                Iterable<Vertex> typeVertices = new TypeAwareFramedGraphQuery(graphContext.getFramed()).type(type).vertices();
+                for (Vertex vertex : typeVertices)
+                {
+                    long typeMask = getTypeMask(vertex, firstIndex);
+                    // this has already been counted with one of the types that were walked before in this round
+                    if ((typeMask & previousTypes) != 0)
+                        continue;
+
+                    vertices++;
+                    countVertex(vertex, typeMask, firstIndex);
+                }
+
+                LOG.info("Counted: Frame class == " + type.getSimpleName() + ", " + vertices + " vertices");
+            }
+        }
+    }
+
+    private void countVertex(Vertex vertex, long typeMask, int firstIndex)
+    {
+        Iterable<ProjectModel> rootProjects = null;
+        for (Counter counter : counters)
+        {
+            int bit = counter.typeIndex - firstIndex;
+            if (bit < 0 || bit >= Long.SIZE || (typeMask & (1L << bit)) == 0 || !counter.matches(vertex))
+                continue;
+
+            Iterable<ProjectModel> counterProjects = counter.getRootProjects(vertex);
+            if (counterProjects == null)
+            {
+                if (rootProjects == null)
+                    rootProjects = getRootProjects(vertex);
+                counterProjects = rootProjects;
+            }
+            counter.add(counterProjects);
+        }
+    }
+
+    private Iterable<ProjectModel> getRootProjects(Vertex vertex)
+    {
+        WindupVertexFrame frame = graphContext.getFramed().frame(vertex, WindupVertexFrame.class);
+        if (!(frame instanceof BelongsToProject))
+        {
+            LOG.warning("Not instance of " + BelongsToProject.class.getName() + "\n" + frame);
+            return Collections.emptyList();
+        }
+
+        List<ProjectModel> result = new ArrayList<>();
+        for (ProjectModel projectModel : ((BelongsToProject) frame).getRootProjectModels())
+            result.add(projectModel);
+        return result;
+    }
+
+    /**
+     * Returns the bitmask of the registered types of the vertex, for the round of up to 64 types that starts at the given index.
+     */
+    private long getTypeMask(Vertex vertex, int firstIndex)
+    {
+        Iterable<String> typeValues = GraphTypeManager.asTitanElement(vertex).getProperty(WindupVertexFrame.TYPE_PROP);
+        long typeMask = 0;
+        if (typeValues == null)
+            return typeMask;
+
+        for (String typeValue : typeValues)
+        {
+            Integer index = typeIndexes.get(typeValue);
+            if (index != null && index >= firstIndex && index < firstIndex + Long.SIZE)
+                typeMask |= 1L << (index - firstIndex);
+        }
+        return typeMask;
+    }
+
+    private int getTypeIndex(Class<? extends WindupVertexFrame> type)
+    {
+        String typeValue = TypeAwareFramedGraphQuery.getTypeValue(type);
+        Integer index = typeIndexes.get(typeValue);
+        if (index == null)
+        {
+            index = types.size();
+            typeIndexes.put(typeValue, index);
+            types.add(type);
+        }
+        return index;
+    }
+
+    private static class Counter
+    {
+        private final int typeIndex;
+        private final String propertyName;
+        private final Object propertyValue;
+        private final Map<ProjectModel, Integer> counts = new HashMap<>();
+
+        Counter(int typeIndex, String propertyName, Object propertyValue)
+        {
+            this.typeIndex = typeIndex;
+            this.propertyName = propertyName;
+            this.propertyValue = propertyValue;
+        }
+
+        boolean matches(Vertex vertex)
+        {
+            return propertyName == null || propertyValue.equals(vertex.getProperty(propertyName));
+        }
+
+        /**
+         * Returns the projects to count the given vertex for, or null to use the root projects of the vertex itself.
+         */
+        Iterable<ProjectModel> getRootProjects(Vertex vertex)
+        {
+            return null;
+        }
+
+        void add(Iterable<ProjectModel> projectModels)
+        {
+            for (ProjectModel projectModel : projectModels)
+                counts.put(projectModel, counts.getOrDefault(projectModel, 0) + 1);
+        }
+    }
+
+    private class DecompiledJavaClassCounter extends Counter
+    {
+        DecompiledJavaClassCounter(int typeIndex)
+        {
+            super(typeIndex, null, null);
+        }
+
+        @Override
+        boolean matches(Vertex vertex)
+        {
+            return vertex.getVertices(Direction.OUT, JavaClassModel.DECOMPILED_SOURCE).iterator().hasNext();
+        }
+
+        @Override
+        Iterable<ProjectModel> getRootProjects(Vertex vertex)
+        {
+            Iterator<Vertex> decompiledSources = vertex.getVertices(Direction.OUT, JavaClassModel.DECOMPILED_SOURCE).iterator();
+            FileModel fileModel = graphContext.getFramed().frame(decompiledSources.next(), FileModel.class);
+
+            ProjectModel projectModel = fileModel.getProjectModel();
+            if (projectModel == null)
+            {
+                LOG.warning("Unexpected projectModel null");
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(projectModel.getRootProjectModel());
+        }
+    }
+}
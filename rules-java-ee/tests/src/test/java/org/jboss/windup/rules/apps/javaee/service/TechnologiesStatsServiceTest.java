@@ -0,0 +1,153 @@
+package org.jboss.windup.rules.apps.javaee.service;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.windup.graph.GraphContext;
+import org.jboss.windup.graph.GraphContextFactory;
+import org.jboss.windup.graph.model.BelongsToProject;
+import org.jboss.windup.graph.model.ProjectModel;
+import org.jboss.windup.graph.model.WindupVertexFrame;
+import org.jboss.windup.graph.service.GraphService;
+import org.jboss.windup.graph.service.ProjectService;
+import org.jboss.windup.rules.apps.java.model.JarArchiveModel;
+import org.jboss.windup.rules.apps.javaee.AbstractTest;
+import org.jboss.windup.rules.apps.javaee.model.DataSourceModel;
+import org.jboss.windup.rules.apps.javaee.model.EjbBeanBaseModel;
+import org.jboss.windup.rules.apps.javaee.model.EjbSessionBeanModel;
+import org.jboss.windup.rules.apps.javaee.model.JNDIResourceModel;
+import org.jboss.windup.rules.apps.javaee.model.stats.TechnologiesStatsModel;
+import org.jboss.windup.rules.apps.javaee.model.stats.TechnologiesStatsService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.tinkerpop.frames.FramedGraphQuery;
+
+/**
+ * Tests that the counts of {@link TechnologiesStatsService#countTechnologiesUsage()} match the counts of a separate query for each type.
+ */
+@RunWith(Arquillian.class)
+public class TechnologiesStatsServiceTest extends AbstractTest
+{
+    @Inject
+    private GraphContextFactory factory;
+
+    private Path graphPath;
+    private GraphContext context;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.graphPath = FileUtils.getTempDirectory().toPath().resolve("Windup")
+                    .resolve(getClass().getSimpleName() + "_" + RandomStringUtils.randomAlphanumeric(6));
+        this.context = this.factory.create(graphPath);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        this.context.clear();
+        FileUtils.deleteDirectory(this.graphPath.toFile());
+    }
+
+    @Test
+    public void testCountsMatchTheCountsByType() throws Exception
+    {
+        ProjectService projectService = new ProjectService(context);
+        ProjectModel app1 = projectService.create();
+        ProjectModel app2 = projectService.create();
+
+        createSessionBean(app1, "stateless");
+        createSessionBean(app1, "stateless");
+        createSessionBean(app2, "stateless");
+        createSessionBean(app1, "stateful");
+
+        // the data sources are also counted as JNDI resources
+        createDataSource(app1, true);
+        createDataSource(app2, false);
+        createDataSource(app2, false);
+        new GraphService<>(context, JNDIResourceModel.class).create().addApplication(app1);
+
+        createJar(app1);
+        createJar(app1);
+        createJar(app2);
+
+        Map<ProjectModel, Map<String, Integer>> usage = new TechnologiesStatsService(context).countTechnologiesUsage();
+
+        assertCounts(usage, TechnologiesStatsModel.STATS_SERVICES_EJB_STATELESS,
+                    countByType(EjbSessionBeanModel.class, EjbBeanBaseModel.SESSION_TYPE, "stateless"));
+        assertCounts(usage, TechnologiesStatsModel.STATS_SERVICES_EJB_STATEFUL,
+                    countByType(EjbSessionBeanModel.class, EjbBeanBaseModel.SESSION_TYPE, "stateful"));
+        assertCounts(usage, TechnologiesStatsModel.STATS_SERVERRESOURCES_DB_JDBCDATASOURCES,
+                    countByType(DataSourceModel.class, DataSourceModel.IS_XA, false));
+        assertCounts(usage, TechnologiesStatsModel.STATS_SERVERRESOURCES_DB_XAJDBCDATASOURCES,
+                    countByType(DataSourceModel.class, DataSourceModel.IS_XA, true));
+        assertCounts(usage, TechnologiesStatsModel.STATS_SERVERRESOURCES_JNDI_TOTALENTRIES, countByType(JNDIResourceModel.class, null, null));
+        assertCounts(usage, TechnologiesStatsModel.STATS_JAVA_JARS_TOTAL, countByType(JarArchiveModel.class, null, null));
+
+        Assert.assertEquals(2, (int) usage.get(app1).get(TechnologiesStatsModel.STATS_SERVICES_EJB_STATELESS));
+        Assert.assertEquals(2, (int) usage.get(app1).get(TechnologiesStatsModel.STATS_SERVERRESOURCES_JNDI_TOTALENTRIES));
+        Assert.assertEquals(2, (int) usage.get(app2).get(TechnologiesStatsModel.STATS_SERVERRESOURCES_DB_JDBCDATASOURCES));
+        Assert.assertEquals(2, (int) usage.get(app1).get(TechnologiesStatsModel.STATS_JAVA_JARS_TOTAL));
+        Assert.assertEquals(1, (int) usage.get(app2).get(TechnologiesStatsModel.STATS_JAVA_JARS_ORIGINAL));
+    }
+
+    private void assertCounts(Map<ProjectModel, Map<String, Integer>> usage, String key, Map<ProjectModel, Integer> expected)
+    {
+        Assert.assertFalse(key, expected.isEmpty());
+        for (Map.Entry<ProjectModel, Integer> entry : expected.entrySet())
+        {
+            Map<String, Integer> projectUsage = usage.get(entry.getKey());
+            Assert.assertNotNull(key, projectUsage);
+            Assert.assertEquals(key, entry.getValue(), projectUsage.get(key));
+        }
+    }
+
+    /**
+     * Counts the vertices of the given type by their root projects, with a separate query (as the stats were counted before).
+     */
+    private Map<ProjectModel, Integer> countByType(Class<? extends WindupVertexFrame> type, String propertyName, Object propertyValue)
+    {
+        FramedGraphQuery query = context.getQuery().type(type);
+        if (propertyName != null)
+            query = query.has(propertyName, propertyValue);
+
+        Map<ProjectModel, Integer> result = new HashMap<>();
+        for (WindupVertexFrame frame : query.vertices(type))
+        {
+            for (ProjectModel projectModel : ((BelongsToProject) frame).getRootProjectModels())
+                result.put(projectModel, result.getOrDefault(projectModel, 0) + 1);
+        }
+        return result;
+    }
+
+    private void createSessionBean(ProjectModel application, String sessionType)
+    {
+        EjbSessionBeanModel sessionBean = new GraphService<>(context, EjbSessionBeanModel.class).create();
+        sessionBean.setSessionType(sessionType);
+        sessionBean.setApplications(Collections.singletonList(application));
+    }
+
+    private void createDataSource(ProjectModel application, boolean xa)
+    {
+        DataSourceModel dataSource = new GraphService<>(context, DataSourceModel.class).create();
+        dataSource.setXa(xa);
+        dataSource.addApplication(application);
+    }
+
+    private void createJar(ProjectModel application)
+    {
+        JarArchiveModel jar = new GraphService<>(context, JarArchiveModel.class).create();
+        application.addFileModel(jar);
+    }
+}
@@ -32,6 +32,7 @@ import org.jboss.windup.rules.apps.java.model.JavaClassModel;
 import org.jboss.windup.rules.apps.java.model.JavaSourceFileModel;
 import org.jboss.windup.rules.apps.java.scan.ast.JavaTypeReferenceModel;
 import org.jboss.windup.rules.apps.java.scan.ast.TypeInterestFactory;
+import org.jboss.windup.rules.apps.java.scan.ast.TypeReferenceMatchIndex;
 import org.jboss.windup.rules.apps.java.scan.ast.annotations.JavaAnnotationTypeReferenceModel;
 import org.jboss.windup.rules.apps.java.scan.ast.annotations.JavaAnnotationTypeValueModel;
 import org.jboss.windup.rules.files.model.FileReferenceModel;
@@ -226,9 +227,21 @@ public class JavaClass extends ParameterizedGraphCondition implements JavaClassB
             }
             else
             {
-                GremlinPipeline<Vertex, Vertex> resolvedTextSearch = new GremlinPipeline<>(event.getGraphContext().getGraph());
-                resolvedTextSearch.V();
-                resolvedTextSearch.has(JavaTypeReferenceModel.RESOLVED_SOURCE_SNIPPIT, Text.REGEX, TitanUtil.titanifyRegex(compiledPattern.pattern()));
+                /*
+                 * Use the matches precomputed for all registered patterns at once, if available.
+                 */
+                Iterable<Vertex> resolvedTextSearch = null;
+                TypeReferenceMatchIndex matchIndex = TypeReferenceMatchIndex.instance(event);
+                if (matchIndex != null)
+                    resolvedTextSearch = matchIndex.getMatches(event.getGraphContext(), compiledPattern.pattern());
+
+                if (resolvedTextSearch == null)
+                {
+                    GremlinPipeline<Vertex, Vertex> pipeline = new GremlinPipeline<>(event.getGraphContext().getGraph());
+                    pipeline.V();
+                    pipeline.has(JavaTypeReferenceModel.RESOLVED_SOURCE_SNIPPIT, Text.REGEX, TitanUtil.titanifyRegex(compiledPattern.pattern()));
+                    resolvedTextSearch = pipeline;
+                }
 
                 if (!resolvedTextSearch.iterator().hasNext())
                     return false;
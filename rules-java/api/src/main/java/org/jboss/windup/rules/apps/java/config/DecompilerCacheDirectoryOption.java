@@ -0,0 +1,49 @@
+package org.jboss.windup.rules.apps.java.config;
+
+import org.jboss.windup.config.AbstractPathConfigurationOption;
+import org.jboss.windup.config.InputType;
+
+/**
+ * Specifies a directory in which decompiled sources are kept between executions, so that classes that have not changed since a previous execution
+ * do not need to be decompiled again.
+ */
+public class DecompilerCacheDirectoryOption extends AbstractPathConfigurationOption
+{
+    public static final String NAME = "decompilerCacheDirectory";
+
+    public DecompilerCacheDirectoryOption()
+    {
+        super(false);
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public String getLabel()
+    {
+        return "Decompiler Cache Directory";
+    }
+
+    @Override
+    public String getDescription()
+    {
+        return "A directory (outside of the output directory) in which decompiled sources are kept between executions. "
+                    + "Classes that are unchanged since a previous execution will not be decompiled again.";
+    }
+
+    @Override
+    public InputType getUIType()
+    {
+        return InputType.DIRECTORY;
+    }
+
+    @Override
+    public boolean isRequired()
+    {
+        return false;
+    }
+}
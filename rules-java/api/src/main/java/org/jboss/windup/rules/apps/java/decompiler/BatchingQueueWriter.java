@@ -0,0 +1,184 @@
+package org.jboss.windup.rules.apps.java.decompiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jboss.windup.util.Logging;
+import org.jboss.windup.util.exception.WindupException;
+import org.jboss.windup.util.threading.WindupExecutors;
+
+/**
+ * Writes items on a single background thread, taking them from a bounded queue in batches, and committing after every batch of written items.
+ * <p>
+ * The producers block in {@link #add(Object)} when the writer falls behind. While they wait, they check whether the writer has stopped, and rethrow
+ * its failure instead of waiting forever. A failure to write a single item is only logged, but a failed commit stops the writer, as the items of
+ * the failed transaction are lost.
+ */
+abstract class BatchingQueueWriter<T>
+{
+    private static final Logger LOG = Logging.get(BatchingQueueWriter.class);
+
+    private final Object endOfItems = new Object();
+    private final BlockingQueue<Object> queue;
+    private final int batchSize;
+    private final long enqueueTimeoutMillis;
+    private final ExecutorService executorService = WindupExecutors.newSingleThreadExecutor();
+    private final Future<?> writer;
+
+    BatchingQueueWriter(int queueSize, int batchSize, long enqueueTimeoutMillis)
+    {
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.writer = executorService.submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                writeItems();
+            }
+        });
+    }
+
+    /**
+     * Writes a single item. Failures are logged, and the writer continues with the next item.
+     */
+    protected abstract void write(T item) throws Exception;
+
+    /**
+     * Commits the items written so far.
+     */
+    protected abstract void commit(int written);
+
+    /**
+     * Adds the item to the queue, waiting for space if the queue is full.
+     */
+    void add(T item)
+    {
+        enqueue(item);
+    }
+
+    /**
+     * Waits until all of the items that were added have been written and committed.
+     */
+    void finish()
+    {
+        enqueue(endOfItems);
+        executorService.shutdown();
+        try
+        {
+            writer.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new WindupException("Interrupted while waiting for the items to be written", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new WindupException("Failed to write the items due to: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Stops the writer thread, if it is still running.
+     */
+    void close()
+    {
+        executorService.shutdownNow();
+    }
+
+    private void enqueue(Object item)
+    {
+        try
+        {
+            while (!queue.offer(item, enqueueTimeoutMillis, TimeUnit.MILLISECONDS))
+                checkWriter();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new WindupException("Interrupted while waiting to add the item to the queue: " + item, e);
+        }
+    }
+
+    /**
+     * Fails if the writer thread has stopped before all of the items were written, as nothing would ever take them from the queue.
+     */
+    private void checkWriter() throws InterruptedException
+    {
+        if (!writer.isDone())
+            return;
+
+        try
+        {
+            writer.get();
+        }
+        catch (ExecutionException e)
+        {
+            throw new WindupException("Failed to write the items due to: " + e.getCause().getMessage(), e.getCause());
+        }
+        catch (CancellationException e)
+        {
+            throw new WindupException("The items are no longer being written, as the writer was cancelled", e);
+        }
+        throw new WindupException("The items are no longer being written, as the writer has already stopped");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeItems()
+    {
+        List<Object> batch = new ArrayList<>(batchSize);
+        int written = 0;
+        int lastCommit = 0;
+        boolean complete = false;
+        while (!complete)
+        {
+            try
+            {
+                batch.add(queue.take());
+            }
+            catch (InterruptedException e)
+            {
+                throw new IllegalStateException("Interrupted while writing the items");
+            }
+            queue.drainTo(batch, batchSize - 1);
+
+            for (Object item : batch)
+            {
+                if (item == endOfItems)
+                {
+                    complete = true;
+                    break;
+                }
+
+                try
+                {
+                    write((T) item);
+                }
+                catch (Exception e)
+                {
+                    LOG.log(Level.WARNING, "Failed to write: " + item + " due to: " + e.getMessage(), e);
+                }
+                written++;
+            }
+            batch.clear();
+
+            // a failed commit rolls back the transaction, so this stops the writer (and fails the producers)
+            if (complete || written - lastCommit >= batchSize)
+            {
+                commit(written);
+                lastCommit = written;
+            }
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package org.jboss.windup.rules.apps.java.decompiler;
 
 import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -10,7 +18,8 @@ import org.apache.bcel.classfile.ClassParser;
 import org.apache.bcel.classfile.JavaClass;
 import org.apache.commons.lang3.StringUtils;
 import org.jboss.windup.config.GraphRewrite;
-import org.jboss.windup.config.operation.iteration.AbstractIterationOperation;
+import org.jboss.windup.config.Variables;
+import org.jboss.windup.config.operation.GraphOperation;
 import org.jboss.windup.reporting.service.ClassificationService;
 import org.jboss.windup.rules.apps.java.DependencyVisitor;
 import org.jboss.windup.rules.apps.java.model.JavaClassFileModel;
@@ -20,166 +29,354 @@ import org.jboss.windup.rules.apps.java.service.JavaClassService;
 import org.jboss.windup.rules.apps.java.service.WindupJavaConfigurationService;
 import org.jboss.windup.util.ExecutionStatistics;
 import org.jboss.windup.util.Logging;
+import org.jboss.windup.util.ProgressEstimate;
+import org.jboss.windup.util.exception.WindupException;
+import org.jboss.windup.util.exception.WindupStopException;
+import org.jboss.windup.util.threading.WindupExecutors;
 import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
 import org.ocpsoft.rewrite.context.EvaluationContext;
 
 /**
  * An operation doing a pre-scan of the .class file in order to check if it is possible to tell in advance if it is worth decompiling the class.
+ * <p>
+ * This operates on the {@link JavaClassFileModel}s selected by the condition of the rule. Each .class file is read and parsed (with ASM) only
+ * once, on a pool of worker threads. Class files that ASM cannot read (for example, newer than Java 8) are parsed with BCEL instead. The
+ * results are written to the graph by the calling thread, with a commit after every {@link #COMMIT_INTERVAL} files.
  *
  * @author <a href="mailto:jesse.sightler@gmail.com">Jesse Sightler</a>
  * @author <a href="mailto:mbriskar@gmail.com">Matej Briskar</a>
  * @author Ondrej Zizka
  */
-public class ClassFilePreDecompilationScan extends AbstractIterationOperation<JavaClassFileModel>
+public class ClassFilePreDecompilationScan extends GraphOperation
 {
     private static final Logger LOG = Logging.get(ClassFilePreDecompilationScan.class);
 
+    private static final int COMMIT_INTERVAL = 500;
+    private static final int LOG_INTERVAL = 1000;
+
+    /**
+     * The number of files per worker thread that may be parsed ahead of the graph writes.
+     */
+    private static final int FILES_IN_FLIGHT_PER_THREAD = 64;
+
     String UNPARSEABLE_CLASS_CLASSIFICATION = "Unparseable Class File";
     String UNPARSEABLE_CLASS_DESCRIPTION = "This Class file could not be parsed";
 
-    private void addClassFileMetadata(GraphRewrite event, EvaluationContext context, JavaClassFileModel javaClassFileModel)
+    @Override
+    public void perform(GraphRewrite event, EvaluationContext context)
     {
-        try (FileInputStream fis = new FileInputStream(javaClassFileModel.getFilePath()))
+        ExecutionStatistics.get().begin("ClassFilePreDecompilationScan.perform()");
+        try
         {
-            final ClassParser parser = new ClassParser(fis, javaClassFileModel.getFilePath());
-            final JavaClass bcelJavaClass = parser.parse();
-            final String packageName = bcelJavaClass.getPackageName();
+            List<JavaClassFileModel> classFiles = new ArrayList<>();
+            Iterable<JavaClassFileModel> selected = Variables.instance(event).findVariableOfType(JavaClassFileModel.class);
+            if (selected != null)
+            {
+                for (JavaClassFileModel classFile : selected)
+                    classFiles.add(classFile);
+            }
 
-            final String qualifiedName = bcelJavaClass.getClassName();
+            WindupJavaConfigurationService configurationService = new WindupJavaConfigurationService(event.getGraphContext());
+            final List<String> scanPackages = configurationService.getScanJavaPackageNames();
+            final List<String> excludePackages = configurationService.getExcludeJavaPackageNames();
+            final JavaClassIgnoreResolver ignoreResolver = JavaClassIgnoreResolver.singletonInstance();
+            int threads = WindupExecutors.getDefaultThreadCount();
+            ExecutorService executor = WindupExecutors.newFixedThreadPool(threads);
+            try
+            {
+                ProgressEstimate progressEstimate = new ProgressEstimate(classFiles.size());
+                Deque<Future<ClassFileInfo>> inFlight = new ArrayDeque<>();
+                int next = 0;
+                for (int written = 0; written < classFiles.size(); written++)
+                {
+                    while (next < classFiles.size() && inFlight.size() < threads * FILES_IN_FLIGHT_PER_THREAD)
+                    {
+                        final JavaClassFileModel classFile = classFiles.get(next++);
+                        final String filePath = classFile.getFilePath();
+                        final String fileName = classFile.getFileName();
+                        inFlight.add(executor.submit(new Callable<ClassFileInfo>()
+                        {
+                            @Override
+                            public ClassFileInfo call()
+                            {
+                                return scan(filePath, fileName, scanPackages, excludePackages, ignoreResolver);
+                            }
+                        }));
+                    }
 
-            final JavaClassService javaClassService = new JavaClassService(event.getGraphContext());
-            final JavaClassModel javaClassModel = javaClassService.create(qualifiedName);
-            int majorVersion = bcelJavaClass.getMajor();
-            int minorVersion = bcelJavaClass.getMinor();
+                    ClassFileInfo info = getResult(inFlight.remove());
+                    JavaClassFileModel classFile = classFiles.get(written);
+                    classFiles.set(written, null);
+                    write(event, context, classFile, info);
 
-            String simpleName = qualifiedName;
-            if (packageName != null && !packageName.isEmpty() && simpleName != null)
+                    progressEstimate.addWork(1);
+                    if ((written + 1) % COMMIT_INTERVAL == 0)
+                        event.getGraphContext().commit();
+                    printProgressEstimate(event, progressEstimate);
+                }
+                event.getGraphContext().commit();
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
+        }
+        finally
+        {
+            ExecutionStatistics.get().end("ClassFilePreDecompilationScan.perform()");
+        }
+    }
+
+    /**
+     * Reads and parses the given .class file. This does not access the graph, so it may be called from any thread.
+     */
+    static ClassFileInfo scan(String filePath, String fileName, List<String> scanPackages, List<String> excludePackages,
+                JavaClassIgnoreResolver ignoreResolver)
+    {
+        ExecutionStatistics.get().begin("ClassFilePreDecompilationScan.scan");
+        try
+        {
+            ClassReader classReader = null;
+            ClassFileInfo info;
+            String asmError = null;
+            try
+            {
+                classReader = new ClassReader(Files.readAllBytes(Paths.get(filePath)));
+                info = readClassInfo(classReader);
+            }
+            catch (Exception e)
             {
-                simpleName = StringUtils.substringAfterLast(simpleName, ".");
+                // ASM rejects class files that are newer than it knows, so at least get the metadata from BCEL
+                asmError = e.getMessage();
+                info = readClassInfo(filePath);
+                if (info.parseError != null)
+                    return info;
             }
 
-            javaClassFileModel.setMajorVersion(majorVersion);
-            javaClassFileModel.setMinorVersion(minorVersion);
-            javaClassFileModel.setPackageName(packageName);
+            boolean shouldScan;
+            if (info.packageName != null)
+                shouldScan = WindupJavaConfigurationService.shouldScanPackage(info.packageName, scanPackages, excludePackages);
+            else
+                shouldScan = WindupJavaConfigurationService.shouldScanFile(filePath, scanPackages, excludePackages);
+
+            if (!shouldScan)
+            {
+                info.skipReason = "configuration";
+                return info;
+            }
 
-            javaClassModel.setSimpleName(simpleName);
-            javaClassModel.setPackageName(packageName);
-            javaClassModel.setQualifiedName(qualifiedName);
-            javaClassModel.setClassFile(javaClassFileModel);
-            javaClassModel.setPublic(bcelJavaClass.isPublic());
-            javaClassModel.setInterface(bcelJavaClass.isInterface());
+            // keep inner classes (we may need them for decompilation purposes)
+            if (fileName.contains("$"))
+                return info;
 
-            final String[] interfaceNames = bcelJavaClass.getInterfaceNames();
-            if (interfaceNames != null)
+            try
             {
-                for (final String interfaceName : interfaceNames)
+                if (classReader == null)
+                    throw new IllegalArgumentException(asmError);
+
+                DependencyVisitor dependencyVisitor = new DependencyVisitor();
+                classReader.accept(dependencyVisitor, 0);
+
+                // If we should ignore any of the contained classes, skip decompilation of the whole file.
+                for (String typeReference : dependencyVisitor.classes)
                 {
-                    JavaClassModel interfaceModel = javaClassService.getOrCreatePhantom(interfaceName);
-                    javaClassService.addInterface(javaClassModel, interfaceModel);
+                    if (shouldIgnore(ignoreResolver, typeReference))
+                    {
+                        info.skipReason = "javaclass-ignore";
+                        break;
+                    }
                 }
             }
+            catch (IllegalArgumentException e)
+            {
+                // the class is still decompiled, it just could not be checked against the javaclass-ignore list
+                info.asmError = "ASM was unable to parse class file '" + filePath + "':\n\t" + e.getMessage();
+            }
+            return info;
+        }
+        finally
+        {
+            ExecutionStatistics.get().end("ClassFilePreDecompilationScan.scan");
+        }
+    }
 
-            String superclassName = bcelJavaClass.getSuperclassName();
-            if (!bcelJavaClass.isInterface() && !StringUtils.isBlank(superclassName))
-                javaClassModel.setExtends(javaClassService.getOrCreatePhantom(superclassName));
+    private static ClassFileInfo readClassInfo(ClassReader classReader)
+    {
+        ClassFileInfo info = new ClassFileInfo();
+        info.minorVersion = classReader.readUnsignedShort(4);
+        info.majorVersion = classReader.readUnsignedShort(6);
+        info.access = classReader.getAccess();
+        info.qualifiedName = toClassName(classReader.getClassName());
+        info.packageName = info.qualifiedName.contains(".") ? StringUtils.substringBeforeLast(info.qualifiedName, ".") : "";
+        info.superclassName = toClassName(classReader.getSuperName());
+        for (String interfaceName : classReader.getInterfaces())
+            info.interfaceNames.add(toClassName(interfaceName));
+        return info;
+    }
 
-            javaClassFileModel.setJavaClass(javaClassModel);
+    private static ClassFileInfo readClassInfo(String filePath)
+    {
+        ClassFileInfo info = new ClassFileInfo();
+        try (FileInputStream fis = new FileInputStream(filePath))
+        {
+            final JavaClass bcelJavaClass = new ClassParser(fis, filePath).parse();
+            info.minorVersion = bcelJavaClass.getMinor();
+            info.majorVersion = bcelJavaClass.getMajor();
+            info.access = bcelJavaClass.getAccessFlags();
+            info.qualifiedName = bcelJavaClass.getClassName();
+            info.packageName = bcelJavaClass.getPackageName();
+            info.superclassName = bcelJavaClass.getSuperclassName();
+            String[] interfaceNames = bcelJavaClass.getInterfaceNames();
+            if (interfaceNames != null)
+            {
+                for (String interfaceName : interfaceNames)
+                    info.interfaceNames.add(interfaceName);
+            }
         }
         catch (Exception e)
         {
-            final String message = "BCEL was unable to parse class file '" + javaClassFileModel.getFilePath() + "':\n\t" + e.getMessage();
-            LOG.log(Level.WARNING, message);
+            info.parseError = "BCEL was unable to parse class file '" + filePath + "':\n\t" + e.getMessage();
+        }
+        return info;
+    }
+
+    private void write(GraphRewrite event, EvaluationContext context, JavaClassFileModel javaClassFileModel, ClassFileInfo info)
+    {
+        if (info.parseError != null)
+        {
+            LOG.log(Level.WARNING, info.parseError);
             ClassificationService classificationService = new ClassificationService(event.getGraphContext());
             classificationService.attachClassification(context, javaClassFileModel, UNPARSEABLE_CLASS_CLASSIFICATION, UNPARSEABLE_CLASS_DESCRIPTION);
-            javaClassFileModel.setParseError(message);
+            javaClassFileModel.setParseError(info.parseError);
             javaClassFileModel.setSkipDecompilation(true);
+            return;
         }
-    }
 
+        final JavaClassService javaClassService = new JavaClassService(event.getGraphContext());
+        final JavaClassModel javaClassModel = javaClassService.create(info.qualifiedName);
 
-    private void filterClassesToDecompile(GraphRewrite event, EvaluationContext context, JavaClassFileModel fileModel)
-    {
-        if (fileModel.getSkipDecompilation() != null && fileModel.getSkipDecompilation())
-            return;
+        String simpleName = info.qualifiedName;
+        if (!info.packageName.isEmpty())
+            simpleName = StringUtils.substringAfterLast(simpleName, ".");
+
+        javaClassFileModel.setMajorVersion(info.majorVersion);
+        javaClassFileModel.setMinorVersion(info.minorVersion);
+        javaClassFileModel.setPackageName(info.packageName);
+
+        javaClassModel.setSimpleName(simpleName);
+        javaClassModel.setPackageName(info.packageName);
+        javaClassModel.setQualifiedName(info.qualifiedName);
+        javaClassModel.setClassFile(javaClassFileModel);
+        javaClassModel.setPublic((info.access & Opcodes.ACC_PUBLIC) != 0);
+        javaClassModel.setInterface(info.isInterface());
 
-        try (InputStream is = fileModel.asInputStream())
+        for (final String interfaceName : info.interfaceNames)
         {
-            WindupJavaConfigurationService configurationService = new WindupJavaConfigurationService(event.getGraphContext());
-            boolean shouldScan;
-            if (fileModel.getPackageName() != null)
-                shouldScan = configurationService.shouldScanPackage(fileModel.getPackageName());
-            else
-                shouldScan = configurationService.shouldScanFile(fileModel.getFilePath());
+            JavaClassModel interfaceModel = javaClassService.getOrCreatePhantom(interfaceName);
+            javaClassService.addInterface(javaClassModel, interfaceModel);
+        }
 
-            if (!shouldScan)
-            {
-                LOG.fine("Skipping decompilation for: " + fileModel.getFilePath() + " due to configuration!");
-                fileModel.setSkipDecompilation(true);
-                return;
-            }
+        if (!info.isInterface() && !StringUtils.isBlank(info.superclassName))
+            javaClassModel.setExtends(javaClassService.getOrCreatePhantom(info.superclassName));
 
-            // keep inner classes (we may need them for decompilation purposes)
-            if (fileModel.getFileName().contains("$"))
-                return;
+        javaClassFileModel.setJavaClass(javaClassModel);
 
-            DependencyVisitor dependencyVisitor = new DependencyVisitor();
-            ClassReader classReader = new ClassReader(is);
-            classReader.accept(dependencyVisitor, 0);
+        if (javaClassFileModel.getSkipDecompilation() != null && javaClassFileModel.getSkipDecompilation())
+            return;
 
-            // If we should ignore any of the contained classes, skip decompilation of the whole file.
-            for (String typeReference : dependencyVisitor.classes)
-            {
-                if (shouldIgnore(typeReference)) {
-                    LOG.fine("Skipping decompilation for: " + fileModel.getFilePath() + " due javaclass-ignore!");
-                    fileModel.setSkipDecompilation(true);
-                    break;
-                }
-            }
+        if (info.skipReason != null)
+        {
+            LOG.fine("Skipping decompilation for: " + javaClassFileModel.getFilePath() + " due to " + info.skipReason + "!");
+            javaClassFileModel.setSkipDecompilation(true);
         }
-        catch (IOException|IllegalArgumentException e)
+        else if (info.asmError != null)
         {
-            final String message = "ASM was unable to parse class file '" + fileModel.getFilePath() + "':\n\t" + e.getMessage();
-            LOG.log(Level.WARNING, message, e);
+            LOG.log(Level.WARNING, info.asmError);
             ClassificationService classificationService = new ClassificationService(event.getGraphContext());
-            classificationService.attachClassification(context, fileModel, UNPARSEABLE_CLASS_CLASSIFICATION, UNPARSEABLE_CLASS_DESCRIPTION);
-            fileModel.setParseError(message);
+            classificationService.attachClassification(context, javaClassFileModel, UNPARSEABLE_CLASS_CLASSIFICATION, UNPARSEABLE_CLASS_DESCRIPTION);
+            javaClassFileModel.setParseError(info.asmError);
         }
     }
 
-
-    @Override
-    public void perform(GraphRewrite event, EvaluationContext context, JavaClassFileModel fileModel)
+    private ClassFileInfo getResult(Future<ClassFileInfo> future)
     {
-        ExecutionStatistics.get().begin("ClassFilePreDecompilationScan.perform()");
         try
         {
-            addClassFileMetadata(event, context, fileModel);
-            if (fileModel.getParseError() != null)
-                return;
-
-            filterClassesToDecompile(event, context, fileModel);
+            return future.get();
         }
-        finally
+        catch (InterruptedException e)
         {
-            ExecutionStatistics.get().end("ClassFilePreDecompilationScan.perform()");
+            Thread.currentThread().interrupt();
+            throw new WindupException("Interrupted while scanning class files", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new WindupException("Failed to scan class file due to: " + e.getCause().getMessage(), e.getCause());
         }
     }
 
+    private void printProgressEstimate(GraphRewrite event, ProgressEstimate estimate)
+    {
+        if (estimate.getWorked() % LOG_INTERVAL != 0)
+            return;
+
+        int timeRemainingInMillis = (int) estimate.getTimeRemainingInMillis();
+        if (timeRemainingInMillis > 0)
+        {
+            boolean windupStopRequested = event.ruleEvaluationProgress("Scan Class Files", estimate.getWorked(), estimate.getTotal(),
+                        timeRemainingInMillis / 1000);
+            if (windupStopRequested)
+            {
+                throw new WindupStopException("Windup stop requested through ruleEvaluationProgress() during "
+                            + ClassFilePreDecompilationScan.class.getName());
+            }
+        }
+
+        LOG.info("Scanned Class File: " + estimate.getWorked() + " / " + estimate.getTotal());
+    }
+
     /**
      * This method is called on every reference that is in the .class file.
      * @param typeReference
      * @return
      */
-    private boolean shouldIgnore(String typeReference)
+    private static boolean shouldIgnore(JavaClassIgnoreResolver ignoreResolver, String typeReference)
     {
         typeReference = typeReference.replace('/', '.').replace('\\', '.');
-        return JavaClassIgnoreResolver.singletonInstance().matches(typeReference);
+        return ignoreResolver.matches(typeReference);
     }
 
+    private static String toClassName(String internalName)
+    {
+        return internalName == null ? null : internalName.replace('/', '.');
+    }
 
     @Override
     public String toString()
     {
         return ClassFilePreDecompilationScan.class.getSimpleName();
     }
+
+    /**
+     * The data extracted from a single .class file.
+     */
+    static class ClassFileInfo
+    {
+        int majorVersion;
+        int minorVersion;
+        int access;
+        String qualifiedName;
+        String packageName;
+        String superclassName;
+        final List<String> interfaceNames = new ArrayList<>();
+        String skipReason;
+        String asmError;
+        String parseError;
+
+        boolean isInterface()
+        {
+            return (access & Opcodes.ACC_INTERFACE) != 0;
+        }
+    }
 }
@@ -0,0 +1,614 @@
+package org.jboss.windup.rules.apps.java.decompiler;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.IOUtils;
+import org.jboss.windup.config.GraphRewrite;
+import org.jboss.windup.decompiler.api.ClassDecompileRequest;
+import org.jboss.windup.decompiler.api.DecompilationListener;
+import org.jboss.windup.rules.apps.java.config.DecompilerCacheDirectoryOption;
+import org.jboss.windup.util.ExecutionStatistics;
+import org.jboss.windup.util.Logging;
+import org.jboss.windup.util.exception.WindupException;
+import org.jboss.windup.util.threading.WindupExecutors;
+
+/**
+ * Keeps decompiled sources between executions, keyed by a fingerprint (SHA-1) of the contents of the .class files that they were decompiled from,
+ * and of the decompiler implementation (including its version) and settings that were used.
+ * <p>
+ * Before decompiling, {@link #restore(List, DecompilationListener)} places the cached source of each unchanged class into the output directory and
+ * reports it to the listener as if it had just been decompiled. Only the remaining requests need to be passed to the decompiler, with the listener
+ * wrapped by {@link #storing(DecompilationListener)} so that the new results are added to the cache.
+ * <p>
+ * The .class files are extracted again by each execution, so their modification times say nothing about whether they changed, and each of them is
+ * read to calculate its fingerprint. This (and the copying of the cached sources) is done on a pool of worker threads.
+ * <p>
+ * The cache is only used if a directory has been specified with the {@link DecompilerCacheDirectoryOption}. The cached sources of each decompiler
+ * are limited to {@link #MAX_SIZE_PROPERTY} bytes. When a decompilation completes with more than this, the sources that were least recently used
+ * are removed on a background thread, so that the analysis does not wait for it.
+ */
+public class DecompiledSourceCache
+{
+    private static final Logger LOG = Logging.get(DecompiledSourceCache.class);
+
+    /**
+     * The system property for the maximum size (in bytes) of the cached sources of each decompiler.
+     */
+    public static final String MAX_SIZE_PROPERTY = "windup.decompiler.cacheMaxSize";
+
+    private static final long DEFAULT_MAX_SIZE = 1024L * 1024L * 1024L;
+
+    private static final int VERSION = 1;
+    private static final String ENTRY_SUFFIX = ".java.cache";
+
+    private final Path directory;
+    private final String decompilerKey;
+    private final long maxSize;
+    private final Map<String, String> fingerprintsByClassFile = new HashMap<>();
+    private final Map<String, Path> outputDirectoriesByClassFile = new HashMap<>();
+
+    private final AtomicInteger restored = new AtomicInteger(0);
+    private final AtomicInteger stored = new AtomicInteger(0);
+    private final AtomicInteger evicted = new AtomicInteger(0);
+    private volatile Future<?> eviction;
+
+    /**
+     * Creates a cache for the output of the given decompiler in the given directory. The description of the decompiler (see
+     * {@link #describeImplementation(Class...)}) and its settings is part of the fingerprint of each source.
+     */
+    public DecompiledSourceCache(Path cacheDirectory, String decompilerName, String decompilerDescription)
+    {
+        this(cacheDirectory, decompilerName, decompilerDescription, Long.getLong(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE));
+    }
+
+    DecompiledSourceCache(Path cacheDirectory, String decompilerName, String decompilerDescription, long maxSize)
+    {
+        this.directory = cacheDirectory.resolve(decompilerName);
+        this.decompilerKey = decompilerName + "|" + decompilerDescription;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets a cache for the output of the given decompiler, or null if no cache directory has been configured for this execution.
+     */
+    public static DecompiledSourceCache forExecution(GraphRewrite event, String decompilerName, String decompilerDescription)
+    {
+        Object cacheDirectory = event.getGraphContext().getOptionMap().get(DecompilerCacheDirectoryOption.NAME);
+        if (cacheDirectory instanceof File)
+            return new DecompiledSourceCache(((File) cacheDirectory).toPath(), decompilerName, decompilerDescription);
+        else if (cacheDirectory instanceof Path)
+            return new DecompiledSourceCache((Path) cacheDirectory, decompilerName, decompilerDescription);
+        else if (cacheDirectory instanceof String)
+            return new DecompiledSourceCache(Paths.get((String) cacheDirectory), decompilerName, decompilerDescription);
+        else
+            return null;
+    }
+
+    /**
+     * Describes the implementation of a decompiler by the given classes, and the archives that they were loaded from (including the version and
+     * build time of each archive). This changes whenever the decompiler or the Windup wrapper around it is upgraded or rebuilt.
+     */
+    public static String describeImplementation(Class<?>... classes)
+    {
+        StringBuilder result = new StringBuilder();
+        for (Class<?> implementationClass : classes)
+        {
+            if (result.length() > 0)
+                result.append(", ");
+            result.append(implementationClass.getName());
+
+            Package classPackage = implementationClass.getPackage();
+            if (classPackage != null && classPackage.getImplementationVersion() != null)
+                result.append(" ").append(classPackage.getImplementationVersion());
+
+            CodeSource codeSource = implementationClass.getProtectionDomain().getCodeSource();
+            URL location = codeSource == null ? null : codeSource.getLocation();
+            if (location == null)
+                continue;
+
+            try
+            {
+                File archive = new File(location.toURI());
+                result.append(" from ").append(archive.getName()).append(" ").append(archive.lastModified());
+            }
+            catch (URISyntaxException | IllegalArgumentException e)
+            {
+                result.append(" from ").append(location);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Restores the cached source for each group of requests (a class along with its inner classes) that has not changed since it was cached, and
+     * reports it to the given listener.
+     *
+     * @return the requests that were not found in the cache, and still need to be decompiled
+     */
+    public List<ClassDecompileRequest> restore(List<ClassDecompileRequest> requests, DecompilationListener listener)
+    {
+        ExecutionStatistics.get().begin("DecompiledSourceCache.restore");
+        ExecutorService executor = WindupExecutors.newFixedThreadPool(WindupExecutors.getDefaultThreadCount());
+        try
+        {
+            List<List<ClassDecompileRequest>> groups = new ArrayList<>(groupRequests(requests).values());
+            List<Future<RestoredGroup>> results = new ArrayList<>(groups.size());
+            for (final List<ClassDecompileRequest> group : groups)
+            {
+                results.add(executor.submit(new Callable<RestoredGroup>()
+                {
+                    @Override
+                    public RestoredGroup call()
+                    {
+                        return restoreGroup(group);
+                    }
+                }));
+            }
+
+            // the listener is called from this thread only, in the order of the requests
+            List<ClassDecompileRequest> remaining = new ArrayList<>(requests.size());
+            for (int i = 0; i < groups.size(); i++)
+            {
+                List<ClassDecompileRequest> group = groups.get(i);
+                RestoredGroup result = getResult(results.get(i));
+                List<String> classFiles = new ArrayList<>(group.size());
+                for (ClassDecompileRequest request : group)
+                    classFiles.add(request.getClassFile().toString());
+
+                if (result.outputFile != null)
+                {
+                    restored.incrementAndGet();
+                    listener.fileDecompiled(classFiles, result.outputFile.toString());
+                    continue;
+                }
+
+                if (result.fingerprint != null)
+                {
+                    Path outputDirectory = group.get(0).getOutputDirectory();
+                    for (String classFile : classFiles)
+                    {
+                        fingerprintsByClassFile.put(classFile, result.fingerprint);
+                        outputDirectoriesByClassFile.put(classFile, outputDirectory);
+                    }
+                }
+                remaining.addAll(group);
+            }
+            return remaining;
+        }
+        finally
+        {
+            executor.shutdownNow();
+            ExecutionStatistics.get().end("DecompiledSourceCache.restore");
+        }
+    }
+
+    /**
+     * Calculates the fingerprint of the group, and restores its source if it is in the cache. This does not change any state of this cache, so it
+     * may be called from any thread.
+     */
+    private RestoredGroup restoreGroup(List<ClassDecompileRequest> group)
+    {
+        String fingerprint = fingerprint(group);
+        Path outputFile = fingerprint == null ? null : restoreSource(fingerprint, group.get(0).getOutputDirectory());
+        return new RestoredGroup(fingerprint, outputFile);
+    }
+
+    private static RestoredGroup getResult(Future<RestoredGroup> future)
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new WindupException("Interrupted while restoring cached decompiled sources", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new WindupException("Failed to restore cached decompiled sources due to: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Wraps the given listener, so that each successfully decompiled source is also added to the cache.
+     */
+    public DecompilationListener storing(final DecompilationListener delegate)
+    {
+        return new DecompilationListener()
+        {
+            @Override
+            public void fileDecompiled(List<String> inputPath, String outputPath)
+            {
+                store(inputPath, outputPath);
+                delegate.fileDecompiled(inputPath, outputPath);
+            }
+
+            @Override
+            public void decompilationFailed(List<String> inputPath, String message)
+            {
+                delegate.decompilationFailed(inputPath, message);
+            }
+
+            @Override
+            public void decompilationProcessComplete()
+            {
+                LOG.info("Decompiled source cache: restored " + restored.get() + " sources, stored " + stored.get() + " sources in: " + directory);
+                startEviction();
+                delegate.decompilationProcessComplete();
+            }
+        };
+    }
+
+    /**
+     * Gets the number of sources that have been restored from the cache.
+     */
+    public int getRestoredCount()
+    {
+        return restored.get();
+    }
+
+    /**
+     * Gets the number of sources that have been added to the cache.
+     */
+    public int getStoredCount()
+    {
+        return stored.get();
+    }
+
+    /**
+     * Gets the number of sources that have been removed from the cache, to keep it within its maximum size.
+     */
+    public int getEvictedCount()
+    {
+        return evicted.get();
+    }
+
+    /**
+     * Waits for up to the given time for the eviction of the least recently used sources (which starts once the decompilation is complete) to
+     * finish.
+     *
+     * @return false if the eviction is still running
+     */
+    boolean awaitEviction(long timeoutMillis) throws InterruptedException, ExecutionException
+    {
+        Future<?> currentEviction = eviction;
+        if (currentEviction == null)
+            return true;
+
+        try
+        {
+            currentEviction.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        }
+        catch (TimeoutException e)
+        {
+            return false;
+        }
+    }
+
+    private void startEviction()
+    {
+        ExecutorService executor = WindupExecutors.newSingleThreadExecutor();
+        eviction = executor.submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                evict();
+            }
+        });
+        executor.shutdown();
+    }
+
+    /**
+     * Removes the least recently used sources until the cache fits in its maximum size.
+     */
+    private void evict()
+    {
+        if (!Files.isDirectory(directory))
+            return;
+
+        ExecutionStatistics.get().begin("DecompiledSourceCache.evict");
+        try
+        {
+            final Map<Path, BasicFileAttributes> entries = new HashMap<>();
+            Files.walkFileTree(directory, new SimpleFileVisitor<Path>()
+            {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                {
+                    if (file.getFileName().toString().endsWith(ENTRY_SUFFIX))
+                        entries.put(file, attrs);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            long size = 0;
+            for (BasicFileAttributes attrs : entries.values())
+                size += attrs.size();
+            if (size <= maxSize)
+                return;
+
+            List<Path> leastRecentlyUsed = new ArrayList<>(entries.keySet());
+            Collections.sort(leastRecentlyUsed, new Comparator<Path>()
+            {
+                @Override
+                public int compare(Path o1, Path o2)
+                {
+                    return entries.get(o1).lastModifiedTime().compareTo(entries.get(o2).lastModifiedTime());
+                }
+            });
+
+            for (Path entryFile : leastRecentlyUsed)
+            {
+                if (size <= maxSize)
+                    break;
+
+                deleteQuietly(entryFile);
+                size -= entries.get(entryFile).size();
+                evicted.incrementAndGet();
+            }
+            LOG.info("Decompiled source cache: evicted " + evicted.get() + " sources from: " + directory);
+        }
+        catch (IOException e)
+        {
+            LOG.log(Level.WARNING, "Failed to evict sources from the decompiled source cache: " + directory + " due to: " + e.getMessage(), e);
+        }
+        finally
+        {
+            ExecutionStatistics.get().end("DecompiledSourceCache.evict");
+        }
+    }
+
+    private void store(List<String> inputPath, String outputPath)
+    {
+        if (inputPath.isEmpty())
+            return;
+
+        String fingerprint = fingerprintsByClassFile.get(inputPath.get(0));
+        Path outputDirectory = outputDirectoriesByClassFile.get(inputPath.get(0));
+        if (fingerprint == null || outputDirectory == null)
+            return;
+
+        Path outputFile = Paths.get(outputPath).toAbsolutePath().normalize();
+        outputDirectory = outputDirectory.toAbsolutePath().normalize();
+        if (!outputFile.startsWith(outputDirectory))
+            return;
+
+        ExecutionStatistics.get().begin("DecompiledSourceCache.store");
+        Path entryFile = getEntryFile(fingerprint);
+        Path tempFile = null;
+        try
+        {
+            Files.createDirectories(entryFile.getParent());
+            tempFile = Files.createTempFile(entryFile.getParent(), fingerprint, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tempFile)))
+            {
+                out.writeInt(VERSION);
+                out.writeUTF(outputDirectory.relativize(outputFile).toString());
+                Files.copy(outputFile, out);
+            }
+            Files.move(tempFile, entryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            stored.incrementAndGet();
+        }
+        catch (IOException e)
+        {
+            LOG.log(Level.WARNING, "Failed to cache decompiled source: " + outputPath + " due to: " + e.getMessage(), e);
+            deleteQuietly(tempFile);
+        }
+        finally
+        {
+            ExecutionStatistics.get().end("DecompiledSourceCache.store");
+        }
+    }
+
+    /**
+     * Copies the cached source with the given fingerprint into the output directory.
+     *
+     * @return the location of the restored source, or null if there is no cached source with this fingerprint
+     */
+    private Path restoreSource(String fingerprint, Path outputDirectory)
+    {
+        Path entryFile = getEntryFile(fingerprint);
+        if (!Files.isRegularFile(entryFile))
+            return null;
+
+        Path outputFile = null;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(entryFile)))
+        {
+            if (in.readInt() != VERSION)
+                return null;
+
+            outputFile = outputDirectory.resolve(in.readUTF());
+            Files.createDirectories(outputFile.getParent());
+            try (OutputStream out = Files.newOutputStream(outputFile))
+            {
+                IOUtils.copy(in, out);
+            }
+
+            // the modification time of each entry is the time it was last used, which decides the order of eviction
+            touchQuietly(entryFile);
+            return outputFile;
+        }
+        catch (IOException e)
+        {
+            LOG.log(Level.WARNING, "Failed to restore cached decompiled source: " + entryFile + " due to: " + e.getMessage(), e);
+            deleteQuietly(outputFile);
+            deleteQuietly(entryFile);
+            return null;
+        }
+    }
+
+    private Path getEntryFile(String fingerprint)
+    {
+        return directory.resolve(fingerprint.substring(0, 2)).resolve(fingerprint.substring(2) + ENTRY_SUFFIX);
+    }
+
+    /**
+     * Calculates the SHA-1 of the decompiler and of the names and contents of all .class files in the group, or returns null if any of them could
+     * not be read.
+     */
+    private String fingerprint(List<ClassDecompileRequest> group)
+    {
+        List<Path> classFiles = new ArrayList<>(group.size());
+        for (ClassDecompileRequest request : group)
+            classFiles.add(request.getClassFile());
+        Collections.sort(classFiles, new Comparator<Path>()
+        {
+            @Override
+            public int compare(Path o1, Path o2)
+            {
+                return o1.getFileName().toString().compareTo(o2.getFileName().toString());
+            }
+        });
+
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(decompilerKey.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+
+            byte[] buffer = new byte[8192];
+            for (Path classFile : classFiles)
+            {
+                digest.update(classFile.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                try (InputStream in = Files.newInputStream(classFile))
+                {
+                    int read;
+                    while ((read = in.read(buffer)) != -1)
+                        digest.update(buffer, 0, read);
+                }
+                digest.update((byte) 0);
+            }
+            return toHex(digest.digest());
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+        catch (IOException e)
+        {
+            LOG.warning("Failed to calculate the fingerprint of: " + classFiles + " due to: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Groups the requests for inner classes (for example Foo$1.class) with the request for their outer class, in the same way that the decompilers
+     * do. The request for the outer class comes first.
+     */
+    private static Map<String, List<ClassDecompileRequest>> groupRequests(List<ClassDecompileRequest> requests)
+    {
+        Map<String, List<ClassDecompileRequest>> result = new LinkedHashMap<>();
+        for (ClassDecompileRequest request : requests)
+        {
+            String filename = request.getClassFile().getFileName().toString();
+            boolean innerClass = filename.matches(".*\\$.*.class");
+            String key = innerClass ? request.getClassFile().getParent().resolve(filename.substring(0, filename.indexOf("$")) + ".class").toString()
+                        : request.getClassFile().toString();
+
+            List<ClassDecompileRequest> group = result.get(key);
+            if (group == null)
+            {
+                group = new ArrayList<>();
+                result.put(key, group);
+            }
+
+            if (innerClass)
+                group.add(request);
+            else
+                group.add(0, request);
+        }
+        return result;
+    }
+
+    /**
+     * The fingerprint of a group of requests, and the location of its restored source (if it was in the cache).
+     */
+    private static class RestoredGroup
+    {
+        private final String fingerprint;
+        private final Path outputFile;
+
+        public RestoredGroup(String fingerprint, Path outputFile)
+        {
+            this.fingerprint = fingerprint;
+            this.outputFile = outputFile;
+        }
+    }
+
+    private static String toHex(byte[] bytes)
+    {
+        StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+        {
+            result.append(Character.forDigit((b >> 4) & 0xF, 16));
+            result.append(Character.forDigit(b & 0xF, 16));
+        }
+        return result.toString();
+    }
+
+    private static void touchQuietly(Path path)
+    {
+        try
+        {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        }
+        catch (IOException e)
+        {
+            // noop
+        }
+    }
+
+    private static void deleteQuietly(Path path)
+    {
+        if (path == null)
+            return;
+
+        try
+        {
+            Files.deleteIfExists(path);
+        }
+        catch (IOException e)
+        {
+            // noop
+        }
+    }
+}
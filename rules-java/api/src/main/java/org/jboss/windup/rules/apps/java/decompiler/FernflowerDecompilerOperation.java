@@ -10,6 +10,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -37,6 +38,7 @@ import org.jboss.windup.util.PathUtil;
 import org.jboss.windup.util.ProgressEstimate;
 import org.jboss.windup.util.exception.WindupException;
 import org.jboss.windup.util.threading.WindupExecutors;
+import org.jetbrains.java.decompiler.main.Fernflower;
 import org.ocpsoft.rewrite.context.EvaluationContext;
 
 /**
@@ -94,9 +96,22 @@ public class FernflowerDecompilerOperation extends AbstractDecompilerOperation
         ProgressEstimate progressEstimate = new ProgressEstimate(totalWork);
 
         AddDecompiledItemsToGraph addDecompiledItemsToGraph = new AddDecompiledItemsToGraph(classesToDecompile, progressEstimate, event);
+        DecompilationListener listener = addDecompiledItemsToGraph;
+
         FernflowerDecompiler decompiler = new FernflowerDecompiler();
+
+        // Classes that were already decompiled by a previous execution (with the same decompiler) do not need to be decompiled again
+        String decompilerDescription = DecompiledSourceCache.describeImplementation(FernflowerDecompiler.class, Fernflower.class) + " options="
+                    + new TreeMap<>(decompiler.getOptions());
+        DecompiledSourceCache cache = DecompiledSourceCache.forExecution(event, "fernflower", decompilerDescription);
+        if (cache != null)
+        {
+            classesToDecompile = cache.restore(classesToDecompile, addDecompiledItemsToGraph);
+            listener = cache.storing(addDecompiledItemsToGraph);
+        }
+
         decompiler.setExecutorService(WindupExecutors.newFixedThreadPool(threads), threads);
-        decompiler.decompileClassFiles(classesToDecompile, addDecompiledItemsToGraph);
+        decompiler.decompileClassFiles(classesToDecompile, listener);
         decompiler.close();
 
         ExecutionStatistics.get().end("FernflowerDecompilationOperation.perform");
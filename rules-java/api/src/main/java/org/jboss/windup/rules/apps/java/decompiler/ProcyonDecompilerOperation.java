@@ -6,11 +6,9 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import org.jboss.windup.config.GraphRewrite;
@@ -36,6 +34,8 @@ import org.jboss.windup.util.exception.WindupException;
 import org.jboss.windup.util.threading.WindupExecutors;
 import org.ocpsoft.rewrite.context.EvaluationContext;
 
+import com.strobel.decompiler.DecompilerSettings;
+
 /**
  * Decompile all .class files that match the requested package filter.
  */
@@ -64,12 +64,14 @@ public class ProcyonDecompilerOperation extends AbstractDecompilerOperation
         WindupJavaConfigurationService configurationService = new WindupJavaConfigurationService(event.getGraphContext());
         Iterable<JavaClassFileModel> allClasses = getFilesToDecompile(event.getGraphContext());
         List<ClassDecompileRequest> classesToDecompile = new ArrayList<>(10000); // Just a guess as to the average size
+        Map<String, Object> classFileIdsByPath = new HashMap<>(10000);
         for (JavaClassFileModel classFileModel : allClasses)
         {
             if (configurationService.shouldScanPackage(classFileModel.getPackageName()))
             {
                 File outputDir = DecompilerUtil.getOutputDirectoryForClass(event.getGraphContext(), classFileModel);
                 classesToDecompile.add(new ClassDecompileRequest(outputDir.toPath(), classFileModel.asFile().toPath(), outputDir.toPath()));
+                classFileIdsByPath.put(classFileModel.asFile().toPath().normalize().toAbsolutePath().toString(), classFileModel.asVertex().getId());
             }
         }
         Collections.sort(classesToDecompile, new Comparator<ClassDecompileRequest>()
@@ -83,57 +85,93 @@ public class ProcyonDecompilerOperation extends AbstractDecompilerOperation
 
         ProgressEstimate progressEstimate = new ProgressEstimate(classesToDecompile.size());
 
-        AddDecompiledItemsToGraph addDecompiledItemsToGraph = new AddDecompiledItemsToGraph(progressEstimate, event);
-        ProcyonDecompiler decompiler = new ProcyonDecompiler(new ProcyonConfiguration().setIncludeNested(false));
-        decompiler.setExecutorService(WindupExecutors.newFixedThreadPool(threads), threads);
-        decompiler.decompileClassFiles(classesToDecompile, addDecompiledItemsToGraph);
-        decompiler.close();
+        AddDecompiledItemsToGraph addDecompiledItemsToGraph = new AddDecompiledItemsToGraph(progressEstimate, event, classFileIdsByPath);
+        try
+        {
+            DecompilationListener listener = addDecompiledItemsToGraph;
+
+            ProcyonConfiguration configuration = new ProcyonConfiguration().setIncludeNested(false);
+
+            // Classes that were already decompiled by a previous execution (with the same decompiler) do not need to be decompiled again
+            String decompilerDescription = DecompiledSourceCache.describeImplementation(ProcyonDecompiler.class, DecompilerSettings.class)
+                        + " includeNested=" + configuration.isIncludeNested() + " lineNumbers=" + configuration.getLineNumberOptions();
+            DecompiledSourceCache cache = DecompiledSourceCache.forExecution(event, "procyon", decompilerDescription);
+            if (cache != null)
+            {
+                classesToDecompile = cache.restore(classesToDecompile, addDecompiledItemsToGraph);
+                listener = cache.storing(addDecompiledItemsToGraph);
+            }
+
+            ProcyonDecompiler decompiler = new ProcyonDecompiler(configuration);
+            decompiler.setExecutorService(WindupExecutors.newFixedThreadPool(threads), threads);
+            try
+            {
+                decompiler.decompileClassFiles(classesToDecompile, listener);
+            }
+            finally
+            {
+                decompiler.close();
+            }
+        }
+        finally
+        {
+            // stops the writer thread if the decompilation did not complete
+            addDecompiledItemsToGraph.close();
+        }
 
         ExecutionStatistics.get().end("ProcyonDecompilationOperation.perform");
     }
 
     /**
-     * This listens for decompiled files and writes the results to disk in a background thread.
-     * 
+     * This listens for decompiled files and adds them to the graph in a background thread.
+     *
+     * The decompiler threads only put the results into a bounded queue, and block when the graph writer falls behind. The writer takes the
+     * results in batches, commits once per batch and keeps the vertices of the directories (and class files) that it has already seen, so that
+     * each file only needs a single index lookup. A producer that is waiting for space in the queue checks whether the writer has stopped, and
+     * rethrows its failure instead of waiting forever. A failed commit stops the writer, as the vertices of the rolled back transaction (including
+     * the remembered directories) no longer exist. See {@link BatchingQueueWriter}.
+     *
      * @author <a href="mailto:jesse.sightler@gmail.com">Jesse Sightler</a>
      *
      */
     private class AddDecompiledItemsToGraph implements DecompilationListener
     {
-        private final ExecutorService executorService = WindupExecutors.newSingleThreadExecutor();
-        private final AtomicInteger queueSize = new AtomicInteger(0);
+        private static final int QUEUE_SIZE = 1000;
+        private static final int BATCH_SIZE = 100;
+        private static final long ENQUEUE_TIMEOUT_MILLIS = 5000L;
 
         private final GraphRewrite event;
-        private final AtomicInteger atomicInteger = new AtomicInteger(0);
         private final ProgressEstimate progressEstimate;
+        private final Map<String, Object> classFileIdsByPath;
+        private final Map<String, Object> directoryIdsByPath = new HashMap<>();
+        private final BatchingQueueWriter<DecompiledItem> writer;
 
-        private AddDecompiledItemsToGraph(ProgressEstimate progressEstimate, GraphRewrite event)
+        private AddDecompiledItemsToGraph(ProgressEstimate progressEstimate, final GraphRewrite event, Map<String, Object> classFileIdsByPath)
         {
             this.progressEstimate = progressEstimate;
             this.event = event;
-        }
-
-        @Override
-        public void decompilationProcessComplete()
-        {
-            executorService.submit(new Runnable()
+            this.classFileIdsByPath = classFileIdsByPath;
+            this.writer = new BatchingQueueWriter<DecompiledItem>(QUEUE_SIZE, BATCH_SIZE, ENQUEUE_TIMEOUT_MILLIS)
             {
                 @Override
-                public void run()
+                protected void write(DecompiledItem item)
+                {
+                    addToGraph(item.inputPath, item.outputFile);
+                }
+
+                @Override
+                protected void commit(int written)
                 {
-                    LOG.info("Performing final commit for decompilation process!");
+                    LOG.info("Performing periodic commit (" + written + ")");
                     event.getGraphContext().getGraph().getBaseGraph().commit();
                 }
-            });
-            executorService.shutdown();
-            try
-            {
-                executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-            }
-            catch (InterruptedException e)
-            {
-                throw new IllegalStateException("Thread pool failed to complete.");
-            }
+            };
+        }
+
+        @Override
+        public void decompilationProcessComplete()
+        {
+            writer.finish();
         }
 
         @Override
@@ -143,137 +181,139 @@ public class ProcyonDecompilerOperation extends AbstractDecompilerOperation
         }
 
         @Override
-        public synchronized void fileDecompiled(final List<String> inputPath, final String decompiledOutputFile)
+        public void fileDecompiled(final List<String> inputPath, final String decompiledOutputFile)
+        {
+            writer.add(new DecompiledItem(inputPath, decompiledOutputFile));
+        }
+
+        /**
+         * Stops the writer thread, if it is still running.
+         */
+        private void close()
+        {
+            writer.close();
+        }
+
+        private void addToGraph(List<String> inputPath, String decompiledOutputFile)
         {
-            Runnable saveDecompiledRunnable = new Runnable()
+            progressEstimate.addWork(1);
+            if (progressEstimate.getWorked() % 250 == 0)
             {
-                @Override
-                public void run()
+                long remainingTimeMillis = progressEstimate.getTimeRemainingInMillis();
+                if (remainingTimeMillis > 1000)
+                    event.ruleEvaluationProgress("Decompilation", progressEstimate.getWorked(), progressEstimate.getTotal(),
+                                (int) remainingTimeMillis / 1000);
+            }
+
+            FileService fileService = new FileService(event.getGraphContext());
+            Path decompiledPath = Paths.get(decompiledOutputFile).normalize().toAbsolutePath();
+            boolean isJava = decompiledOutputFile.endsWith(".java");
+
+            FileModel decompiledFileModel = fileService.getUniqueByProperty(FileModel.FILE_PATH, decompiledPath.toString());
+            if (decompiledFileModel == null)
+            {
+                // make sure parent files already exist
+                // (it can happen that it does not if PROCYON puts the decompiled .java file in an unexpected place, for example in the case
+                // of war files)
+                FileModel parentFileModel = getDirectory(fileService, decompiledPath.getParent());
+                decompiledFileModel = isJava ? new GraphService<>(event.getGraphContext(), JavaSourceFileModel.class).create() : fileService.create();
+                decompiledFileModel.setFilePath(decompiledPath.toString());
+                decompiledFileModel.setParentFile(parentFileModel);
+            }
+
+            if (isJava)
+            {
+                if (!(decompiledFileModel instanceof JavaSourceFileModel))
                 {
-                    queueSize.decrementAndGet();
-                    progressEstimate.addWork(1);
-                    if (progressEstimate.getWorked() % 250 == 0)
-                    {
-                        long remainingTimeMillis = progressEstimate.getTimeRemainingInMillis();
-                        if (remainingTimeMillis > 1000)
-                            event.ruleEvaluationProgress("Decompilation", progressEstimate.getWorked(), progressEstimate.getTotal(),
-                                        (int) remainingTimeMillis / 1000);
-                    }
+                    decompiledFileModel = new GraphService<>(event.getGraphContext(), JavaSourceFileModel.class)
+                                .addTypeToModel(decompiledFileModel);
+                }
+                JavaSourceFileModel decompiledSourceFileModel = (JavaSourceFileModel) decompiledFileModel;
+                TechnologyTagService techTagService = new TechnologyTagService(event.getGraphContext());
+                techTagService.addTagToFileModel(decompiledSourceFileModel, TECH_TAG, TECH_TAG_LEVEL);
 
-                    FileService fileService = new FileService(event.getGraphContext());
-                    Path classFilePath = Paths.get(inputPath.get(0));
+                // Don't also tag it as a regular source model (only tag it as decompiled).
+                // This can happen if the source file was already there, but tagged as something else before.
+                techTagService.removeTagFromFileModel(decompiledSourceFileModel, IndexJavaSourceFilesRuleProvider.TECH_TAG);
 
-                    FileModel decompiledFileModel = fileService.getUniqueByProperty(FileModel.FILE_PATH,
-                                decompiledOutputFile);
+                FileModel classFileModel = getClassFile(fileService, inputPath.get(0));
+                if (classFileModel != null && classFileModel instanceof JavaClassFileModel)
+                {
+                    ProjectModel projectModel = classFileModel.getProjectModel();
 
-                    if (decompiledFileModel == null)
+                    // only add it to the project model if it is not already there
+                    if (decompiledFileModel.getProjectModel() == null || !decompiledFileModel.getProjectModel().equals(projectModel))
                     {
-                        FileModel parentFileModel = fileService.findByPath(Paths.get(decompiledOutputFile)
-                                    .getParent()
-                                    .toString());
-
-                        // make sure parent files already exist
-                        // (it can happen that it does not if PROCYON puts the decompiled .java file in an unexpected
-                        // place, for example in the case
-                        // of war files)
-                        if (parentFileModel == null)
-                        {
-                            List<Path> lineage = new LinkedList<>();
-                            Path parentPath = Paths.get(decompiledOutputFile).getParent();
-                            FileModel existingParentFM = parentFileModel;
-                            while (existingParentFM == null)
-                            {
-                                lineage.add(0, parentPath);
-                                parentPath = parentPath.getParent();
-                                existingParentFM = fileService.findByPath(parentPath.toString());
-                            }
-
-                            FileModel currentParent = existingParentFM;
-                            for (Path p : lineage)
-                            {
-                                currentParent = fileService.createByFilePath(currentParent, p.toString());
-                            }
-                            parentFileModel = currentParent;
-                        }
-
-                        decompiledFileModel = fileService.createByFilePath(parentFileModel, decompiledOutputFile);
+                        projectModel.addFileModel(decompiledFileModel);
                     }
 
-                    if (decompiledOutputFile.endsWith(".java"))
+                    JavaClassFileModel classModel = (JavaClassFileModel) classFileModel;
+                    decompiledSourceFileModel.setPackageName(classModel.getPackageName());
+                    decompiledSourceFileModel.setWindupGenerated(true);
+                    for (String classFilePath : inputPath)
                     {
-                        if (!(decompiledFileModel instanceof JavaSourceFileModel))
-                        {
-                            decompiledFileModel = new GraphService<>(event.getGraphContext(), JavaSourceFileModel.class)
-                                        .addTypeToModel(decompiledFileModel);
-                        }
-                        JavaSourceFileModel decompiledSourceFileModel = (JavaSourceFileModel) decompiledFileModel;
-                        TechnologyTagService techTagService = new TechnologyTagService(event.getGraphContext());
-                        techTagService.addTagToFileModel(decompiledSourceFileModel, TECH_TAG, TECH_TAG_LEVEL);
-
-                        // Don't also tag it as a regular source model (only tag it as decompiled).
-                        // This can happen if the source file was already there, but tagged as something else before.
-                        techTagService.removeTagFromFileModel(decompiledSourceFileModel, IndexJavaSourceFilesRuleProvider.TECH_TAG);
-
-                        FileModel classFileModel = fileService.getUniqueByProperty(
-                                    FileModel.FILE_PATH, classFilePath.toAbsolutePath().toString());
-                        if (classFileModel != null && classFileModel instanceof JavaClassFileModel)
-                        {
-                            ProjectModel projectModel = classFileModel.getProjectModel();
-
-                            // only add it to the project model if it is not already there
-                            if (decompiledFileModel.getProjectModel() == null || !decompiledFileModel.getProjectModel().equals(projectModel))
-                            {
-                                projectModel.addFileModel(decompiledFileModel);
-                            }
-
-                            JavaClassFileModel classModel = (JavaClassFileModel) classFileModel;
-                            classModel.getJavaClass().setDecompiledSource(decompiledSourceFileModel);
-                            decompiledSourceFileModel.setPackageName(classModel.getPackageName());
-                            decompiledSourceFileModel.setWindupGenerated(true);
-                            setupClassToJavaConnections(event.getGraphContext(),inputPath,decompiledSourceFileModel);
-
-                            // Set the root path of this source file (if possible). Procyon should always be placing the file
-                            // into a location that is appropriate for the package name, so this should always yield
-                            // a non-null root path.
-                            Path rootSourcePath = PathUtil.getRootFolderForSource(decompiledSourceFileModel.asFile().toPath(),
-                                        classModel.getPackageName());
-                            if (rootSourcePath != null)
-                            {
-                                FileModel rootSourceFileModel = fileService.createByFilePath(rootSourcePath.toString());
-                                decompiledSourceFileModel.setRootSourceFolder(rootSourceFileModel);
-                            }
-                            if (classModel.getJavaClass() != null)
-                                decompiledSourceFileModel.addJavaClass(classModel.getJavaClass());
-                        }
-                        else
-                        {
-                            throw new WindupException(
-                                        "Failed to find original JavaClassFileModel for decompiled Java file: "
-                                                    + decompiledOutputFile + " at: " + classFilePath.toString());
-                        }
+                        FileModel innerClassFileModel = getClassFile(fileService, classFilePath);
+                        if (innerClassFileModel instanceof JavaClassFileModel)
+                            ((JavaClassFileModel) innerClassFileModel).getJavaClass().setDecompiledSource(decompiledSourceFileModel);
                     }
-                    if (atomicInteger.incrementAndGet() % 100 == 0)
+
+                    // Set the root path of this source file (if possible). Procyon should always be placing the file
+                    // into a location that is appropriate for the package name, so this should always yield
+                    // a non-null root path.
+                    Path rootSourcePath = PathUtil.getRootFolderForSource(decompiledPath, classModel.getPackageName());
+                    if (rootSourcePath != null)
                     {
-                        LOG.info("Performing periodic commit (" + atomicInteger.get() + ")");
-                        event.getGraphContext().getGraph().getBaseGraph().commit();
+                        FileModel rootSourceFileModel = getDirectory(fileService, rootSourcePath);
+                        decompiledSourceFileModel.setRootSourceFolder(rootSourceFileModel);
                     }
+                    if (classModel.getJavaClass() != null)
+                        decompiledSourceFileModel.addJavaClass(classModel.getJavaClass());
                 }
-            };
+                else
+                {
+                    throw new WindupException(
+                                "Failed to find original JavaClassFileModel for decompiled Java file: "
+                                            + decompiledOutputFile + " at: " + inputPath.get(0));
+                }
+            }
+        }
 
-            queueSize.incrementAndGet();
-            executorService.submit(saveDecompiledRunnable);
+        /**
+         * Gets the {@link FileModel} of the given class file, preferably from the vertices of the classes that were submitted for decompilation.
+         */
+        private FileModel getClassFile(FileService fileService, String classFilePath)
+        {
+            String path = Paths.get(classFilePath).normalize().toAbsolutePath().toString();
+            Object id = classFileIdsByPath.get(path);
+            if (id != null)
+                return fileService.getById(id);
+            return fileService.getUniqueByProperty(FileModel.FILE_PATH, path);
+        }
+
+        /**
+         * Gets (or creates, along with any missing parents) the {@link FileModel} of the given directory. The vertex ids are remembered, so the
+         * graph is only searched once for each directory.
+         */
+        private FileModel getDirectory(FileService fileService, Path directory)
+        {
+            if (directory == null)
+                return null;
+
+            String path = directory.toString();
+            Object id = directoryIdsByPath.get(path);
+            if (id != null)
+                return fileService.getById(id);
 
-            while (queueSize.get() > 1000)
+            FileModel directoryModel = fileService.getUniqueByProperty(FileModel.FILE_PATH, path);
+            if (directoryModel == null)
             {
-                try
-                {
-                    Thread.sleep(250L);
-                }
-                catch (InterruptedException e)
-                {
-                    // noop
-                }
+                FileModel parent = getDirectory(fileService, directory.getParent());
+                directoryModel = fileService.create();
+                directoryModel.setFilePath(path);
+                directoryModel.setParentFile(parent);
             }
+            directoryIdsByPath.put(path, directoryModel.asVertex().getId());
+            return directoryModel;
         }
 
         @Override
@@ -282,4 +322,22 @@ public class ProcyonDecompilerOperation extends AbstractDecompilerOperation
             return "DecompileWithProcyon";
         }
     }
-}
\ No newline at end of file
+
+    private static class DecompiledItem
+    {
+        private final List<String> inputPath;
+        private final String outputFile;
+
+        public DecompiledItem(List<String> inputPath, String outputFile)
+        {
+            this.inputPath = inputPath;
+            this.outputFile = outputFile;
+        }
+
+        @Override
+        public String toString()
+        {
+            return outputFile;
+        }
+    }
+}
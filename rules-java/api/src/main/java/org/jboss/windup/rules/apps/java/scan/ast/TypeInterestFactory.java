@@ -100,6 +100,33 @@ public final class TypeInterestFactory
         patternsBySource.put(sourceKey, new PatternAndLocation(locations, regex, rewritePattern));
     }
 
+    /**
+     * Returns a {@link TypeInterestFactoryTrie} containing every registered pattern, regardless of the {@link TypeReferenceLocation} it was
+     * registered for. Each distinct regex is only added once.
+     */
+    public static TypeInterestFactoryTrie createTrieOfAllInterests()
+    {
+        TypeInterestFactoryTrie result = TypeInterestFactoryTrie.newDefaultInstance();
+        Set<String> added = new HashSet<>();
+        for (PatternAndLocation patternKey : patternsBySource.values())
+        {
+            if (added.add(patternKey.regex))
+                result.addInterest(new RewritePatternToRegex(patternKey.rewritePattern, Pattern.compile(patternKey.regex)));
+        }
+        return result;
+    }
+
+    /**
+     * Returns all regexes registered through one of the registerInterest methods.
+     */
+    public static Set<String> getRegisteredRegexes()
+    {
+        Set<String> result = new HashSet<>();
+        for (PatternAndLocation patternKey : patternsBySource.values())
+            result.add(patternKey.regex);
+        return result;
+    }
+
     private static String getCacheKey(TypeReferenceLocation location, String text)
     {
         return location + "_" + text;
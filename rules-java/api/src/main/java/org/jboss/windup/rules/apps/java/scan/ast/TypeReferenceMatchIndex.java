@@ -0,0 +1,189 @@
+package org.jboss.windup.rules.apps.java.scan.ast;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.jboss.windup.config.GraphRewrite;
+import org.jboss.windup.graph.GraphContext;
+import org.jboss.windup.graph.model.WindupVertexFrame;
+import org.jboss.windup.rules.apps.java.condition.JavaClass;
+import org.jboss.windup.util.ExecutionStatistics;
+import org.jboss.windup.util.Logging;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.wrappers.event.listener.GraphChangedListener;
+import com.tinkerpop.gremlin.java.GremlinPipeline;
+
+/**
+ * Precomputes the {@link JavaTypeReferenceModel}s matched by every pattern registered with {@link TypeInterestFactory}.
+ * <p>
+ * Instead of each {@link JavaClass} condition running its own regex search over all type references, all references are scanned once, and each
+ * distinct resolved name is matched against all registered patterns at the same time (using a {@link TypeInterestFactoryTrie}, so that only patterns
+ * with a matching literal prefix are tested). The index is rebuilt on the next lookup if any type reference is added or changed afterwards.
+ *
+ * @see TypeReferenceMatchIndexLifecycleListener
+ */
+public class TypeReferenceMatchIndex implements GraphChangedListener
+{
+    private static final Logger LOG = Logging.get(TypeReferenceMatchIndex.class);
+
+    private Map<String, List<Object>> vertexIdsByRegex;
+    private volatile boolean stale = true;
+
+    /**
+     * Gets the {@link TypeReferenceMatchIndex} registered for the given event, or null if none was registered.
+     */
+    public static TypeReferenceMatchIndex instance(GraphRewrite event)
+    {
+        return (TypeReferenceMatchIndex) event.getRewriteContext().get(TypeReferenceMatchIndex.class);
+    }
+
+    /**
+     * Registers a new {@link TypeReferenceMatchIndex} with the given event, and with its graph (in order to be notified of changes to type
+     * references).
+     */
+    static void register(GraphRewrite event)
+    {
+        TypeReferenceMatchIndex index = new TypeReferenceMatchIndex();
+        event.getRewriteContext().put(TypeReferenceMatchIndex.class, index);
+        event.getGraphContext().getGraph().addListener(index);
+    }
+
+    /**
+     * Returns the {@link JavaTypeReferenceModel} vertices whose resolved name matches the given regex, or null if the regex has not been registered
+     * with the {@link TypeInterestFactory}. In that case, the caller needs to search the graph itself.
+     */
+    public synchronized Iterable<Vertex> getMatches(final GraphContext context, String regex)
+    {
+        if (!stale && !vertexIdsByRegex.containsKey(regex) && TypeInterestFactory.getRegisteredRegexes().contains(regex))
+            stale = true;
+
+        if (stale)
+            build(context);
+
+        List<Object> vertexIds = vertexIdsByRegex.get(regex);
+        if (vertexIds == null)
+            return null;
+
+        return Iterables.transform(vertexIds, new Function<Object, Vertex>()
+        {
+            @Override
+            public Vertex apply(Object id)
+            {
+                return context.getGraph().getVertex(id);
+            }
+        });
+    }
+
+    private void build(GraphContext context)
+    {
+        ExecutionStatistics.get().begin("TypeReferenceMatchIndex.build");
+        try
+        {
+            stale = false;
+            TypeInterestFactoryTrie trie = TypeInterestFactory.createTrieOfAllInterests();
+            Map<String, List<Object>> result = new HashMap<>();
+
+            // Many references share the same resolved name, so only match each distinct name once.
+            Map<String, List<RewritePatternToRegex>> matchesByName = new HashMap<>();
+
+            long references = 0;
+            GremlinPipeline<Vertex, Vertex> pipeline = new GremlinPipeline<>(context.getGraph());
+            pipeline.V(WindupVertexFrame.TYPE_PROP, JavaTypeReferenceModel.TYPE);
+            for (Vertex vertex : pipeline)
+            {
+                references++;
+                String resolvedName = vertex.getProperty(JavaTypeReferenceModel.RESOLVED_SOURCE_SNIPPIT);
+                if (resolvedName == null)
+                    continue;
+
+                List<RewritePatternToRegex> matches = matchesByName.get(resolvedName);
+                if (matches == null)
+                {
+                    matches = trie.findMatches(resolvedName);
+                    matchesByName.put(resolvedName, matches.isEmpty() ? Collections.<RewritePatternToRegex> emptyList() : matches);
+                }
+
+                for (RewritePatternToRegex match : matches)
+                {
+                    String regex = match.getCompiledRegex().pattern();
+                    List<Object> vertexIds = result.get(regex);
+                    if (vertexIds == null)
+                    {
+                        vertexIds = new ArrayList<>();
+                        result.put(regex, vertexIds);
+                    }
+                    vertexIds.add(vertex.getId());
+                }
+            }
+
+            // Registered patterns without any matches still need an entry, so that they are not searched for again.
+            for (String regex : TypeInterestFactory.getRegisteredRegexes())
+            {
+                if (!result.containsKey(regex))
+                    result.put(regex, Collections.emptyList());
+            }
+
+            this.vertexIdsByRegex = result;
+            LOG.info("Indexed " + references + " type references (" + matchesByName.size() + " distinct names) against " + result.size()
+                        + " patterns");
+        }
+        finally
+        {
+            ExecutionStatistics.get().end("TypeReferenceMatchIndex.build");
+        }
+    }
+
+    @Override
+    public void vertexPropertyChanged(Vertex vertex, String key, Object oldValue, Object setValue)
+    {
+        if (JavaTypeReferenceModel.RESOLVED_SOURCE_SNIPPIT.equals(key))
+            stale = true;
+    }
+
+    @Override
+    public void vertexPropertyRemoved(Vertex vertex, String key, Object removedValue)
+    {
+        if (JavaTypeReferenceModel.RESOLVED_SOURCE_SNIPPIT.equals(key))
+            stale = true;
+    }
+
+    @Override
+    public void vertexAdded(Vertex vertex)
+    {
+    }
+
+    @Override
+    public void vertexRemoved(Vertex vertex, Map<String, Object> props)
+    {
+        if (props != null && props.containsKey(JavaTypeReferenceModel.RESOLVED_SOURCE_SNIPPIT))
+            stale = true;
+    }
+
+    @Override
+    public void edgeAdded(Edge edge)
+    {
+    }
+
+    @Override
+    public void edgePropertyChanged(Edge edge, String key, Object oldValue, Object setValue)
+    {
+    }
+
+    @Override
+    public void edgePropertyRemoved(Edge edge, String key, Object removedValue)
+    {
+    }
+
+    @Override
+    public void edgeRemoved(Edge edge, Map<String, Object> props)
+    {
+    }
+}
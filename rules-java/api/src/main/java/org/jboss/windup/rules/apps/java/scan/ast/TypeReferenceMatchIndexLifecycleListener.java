@@ -0,0 +1,16 @@
+package org.jboss.windup.rules.apps.java.scan.ast;
+
+import org.jboss.windup.config.AbstractRuleLifecycleListener;
+import org.jboss.windup.config.GraphRewrite;
+
+/**
+ * Registers a fresh {@link TypeReferenceMatchIndex} before each execution of Windup.
+ */
+public class TypeReferenceMatchIndexLifecycleListener extends AbstractRuleLifecycleListener
+{
+    @Override
+    public void beforeExecution(GraphRewrite event)
+    {
+        TypeReferenceMatchIndex.register(event);
+    }
+}
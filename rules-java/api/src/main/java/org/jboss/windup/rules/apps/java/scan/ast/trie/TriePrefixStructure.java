@@ -1,7 +1,9 @@
 package org.jboss.windup.rules.apps.java.scan.ast.trie;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -75,6 +77,34 @@ public class TriePrefixStructure<SAVE_TYPE, SEARCH_TYPE>
         return resolver.matches(prefix, search,currentIndex + 1);
     }
 
+    /**
+     * Returns all saved items on the prefix path of the given {@link SEARCH_TYPE} that match it. Unlike {@link #matches(Object)}, this does not stop
+     * at the first match.
+     */
+    public List<SAVE_TYPE> findMatches(SEARCH_TYPE search)
+    {
+        String prefix = relation.getStringToSearchFromSearchType(search);
+        List<SAVE_TYPE> results = new ArrayList<>();
+        findMatches(prefix, search, 0, results);
+        return results;
+    }
+
+    private void findMatches(String prefix, SEARCH_TYPE search, int currentIndex, List<SAVE_TYPE> results)
+    {
+        for (SAVE_TYPE interest : currentLevelSet)
+        {
+            if (relation.checkIfMatchFound(interest, search))
+                results.add(interest);
+        }
+
+        if (currentIndex >= prefix.length())
+            return;
+
+        TriePrefixStructure<SAVE_TYPE, SEARCH_TYPE> resolver = typeInterestMap.get(prefix.charAt(currentIndex));
+        if (resolver != null)
+            resolver.findMatches(prefix, search, currentIndex + 1, results);
+    }
+
     public void addInterest(SAVE_TYPE save)
     {
         String prefix = relation.getStringPrefixToSaveSaveType(save);
@@ -0,0 +1,252 @@
+package org.jboss.windup.rules.apps.java.scan.operation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.jboss.windup.config.GraphRewrite;
+import org.jboss.windup.util.ZipUtil;
+import org.jboss.windup.util.exception.WindupException;
+import org.jboss.windup.util.file.FileHashes;
+import org.jboss.windup.util.file.FileHashingService;
+import org.jboss.windup.util.threading.WindupExecutors;
+
+/**
+ * Extracts archives on a pool of worker threads. {@link UnzipArchiveToOutputFolder} schedules all of the nested archives of a directory with
+ * {@link #submit(File, String, Future)} before it adds them to the graph, and then waits for each of them with {@link #getExtracted(File, String)}
+ * once it gets to it. {@link #close()} must be called once the extractor is no longer needed.
+ *
+ * The SHA-1 hashes of the extracted archives are shared by all of the extractors of a single execution (see
+ * {@link #getExtractedHashes(GraphRewrite)}). A nested archive with the same contents as one that has already been extracted is not extracted in
+ * the background, as it is expected to be linked to the other archive as a duplicate. If it is needed after all, {@link #getExtracted(File, String)}
+ * extracts it into its own directory. Only the hashes are kept for the whole execution, not the extracted file listings.
+ */
+class ArchiveExtractor implements AutoCloseable
+{
+    private final Path tempFolder;
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, Future<ExtractedArchive>> extractions = new ConcurrentHashMap<>();
+    private final Set<String> extractedHashes;
+
+    ArchiveExtractor(Path tempFolder, int threadCount, Set<String> extractedHashes)
+    {
+        this.tempFolder = tempFolder;
+        this.executor = WindupExecutors.newFixedThreadPool(threadCount);
+        this.extractedHashes = extractedHashes;
+    }
+
+    /**
+     * Gets the SHA-1 hashes of the archives that have been extracted in the given execution, creating the set if this has not been done yet.
+     */
+    @SuppressWarnings("unchecked")
+    static Set<String> getExtractedHashes(GraphRewrite event)
+    {
+        synchronized (event)
+        {
+            Set<String> result = (Set<String>) event.getRewriteContext().get(ArchiveExtractor.class);
+            if (result == null)
+            {
+                result = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                event.getRewriteContext().put(ArchiveExtractor.class, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Schedules the extraction of the given archive into a new directory named after the archive, unless it has already been scheduled.
+     *
+     * If the hashes are given (for a nested archive) and an archive with the same SHA-1 hash has already been extracted in this execution, the
+     * archive is not extracted, and the result of the returned {@link Future} is null.
+     */
+    Future<ExtractedArchive> submit(final File archive, final String archiveName, final Future<FileHashes> hashes)
+    {
+        FutureTask<ExtractedArchive> task = new FutureTask<>(new Callable<ExtractedArchive>()
+        {
+            @Override
+            public ExtractedArchive call() throws Exception
+            {
+                final boolean nested = hashes != null;
+                FileHashes archiveHashes = nested ? FileHashingService.getResult(hashes) : null;
+                if (archiveHashes == null)
+                    archiveHashes = FileHashes.compute(archive.toPath(), false);
+                String sha1 = archiveHashes.getSHA1Hash();
+
+                // archives that are unzipped directly are always extracted, but are recorded so that nested copies of them are not
+                boolean firstWithHash = extractedHashes.add(sha1);
+                if (nested && !firstWithHash)
+                    return null;
+
+                try
+                {
+                    return extract(archive, archiveName);
+                }
+                catch (IOException | RuntimeException e)
+                {
+                    // let a later archive with the same contents try again
+                    if (firstWithHash)
+                        extractedHashes.remove(sha1);
+                    throw e;
+                }
+            }
+        });
+
+        Future<ExtractedArchive> existing = extractions.putIfAbsent(archive.getAbsolutePath(), task);
+        if (existing != null)
+            return existing;
+
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Waits for the extraction of the given archive, scheduling it first if this has not been done already. If the background extraction was
+     * skipped as a duplicate, the archive is extracted now.
+     */
+    ExtractedArchive getExtracted(File archive, String archiveName) throws IOException
+    {
+        Future<ExtractedArchive> future = submit(archive, archiveName, null);
+        try
+        {
+            ExtractedArchive result = future.get();
+            return result != null ? result : extract(archive, archiveName);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new WindupException("Interrupted while extracting: " + archive, e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            else if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            else
+                throw new WindupException("Failed to extract: " + archive + " due to: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private ExtractedArchive extract(File archive, String archiveName) throws IOException
+    {
+        Path directory = createNonexistentDirForAppArchive(archiveName);
+        return new ExtractedArchive(directory, ZipUtil.extractToFolder(archive, directory.toFile()));
+    }
+
+    /**
+     * Creates the directory for the archive. If the name is already used (for example, by another archive of the same name), a numeric suffix is
+     * added. Creating the directory reserves the name, as several archives are extracted at the same time.
+     */
+    private Path createNonexistentDirForAppArchive(String appArchiveName) throws IOException
+    {
+        Path appArchiveFolder = tempFolder.resolve(appArchiveName);
+
+        int fileIdx = 1;
+        while (true)
+        {
+            try
+            {
+                return Files.createDirectory(appArchiveFolder);
+            }
+            catch (FileAlreadyExistsException e)
+            {
+                appArchiveFolder = tempFolder.resolve(appArchiveName + "." + fileIdx);
+                fileIdx++;
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The result of an extraction. Contains the directory tree of the extracted files, as read from the archive.
+     */
+    static class ExtractedArchive
+    {
+        private final Path directory;
+        private final Map<String, Set<String>> children = new HashMap<>();
+
+        ExtractedArchive(Path directory, List<String> files)
+        {
+            this.directory = directory;
+            for (String file : files)
+            {
+                String child = file;
+                int separator;
+                while ((separator = child.lastIndexOf('/')) != -1)
+                {
+                    String parent = child.substring(0, separator);
+                    if (!addChild(parent, child))
+                        break;
+                    child = parent;
+                }
+                if (separator == -1)
+                    addChild("", child);
+            }
+        }
+
+        private boolean addChild(String parent, String child)
+        {
+            Set<String> parentChildren = children.get(parent);
+            if (parentChildren == null)
+            {
+                parentChildren = new TreeSet<>();
+                children.put(parent, parentChildren);
+            }
+            return parentChildren.add(child);
+        }
+
+        /**
+         * Gets the directory that the archive was extracted into.
+         */
+        Path getDirectory()
+        {
+            return directory;
+        }
+
+        /**
+         * Gets the relative paths of the files and directories contained in the given directory ("" for the root).
+         */
+        List<String> getChildren(String relativeDirectory)
+        {
+            Set<String> result = children.get(relativeDirectory);
+            return result == null ? Collections.<String> emptyList() : new ArrayList<>(result);
+        }
+
+        /**
+         * Indicates whether the given relative path is a directory.
+         */
+        boolean isDirectory(String relativePath)
+        {
+            return children.containsKey(relativePath);
+        }
+
+        /**
+         * Gets the location of the given relative path on disk.
+         */
+        File getFile(String relativePath)
+        {
+            return directory.resolve(relativePath).toFile();
+        }
+    }
+}
@@ -6,7 +6,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 import org.apache.commons.io.filefilter.TrueFileFilter;
@@ -20,6 +23,7 @@ import org.jboss.windup.graph.model.resource.FileModel;
 import org.jboss.windup.graph.model.resource.IgnoredFileModel;
 import org.jboss.windup.graph.service.FileService;
 import org.jboss.windup.graph.service.GraphService;
+import org.jboss.windup.graph.service.Service;
 import org.jboss.windup.graph.service.WindupConfigurationService;
 import org.jboss.windup.reporting.service.ClassificationService;
 import org.jboss.windup.rules.apps.java.archives.model.IdentifiedArchiveModel;
@@ -27,6 +31,9 @@ import org.jboss.windup.rules.apps.java.service.WindupJavaConfigurationService;
 import org.jboss.windup.util.Logging;
 import org.jboss.windup.util.ZipUtil;
 import org.jboss.windup.util.exception.WindupException;
+import org.jboss.windup.util.file.FileHashes;
+import org.jboss.windup.util.file.FileHashingService;
+import org.jboss.windup.util.threading.WindupExecutors;
 import org.ocpsoft.rewrite.context.EvaluationContext;
 
 
@@ -65,7 +72,13 @@ public class UnzipArchiveToOutputFolder extends AbstractIterationOperation<Archi
         // Create a folder for all archive contents.
         Path unzippedArchiveDir = getArchivesDirLocation(graphContext);
         ensureDirIsCreated(unzippedArchiveDir);
-        unzipToTempDirectory(event, context, unzippedArchiveDir, zipFile, payload, false);
+        int threadCount = WindupExecutors.getDefaultThreadCount();
+        try (FileHashingService hashingService = new FileHashingService(threadCount, false);
+                    ArchiveExtractor extractor = new ArchiveExtractor(unzippedArchiveDir, threadCount,
+                                ArchiveExtractor.getExtractedHashes(event)))
+        {
+            unzipToTempDirectory(event, context, hashingService, extractor, zipFile, payload);
+        }
     }
 
 
@@ -78,8 +91,8 @@ public class UnzipArchiveToOutputFolder extends AbstractIterationOperation<Archi
 
 
     private void unzipToTempDirectory(final GraphRewrite event, EvaluationContext context,
-                final Path tempFolder, final File inputZipFile,
-                final ArchiveModel archiveModel, boolean subArchivesOnly)
+                final FileHashingService hashingService, final ArchiveExtractor extractor, final File inputZipFile,
+                final ArchiveModel archiveModel)
     {
         final FileService fileService = new FileService(event.getGraphContext());
 
@@ -88,14 +101,12 @@ public class UnzipArchiveToOutputFolder extends AbstractIterationOperation<Archi
         if (null == appArchiveName)
             throw new IllegalStateException("Archive model doesn't have an archiveName: " + archiveModel.getFilePath());
 
-        final Path appArchiveFolder = getNonexistentDirForAppArchive(tempFolder, appArchiveName);
-        ensureDirIsCreated(appArchiveFolder);
-
-        // Unzip to the temp folder.
-        LOG.info("Unzipping " + inputZipFile.getPath() + " to " + appArchiveFolder.toString());
+        // Unzip to the temp folder (this has usually been started in the background already).
+        LOG.info("Unzipping " + inputZipFile.getPath());
+        ArchiveExtractor.ExtractedArchive extractedArchive;
         try
         {
-            ZipUtil.unzipToFolder(inputZipFile, appArchiveFolder.toFile());
+            extractedArchive = extractor.getExtracted(inputZipFile, appArchiveName);
         }
         catch (Throwable e)
         {
@@ -107,28 +118,28 @@ public class UnzipArchiveToOutputFolder extends AbstractIterationOperation<Archi
             ClassificationService classificationService = new ClassificationService(event.getGraphContext());
             classificationService.attachClassification(context, canonicalArchive, MALFORMED_ARCHIVE, "Cannot unzip the file");
             archiveModel.setParseError("Cannot unzip the file: " + e.getMessage());
-            LOG.warning("Cannot unzip the file " + inputZipFile.getPath() + " to " + appArchiveFolder.toString()
-                        + ". The ArchiveModel was classified as malformed.");
+            LOG.warning("Cannot unzip the file " + inputZipFile.getPath() + ". The ArchiveModel was classified as malformed.");
             return;
         }
 
         // mark the path to the archive
-        archiveModel.setUnzippedDirectory(appArchiveFolder.toString());
+        archiveModel.setUnzippedDirectory(extractedArchive.getDirectory().toString());
 
         // add all unzipped files, and make sure their parent archive is set
-        recurseAndAddFiles(event, context, tempFolder, fileService, archiveModel, archiveModel, subArchivesOnly);
+        recurseAndAddFiles(event, context, hashingService, extractor, fileService, extractedArchive, "", archiveModel, archiveModel);
     }
 
     /**
-     * Recurses the given folder and adds references to these files to the graph as FileModels.
+     * Recurses the given folder and adds references to these files to the graph as FileModels. The contents of the folder are taken from the
+     * {@link ArchiveExtractor.ExtractedArchive}, so the extracted files do not need to be listed on disk.
      *
      * We don't set the parent file model in the case of the initial children, as the direct parent is really the archive itself. For example for file
      * "root.zip/pom.xml" - the parent for pom.xml is root.zip, not the directory temporary directory that happens to hold it.
      */
     private void recurseAndAddFiles(GraphRewrite event, EvaluationContext context,
-                Path tempFolder,
-                FileService fileService, ArchiveModel archiveModel,
-                FileModel parentFileModel, boolean subArchivesOnly)
+                FileHashingService hashingService, ArchiveExtractor extractor,
+                FileService fileService, ArchiveExtractor.ExtractedArchive extractedArchive, String relativeDirectory,
+                ArchiveModel archiveModel, FileModel parentFileModel)
     {
         int numberAdded = 0;
 
@@ -138,40 +149,56 @@ public class UnzipArchiveToOutputFolder extends AbstractIterationOperation<Archi
             filter = new IdentifiedArchiveFileFilter(archiveModel);
         }
 
-        File fileReference;
-        if (parentFileModel instanceof ArchiveModel)
-            fileReference = new File(((ArchiveModel) parentFileModel).getUnzippedDirectory());
-        else
-            fileReference = parentFileModel.asFile();
-
         WindupJavaConfigurationService windupJavaConfigurationService = new WindupJavaConfigurationService(event.getGraphContext());
-        File[] subFiles = fileReference.listFiles();
-        if (subFiles == null)
-            return;
+        List<String> ignoredFileRegexes = windupJavaConfigurationService.getIgnoredFileRegexes();
+        List<String> children = extractedArchive.getChildren(relativeDirectory);
+
+        /*
+         * Hash and extract the nested archives in the background, so that they are ready by the time they are added to the graph.
+         */
+        Map<File, Future<FileHashes>> archiveHashes = new HashMap<>();
+        for (String child : children)
+        {
+            File subFile = extractedArchive.getFile(child);
+            if (!extractedArchive.isDirectory(child) && ZipUtil.endsWithZipExtension(child) && filter.accept(subFile)
+                        && getIgnoringPattern(subFile.getAbsolutePath(), ignoredFileRegexes) == null)
+            {
+                Future<FileHashes> hashes = hashingService.submit(subFile.toPath());
+                archiveHashes.put(subFile, hashes);
+                extractor.submit(subFile, subFile.getName(), hashes);
+            }
+        }
 
-        for (File subFile : subFiles)
+        for (String child : children)
         {
+            File subFile = extractedArchive.getFile(child);
+            boolean isDirectory = extractedArchive.isDirectory(child);
             if (!filter.accept(subFile))
                 continue;
 
-            if (subArchivesOnly && !ZipUtil.endsWithZipExtension(subFile.getAbsolutePath()))
-                continue;
-
             FileModel subFileModel = fileService.createByFilePath(parentFileModel, subFile.getAbsolutePath());
 
             // check if this file should be ignored
-            if (checkIfIgnored(event, subFileModel, windupJavaConfigurationService.getIgnoredFileRegexes()))
+            if (checkIfIgnored(event, subFileModel, ignoredFileRegexes))
                 continue;
 
             numberAdded++;
             if (numberAdded % 250 == 0)
                 event.getGraphContext().getGraph().getBaseGraph().commit();
 
-            if (subFile.isFile() && ZipUtil.endsWithZipExtension(subFileModel.getFilePath()))
+            if (!isDirectory && ZipUtil.endsWithZipExtension(subFileModel.getFilePath()))
             {
                 File newZipFile = subFileModel.asFile();
                 ArchiveModel newArchiveModel = GraphService.addTypeToModel(event.getGraphContext(), subFileModel, ArchiveModel.class);
                 newArchiveModel.setParentArchive(archiveModel);
+
+                Future<FileHashes> hashesFuture = archiveHashes.get(subFile);
+                FileHashes hashes = hashesFuture == null ? null : FileHashingService.getResult(hashesFuture);
+                if (hashes != null)
+                {
+                    newArchiveModel.setMD5Hash(hashes.getMD5Hash());
+                    newArchiveModel.setSHA1Hash(hashes.getSHA1Hash());
+                }
                 newArchiveModel.setArchiveName(newZipFile.getName());
 
                 /*
@@ -195,57 +222,85 @@ public class UnzipArchiveToOutputFolder extends AbstractIterationOperation<Archi
                     DuplicateArchiveModel duplicateArchive = GraphService.addTypeToModel(event.getGraphContext(), newArchiveModel, DuplicateArchiveModel.class);
                     duplicateArchive.setCanonicalArchive(canonicalArchiveModel);
 
-                    // create dupes for child archives
-                    unzipToTempDirectory(event, context, tempFolder, newZipFile, duplicateArchive, true);
+                    // create dupes for child archives (the duplicate itself is not extracted again)
+                    addDuplicateSubArchives(event, duplicateArchive, canonicalArchiveModel);
                 } else
                 {
-                    unzipToTempDirectory(event, context, tempFolder, newZipFile, newArchiveModel, false);
+                    unzipToTempDirectory(event, context, hashingService, extractor, newZipFile, newArchiveModel);
                 }
-            } else if (subFile.isDirectory())
+            } else if (isDirectory)
             {
-                recurseAndAddFiles(event, context, tempFolder, fileService, archiveModel, subFileModel, false);
+                recurseAndAddFiles(event, context, hashingService, extractor, fileService, extractedArchive, child, archiveModel, subFileModel);
             }
         }
     }
 
     /**
-     * Checks if the {@link FileModel#getFilePath()} + {@link FileModel#getFileName()} is ignored by any of the specified regular expressions.
+     * Adds a {@link DuplicateArchiveModel} to the given duplicate for each archive contained in the canonical archive. These are linked to the
+     * canonical archive's files, so nothing needs to be read from disk.
+     *
+     * As the duplicate is not extracted, each of these gets a virtual path below the path of the duplicate (for example "app.ear/lib/x.jar" for
+     * "lib/x.jar" in the canonical archive). This keeps the file paths in the graph unique.
      */
-    private boolean checkIfIgnored(final GraphRewrite event, FileModel file, List<String> patterns)
+    private void addDuplicateSubArchives(GraphRewrite event, DuplicateArchiveModel duplicateArchive, ArchiveModel canonicalArchive)
     {
-        boolean ignored = false;
-        if (patterns != null && !patterns.isEmpty())
+        Service<DuplicateArchiveModel> duplicateArchiveService = event.getGraphContext().service(DuplicateArchiveModel.class);
+        String canonicalDirectory = canonicalArchive.getUnzippedDirectory();
+        for (FileModel canonicalFile : canonicalArchive.getAllFiles())
         {
-            for (String pattern : patterns)
-            {
-                if (file.getFilePath().matches(pattern))
-                {
-                    IgnoredFileModel ignoredFileModel = GraphService.addTypeToModel(event.getGraphContext(), file, IgnoredFileModel.class);
-                    ignoredFileModel.setIgnoredRegex(pattern);
-                    LOG.info("File/Directory placed in " + file.getFilePath() + " was ignored, because matched [" + pattern + "].");
-                    ignored = true;
-                    break;
-                }
-            }
-        }
+            if (!(canonicalFile instanceof ArchiveModel))
+                continue;
 
-        return ignored;
-    }
+            ArchiveModel canonicalSubArchive = (ArchiveModel) canonicalFile;
+            if (canonicalSubArchive instanceof DuplicateArchiveModel)
+                canonicalSubArchive = ((DuplicateArchiveModel) canonicalSubArchive).getCanonicalArchive();
 
+            Path canonicalPath = Paths.get(canonicalFile.getFilePath());
+            Path relativePath = canonicalDirectory != null && canonicalPath.startsWith(canonicalDirectory)
+                        ? Paths.get(canonicalDirectory).relativize(canonicalPath) : canonicalPath.getFileName();
 
+            DuplicateArchiveModel duplicateSubArchive = duplicateArchiveService.create();
+            duplicateSubArchive.setCanonicalArchive(canonicalSubArchive);
+            duplicateSubArchive.setFilePath(Paths.get(duplicateArchive.getFilePath()).resolve(relativePath).toString());
+            duplicateSubArchive.setMD5Hash(canonicalFile.getMD5Hash());
+            duplicateSubArchive.setSHA1Hash(canonicalFile.getSHA1Hash());
+            duplicateSubArchive.setParentFile(duplicateArchive);
+            duplicateSubArchive.setParentArchive(duplicateArchive);
+            duplicateSubArchive.setArchiveName(((ArchiveModel) canonicalFile).getArchiveName());
 
-    private static Path getNonexistentDirForAppArchive(Path tempFolder, String appArchiveName)
+            addDuplicateSubArchives(event, duplicateSubArchive, canonicalSubArchive);
+        }
+    }
+
+    /**
+     * Checks if the {@link FileModel#getFilePath()} + {@link FileModel#getFileName()} is ignored by any of the specified regular expressions.
+     */
+    private boolean checkIfIgnored(final GraphRewrite event, FileModel file, List<String> patterns)
     {
-        Path appArchiveFolder = Paths.get(tempFolder.toString(), appArchiveName);
+        String pattern = getIgnoringPattern(file.getFilePath(), patterns);
+        if (pattern == null)
+            return false;
+
+        IgnoredFileModel ignoredFileModel = GraphService.addTypeToModel(event.getGraphContext(), file, IgnoredFileModel.class);
+        ignoredFileModel.setIgnoredRegex(pattern);
+        LOG.info("File/Directory placed in " + file.getFilePath() + " was ignored, because matched [" + pattern + "].");
+        return true;
+    }
 
-        int fileIdx = 1;
-        // If it is already created, try another folder name.
-        while (Files.exists(appArchiveFolder))
+    /**
+     * Gets the first of the given regular expressions that matches the path, or null if there is none.
+     */
+    private static String getIgnoringPattern(String filePath, List<String> patterns)
+    {
+        if (patterns != null)
         {
-            appArchiveFolder = Paths.get(tempFolder.toString(), appArchiveName + "." + fileIdx);
-            fileIdx++;
+            for (String pattern : patterns)
+            {
+                if (filePath.matches(pattern))
+                    return pattern;
+            }
         }
-        return appArchiveFolder;
+        return null;
     }
 
     private static void ensureDirIsCreated(Path windupTempUnzippedArchiveFolder) throws WindupException
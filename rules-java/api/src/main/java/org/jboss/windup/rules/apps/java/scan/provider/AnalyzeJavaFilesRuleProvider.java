@@ -3,6 +3,7 @@ package org.jboss.windup.rules.apps.java.scan.provider;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
@@ -17,6 +18,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -88,6 +91,20 @@ public class AnalyzeJavaFilesRuleProvider extends AbstractRuleProvider
 
     public static final int COMMIT_INTERVAL = 500;
     public static final int LOG_INTERVAL = 250;
+
+    /**
+     * The system property for the number of parsed files that may be waiting to be written to the graph. The parser threads block when this many
+     * files are waiting.
+     */
+    public static final String ANALYSIS_QUEUE_SIZE_PROPERTY = "windup.java.analysisQueueSize";
+
+    /**
+     * The system property for the maximum number of parsed files that are written to the graph in one batch (and one transaction).
+     */
+    public static final String WRITE_BATCH_SIZE_PROPERTY = "windup.java.writeBatchSize";
+
+    private static final int DEFAULT_ANALYSIS_QUEUE_SIZE = 5000;
+    private static final int DEFAULT_WRITE_BATCH_SIZE = 100;
     private static final Logger LOG = Logging.get(AnalyzeJavaFilesRuleProvider.class);
 
     @Inject
@@ -106,10 +123,45 @@ public class AnalyzeJavaFilesRuleProvider extends AbstractRuleProvider
     }
     // @formatter:on
 
-    private final class ParseSourceOperation extends GraphOperation
+    /**
+     * Gets the number of parsed files that may be waiting to be written (see {@link #ANALYSIS_QUEUE_SIZE_PROPERTY}).
+     */
+    static int getAnalysisQueueSize()
+    {
+        return Math.max(1, Integer.getInteger(ANALYSIS_QUEUE_SIZE_PROPERTY, DEFAULT_ANALYSIS_QUEUE_SIZE));
+    }
+
+    /**
+     * Gets the maximum number of parsed files that are written in one batch (see {@link #WRITE_BATCH_SIZE_PROPERTY}).
+     */
+    static int getWriteBatchSize()
     {
-        private static final int ANALYSIS_QUEUE_SIZE = 5000;
+        return Math.max(1, Integer.getInteger(WRITE_BATCH_SIZE_PROPERTY, DEFAULT_WRITE_BATCH_SIZE));
+    }
+
+    /**
+     * Writes each of the given items, and commits them in a single transaction. Large items can add many references, so this also commits every
+     * {@link #COMMIT_INTERVAL} references, to keep the size of the transaction bounded. Returns the number of references that were written.
+     */
+    static <T> int writeBatch(List<T> batch, ToIntFunction<T> writer, Runnable commit)
+    {
+        int references = 0;
+        int referencesCommitted = 0;
+        for (T item : batch)
+        {
+            references += writer.applyAsInt(item);
+            if (references - referencesCommitted >= COMMIT_INTERVAL)
+            {
+                commit.run();
+                referencesCommitted = references;
+            }
+        }
+        commit.run();
+        return references;
+    }
 
+    private final class ParseSourceOperation extends GraphOperation
+    {
         final Map<Path, JavaSourceFileModel> sourcePathToFileModel = new TreeMap<>();
 
         public void perform(final GraphRewrite event, EvaluationContext context)
@@ -182,8 +234,11 @@ public class AnalyzeJavaFilesRuleProvider extends AbstractRuleProvider
                 {
                     WindupWildcardImportResolver.setContext(event.getGraphContext());
 
-                    final BlockingQueue<Pair<Path, List<ClassReference>>> processedPaths = new ArrayBlockingQueue<>(ANALYSIS_QUEUE_SIZE);
+                    final int queueSize = getAnalysisQueueSize();
+                    final int batchSize = getWriteBatchSize();
+                    final BlockingQueue<Pair<Path, List<ClassReference>>> processedPaths = new ArrayBlockingQueue<>(queueSize);
                     final ConcurrentMap<Path, String> failures = new ConcurrentHashMap<>();
+                    final IngestionStatistics statistics = new IngestionStatistics();
                     BatchASTListener listener = new BatchASTListener()
                     {
                         @Override
@@ -191,7 +246,17 @@ public class AnalyzeJavaFilesRuleProvider extends AbstractRuleProvider
                         {
                             try
                             {
-                                processedPaths.put(new ImmutablePair<>(filePath, filterClassReferences(references, classNotFoundAnalysisEnabled)));
+                                Pair<Path, List<ClassReference>> processed = new ImmutablePair<>(filePath,
+                                            filterClassReferences(references, classNotFoundAnalysisEnabled));
+                                statistics.parsed(processed.getValue().size());
+
+                                // Only measure the time when the writer is not keeping up with the parsers
+                                if (!processedPaths.offer(processed))
+                                {
+                                    long start = System.nanoTime();
+                                    processedPaths.put(processed);
+                                    statistics.parserBlocked(System.nanoTime() - start);
+                                }
                             }
                             catch (InterruptedException e)
                             {
@@ -216,21 +281,33 @@ public class AnalyzeJavaFilesRuleProvider extends AbstractRuleProvider
                     // This tracks the number of items added to the graph
                     AtomicInteger referenceCount = new AtomicInteger(0);
 
+                    List<Pair<Path, List<ClassReference>>> batch = new ArrayList<>(batchSize);
                     while (!future.isDone() || !processedPaths.isEmpty())
                     {
-                        if (processedPaths.size() > (ANALYSIS_QUEUE_SIZE / 2))
-                            LOG.info("Queue size: " + processedPaths.size() + " / " + ANALYSIS_QUEUE_SIZE);
+                        if (processedPaths.size() > (queueSize / 2))
+                            LOG.info("Queue size: " + processedPaths.size() + " / " + queueSize);
+
+                        long waitStart = System.nanoTime();
                         Pair<Path, List<ClassReference>> pair = processedPaths.poll(250, TimeUnit.MILLISECONDS);
+                        statistics.writerIdle(System.nanoTime() - waitStart);
                         if (pair == null)
                             continue;
 
-                        processReferences(event.getGraphContext(), referenceCount, pair.getKey(), pair.getValue());
+                        // Take everything else that is already waiting (up to the batch size), and write it in a single transaction
+                        batch.add(pair);
+                        processedPaths.drainTo(batch, batchSize - 1);
+                        writeBatch(event.getGraphContext(), referenceCount, batch, statistics);
 
-                        estimate.addWork(1);
-                        printProgressEstimate(event, estimate);
+                        for (Pair<Path, List<ClassReference>> written : batch)
+                        {
+                            estimate.addWork(1);
+                            printProgressEstimate(event, estimate);
 
-                        filesToProcess.remove(pair.getKey());
+                            filesToProcess.remove(written.getKey());
+                        }
+                        batch.clear();
                     }
+                    LOG.info(statistics.toString());
 
                     for (Map.Entry<Path, String> failure : failures.entrySet())
                     {
@@ -251,7 +328,9 @@ public class AnalyzeJavaFilesRuleProvider extends AbstractRuleProvider
                             try
                             {
                                 List<ClassReference> references = ASTProcessor.analyze(importResolver, libraryPaths, sourcePaths, unprocessed);
-                                processReferences(event.getGraphContext(), referenceCount, unprocessed, filterClassReferences(references, classNotFoundAnalysisEnabled));
+                                Pair<Path, List<ClassReference>> processed = new ImmutablePair<>(unprocessed,
+                                            filterClassReferences(references, classNotFoundAnalysisEnabled));
+                                writeBatch(event.getGraphContext(), referenceCount, Collections.singletonList(processed), statistics);
                                 filesToProcess.remove(unprocessed);
                             }
                             catch (Exception e)
@@ -302,10 +381,28 @@ public class AnalyzeJavaFilesRuleProvider extends AbstractRuleProvider
             }
         }
 
-        private void commitIfNeeded(GraphContext context, int numberAddedToGraph)
+        /**
+         * Writes the references from all of the given files (see {@link AnalyzeJavaFilesRuleProvider#writeBatch(List, ToIntFunction, Runnable)}).
+         */
+        private void writeBatch(final GraphContext context, AtomicInteger referenceCount, List<Pair<Path, List<ClassReference>>> batch,
+                    IngestionStatistics statistics)
         {
-            if (numberAddedToGraph % COMMIT_INTERVAL == 0)
-                context.getGraph().getBaseGraph().commit();
+            ExecutionStatistics.get().begin("AnalyzeJavaFilesRuleProvider.writeBatch");
+            long start = System.nanoTime();
+            try
+            {
+                final TypeReferenceService typeReferenceService = new TypeReferenceService(context);
+                int references = AnalyzeJavaFilesRuleProvider.writeBatch(batch,
+                            pair -> addReferences(context, typeReferenceService, pair.getKey(), pair.getValue()),
+                            () -> context.getGraph().getBaseGraph().commit());
+                referenceCount.addAndGet(references);
+
+                statistics.written(batch.size(), references, System.nanoTime() - start);
+            }
+            finally
+            {
+                ExecutionStatistics.get().end("AnalyzeJavaFilesRuleProvider.writeBatch");
+            }
         }
 
         private void printProgressEstimate(GraphRewrite event, ProgressEstimate estimate)
@@ -344,18 +441,21 @@ public class AnalyzeJavaFilesRuleProvider extends AbstractRuleProvider
             return results;
         }
 
-        private void processReferences(GraphContext context, AtomicInteger referenceCount, Path filePath, List<ClassReference> references)
+        /**
+         * Adds the given references of a file to the graph, and returns the number of references that were added.
+         */
+        private int addReferences(GraphContext context, TypeReferenceService typeReferenceService, Path filePath, List<ClassReference> references)
         {
-            TypeReferenceService typeReferenceService = new TypeReferenceService(context);
-
+            int count = 0;
             Map<ClassReference, JavaTypeReferenceModel> added = new IdentityHashMap<>(references.size());
 
+            // The source file model is the same for every reference, so it only needs to be looked up once
+            JavaSourceFileModel javaSourceModel = references.isEmpty() ? null : getJavaSourceFileModel(context, filePath);
             for (ClassReference reference : references)
             {
                 if (added.containsKey(reference))
                     continue;
 
-                JavaSourceFileModel javaSourceModel = getJavaSourceFileModel(context, filePath);
                 JavaTypeReferenceModel typeReference = typeReferenceService.createTypeReference(javaSourceModel,
                             reference.getLocation(),
                             reference.getResolutionStatus(),
@@ -390,9 +490,9 @@ public class AnalyzeJavaFilesRuleProvider extends AbstractRuleProvider
                         annotationTypeReferenceModel.setAnnotatedType(originalReferenceModel);
                     }
                 }
-                referenceCount.incrementAndGet();
-                commitIfNeeded(context, referenceCount.get());
+                count++;
             }
+            return count;
         }
 
         private JavaSourceFileModel getJavaSourceFileModel(GraphContext context, Path filePath)
@@ -496,4 +596,61 @@ public class AnalyzeJavaFilesRuleProvider extends AbstractRuleProvider
             return "ParseJavaSource";
         }
     }
+
+    /**
+     * Tracks the throughput of the parsing and graph writing stages, as well as the time that each stage spent waiting for the other.
+     */
+    private static class IngestionStatistics
+    {
+        private final long startTime = System.nanoTime();
+        private final AtomicLong parsedFiles = new AtomicLong();
+        private final AtomicLong parsedReferences = new AtomicLong();
+        private final AtomicLong parserBlockedNanos = new AtomicLong();
+        private long writtenFiles;
+        private long writtenReferences;
+        private long batches;
+        private long writeNanos;
+        private long writerIdleNanos;
+
+        public void parsed(int references)
+        {
+            parsedFiles.incrementAndGet();
+            parsedReferences.addAndGet(references);
+        }
+
+        public void parserBlocked(long nanos)
+        {
+            parserBlockedNanos.addAndGet(nanos);
+        }
+
+        public void written(int files, int references, long nanos)
+        {
+            writtenFiles += files;
+            writtenReferences += references;
+            writeNanos += nanos;
+            batches++;
+        }
+
+        public void writerIdle(long nanos)
+        {
+            writerIdleNanos += nanos;
+        }
+
+        @Override
+        public String toString()
+        {
+            long elapsed = System.nanoTime() - startTime;
+            return "Java analysis throughput: parsed " + parsedFiles.get() + " files (" + perSecond(parsedFiles.get(), elapsed) + "/s, "
+                        + parsedReferences.get() + " references), parsers blocked on the queue for "
+                        + TimeUnit.NANOSECONDS.toMillis(parserBlockedNanos.get()) + "ms; wrote " + writtenFiles + " files and "
+                        + writtenReferences + " references in " + batches + " batches (" + perSecond(writtenFiles, writeNanos) + " files/s, "
+                        + perSecond(writtenReferences, writeNanos) + " references/s), writer idle for "
+                        + TimeUnit.NANOSECONDS.toMillis(writerIdleNanos) + "ms";
+        }
+
+        private static long perSecond(long count, long nanos)
+        {
+            return nanos <= 0 ? 0 : count * TimeUnit.SECONDS.toNanos(1) / nanos;
+        }
+    }
 }
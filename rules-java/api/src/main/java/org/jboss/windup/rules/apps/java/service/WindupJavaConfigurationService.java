@@ -56,6 +56,22 @@ public class WindupJavaConfigurationService extends GraphService<WindupJavaConfi
         return ignoredRegexes;
     }
 
+    /**
+     * Gets the names of the packages that should be scanned (an empty list means that all packages should be scanned).
+     */
+    public List<String> getScanJavaPackageNames()
+    {
+        return getPackageNames(getJavaConfigurationModel(getGraphContext()).getScanJavaPackages());
+    }
+
+    /**
+     * Gets the names of the packages that should not be scanned.
+     */
+    public List<String> getExcludeJavaPackageNames()
+    {
+        return getPackageNames(getJavaConfigurationModel(getGraphContext()).getExcludeJavaPackages());
+    }
+
     /**
      * This is similar to {@link WindupJavaConfigurationService#shouldScanPackage(String)}, except that it expects to be given a file path (for
      * example, "/path/to/file.class"). This will use a string.contains approach, as we cannot know for sure what type of path prefixes may exist
@@ -65,19 +81,27 @@ public class WindupJavaConfigurationService extends GraphService<WindupJavaConfi
      */
     public boolean shouldScanFile(String path)
     {
-        WindupJavaConfigurationModel configuration = getJavaConfigurationModel(getGraphContext());
+        return shouldScanFile(path, getScanJavaPackageNames(), getExcludeJavaPackageNames());
+    }
+
+    /**
+     * Same as {@link #shouldScanFile(String)}, but with the inclusion/exclusion lists given by the caller, so that it does not access the graph
+     * (see {@link #getScanJavaPackageNames()} and {@link #getExcludeJavaPackageNames()}).
+     */
+    public static boolean shouldScanFile(String path, List<String> scanPackages, List<String> excludePackages)
+    {
         path = FilenameUtils.separatorsToUnix(path);
-        for (PackageModel excludePackage : configuration.getExcludeJavaPackages())
+        for (String excludePackage : excludePackages)
         {
-            String packageAsPath = excludePackage.getPackageName().replace(".", "/");
+            String packageAsPath = excludePackage.replace(".", "/");
             if (path.contains(packageAsPath))
                 return false;
         }
 
         boolean shouldScan = true;
-        for (PackageModel includePackage : configuration.getScanJavaPackages())
+        for (String includePackage : scanPackages)
         {
-            String packageAsPath = includePackage.getPackageName().replace(".", "/");
+            String packageAsPath = includePackage.replace(".", "/");
             if (path.contains(packageAsPath))
             {
                 shouldScan = true;
@@ -95,16 +119,23 @@ public class WindupJavaConfigurationService extends GraphService<WindupJavaConfi
      * Indicates whether the provided package should be scanned (based upon the inclusion/exclusion lists).
      */
     public boolean shouldScanPackage(String pkg)
+    {
+        return shouldScanPackage(pkg, getScanJavaPackageNames(), getExcludeJavaPackageNames());
+    }
+
+    /**
+     * Same as {@link #shouldScanPackage(String)}, but with the inclusion/exclusion lists given by the caller, so that it does not access the graph
+     * (see {@link #getScanJavaPackageNames()} and {@link #getExcludeJavaPackageNames()}).
+     */
+    public static boolean shouldScanPackage(String pkg, List<String> scanPackages, List<String> excludePackages)
     {
         // assume an empty string if it wasn't specified
         if (pkg == null)
         {
             pkg = "";
         }
-        WindupJavaConfigurationModel configuration = getJavaConfigurationModel(getGraphContext());
-        for (PackageModel pkgModel : configuration.getExcludeJavaPackages())
+        for (String excludePkg : excludePackages)
         {
-            String excludePkg = pkgModel.getPackageName();
             if (pkg.startsWith(excludePkg))
             {
                 return false;
@@ -112,14 +143,13 @@ public class WindupJavaConfigurationService extends GraphService<WindupJavaConfi
         }
 
         // if the list is empty, assume it is intended to just accept all packages
-        if (!configuration.getScanJavaPackages().iterator().hasNext())
+        if (scanPackages.isEmpty())
         {
             return true;
         }
 
-        for (PackageModel pkgModel : configuration.getScanJavaPackages())
+        for (String includePkg : scanPackages)
         {
-            String includePkg = pkgModel.getPackageName();
             if (pkg.startsWith(includePkg))
             {
                 return true;
@@ -128,4 +158,12 @@ public class WindupJavaConfigurationService extends GraphService<WindupJavaConfi
 
         return false;
     }
+
+    private static List<String> getPackageNames(Iterable<PackageModel> packageModels)
+    {
+        List<String> packageNames = new ArrayList<>();
+        for (PackageModel packageModel : packageModels)
+            packageNames.add(packageModel.getPackageName());
+        return packageNames;
+    }
 }
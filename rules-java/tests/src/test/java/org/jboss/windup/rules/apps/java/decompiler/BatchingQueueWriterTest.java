@@ -0,0 +1,132 @@
+package org.jboss.windup.rules.apps.java.decompiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.windup.util.exception.WindupException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchingQueueWriterTest
+{
+    @Test
+    public void testProducerBlocksWhileTheQueueIsFull() throws Exception
+    {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> written = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicInteger commits = new AtomicInteger();
+        final BatchingQueueWriter<Integer> writer = new BatchingQueueWriter<Integer>(2, 2, 50L)
+        {
+            @Override
+            protected void write(Integer item) throws Exception
+            {
+                writing.countDown();
+                release.await();
+                written.add(item);
+            }
+
+            @Override
+            protected void commit(int count)
+            {
+                commits.incrementAndGet();
+            }
+        };
+
+        final AtomicInteger added = new AtomicInteger();
+        Thread producer = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                for (int i = 0; i < 10; i++)
+                {
+                    writer.add(i);
+                    added.incrementAndGet();
+                }
+                writer.finish();
+            }
+        };
+        producer.start();
+
+        // the writer holds at most one batch (2 items), and the queue holds 2 more
+        Assert.assertTrue(writing.await(10, TimeUnit.SECONDS));
+        Thread.sleep(200L);
+        Assert.assertTrue(producer.isAlive());
+        Assert.assertTrue("Added: " + added.get(), added.get() <= 4);
+
+        release.countDown();
+        producer.join(10000L);
+        Assert.assertFalse(producer.isAlive());
+        Assert.assertEquals(10, written.size());
+        for (int i = 0; i < 10; i++)
+            Assert.assertEquals(Integer.valueOf(i), written.get(i));
+        Assert.assertTrue(commits.get() > 0);
+        writer.close();
+    }
+
+    @Test
+    public void testFailedCommitStopsTheProducers() throws Exception
+    {
+        BatchingQueueWriter<Integer> writer = new BatchingQueueWriter<Integer>(1, 1, 50L)
+        {
+            @Override
+            protected void write(Integer item)
+            {
+            }
+
+            @Override
+            protected void commit(int count)
+            {
+                throw new IllegalStateException("commit failed");
+            }
+        };
+
+        try
+        {
+            for (int i = 0; i < 100; i++)
+                writer.add(i);
+            writer.finish();
+            Assert.fail("The failed commit should have been reported");
+        }
+        catch (WindupException e)
+        {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("commit failed"));
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void testFailedItemIsSkipped() throws Exception
+    {
+        final List<Integer> written = Collections.synchronizedList(new ArrayList<Integer>());
+        BatchingQueueWriter<Integer> writer = new BatchingQueueWriter<Integer>(10, 10, 50L)
+        {
+            @Override
+            protected void write(Integer item)
+            {
+                if (item == 1)
+                    throw new IllegalArgumentException("bad item");
+                written.add(item);
+            }
+
+            @Override
+            protected void commit(int count)
+            {
+            }
+        };
+
+        for (int i = 0; i < 3; i++)
+            writer.add(i);
+        writer.finish();
+        writer.close();
+        Assert.assertEquals(2, written.size());
+    }
+}
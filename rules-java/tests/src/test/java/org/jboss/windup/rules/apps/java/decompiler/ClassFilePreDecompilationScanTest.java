@@ -0,0 +1,169 @@
+package org.jboss.windup.rules.apps.java.decompiler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jboss.windup.rules.apps.java.decompiler.ClassFilePreDecompilationScan.ClassFileInfo;
+import org.jboss.windup.rules.apps.java.scan.ast.ignore.JavaClassIgnoreResolver;
+import org.jboss.windup.rules.apps.java.scan.ast.trie.TrieStructureTypeRelation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClassFilePreDecompilationScanTest
+{
+    private static final String PACKAGE = ClassFilePreDecompilationScanTest.class.getPackage().getName();
+    private static final String SAMPLE_CLASS = Sample.class.getName();
+    private static final List<String> NONE = Collections.emptyList();
+
+    private Path tempDir;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        tempDir = Files.createTempDirectory("ClassFilePreDecompilationScanTest");
+    }
+
+    @After
+    public void tearDown()
+    {
+        FileUtils.deleteQuietly(tempDir.toFile());
+    }
+
+    @Test
+    public void testJava8ClassFile() throws Exception
+    {
+        ClassFileInfo info = scan(writeSample(52), NONE, NONE, new JavaClassIgnoreResolver(new PrefixRelation()));
+
+        assertSampleMetadata(info, 52);
+        Assert.assertNull(info.asmError);
+        Assert.assertNull(info.skipReason);
+    }
+
+    /**
+     * ASM cannot read class files newer than Java 8, so the metadata comes from BCEL, and the file is only reported as not checked.
+     */
+    @Test
+    public void testJava9ClassFile() throws Exception
+    {
+        ClassFileInfo info = scan(writeSample(53), NONE, NONE, new JavaClassIgnoreResolver(new PrefixRelation()));
+
+        assertSampleMetadata(info, 53);
+        Assert.assertNotNull(info.asmError);
+        Assert.assertNull(info.skipReason);
+    }
+
+    @Test
+    public void testExcludedPackage() throws Exception
+    {
+        List<String> exclude = Collections.singletonList(PACKAGE);
+        Assert.assertEquals("configuration", scan(writeSample(52), NONE, exclude, new JavaClassIgnoreResolver(new PrefixRelation())).skipReason);
+
+        ClassFileInfo java9Info = scan(writeSample(53), NONE, exclude, new JavaClassIgnoreResolver(new PrefixRelation()));
+        Assert.assertEquals("configuration", java9Info.skipReason);
+        Assert.assertNull(java9Info.asmError);
+    }
+
+    @Test
+    public void testPackageNotInScanList() throws Exception
+    {
+        List<String> scan = Collections.singletonList("com.example");
+        Assert.assertEquals("configuration", scan(writeSample(52), scan, NONE, new JavaClassIgnoreResolver(new PrefixRelation())).skipReason);
+
+        scan = Collections.singletonList(PACKAGE);
+        Assert.assertNull(scan(writeSample(52), scan, NONE, new JavaClassIgnoreResolver(new PrefixRelation())).skipReason);
+    }
+
+    @Test
+    public void testIgnoredReference() throws Exception
+    {
+        JavaClassIgnoreResolver ignoreResolver = new JavaClassIgnoreResolver(new PrefixRelation());
+        ignoreResolver.addInterest("java.util.");
+
+        Assert.assertEquals("javaclass-ignore", scan(writeSample(52), NONE, NONE, ignoreResolver).skipReason);
+    }
+
+    @Test
+    public void testUnparseableClassFile() throws Exception
+    {
+        Path classFile = tempDir.resolve("Broken.class");
+        Files.write(classFile, new byte[] { 1, 2, 3 });
+
+        ClassFileInfo info = ClassFilePreDecompilationScan.scan(classFile.toString(), "Broken.class", NONE, NONE,
+                    new JavaClassIgnoreResolver(new PrefixRelation()));
+        Assert.assertNotNull(info.parseError);
+    }
+
+    private ClassFileInfo scan(Path classFile, List<String> scanPackages, List<String> excludePackages, JavaClassIgnoreResolver ignoreResolver)
+    {
+        return ClassFilePreDecompilationScan.scan(classFile.toString(), "Sample.class", scanPackages, excludePackages, ignoreResolver);
+    }
+
+    private void assertSampleMetadata(ClassFileInfo info, int majorVersion)
+    {
+        Assert.assertNull(info.parseError);
+        Assert.assertEquals(majorVersion, info.majorVersion);
+        Assert.assertEquals(SAMPLE_CLASS, info.qualifiedName);
+        Assert.assertEquals(PACKAGE, info.packageName);
+        Assert.assertEquals(ArrayList.class.getName(), info.superclassName);
+        Assert.assertEquals(Collections.singletonList(Runnable.class.getName()), info.interfaceNames);
+        Assert.assertFalse(info.isInterface());
+    }
+
+    /**
+     * Writes the compiled {@link Sample} class, with the given class file version.
+     */
+    private Path writeSample(int majorVersion) throws IOException
+    {
+        byte[] bytes;
+        String resourceName = SAMPLE_CLASS.substring(PACKAGE.length() + 1) + ".class";
+        try (InputStream is = Sample.class.getResourceAsStream(resourceName))
+        {
+            bytes = IOUtils.toByteArray(is);
+        }
+        bytes[6] = (byte) (majorVersion >> 8);
+        bytes[7] = (byte) majorVersion;
+
+        Path classFile = tempDir.resolve(majorVersion + ".class");
+        Files.write(classFile, bytes);
+        return classFile;
+    }
+
+    private static class PrefixRelation implements TrieStructureTypeRelation<String, String>
+    {
+        @Override
+        public String getStringToSearchFromSearchType(String search)
+        {
+            return search;
+        }
+
+        @Override
+        public String getStringPrefixToSaveSaveType(String save)
+        {
+            return save;
+        }
+
+        @Override
+        public boolean checkIfMatchFound(String saved, String searched)
+        {
+            return searched.startsWith(saved);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    static class Sample extends ArrayList<String> implements Runnable
+    {
+        @Override
+        public void run()
+        {
+        }
+    }
+}
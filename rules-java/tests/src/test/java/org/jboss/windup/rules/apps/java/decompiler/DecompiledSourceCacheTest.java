@@ -0,0 +1,184 @@
+package org.jboss.windup.rules.apps.java.decompiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.windup.decompiler.api.ClassDecompileRequest;
+import org.jboss.windup.decompiler.api.DecompilationListener;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DecompiledSourceCacheTest
+{
+    private Path tempDir;
+    private Path cacheDir;
+    private Path classesDir;
+    private Path outputDir;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        tempDir = Files.createTempDirectory("DecompiledSourceCacheTest");
+        cacheDir = tempDir.resolve("cache");
+        classesDir = tempDir.resolve("classes");
+        outputDir = tempDir.resolve("output");
+
+        Files.createDirectories(classesDir.resolve("com/example"));
+        Files.write(classesDir.resolve("com/example/Foo.class"), new byte[] { 1, 2, 3 });
+        Files.write(classesDir.resolve("com/example/Foo$1.class"), new byte[] { 4, 5, 6 });
+        Files.write(classesDir.resolve("com/example/Bar.class"), new byte[] { 7, 8, 9 });
+    }
+
+    @After
+    public void tearDown()
+    {
+        FileUtils.deleteQuietly(tempDir.toFile());
+    }
+
+    @Test
+    public void testUnchangedClassesAreRestored() throws Exception
+    {
+        RecordingListener firstListener = new RecordingListener();
+        DecompiledSourceCache firstCache = new DecompiledSourceCache(cacheDir, "test", "settings");
+        List<ClassDecompileRequest> remaining = firstCache.restore(getRequests(), firstListener);
+        Assert.assertEquals(3, remaining.size());
+        Assert.assertTrue(firstListener.decompiled.isEmpty());
+
+        DecompilationListener storingListener = firstCache.storing(firstListener);
+        storingListener.fileDecompiled(Arrays.asList(path("com/example/Foo.class"), path("com/example/Foo$1.class")),
+                    writeSource("com/example/Foo.java", "class Foo {}"));
+        storingListener.fileDecompiled(Arrays.asList(path("com/example/Bar.class")), writeSource("com/example/Bar.java", "class Bar {}"));
+        Assert.assertEquals(2, firstCache.getStoredCount());
+
+        // A later execution, where the inner class of Foo has changed
+        FileUtils.deleteDirectory(outputDir.toFile());
+        Files.write(classesDir.resolve("com/example/Foo$1.class"), new byte[] { 4, 5, 6, 7 });
+
+        RecordingListener secondListener = new RecordingListener();
+        DecompiledSourceCache secondCache = new DecompiledSourceCache(cacheDir, "test", "settings");
+        remaining = secondCache.restore(getRequests(), secondListener);
+
+        Assert.assertEquals(2, remaining.size());
+        Assert.assertEquals(1, secondCache.getRestoredCount());
+        Assert.assertEquals(1, secondListener.decompiled.size());
+        Assert.assertEquals(outputDir.resolve("com/example/Bar.java").toString(), secondListener.decompiled.get(0));
+        Assert.assertEquals("class Bar {}", FileUtils.readFileToString(outputDir.resolve("com/example/Bar.java").toFile()));
+        Assert.assertFalse(Files.exists(outputDir.resolve("com/example/Foo.java")));
+    }
+
+    @Test
+    public void testCacheIsPerDecompiler() throws Exception
+    {
+        DecompiledSourceCache cache = new DecompiledSourceCache(cacheDir, "test", "settings");
+        cache.restore(getRequests(), new RecordingListener());
+        cache.storing(new RecordingListener()).fileDecompiled(Arrays.asList(path("com/example/Bar.class")),
+                    writeSource("com/example/Bar.java", "class Bar {}"));
+
+        List<ClassDecompileRequest> remaining = new DecompiledSourceCache(cacheDir, "other", "settings").restore(getRequests(), new RecordingListener());
+        Assert.assertEquals(3, remaining.size());
+    }
+
+    @Test
+    public void testCacheIsPerDecompilerSettings() throws Exception
+    {
+        DecompiledSourceCache cache = new DecompiledSourceCache(cacheDir, "test", "settings");
+        cache.restore(getRequests(), new RecordingListener());
+        cache.storing(new RecordingListener()).fileDecompiled(Arrays.asList(path("com/example/Bar.class")),
+                    writeSource("com/example/Bar.java", "class Bar {}"));
+
+        List<ClassDecompileRequest> remaining = new DecompiledSourceCache(cacheDir, "test", "other settings").restore(getRequests(),
+                    new RecordingListener());
+        Assert.assertEquals(3, remaining.size());
+
+        remaining = new DecompiledSourceCache(cacheDir, "test", "settings").restore(getRequests(), new RecordingListener());
+        Assert.assertEquals(2, remaining.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedSourcesAreEvicted() throws Exception
+    {
+        // each entry takes about 40 bytes, so only one of the two fits
+        DecompiledSourceCache cache = new DecompiledSourceCache(cacheDir, "test", "settings", 50);
+        cache.restore(getRequests(), new RecordingListener());
+        DecompilationListener storingListener = cache.storing(new RecordingListener());
+        storingListener.fileDecompiled(Arrays.asList(path("com/example/Bar.class")), writeSource("com/example/Bar.java", "class Bar {}"));
+        storingListener.fileDecompiled(Arrays.asList(path("com/example/Foo.class"), path("com/example/Foo$1.class")),
+                    writeSource("com/example/Foo.java", "class Foo {}"));
+
+        // Bar was used less recently than Foo
+        Files.walkFileTree(cacheDir, new SimpleFileVisitor<Path>()
+        {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException
+            {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - 60000L));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        FileUtils.deleteDirectory(outputDir.toFile());
+        List<ClassDecompileRequest> fooRequests = getRequests().subList(0, 2);
+        Assert.assertTrue(new DecompiledSourceCache(cacheDir, "test", "settings", 50).restore(fooRequests, new RecordingListener()).isEmpty());
+
+        storingListener.decompilationProcessComplete();
+        Assert.assertTrue(cache.awaitEviction(10000L));
+        Assert.assertEquals(1, cache.getEvictedCount());
+
+        List<ClassDecompileRequest> remaining = new DecompiledSourceCache(cacheDir, "test", "settings").restore(getRequests(),
+                    new RecordingListener());
+        Assert.assertEquals(1, remaining.size());
+        Assert.assertEquals(classesDir.resolve("com/example/Bar.class"), remaining.get(0).getClassFile());
+    }
+
+    private List<ClassDecompileRequest> getRequests()
+    {
+        List<ClassDecompileRequest> requests = new ArrayList<>();
+        for (String classFile : new String[] { "com/example/Foo$1.class", "com/example/Foo.class", "com/example/Bar.class" })
+            requests.add(new ClassDecompileRequest(classesDir, classesDir.resolve(classFile), outputDir));
+        return requests;
+    }
+
+    private String path(String classFile)
+    {
+        return classesDir.resolve(classFile).toString();
+    }
+
+    private String writeSource(String relativePath, String contents) throws Exception
+    {
+        File file = outputDir.resolve(relativePath).toFile();
+        FileUtils.write(file, contents);
+        return file.getPath();
+    }
+
+    private static class RecordingListener implements DecompilationListener
+    {
+        private final List<String> decompiled = new ArrayList<>();
+
+        @Override
+        public void fileDecompiled(List<String> inputPath, String outputPath)
+        {
+            decompiled.add(outputPath);
+        }
+
+        @Override
+        public void decompilationFailed(List<String> inputPath, String message)
+        {
+        }
+
+        @Override
+        public void decompilationProcessComplete()
+        {
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.jboss.windup.rules.apps.java.scan;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.inject.Inject;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.forge.arquillian.AddonDependencies;
+import org.jboss.forge.arquillian.AddonDependency;
+import org.jboss.forge.arquillian.archive.AddonArchive;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.windup.engine.predicates.RuleProviderWithDependenciesPredicate;
+import org.jboss.windup.exec.WindupProcessor;
+import org.jboss.windup.exec.configuration.WindupConfiguration;
+import org.jboss.windup.graph.GraphContext;
+import org.jboss.windup.graph.GraphContextFactory;
+import org.jboss.windup.graph.model.DuplicateArchiveModel;
+import org.jboss.windup.graph.model.resource.FileModel;
+import org.jboss.windup.graph.service.FileService;
+import org.jboss.windup.graph.service.GraphService;
+import org.jboss.windup.rules.apps.java.scan.provider.UnzipArchivesToOutputRuleProvider;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(Arquillian.class)
+public class UnzipArchiveToOutputFolderTest
+{
+    @Deployment
+    @AddonDependencies({
+                @AddonDependency(name = "org.jboss.windup.config:windup-config"),
+                @AddonDependency(name = "org.jboss.windup.exec:windup-exec"),
+                @AddonDependency(name = "org.jboss.windup.rules.apps:windup-rules-java"),
+                @AddonDependency(name = "org.jboss.windup.reporting:windup-reporting"),
+                @AddonDependency(name = "org.jboss.windup.utils:windup-utils"),
+                @AddonDependency(name = "org.jboss.forge.furnace.container:cdi")
+    })
+    public static AddonArchive getDeployment()
+    {
+        return ShrinkWrap.create(AddonArchive.class).addBeansXML();
+    }
+
+    @Inject
+    private WindupProcessor processor;
+    @Inject
+    private GraphContextFactory factory;
+
+    /**
+     * The application contains two copies of the same jar, which itself contains another jar. The second copy (and the jar within it) become
+     * duplicates, and every file in the graph must still have its own path.
+     */
+    @Test
+    public void testNestedDuplicateArchivesHaveUniquePaths() throws Exception
+    {
+        Path tempDir = Files.createTempDirectory("UnzipArchiveToOutputFolderTest");
+        try
+        {
+            byte[] innerJar = zip("org/example/Inner.txt", "inner".getBytes("UTF-8"));
+            byte[] libraryJar = zip("lib/inner.jar", innerJar);
+            ByteArrayOutputStream ear = new ByteArrayOutputStream();
+            try (ZipOutputStream zip = new ZipOutputStream(ear))
+            {
+                addEntry(zip, "first/library.jar", libraryJar);
+                addEntry(zip, "second/library.jar", libraryJar);
+            }
+            Path inputPath = tempDir.resolve("app.ear");
+            Files.write(inputPath, ear.toByteArray());
+            Path outputPath = tempDir.resolve("output");
+
+            try (GraphContext context = factory.create(outputPath))
+            {
+                WindupConfiguration configuration = new WindupConfiguration();
+                configuration.setRuleProviderFilter(new RuleProviderWithDependenciesPredicate(UnzipArchivesToOutputRuleProvider.class));
+                configuration.setGraphContext(context);
+                configuration.addInputPath(inputPath);
+                configuration.setOutputDirectory(outputPath);
+                processor.execute(configuration);
+
+                int duplicates = 0;
+                for (DuplicateArchiveModel duplicate : new GraphService<>(context, DuplicateArchiveModel.class).findAll())
+                {
+                    Assert.assertNotNull(duplicate.getCanonicalArchive());
+                    duplicates++;
+                }
+                Assert.assertEquals(2, duplicates);
+
+                FileService fileService = new FileService(context);
+                Set<String> paths = new HashSet<>();
+                for (FileModel file : fileService.findAll())
+                {
+                    Assert.assertTrue("Duplicate path: " + file.getFilePath(), paths.add(file.getFilePath()));
+                    Assert.assertEquals(file, fileService.findByPath(file.getFilePath()));
+                }
+            }
+        }
+        finally
+        {
+            FileUtils.deleteQuietly(tempDir.toFile());
+        }
+    }
+
+    private static byte[] zip(String entryName, byte[] contents) throws IOException
+    {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(result))
+        {
+            addEntry(zip, entryName, contents);
+        }
+        return result.toByteArray();
+    }
+
+    private static void addEntry(ZipOutputStream zip, String entryName, byte[] contents) throws IOException
+    {
+        ZipEntry entry = new ZipEntry(entryName);
+        // a fixed time, so that the copies of the same archive have the same hash
+        entry.setTime(0L);
+        zip.putNextEntry(entry);
+        zip.write(contents);
+        zip.closeEntry();
+    }
+}
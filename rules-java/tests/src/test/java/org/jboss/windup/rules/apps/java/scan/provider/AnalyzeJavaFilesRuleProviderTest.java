@@ -0,0 +1,77 @@
+package org.jboss.windup.rules.apps.java.scan.provider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AnalyzeJavaFilesRuleProviderTest
+{
+    @After
+    public void tearDown()
+    {
+        System.clearProperty(AnalyzeJavaFilesRuleProvider.ANALYSIS_QUEUE_SIZE_PROPERTY);
+        System.clearProperty(AnalyzeJavaFilesRuleProvider.WRITE_BATCH_SIZE_PROPERTY);
+    }
+
+    @Test
+    public void testQueueAndBatchSizeProperties()
+    {
+        Assert.assertEquals(5000, AnalyzeJavaFilesRuleProvider.getAnalysisQueueSize());
+        Assert.assertEquals(100, AnalyzeJavaFilesRuleProvider.getWriteBatchSize());
+
+        System.setProperty(AnalyzeJavaFilesRuleProvider.ANALYSIS_QUEUE_SIZE_PROPERTY, "42");
+        System.setProperty(AnalyzeJavaFilesRuleProvider.WRITE_BATCH_SIZE_PROPERTY, "7");
+        Assert.assertEquals(42, AnalyzeJavaFilesRuleProvider.getAnalysisQueueSize());
+        Assert.assertEquals(7, AnalyzeJavaFilesRuleProvider.getWriteBatchSize());
+
+        // the queue and the batches always hold at least one file
+        System.setProperty(AnalyzeJavaFilesRuleProvider.ANALYSIS_QUEUE_SIZE_PROPERTY, "0");
+        System.setProperty(AnalyzeJavaFilesRuleProvider.WRITE_BATCH_SIZE_PROPERTY, "-1");
+        Assert.assertEquals(1, AnalyzeJavaFilesRuleProvider.getAnalysisQueueSize());
+        Assert.assertEquals(1, AnalyzeJavaFilesRuleProvider.getWriteBatchSize());
+    }
+
+    @Test
+    public void testSmallBatchIsCommittedOnce()
+    {
+        List<Integer> commits = write(Arrays.asList(10, 20, 30));
+        Assert.assertEquals(Collections.singletonList(60), commits);
+    }
+
+    /**
+     * A batch with many references is also committed every {@link AnalyzeJavaFilesRuleProvider#COMMIT_INTERVAL} references, after the file that
+     * reaches the interval.
+     */
+    @Test
+    public void testLargeBatchIsCommittedEveryCommitInterval()
+    {
+        Assert.assertEquals(500, AnalyzeJavaFilesRuleProvider.COMMIT_INTERVAL);
+
+        List<Integer> commits = write(Arrays.asList(200, 200, 200, 10, 500, 1, 0));
+        Assert.assertEquals(Arrays.asList(600, 1110, 1111), commits);
+    }
+
+    /**
+     * Writes the given numbers of references, and returns the number of references that had been written at each commit.
+     */
+    private List<Integer> write(List<Integer> referencesPerFile)
+    {
+        final List<Integer> commits = new ArrayList<>();
+        final int[] written = new int[1];
+        ToIntFunction<Integer> writer = references -> {
+            written[0] += references;
+            return references;
+        };
+
+        int total = AnalyzeJavaFilesRuleProvider.writeBatch(referencesPerFile, writer, () -> commits.add(written[0]));
+
+        Assert.assertEquals(written[0], total);
+        return commits;
+    }
+}
@@ -1,5 +1,7 @@
 package org.jboss.windup.scan.ast;
 
+import java.util.Arrays;
+
 import org.jboss.windup.rules.apps.java.scan.ast.trie.TriePrefixStructure;
 import org.jboss.windup.rules.apps.java.scan.ast.trie.TrieStructureTypeRelation;
 import org.junit.Assert;
@@ -81,6 +83,34 @@ public class TriePrefixStructureTest
         Assert.assertEquals(2, secondTestMatches);
     }
 
+    @Test
+    public void trieFindAllMatchesTest() {
+        TrieStructureTypeRelation<String,String> relation = new TrieStructureTypeRelation<String,String>() {
+
+            @Override public String getStringToSearchFromSearchType(String search)
+            {
+                return search;
+            }
+
+            @Override public String getStringPrefixToSaveSaveType(String save)
+            {
+                return save.substring(0, save.indexOf('*'));
+            }
+
+            @Override public boolean checkIfMatchFound(String saved, String searched)
+            {
+                return searched.startsWith(saved.substring(0, saved.indexOf('*')));
+            }
+        };
+        TriePrefixStructure<String,String> trie = new TriePrefixStructure<>(relation);
+        trie.addInterest("abc*");
+        trie.addInterest("abc.def*");
+        trie.addInterest("abc.xyz*");
+        trie.addInterest("*");
+        Assert.assertEquals(Arrays.asList("*", "abc*", "abc.def*"), trie.findMatches("abc.def.ghi"));
+        Assert.assertEquals(Arrays.asList("*"), trie.findMatches("xyz"));
+    }
+
     private class FirstThreePrefix {
         public String text;
 
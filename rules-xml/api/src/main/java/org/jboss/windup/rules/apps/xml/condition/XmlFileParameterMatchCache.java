@@ -41,6 +41,11 @@ public class XmlFileParameterMatchCache
         vars.get(frameID).put(key, value);
     }
 
+    public void clear()
+    {
+        vars.clear();
+    }
+
     public Map<String, String> getVariables()
     {
         Map<String, String> result = new HashMap<>();
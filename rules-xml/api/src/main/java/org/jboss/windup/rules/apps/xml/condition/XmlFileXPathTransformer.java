@@ -1,7 +1,10 @@
 package org.jboss.windup.rules.apps.xml.condition;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -13,6 +16,7 @@ import org.apache.commons.lang3.StringUtils;
 public class XmlFileXPathTransformer
 {
     private static final String WINDUP_MATCHES_FUNCTION_PREFIX = "windup:matches(";
+    private static final Pattern PREFIXED_ELEMENT_STEP = Pattern.compile("([\\w.-]+):(\\*|[\\w.-]+)(?![\\w.(:-])");
 
     /**
      * Performs the conversion from standard XPath to xpath with parameterization support.
@@ -96,4 +100,67 @@ public class XmlFileXPathTransformer
         }
         return finalResult.toString();
     }
+
+    /**
+     * Returns the namespace URIs of which a document needs to contain at least one element in order to match the given XPath, or null if there is
+     * no such restriction. The namespaces are only known if each of the joined queries starts with a prefixed element name (for example
+     * "/p:beans/p:bean" or "//p:bean[@id]"), as no other node can be selected by such a query.
+     */
+    public static Set<String> getRequiredNamespaces(String originalXPath, Map<String, String> namespaces)
+    {
+        Set<String> result = new HashSet<>();
+        for (String query : splitJoinedQueries(originalXPath))
+        {
+            String firstStep = query.trim();
+            if (firstStep.startsWith("//"))
+                firstStep = firstStep.substring(2);
+            else if (firstStep.startsWith("/"))
+                firstStep = firstStep.substring(1);
+            else
+                return null;
+
+            Matcher matcher = PREFIXED_ELEMENT_STEP.matcher(firstStep);
+            if (!matcher.lookingAt())
+                return null;
+
+            String namespace = namespaces.get(matcher.group(1));
+            if (StringUtils.isBlank(namespace))
+                return null;
+            result.add(namespace);
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    /**
+     * Splits the XPath into the queries that are joined with the "|" operator (ignoring any "|" within quotes, predicates or parentheses).
+     */
+    private static List<String> splitJoinedQueries(String originalXPath)
+    {
+        List<String> queries = new ArrayList<>(1);
+        int level = 0;
+        char startQuoteChar = 0;
+        int start = 0;
+        for (int i = 0; i < originalXPath.length(); i++)
+        {
+            char curChar = originalXPath.charAt(i);
+            if (startQuoteChar != 0)
+            {
+                if (curChar == startQuoteChar)
+                    startQuoteChar = 0;
+            }
+            else if (curChar == '"' || curChar == '\'')
+                startQuoteChar = curChar;
+            else if (curChar == '[' || curChar == '(')
+                level++;
+            else if (curChar == ']' || curChar == ')')
+                level--;
+            else if (level == 0 && curChar == '|')
+            {
+                queries.add(originalXPath.substring(start, i));
+                start = i + 1;
+            }
+        }
+        queries.add(originalXPath.substring(start));
+        return queries;
+    }
 }
@@ -11,11 +11,13 @@ import org.jboss.windup.rules.apps.xml.condition.XmlFileParameterMatchCache;
 import org.jboss.windup.rules.apps.xml.condition.XmlFileStartFrameXPathFunction;
 import org.jboss.windup.rules.apps.xml.condition.XmlFileXPathTransformer;
 import org.jboss.windup.rules.apps.xml.model.NamespaceMetaModel;
+import org.jboss.windup.rules.apps.xml.model.XMLDocumentCache;
 import org.jboss.windup.rules.apps.xml.model.XmlFileModel;
 import org.jboss.windup.rules.apps.xml.model.XmlTypeReferenceModel;
 import org.jboss.windup.rules.apps.xml.service.XmlFileService;
 import org.jboss.windup.util.Logging;
 import org.jboss.windup.util.xml.LocationAwareContentHandler;
+import org.jboss.windup.util.xml.LocationAwareXmlReader;
 import org.jboss.windup.util.xml.NamespaceMapContext;
 import org.jboss.windup.util.xml.XmlUtil;
 import org.ocpsoft.rewrite.context.EvaluationContext;
@@ -39,6 +41,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -59,6 +62,11 @@ public class XmlFileXpathValidator implements XmlFileValidator
     private String xpathString;
     private static final Logger LOG = Logging.get(XmlFileXpathValidator.class);
     private RegexParameterizedPatternParser xpathPattern;
+    private String xpathStringWithParameterFunctions;
+    private Set<String> requiredNamespaces;
+    private boolean compilationFailed;
+    private XmlFileParameterMatchCache paramMatchCache;
+    private XmlFilePersistXPathFunction persistFunction;
 
     public XmlFileXpathValidator()
     {
@@ -75,6 +83,9 @@ public class XmlFileXpathValidator implements XmlFileValidator
     {
         this.xpathString = xpath;
         this.compiledXPath = null;
+        this.compilationFailed = false;
+        this.xpathStringWithParameterFunctions = null;
+        this.requiredNamespaces = null;
 
         if (xpath != null)
         {
@@ -82,54 +93,47 @@ public class XmlFileXpathValidator implements XmlFileValidator
         }
     }
 
+    /**
+     * Registers the Windup XPath functions for the given evaluation. This only needs to be called once per evaluation of the condition, instead of
+     * once for every file.
+     */
+    public void initialize(GraphRewrite event, EvaluationContext context)
+    {
+        final ParameterStore store = DefaultParameterStore.getInstance(context);
+
+        this.paramMatchCache = new XmlFileParameterMatchCache();
+        this.persistFunction = new XmlFilePersistXPathFunction(event, context, evaluationStrategy, store, paramMatchCache);
+        this.xmlFileFunctionResolver.registerFunction(WINDUP_NS_URI, "startFrame", new XmlFileStartFrameXPathFunction(paramMatchCache));
+        this.xmlFileFunctionResolver.registerFunction(WINDUP_NS_URI, "evaluate", new XmlFileEvaluateXPathFunction(evaluationStrategy));
+        this.xmlFileFunctionResolver.registerFunction(WINDUP_NS_URI, "matches", new XmlFileMatchesXPathFunction(context, store, paramMatchCache,
+                    event));
+        this.xmlFileFunctionResolver.registerFunction(WINDUP_NS_URI, "persist", persistFunction);
+    }
+
     @Override
     public boolean isValid(GraphRewrite event, EvaluationContext context, XmlFileModel model)
     {
         if(xpathString == null) {
             return true;
         }
-        String xpathStringWithParameterFunctions = XmlFileXPathTransformer.transformXPath(this.xpathString);
-        LOG.fine("XmlFile compiled: " + this.xpathString + " to " + xpathStringWithParameterFunctions);
+
+        if (!compile())
+            return false;
+
+        // The namespaces are known without loading the document if it has been loaded before
+        Set<String> documentNamespaces = XMLDocumentCache.getNamespaces(model);
+        if (documentNamespaces != null && !containsRequiredNamespace(documentNamespaces))
+            return false;
 
         XmlFileService xmlFileService = new XmlFileService(event.getGraphContext());
         Document document = xmlFileService.loadDocumentQuiet(context, model);
         if (document != null)
         {
-            final ParameterStore store = DefaultParameterStore.getInstance(context);
-
-            final XmlFileParameterMatchCache paramMatchCache = new XmlFileParameterMatchCache();
-            this.xmlFileFunctionResolver.registerFunction(WINDUP_NS_URI, "startFrame",
-                        new XmlFileStartFrameXPathFunction(paramMatchCache));
-            this.xmlFileFunctionResolver
-                        .registerFunction(WINDUP_NS_URI, "evaluate", new XmlFileEvaluateXPathFunction(evaluationStrategy));
-            this.xmlFileFunctionResolver.registerFunction(WINDUP_NS_URI, "matches", new XmlFileMatchesXPathFunction(context, store,
-                        paramMatchCache, event));
-            this.xmlFileFunctionResolver.registerFunction(WINDUP_NS_URI, "persist", new XmlFilePersistXPathFunction(event, context, model,
-                        evaluationStrategy, store, paramMatchCache, results));
-
-            if (compiledXPath == null)
-            {
-                NamespaceMapContext nsContext = new NamespaceMapContext(namespaces);
-                this.xpathEngine.setNamespaceContext(nsContext);
-                try
-                {
-                    this.compiledXPath = xpathEngine.compile(xpathStringWithParameterFunctions);
-                }
-                catch (Exception e)
-                {
-                    String message = e.getMessage();
+            if (documentNamespaces == null && !containsRequiredNamespace(LocationAwareXmlReader.getNamespaces(document)))
+                return false;
 
-                    // brutal hack to try to get a reasonable error message (ugly, but it seems to work)
-                    if (message == null && e.getCause() != null && e.getCause().getMessage() != null)
-                    {
-                        message = e.getCause().getMessage();
-                    }
-                    LOG.severe("Condition: " + this + " failed to run, as the following xpath was uncompilable: " + xpathString
-                                + " (compiled contents: " + xpathStringWithParameterFunctions + ") due to: "
-                                + message);
-                    return false;
-                }
-            }
+            paramMatchCache.clear();
+            persistFunction.setXmlFileModel(model);
 
             /**
              * This actually does the work.
@@ -140,6 +144,65 @@ public class XmlFileXpathValidator implements XmlFileValidator
         return !results.isEmpty();
     }
 
+    /**
+     * Transforms and compiles the XPath, if this has not already been done.
+     *
+     * @return false if the XPath could not be compiled
+     */
+    private boolean compile()
+    {
+        if (compiledXPath != null)
+            return true;
+        if (compilationFailed)
+            return false;
+
+        this.xpathStringWithParameterFunctions = XmlFileXPathTransformer.transformXPath(this.xpathString);
+        LOG.fine("XmlFile compiled: " + this.xpathString + " to " + xpathStringWithParameterFunctions);
+        this.requiredNamespaces = XmlFileXPathTransformer.getRequiredNamespaces(this.xpathString, this.namespaces);
+
+        NamespaceMapContext nsContext = new NamespaceMapContext(namespaces);
+        this.xpathEngine.setNamespaceContext(nsContext);
+        try
+        {
+            this.compiledXPath = xpathEngine.compile(xpathStringWithParameterFunctions);
+            return true;
+        }
+        catch (Exception e)
+        {
+            String message = e.getMessage();
+
+            // brutal hack to try to get a reasonable error message (ugly, but it seems to work)
+            if (message == null && e.getCause() != null && e.getCause().getMessage() != null)
+            {
+                message = e.getCause().getMessage();
+            }
+            LOG.severe("Condition: " + this + " failed to run, as the following xpath was uncompilable: " + xpathString
+                        + " (compiled contents: " + xpathStringWithParameterFunctions + ") due to: "
+                        + message);
+            this.compilationFailed = true;
+            return false;
+        }
+    }
+
+    /**
+     * Documents that do not contain any elements from the namespaces that the XPath starts from cannot match, so they can be skipped without
+     * evaluating the XPath.
+     */
+    private boolean containsRequiredNamespace(Set<String> documentNamespaces)
+    {
+        if (requiredNamespaces == null)
+            return true;
+        if (documentNamespaces == null)
+            return false;
+
+        for (String namespace : requiredNamespaces)
+        {
+            if (documentNamespaces.contains(namespace))
+                return true;
+        }
+        return false;
+    }
+
     public List<WindupVertexFrame> getAndClearResultLocations()
     {
         List<WindupVertexFrame> output = results;
@@ -186,6 +249,8 @@ public class XmlFileXpathValidator implements XmlFileValidator
     public void addNamespace(String prefix, String url)
     {
         this.namespaces.put(prefix, url);
+        this.compiledXPath = null;
+        this.compilationFailed = false;
     }
 
     public void setEvaluationStrategy(XmlFile.XmlFileEvaluationStrategy evaluationStrategy)
@@ -197,24 +262,26 @@ public class XmlFileXpathValidator implements XmlFileValidator
     {
         private final GraphRewrite event;
         private final EvaluationContext context;
-        private final XmlFileModel xml;
+        private XmlFileModel xml;
         private final XmlFile.XmlFileEvaluationStrategy evaluationStrategy;
         private final ParameterStore store;
         private final XmlFileParameterMatchCache paramMatchCache;
-        private final List<WindupVertexFrame> resultLocations;
 
-        XmlFilePersistXPathFunction(GraphRewrite event, EvaluationContext context, XmlFileModel xml,
+        XmlFilePersistXPathFunction(GraphRewrite event, EvaluationContext context,
                     XmlFile.XmlFileEvaluationStrategy evaluationStrategy,
                     ParameterStore store,
-                    XmlFileParameterMatchCache paramMatchCache, List<WindupVertexFrame> resultLocations)
+                    XmlFileParameterMatchCache paramMatchCache)
         {
             this.event = event;
             this.context = context;
-            this.xml = xml;
             this.evaluationStrategy = evaluationStrategy;
             this.store = store;
             this.paramMatchCache = paramMatchCache;
-            this.resultLocations = resultLocations;
+        }
+
+        void setXmlFileModel(XmlFileModel xml)
+        {
+            this.xml = xml;
         }
 
         @Override
@@ -263,7 +330,7 @@ public class XmlFileXpathValidator implements XmlFileValidator
                     metaModel.addXmlResource(xml);
                     fileLocation.addNamespace(metaModel);
                 }
-                resultLocations.add(fileLocation);
+                results.add(fileLocation);
 
                 evaluationStrategy.modelSubmissionRejected();
                 evaluationStrategy.modelMatched();
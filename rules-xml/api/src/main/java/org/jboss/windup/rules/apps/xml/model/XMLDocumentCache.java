@@ -1,20 +1,53 @@
 package org.jboss.windup.rules.apps.xml.model;
 
-import java.lang.ref.SoftReference;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.jboss.windup.util.Logging;
+import org.jboss.windup.util.xml.LocationAwareDocumentSerializer;
+import org.jboss.windup.util.xml.LocationAwareXmlReader;
 import org.w3c.dom.Document;
 
 /**
- * This class provides a cache for parsed XML documents, using {@link SoftReference}s in order to avoid creating unnecessary memory pressure.
+ * This class provides a cache for parsed XML documents, so that each document only needs to be parsed once per execution.
+ * <p>
+ * Recently used documents are kept on the heap, up to a combined (source file) size of {@link #MAX_LIVE_SIZE}. Documents that are evicted from the
+ * heap are stored in a compact binary form (see {@link LocationAwareDocumentSerializer}) in a temporary file, and are recreated from there if they
+ * are needed again. The cache is cleared at the start and end of each execution by the {@link XMLDocumentCacheLifecycleListener}.
  */
 public class XMLDocumentCache
 {
     private static final Logger LOG = Logging.get(XMLDocumentCache.class);
-    private static final Map<String, CacheDocument> map = new HashMap<>();
+
+    /**
+     * The combined size of the source files for all documents kept on the heap.
+     */
+    public static final long MAX_LIVE_SIZE = 64L * 1024L * 1024L;
+
+    private static final Map<String, CacheEntry> entries = new HashMap<>();
+    private static final LinkedHashMap<String, Document> liveDocuments = new LinkedHashMap<>(16, 0.75f, true);
+    private static long liveSize;
+
+    private static Path storePath;
+    private static FileChannel store;
+    private static long storeSize;
+
+    private static long hits;
+    private static long storeHits;
+    private static long misses;
+    private static long evictions;
 
     /**
      * This is used to pass data back to the caller regarding the cache search.
@@ -45,65 +78,287 @@ public class XMLDocumentCache
         }
     }
 
+    /**
+     * Contains the hit, miss and eviction counts of the cache since it was last cleared.
+     */
+    public static class Statistics
+    {
+        private final long hits;
+        private final long storeHits;
+        private final long misses;
+        private final long evictions;
+        private final long storeSize;
+
+        public Statistics(long hits, long storeHits, long misses, long evictions, long storeSize)
+        {
+            this.hits = hits;
+            this.storeHits = storeHits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.storeSize = storeSize;
+        }
+
+        /**
+         * Gets the number of documents that were found on the heap.
+         */
+        public long getHits()
+        {
+            return hits;
+        }
+
+        /**
+         * Gets the number of documents that had to be recreated from their stored form.
+         */
+        public long getStoreHits()
+        {
+            return storeHits;
+        }
+
+        /**
+         * Gets the number of documents that were not cached at all (and so had to be parsed).
+         */
+        public long getMisses()
+        {
+            return misses;
+        }
+
+        /**
+         * Gets the number of documents that were evicted from the heap.
+         */
+        public long getEvictions()
+        {
+            return evictions;
+        }
+
+        /**
+         * Gets the size (in bytes) of all documents in their stored form.
+         */
+        public long getStoreSize()
+        {
+            return storeSize;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "XMLDocumentCache statistics: hits=" + hits + ", storeHits=" + storeHits + ", misses=" + misses + ", evictions=" + evictions
+                        + ", storeSize=" + storeSize;
+        }
+    }
+
     /**
      * Add the provided document to the cache.
      */
-    public static void cache(XmlFileModel key, Document document)
+    public static synchronized void cache(XmlFileModel key, Document document)
     {
         String cacheKey = getKey(key);
-        map.put(cacheKey, new CacheDocument(false, document));
+        long size = Math.max(1L, key.asFile().length());
+
+        Document previous = liveDocuments.remove(cacheKey);
+        CacheEntry previousEntry = entries.get(cacheKey);
+        if (previous != null && previousEntry != null)
+            liveSize -= previousEntry.size;
+
+        Set<String> namespaces = LocationAwareXmlReader.getNamespaces(document);
+        entries.put(cacheKey, new CacheEntry(false, size, namespaces == null ? Collections.<String> emptySet() : namespaces));
+        liveDocuments.put(cacheKey, document);
+        liveSize += size;
+        evict();
     }
 
     /**
      * Cache a parse failure for this document.
      */
-    public static void cacheParseFailure(XmlFileModel key)
+    public static synchronized void cacheParseFailure(XmlFileModel key)
     {
-        map.put(getKey(key), new CacheDocument(true, null));
+        String cacheKey = getKey(key);
+        CacheEntry previousEntry = entries.get(cacheKey);
+        if (liveDocuments.remove(cacheKey) != null && previousEntry != null)
+            liveSize -= previousEntry.size;
+
+        entries.put(cacheKey, new CacheEntry(true, 0L, null));
     }
 
     /**
      * Retrieve the currently cached value for the given document.
      */
-    public static Result get(XmlFileModel key)
+    public static synchronized Result get(XmlFileModel key)
     {
         String cacheKey = getKey(key);
 
-        Result result = null;
-        CacheDocument reference = map.get(cacheKey);
-
-        if (reference == null)
+        CacheEntry entry = entries.get(cacheKey);
+        if (entry == null)
+        {
+            misses++;
             return new Result(false, null);
+        }
 
-        if (reference.parseFailure)
+        if (entry.parseFailure)
             return new Result(true, null);
 
-        Document document = reference.getDocument();
+        Document document = liveDocuments.get(cacheKey);
+        if (document != null)
+        {
+            hits++;
+            return new Result(false, document);
+        }
+
+        document = load(cacheKey, entry);
         if (document == null)
-            LOG.info("Cache miss on XML document: " + cacheKey);
+        {
+            misses++;
+            return new Result(false, null);
+        }
 
+        storeHits++;
+        liveDocuments.put(cacheKey, document);
+        liveSize += entry.size;
+        evict();
         return new Result(false, document);
     }
 
-    private static String getKey(XmlFileModel key)
+    /**
+     * Gets the namespaces used by the elements of the given document, if the document is in the cache. This does not need to recreate the document
+     * if it has been evicted from the heap.
+     *
+     * @return the namespaces, or null if the document has not been cached (or could not be parsed)
+     */
+    public static synchronized Set<String> getNamespaces(XmlFileModel key)
     {
-        return key.getFilePath();
+        CacheEntry entry = entries.get(getKey(key));
+        return entry == null ? null : entry.namespaces;
+    }
+
+    /**
+     * Gets the hit, miss and eviction counts since the cache was last cleared.
+     */
+    public static synchronized Statistics getStatistics()
+    {
+        return new Statistics(hits, storeHits, misses, evictions, storeSize);
     }
 
-    private static class CacheDocument
+    /**
+     * Removes all documents from the cache (including their stored forms), and resets the statistics.
+     */
+    public static synchronized void clear()
     {
-        private boolean parseFailure;
-        private final SoftReference<Document> document;
+        entries.clear();
+        liveDocuments.clear();
+        liveSize = 0;
 
-        public CacheDocument(boolean parseFailure, Document document)
+        if (store != null)
         {
-            this.parseFailure = parseFailure;
-            this.document = new SoftReference<>(document);
+            try
+            {
+                store.close();
+                Files.deleteIfExists(storePath);
+            }
+            catch (IOException e)
+            {
+                LOG.log(Level.WARNING, "Failed to delete XML document store: " + storePath + " due to: " + e.getMessage(), e);
+            }
+            store = null;
+            storePath = null;
         }
+        storeSize = 0;
 
-        public Document getDocument()
+        hits = 0;
+        storeHits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * Moves the least recently used documents out of the heap, until the live documents fit within {@link #MAX_LIVE_SIZE}. The most recently used
+     * document always stays, even if it is larger than that on its own.
+     */
+    private static void evict()
+    {
+        Iterator<Map.Entry<String, Document>> iterator = liveDocuments.entrySet().iterator();
+        while (liveSize > MAX_LIVE_SIZE && liveDocuments.size() > 1)
+        {
+            Map.Entry<String, Document> eldest = iterator.next();
+            iterator.remove();
+
+            CacheEntry entry = entries.get(eldest.getKey());
+            liveSize -= entry.size;
+            evictions++;
+
+            if (entry.storeOffset < 0 && !save(entry, eldest.getValue()))
+                entries.remove(eldest.getKey());
+        }
+    }
+
+    private static boolean save(CacheEntry entry, Document document)
+    {
+        try
+        {
+            byte[] data = LocationAwareDocumentSerializer.serialize(document);
+            if (store == null)
+            {
+                storePath = Files.createTempFile("windup-xml-documents", ".bin");
+                storePath.toFile().deleteOnExit();
+                store = FileChannel.open(storePath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            long offset = storeSize;
+            while (buffer.hasRemaining())
+                store.write(buffer, offset + buffer.position());
+
+            entry.storeOffset = offset;
+            entry.storeLength = data.length;
+            storeSize += data.length;
+            return true;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            LOG.log(Level.WARNING, "Failed to store XML document, it will need to be parsed again: " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private static Document load(String cacheKey, CacheEntry entry)
+    {
+        if (entry.storeOffset < 0)
+            return null;
+
+        try
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(entry.storeLength);
+            while (buffer.hasRemaining())
+            {
+                if (store.read(buffer, entry.storeOffset + buffer.position()) < 0)
+                    throw new IOException("Unexpected end of XML document store");
+            }
+            return LocationAwareDocumentSerializer.deserialize(buffer.array());
+        }
+        catch (IOException e)
+        {
+            LOG.log(Level.WARNING, "Failed to load stored XML document: " + cacheKey + " due to: " + e.getMessage(), e);
+            entries.remove(cacheKey);
+            return null;
+        }
+    }
+
+    private static String getKey(XmlFileModel key)
+    {
+        return key.getFilePath();
+    }
+
+    private static class CacheEntry
+    {
+        private final boolean parseFailure;
+        private final long size;
+        private final Set<String> namespaces;
+        private long storeOffset = -1;
+        private int storeLength;
+
+        public CacheEntry(boolean parseFailure, long size, Set<String> namespaces)
         {
-            return document.get();
+            this.parseFailure = parseFailure;
+            this.size = size;
+            this.namespaces = namespaces;
         }
     }
 }
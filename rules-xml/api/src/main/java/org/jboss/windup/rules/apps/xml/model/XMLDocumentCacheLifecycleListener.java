@@ -0,0 +1,28 @@
+package org.jboss.windup.rules.apps.xml.model;
+
+import java.util.logging.Logger;
+
+import org.jboss.windup.config.AbstractRuleLifecycleListener;
+import org.jboss.windup.config.GraphRewrite;
+import org.jboss.windup.util.Logging;
+
+/**
+ * Clears the {@link XMLDocumentCache} before and after each execution of Windup, logging its statistics at the end.
+ */
+public class XMLDocumentCacheLifecycleListener extends AbstractRuleLifecycleListener
+{
+    private static final Logger LOG = Logging.get(XMLDocumentCacheLifecycleListener.class);
+
+    @Override
+    public void beforeExecution(GraphRewrite event)
+    {
+        XMLDocumentCache.clear();
+    }
+
+    @Override
+    public void afterExecution(GraphRewrite event)
+    {
+        LOG.info(XMLDocumentCache.getStatistics().toString());
+        XMLDocumentCache.clear();
+    }
+}
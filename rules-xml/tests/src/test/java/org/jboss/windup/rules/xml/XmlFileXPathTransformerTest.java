@@ -0,0 +1,44 @@
+package org.jboss.windup.rules.xml;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.jboss.windup.rules.apps.xml.condition.XmlFileXPathTransformer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class XmlFileXPathTransformerTest
+{
+    private static final String BEANS = "http://www.springframework.org/schema/beans";
+    private static final String EJB = "http://java.sun.com/xml/ns/javaee";
+
+    @Test
+    public void testRequiredNamespaces()
+    {
+        Map<String, String> namespaces = new HashMap<>();
+        namespaces.put("b", BEANS);
+        namespaces.put("e", EJB);
+
+        Assert.assertEquals(Collections.singleton(BEANS),
+                    XmlFileXPathTransformer.getRequiredNamespaces("/b:beans/b:bean[windup:matches(@class, '{class}')]", namespaces));
+        Assert.assertEquals(Collections.singleton(BEANS), XmlFileXPathTransformer.getRequiredNamespaces("//b:*[@id='a|b']", namespaces));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(BEANS, EJB)),
+                    XmlFileXPathTransformer.getRequiredNamespaces("//b:bean | /e:ejb-jar", namespaces));
+    }
+
+    @Test
+    public void testNoRequiredNamespaces()
+    {
+        Map<String, String> namespaces = Collections.singletonMap("b", BEANS);
+
+        Assert.assertNull(XmlFileXPathTransformer.getRequiredNamespaces("//bean", namespaces));
+        Assert.assertNull(XmlFileXPathTransformer.getRequiredNamespaces("//b:bean | //bean", namespaces));
+        Assert.assertNull(XmlFileXPathTransformer.getRequiredNamespaces("//x:bean", namespaces));
+        Assert.assertNull(XmlFileXPathTransformer.getRequiredNamespaces("//@b:id", namespaces));
+        Assert.assertNull(XmlFileXPathTransformer.getRequiredNamespaces("/child::b:beans", namespaces));
+        Assert.assertNull(XmlFileXPathTransformer.getRequiredNamespaces("(//b:bean)[1]", namespaces));
+    }
+}
@@ -4,6 +4,11 @@ import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.util.Collection;
 
+import org.jboss.windup.tooling.data.Classification;
+import org.jboss.windup.tooling.data.Hint;
+import org.jboss.windup.tooling.data.ResultsFilter;
+import org.jboss.windup.tooling.data.ResultsPage;
+
 /**
  * The initial call, specifying the installation path to Windup.
  *
@@ -79,6 +84,27 @@ public interface ExecutionBuilder extends Remote
      */
     void skipReportGeneration() throws RemoteException;
 
+    /**
+     * Indicates that the {@link ExecutionResults} returned by {@link #execute()} should not contain the {@link Hint}s and {@link Classification}s.
+     * These can then be read page by page with {@link #getHints(ResultsFilter, String, int)} and
+     * {@link #getClassifications(ResultsFilter, String, int)}, which keeps large results from being copied in a single call.
+     */
+    void pageIssueResults() throws RemoteException;
+
+    /**
+     * Returns a page of at most pageSize {@link Hint}s from the last execution that match the given filter (null matches all hints). Pass a null
+     * cursor to get the first page, and the {@link ResultsPage#getNextCursor()} of the previous page to get the following ones.
+     */
+    ResultsPage<Hint> getHints(ResultsFilter filter, String cursor, int pageSize) throws RemoteException;
+
+    /**
+     * Returns a page of the {@link Classification}s from the last execution that match the given filter (null matches all classifications). Pass a
+     * null cursor to get the first page, and the {@link ResultsPage#getNextCursor()} of the previous page to get the following ones.
+     *
+     * A page contains at most pageSize classifications from the graph, each with one entry for each of the files that it is attached to.
+     */
+    ResultsPage<Classification> getClassifications(ResultsFilter filter, String cursor, int pageSize) throws RemoteException;
+
     /**
      * Adds a custom uer rules path.
      */
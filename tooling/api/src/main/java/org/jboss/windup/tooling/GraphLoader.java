@@ -12,7 +12,9 @@ public interface GraphLoader
 {
 
     /**
-     * Returns the {@link ExecutionResults} from a previous run of Windup.
+     * Returns the {@link ExecutionResults} from a previous run of Windup. This requires the graph to have been stored on disk (the default
+     * "berkeleyje" graph backend). The output of a run with the "inmemory" backend (or "auto" with a small input) contains no graph that can be
+     * loaded.
      *
      * @throws IOException This will throw an IOException if the data cannot be loaded from the provided location.
      */
@@ -0,0 +1,73 @@
+package org.jboss.windup.tooling.data;
+
+import java.io.Serializable;
+
+/**
+ * Selects the {@link Hint}s and {@link Classification}s that are returned page by page from the results of a Windup execution. Criteria that are
+ * not set (null) match everything.
+ */
+public class ResultsFilter implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private String file;
+    private String issueCategoryID;
+    private String ruleID;
+
+    /**
+     * Contains the full path of the input file that the results must be attached to.
+     */
+    public String getFile()
+    {
+        return file;
+    }
+
+    /**
+     * Contains the full path of the input file that the results must be attached to.
+     */
+    public ResultsFilter setFile(String file)
+    {
+        this.file = file;
+        return this;
+    }
+
+    /**
+     * Contains the {@link IssueCategory#getCategoryID()} (the severity) that the results must have.
+     */
+    public String getIssueCategoryID()
+    {
+        return issueCategoryID;
+    }
+
+    /**
+     * Contains the {@link IssueCategory#getCategoryID()} (the severity) that the results must have.
+     */
+    public ResultsFilter setIssueCategoryID(String issueCategoryID)
+    {
+        this.issueCategoryID = issueCategoryID;
+        return this;
+    }
+
+    /**
+     * Contains the ID of the rule that must have produced the results.
+     */
+    public String getRuleID()
+    {
+        return ruleID;
+    }
+
+    /**
+     * Contains the ID of the rule that must have produced the results.
+     */
+    public ResultsFilter setRuleID(String ruleID)
+    {
+        this.ruleID = ruleID;
+        return this;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ResultsFilter [file=" + file + ", issueCategoryID=" + issueCategoryID + ", ruleID=" + ruleID + "]";
+    }
+}
@@ -0,0 +1,48 @@
+package org.jboss.windup.tooling.data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Contains a single page of the {@link Hint}s or {@link Classification}s of a Windup execution, and the cursor to pass in order to get the next
+ * page.
+ */
+public class ResultsPage<T extends Serializable> implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final boolean hasMore;
+
+    public ResultsPage(List<T> items, String nextCursor, boolean hasMore)
+    {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Contains the items of this page.
+     */
+    public List<T> getItems()
+    {
+        return items;
+    }
+
+    /**
+     * Contains the cursor that returns the page after this one. This is the same as the requested cursor if this page is empty.
+     */
+    public String getNextCursor()
+    {
+        return nextCursor;
+    }
+
+    /**
+     * Indicates whether there are more items after this page.
+     */
+    public boolean hasMore()
+    {
+        return hasMore;
+    }
+}
@@ -29,6 +29,10 @@ import org.jboss.windup.rules.apps.java.config.ScanPackagesOption;
 import org.jboss.windup.rules.apps.java.config.SourceModeOption;
 import org.jboss.windup.rules.apps.java.model.WindupJavaConfigurationModel;
 import org.jboss.windup.rules.apps.java.service.WindupJavaConfigurationService;
+import org.jboss.windup.tooling.data.Classification;
+import org.jboss.windup.tooling.data.Hint;
+import org.jboss.windup.tooling.data.ResultsFilter;
+import org.jboss.windup.tooling.data.ResultsPage;
 import org.jboss.windup.util.PathUtil;
 import org.jboss.windup.util.exception.WindupException;
 
@@ -58,9 +62,18 @@ public class ExecutionBuilderImpl implements ExecutionBuilder
     private Set<String> excludePackagePrefixSet = new HashSet<>();
     private Set<String> userRulesPathSet = new HashSet<>();
     private Map<String, Object> options = new HashMap<>();
+    private boolean pageIssueResults;
     
     private String version;
 
+    /*
+     * The graph of the last execution, which is opened again when the first page of its results is requested, and stays open until the next
+     * execution. These are only accessed while holding the lock on this builder, as the results may be requested while another execution runs.
+     */
+    private Path resultsGraphPath;
+    private GraphContext resultsGraphContext;
+    private ExecutionResultsPager resultsPager;
+
     @Override
     public void clear() throws RemoteException
     {
@@ -73,12 +86,15 @@ public class ExecutionBuilderImpl implements ExecutionBuilder
         this.excludePackagePrefixSet.clear();
         this.userRulesPathSet.clear();
         this.options.clear();
+        this.pageIssueResults = false;
+        closeResultsGraph();
     }
 
     // TODO: Should we also do UnicastRemoteObject.unexportObject(this, true)?
     @Override
     public void terminate() throws RemoteException
     {
+        closeResultsGraph();
         furnace.stop();
         try
         {
@@ -158,6 +174,66 @@ public class ExecutionBuilderImpl implements ExecutionBuilder
         options.put(SkipReportsRenderingOption.NAME, true);
     }
 
+    @Override
+    public void pageIssueResults() throws RemoteException
+    {
+        this.pageIssueResults = true;
+    }
+
+    @Override
+    public synchronized ResultsPage<Hint> getHints(ResultsFilter filter, String cursor, int pageSize) throws RemoteException
+    {
+        return getResultsPager().getHints(filter, cursor, pageSize);
+    }
+
+    @Override
+    public synchronized ResultsPage<Classification> getClassifications(ResultsFilter filter, String cursor, int pageSize) throws RemoteException
+    {
+        return getResultsPager().getClassifications(filter, cursor, pageSize);
+    }
+
+    private ExecutionResultsPager getResultsPager()
+    {
+        if (resultsPager == null)
+        {
+            if (resultsGraphPath == null)
+                throw new WindupException("There are no results to read, as Windup has not been executed yet.");
+
+            resultsGraphContext = graphContextFactory.load(resultsGraphPath);
+            resultsPager = new ExecutionResultsPager(resultsGraphContext);
+        }
+        return resultsPager;
+    }
+
+    /**
+     * Closes the graph of the previous results (if it is open), and makes the results of the given graph available to the paged queries.
+     */
+    private synchronized void setResultsGraphPath(Path resultsGraphPath)
+    {
+        closeResultsGraph();
+        this.resultsGraphPath = resultsGraphPath;
+    }
+
+    private synchronized void closeResultsGraph()
+    {
+        resultsPager = null;
+        if (resultsGraphContext == null)
+            return;
+
+        try
+        {
+            resultsGraphContext.close();
+        }
+        catch (IOException e)
+        {
+            throw new WindupException("Failed to close the results graph due to: " + e.getMessage(), e);
+        }
+        finally
+        {
+            resultsGraphContext = null;
+        }
+    }
+
     @Override
     public void addUserRulesPath(String rulesPath) throws RemoteException
     {
@@ -218,6 +294,7 @@ public class ExecutionBuilderImpl implements ExecutionBuilder
         windupConfiguration.setProgressMonitor(progressMonitorAdapter);
 
         Path graphPath = Paths.get(output).resolve(GraphContextFactory.DEFAULT_GRAPH_SUBDIRECTORY);
+        setResultsGraphPath(null);
 
         Logger globalLogger = Logger.getLogger("");
         WindupProgressLoggingHandler loggingHandler = null;
@@ -250,7 +327,8 @@ public class ExecutionBuilderImpl implements ExecutionBuilder
             windupConfiguration.setGraphContext(graphContext);
             processor.execute(windupConfiguration);
 
-            return new ExecutionResultsImpl(graphContext, toolingXMLService);
+            setResultsGraphPath(graphPath);
+            return new ExecutionResultsImpl(graphContext, toolingXMLService, !pageIssueResults);
         }
         catch (IOException e)
         {
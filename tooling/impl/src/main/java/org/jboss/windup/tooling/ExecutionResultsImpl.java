@@ -14,11 +14,8 @@ import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
 
 import org.jboss.windup.graph.GraphContext;
-import org.jboss.windup.graph.model.LinkModel;
-import org.jboss.windup.graph.model.resource.FileModel;
 import org.jboss.windup.reporting.model.ClassificationModel;
 import org.jboss.windup.reporting.model.InlineHintModel;
-import org.jboss.windup.reporting.model.QuickfixModel;
 import org.jboss.windup.reporting.model.source.SourceReportModel;
 import org.jboss.windup.reporting.service.ClassificationService;
 import org.jboss.windup.reporting.service.InlineHintService;
@@ -28,11 +25,6 @@ import org.jboss.windup.tooling.data.Classification;
 import org.jboss.windup.tooling.data.ClassificationImpl;
 import org.jboss.windup.tooling.data.Hint;
 import org.jboss.windup.tooling.data.HintImpl;
-import org.jboss.windup.tooling.data.IssueCategoryImpl;
-import org.jboss.windup.tooling.data.Link;
-import org.jboss.windup.tooling.data.LinkImpl;
-import org.jboss.windup.tooling.data.Quickfix;
-import org.jboss.windup.tooling.data.QuickfixImpl;
 import org.jboss.windup.tooling.data.ReportLink;
 import org.jboss.windup.tooling.data.ReportLinkImpl;
 import org.jboss.windup.util.exception.WindupException;
@@ -66,10 +58,28 @@ public class ExecutionResultsImpl implements ExecutionResults
     }
 
     public ExecutionResultsImpl(GraphContext graphContext, ToolingXMLService toolingXMLService)
+    {
+        this(graphContext, toolingXMLService, true);
+    }
+
+    /**
+     * Loads the results from the given {@link GraphContext}. The {@link Hint}s and {@link Classification}s are left empty if includeIssues is
+     * false, for clients that read them page by page instead.
+     */
+    public ExecutionResultsImpl(GraphContext graphContext, ToolingXMLService toolingXMLService, boolean includeIssues)
     {
         this.toolingXMLService = toolingXMLService;
-        this.classifications = getClassifications(graphContext);
-        this.hints = getHints(graphContext);
+        if (includeIssues)
+        {
+            IssueResultsConverter converter = new IssueResultsConverter();
+            this.classifications = getClassifications(graphContext, converter);
+            this.hints = getHints(graphContext, converter);
+        }
+        else
+        {
+            this.classifications = Collections.emptyList();
+            this.hints = Collections.emptyList();
+        }
         this.reportLinks = getReportLinks(graphContext);
     }
 
@@ -89,86 +99,28 @@ public class ExecutionResultsImpl implements ExecutionResults
         return reportLinks;
     }
 
-    private static List<Hint> getHints(GraphContext graphContext)
+    private static List<Hint> getHints(GraphContext graphContext, IssueResultsConverter converter)
     {
         final List<Hint> hints = new ArrayList<>();
         InlineHintService hintService = new InlineHintService(graphContext);
         for (InlineHintModel hintModel : hintService.findAll())
         {
-            HintImpl hint = new HintImpl(hintModel.asVertex().getId());
-            hint.setFile(hintModel.getFile().asFile());
-            hint.setTitle(hintModel.getTitle());
-            hint.setHint(hintModel.getHint());
-            hint.setIssueCategory(new IssueCategoryImpl(hintModel.getIssueCategory()));
-            hint.setEffort(hintModel.getEffort());
-            hint.setColumn(hintModel.getColumnNumber());
-            hint.setLineNumber(hintModel.getLineNumber());
-            hint.setLength(hintModel.getLength());
-            hint.setSourceSnippit(hintModel.getSourceSnippit());
-            hint.setRuleID(hintModel.getRuleID());
-            hint.setQuickfixes(asQuickfixes(hintModel.getQuickfixes()));
-
-            hint.setLinks(asLinks(hintModel.getLinks()));
-            hints.add(hint);
+            hints.add(converter.asHint(hintModel));
         }
         return hints;
     }
 
-    private static List<Classification> getClassifications(GraphContext graphContext)
+    private static List<Classification> getClassifications(GraphContext graphContext, IssueResultsConverter converter)
     {
         final List<Classification> classifications = new ArrayList<>();
         ClassificationService classificationService = new ClassificationService(graphContext);
         for (ClassificationModel classificationModel : classificationService.findAll())
         {
-            for (FileModel fileModel : classificationModel.getFileModels())
-            {
-                ClassificationImpl classification = new ClassificationImpl(classificationModel.asVertex().getId());
-                classification.setClassification(classificationModel.getClassification());
-                classification.setDescription(classificationModel.getDescription());
-                classification.setEffort(classificationModel.getEffort());
-                classification.setRuleID(classificationModel.getRuleID());
-                classification.setIssueCategory(new IssueCategoryImpl(classificationModel.getIssueCategory()));
-                classification.setFile(fileModel.asFile());
-
-                classification.setLinks(asLinks(classificationModel.getLinks()));
-                classifications.add(classification);
-
-                classification.setQuickfixes(asQuickfixes(classificationModel.getQuickfixes()));
-            }
+            classifications.addAll(converter.asClassifications(classificationModel));
         }
         return classifications;
     }
 
-    private static List<Link> asLinks(Iterable<LinkModel> linkModels)
-    {
-        List<Link> links = new ArrayList<>();
-        for (LinkModel linkModel : linkModels)
-        {
-            LinkImpl link = new LinkImpl();
-            link.setDescription(linkModel.getDescription());
-            link.setUrl(linkModel.getLink());
-            links.add(link);
-        }
-        return links;
-    }
-
-    private static List<Quickfix> asQuickfixes(Iterable<QuickfixModel> quickfixModels)
-    {
-        List<Quickfix> fixes = new ArrayList<>();
-        for (QuickfixModel quickfixModel : quickfixModels)
-        {
-            QuickfixImpl quickfix = new QuickfixImpl();
-            quickfix.setType(org.jboss.windup.tooling.data.QuickfixType.valueOf(quickfixModel.getQuickfixType().name()));
-            quickfix.setName(quickfixModel.getName());
-            quickfix.setNewline(quickfixModel.getNewline());
-            quickfix.setReplacement(quickfixModel.getReplacement());
-            quickfix.setSearch(quickfixModel.getSearch());
-
-            fixes.add(quickfix);
-        }
-        return fixes;
-    }
-
     @Override
     @XmlAttribute(name = "stopMessage")
     public String getWindupStopOnRequestMessage()
@@ -0,0 +1,177 @@
+package org.jboss.windup.tooling;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.jboss.windup.graph.GraphContext;
+import org.jboss.windup.graph.model.WindupVertexFrame;
+import org.jboss.windup.graph.model.resource.FileModel;
+import org.jboss.windup.graph.service.FileService;
+import org.jboss.windup.reporting.category.IssueCategoryModel;
+import org.jboss.windup.reporting.model.ClassificationModel;
+import org.jboss.windup.reporting.model.InlineHintModel;
+import org.jboss.windup.reporting.service.ClassificationService;
+import org.jboss.windup.reporting.service.InlineHintService;
+import org.jboss.windup.tooling.data.Classification;
+import org.jboss.windup.tooling.data.Hint;
+import org.jboss.windup.tooling.data.ResultsFilter;
+import org.jboss.windup.tooling.data.ResultsPage;
+
+/**
+ * Reads the {@link Hint}s and {@link Classification}s of a finished execution from its graph, one page at a time.
+ *
+ * The results are ordered by the id of their vertex, and the cursor of a page is the id of its last vertex. A page only keeps the ids of the
+ * matching vertices while it is being selected, and only the vertices on the page are converted, so the cost of a page does not depend on how many
+ * results the graph contains in total.
+ */
+class ExecutionResultsPager
+{
+    private final GraphContext graphContext;
+    private final IssueResultsConverter converter = new IssueResultsConverter();
+
+    ExecutionResultsPager(GraphContext graphContext)
+    {
+        this.graphContext = graphContext;
+    }
+
+    ResultsPage<Hint> getHints(ResultsFilter filter, String cursor, int pageSize)
+    {
+        final ResultsFilter hintFilter = filter == null ? new ResultsFilter() : filter;
+        InlineHintService hintService = new InlineHintService(graphContext);
+
+        Iterable<InlineHintModel> candidates;
+        if (hintFilter.getFile() != null)
+        {
+            FileModel file = new FileService(graphContext).findByPath(hintFilter.getFile());
+            if (file == null)
+                return new ResultsPage<>(Collections.<Hint> emptyList(), cursor, false);
+            candidates = hintService.getHintsForFile(file);
+        }
+        else if (hintFilter.getRuleID() != null)
+            candidates = hintService.findAllByProperty(InlineHintModel.RULE_ID, hintFilter.getRuleID());
+        else
+            candidates = hintService.findAll();
+
+        NavigableSet<Long> ids = selectPage(candidates, hint -> matches(hintFilter, hint.getRuleID(), hint::getIssueCategory), parseCursor(cursor), pageSize);
+
+        List<Hint> hints = new ArrayList<>();
+        for (Long id : getPageIds(ids, pageSize))
+            hints.add(converter.asHint(hintService.getById(id)));
+        return createPage(hints, ids, cursor, pageSize);
+    }
+
+    ResultsPage<Classification> getClassifications(ResultsFilter filter, String cursor, int pageSize)
+    {
+        final ResultsFilter classificationFilter = filter == null ? new ResultsFilter() : filter;
+        ClassificationService classificationService = new ClassificationService(graphContext);
+
+        File file = null;
+        Iterable<ClassificationModel> candidates;
+        if (classificationFilter.getFile() != null)
+        {
+            FileModel fileModel = new FileService(graphContext).findByPath(classificationFilter.getFile());
+            if (fileModel == null)
+                return new ResultsPage<>(Collections.<Classification> emptyList(), cursor, false);
+            file = fileModel.asFile();
+            candidates = classificationService.getClassifications(fileModel);
+        }
+        else if (classificationFilter.getRuleID() != null)
+            candidates = classificationService.findAllByProperty(ClassificationModel.RULE_ID, classificationFilter.getRuleID());
+        else
+            candidates = classificationService.findAll();
+
+        NavigableSet<Long> ids = selectPage(candidates,
+                    classification -> matches(classificationFilter, classification.getRuleID(), classification::getIssueCategory),
+                    parseCursor(cursor), pageSize);
+
+        List<Classification> classifications = new ArrayList<>();
+        for (Long id : getPageIds(ids, pageSize))
+        {
+            for (Classification classification : converter.asClassifications(classificationService.getById(id)))
+            {
+                // a classification may be attached to other files than the requested one
+                if (file == null || file.equals(classification.getFile()))
+                    classifications.add(classification);
+            }
+        }
+        return createPage(classifications, ids, cursor, pageSize);
+    }
+
+    /**
+     * Returns the ids of the first pageSize + 1 matching vertices after the cursor, so that the caller can tell whether there is another page.
+     */
+    private static <T extends WindupVertexFrame> NavigableSet<Long> selectPage(Iterable<T> candidates, Predicate<T> filter, long after,
+                int pageSize)
+    {
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("The page size must be positive, but was: " + pageSize);
+
+        NavigableSet<Long> ids = new TreeSet<>();
+        for (T candidate : candidates)
+        {
+            long id = (Long) candidate.asVertex().getId();
+            if (id <= after || ids.contains(id) || (ids.size() > pageSize && id > ids.last()))
+                continue;
+
+            if (!filter.test(candidate))
+                continue;
+
+            ids.add(id);
+            if (ids.size() > pageSize + 1)
+                ids.pollLast();
+        }
+        return ids;
+    }
+
+    /**
+     * The issue category is only loaded if the filter has one, as this needs to follow an edge of the issue.
+     */
+    private static boolean matches(ResultsFilter filter, String ruleID, Supplier<IssueCategoryModel> issueCategorySupplier)
+    {
+        if (filter.getRuleID() != null && !filter.getRuleID().equals(ruleID))
+            return false;
+
+        if (filter.getIssueCategoryID() != null)
+        {
+            IssueCategoryModel issueCategory = issueCategorySupplier.get();
+            if (issueCategory == null || !filter.getIssueCategoryID().equals(issueCategory.getCategoryID()))
+                return false;
+        }
+        return true;
+    }
+
+    private static NavigableSet<Long> getPageIds(NavigableSet<Long> ids, int pageSize)
+    {
+        return ids.size() > pageSize ? ids.headSet(ids.last(), false) : ids;
+    }
+
+    private static <T extends Serializable> ResultsPage<T> createPage(List<T> items, NavigableSet<Long> ids, String cursor, int pageSize)
+    {
+        if (ids.isEmpty())
+            return new ResultsPage<>(items, cursor, false);
+
+        return new ResultsPage<>(items, String.valueOf(getPageIds(ids, pageSize).last()), ids.size() > pageSize);
+    }
+
+    private static long parseCursor(String cursor)
+    {
+        if (cursor == null || cursor.isEmpty())
+            return Long.MIN_VALUE;
+
+        try
+        {
+            return Long.parseLong(cursor);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid results cursor: " + cursor, e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.jboss.windup.tooling;
 
 import org.jboss.windup.graph.GraphContext;
 import org.jboss.windup.graph.GraphContextFactory;
+import org.jboss.windup.util.exception.WindupException;
 
 import javax.inject.Inject;
 import java.io.IOException;
@@ -23,7 +24,17 @@ public class GraphLoaderImpl implements GraphLoader
     public ExecutionResults loadResults(Path reportDirectory) throws IOException
     {
         Path graphDirectory = reportDirectory.resolve(GraphContextFactory.DEFAULT_GRAPH_SUBDIRECTORY);
-        try (GraphContext graphContext = graphContextFactory.load(graphDirectory))
+        GraphContext loadedContext;
+        try
+        {
+            loadedContext = graphContextFactory.load(graphDirectory);
+        }
+        catch (WindupException e)
+        {
+            throw new IOException("Failed to load the results from: " + reportDirectory + " due to: " + e.getMessage(), e);
+        }
+
+        try (GraphContext graphContext = loadedContext)
         {
             return new ExecutionResultsImpl(graphContext, toolingXMLService);
         }
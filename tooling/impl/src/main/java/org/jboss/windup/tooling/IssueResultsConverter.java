@@ -0,0 +1,118 @@
+package org.jboss.windup.tooling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.windup.graph.model.LinkModel;
+import org.jboss.windup.graph.model.resource.FileModel;
+import org.jboss.windup.reporting.category.IssueCategoryModel;
+import org.jboss.windup.reporting.model.ClassificationModel;
+import org.jboss.windup.reporting.model.InlineHintModel;
+import org.jboss.windup.reporting.model.QuickfixModel;
+import org.jboss.windup.tooling.data.Classification;
+import org.jboss.windup.tooling.data.ClassificationImpl;
+import org.jboss.windup.tooling.data.Hint;
+import org.jboss.windup.tooling.data.HintImpl;
+import org.jboss.windup.tooling.data.IssueCategory;
+import org.jboss.windup.tooling.data.IssueCategoryImpl;
+import org.jboss.windup.tooling.data.Link;
+import org.jboss.windup.tooling.data.LinkImpl;
+import org.jboss.windup.tooling.data.Quickfix;
+import org.jboss.windup.tooling.data.QuickfixImpl;
+
+/**
+ * Copies {@link InlineHintModel}s and {@link ClassificationModel}s into the {@link Hint} and {@link Classification} objects that are returned to
+ * the tooling. The {@link IssueCategory} of each {@link IssueCategoryModel} is only created once, and shared by all of the issues that use it.
+ */
+class IssueResultsConverter
+{
+    private final Map<Object, IssueCategory> issueCategories = new HashMap<>();
+
+    Hint asHint(InlineHintModel hintModel)
+    {
+        HintImpl hint = new HintImpl(hintModel.asVertex().getId());
+        hint.setFile(hintModel.getFile().asFile());
+        hint.setTitle(hintModel.getTitle());
+        hint.setHint(hintModel.getHint());
+        hint.setIssueCategory(asIssueCategory(hintModel.getIssueCategory()));
+        hint.setEffort(hintModel.getEffort());
+        hint.setColumn(hintModel.getColumnNumber());
+        hint.setLineNumber(hintModel.getLineNumber());
+        hint.setLength(hintModel.getLength());
+        hint.setSourceSnippit(hintModel.getSourceSnippit());
+        hint.setRuleID(hintModel.getRuleID());
+        hint.setQuickfixes(asQuickfixes(hintModel.getQuickfixes()));
+
+        hint.setLinks(asLinks(hintModel.getLinks()));
+        return hint;
+    }
+
+    /**
+     * Returns one {@link Classification} for each of the files that the given {@link ClassificationModel} is attached to.
+     */
+    List<Classification> asClassifications(ClassificationModel classificationModel)
+    {
+        List<Classification> classifications = new ArrayList<>();
+        IssueCategory issueCategory = asIssueCategory(classificationModel.getIssueCategory());
+        for (FileModel fileModel : classificationModel.getFileModels())
+        {
+            ClassificationImpl classification = new ClassificationImpl(classificationModel.asVertex().getId());
+            classification.setClassification(classificationModel.getClassification());
+            classification.setDescription(classificationModel.getDescription());
+            classification.setEffort(classificationModel.getEffort());
+            classification.setRuleID(classificationModel.getRuleID());
+            classification.setIssueCategory(issueCategory);
+            classification.setFile(fileModel.asFile());
+
+            classification.setLinks(asLinks(classificationModel.getLinks()));
+            classifications.add(classification);
+
+            classification.setQuickfixes(asQuickfixes(classificationModel.getQuickfixes()));
+        }
+        return classifications;
+    }
+
+    private IssueCategory asIssueCategory(IssueCategoryModel issueCategoryModel)
+    {
+        Object id = issueCategoryModel.asVertex().getId();
+        IssueCategory issueCategory = issueCategories.get(id);
+        if (issueCategory == null)
+        {
+            issueCategory = new IssueCategoryImpl(issueCategoryModel);
+            issueCategories.put(id, issueCategory);
+        }
+        return issueCategory;
+    }
+
+    private static List<Link> asLinks(Iterable<LinkModel> linkModels)
+    {
+        List<Link> links = new ArrayList<>();
+        for (LinkModel linkModel : linkModels)
+        {
+            LinkImpl link = new LinkImpl();
+            link.setDescription(linkModel.getDescription());
+            link.setUrl(linkModel.getLink());
+            links.add(link);
+        }
+        return links;
+    }
+
+    private static List<Quickfix> asQuickfixes(Iterable<QuickfixModel> quickfixModels)
+    {
+        List<Quickfix> fixes = new ArrayList<>();
+        for (QuickfixModel quickfixModel : quickfixModels)
+        {
+            QuickfixImpl quickfix = new QuickfixImpl();
+            quickfix.setType(org.jboss.windup.tooling.data.QuickfixType.valueOf(quickfixModel.getQuickfixType().name()));
+            quickfix.setName(quickfixModel.getName());
+            quickfix.setNewline(quickfixModel.getNewline());
+            quickfix.setReplacement(quickfixModel.getReplacement());
+            quickfix.setSearch(quickfixModel.getSearch());
+
+            fixes.add(quickfix);
+        }
+        return fixes;
+    }
+}
@@ -45,6 +45,8 @@ import org.jboss.windup.rules.apps.java.config.SourceModeOption;
 import org.jboss.windup.rules.apps.java.model.WindupJavaConfigurationModel;
 import org.jboss.windup.rules.apps.java.service.WindupJavaConfigurationService;
 import org.jboss.windup.tooling.data.QuickfixType;
+import org.jboss.windup.tooling.data.ResultsFilter;
+import org.jboss.windup.tooling.data.ResultsPage;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -194,6 +196,52 @@ public class ExecutionBuilderTest
         Assert.assertEquals(Iterables.size(resultsOriginal.getReportLinks()), Iterables.size(resultsLater.getReportLinks()));
     }
 
+    @Test
+    public void testPagedResults() throws IOException
+    {
+        Path input = Paths.get("../../test-files/src_example");
+        Path output = getDefaultPath();
+
+        ExecutionResults allResults = executeWindup(input, output, new TestProgressMonitor());
+
+        try
+        {
+            builder.pageIssueResults();
+            ExecutionResults pagedResults = executeWindup(input, getDefaultPath(), new TestProgressMonitor());
+            Assert.assertTrue(pagedResults.getHints().isEmpty());
+            Assert.assertTrue(pagedResults.getClassifications().isEmpty());
+
+            List<org.jboss.windup.tooling.data.Hint> hints = new ArrayList<>();
+            String cursor = null;
+            ResultsPage<org.jboss.windup.tooling.data.Hint> page;
+            do
+            {
+                page = builder.getHints(null, cursor, 2);
+                Assert.assertTrue(page.getItems().size() <= 2);
+                hints.addAll(page.getItems());
+                cursor = page.getNextCursor();
+            }
+            while (page.hasMore());
+            Assert.assertEquals(allResults.getHints().size(), hints.size());
+
+            org.jboss.windup.tooling.data.Hint firstHint = hints.get(0);
+            ResultsFilter fileFilter = new ResultsFilter().setFile(firstHint.getFile().getPath());
+            for (org.jboss.windup.tooling.data.Hint hint : builder.getHints(fileFilter, null, 1000).getItems())
+                Assert.assertEquals(firstHint.getFile(), hint.getFile());
+
+            ResultsFilter ruleFilter = new ResultsFilter().setRuleID(firstHint.getRuleID());
+            Assert.assertFalse(builder.getHints(ruleFilter, null, 1000).getItems().isEmpty());
+
+            ResultsPage<org.jboss.windup.tooling.data.Classification> classifications = builder.getClassifications(null, null, 1000);
+            Assert.assertFalse(classifications.hasMore());
+            Assert.assertEquals(allResults.getClassifications().size(), classifications.getItems().size());
+        }
+        finally
+        {
+            builder.clear();
+        }
+    }
+
     private ExecutionResults executeWindup(Path input, Path output, WindupToolingProgressMonitor progressMonitor) throws RemoteException
     {
         builder.setWindupHome(Paths.get(".").toString());
@@ -4,6 +4,7 @@ import org.jboss.windup.util.threading.WindupChildThread;
 
 import java.io.FileWriter;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -26,6 +27,12 @@ import org.apache.commons.lang3.StringEscapeUtils;
  *
  * </p>
  *
+ * <p>
+ * Each thread records into its own instance, so timing an operation does not contend with other threads. The instance is only locked by another
+ * thread while it is being merged into the instance of the parent thread. Along with the totals, a histogram of the individual execution times
+ * is kept for each operation, so that the percentiles can be reported as well.
+ * </p>
+ *
  * @author <a href="mailto:jesse.sightler@gmail.com">Jesse Sightler</a>
  *
  */
@@ -33,9 +40,17 @@ public class ExecutionStatistics
 {
     private static final Logger LOG = Logging.get(ExecutionStatistics.class);
 
-    private static final Map<Thread,ExecutionStatistics> stats = new ConcurrentHashMap<>();
+    private static final Map<Thread, ExecutionStatistics> stats = new ConcurrentHashMap<>();
+    private static final ThreadLocal<ExecutionStatistics> threadStats = new ThreadLocal<>();
+
     private final Map<String, TimingData> executionInfo = new HashMap<>();
 
+    /**
+     * Set once the data of this instance has been merged into the instance of the parent thread. Any further data is recorded in a new instance.
+     * Both the flag and the data are only changed while holding the lock of this instance, so that a child thread can be merged while it is still
+     * running.
+     */
+    private volatile boolean merged;
 
     private ExecutionStatistics()
     {
@@ -45,14 +60,16 @@ public class ExecutionStatistics
     /**
      * Gets the instance associated with the current thread.
      */
-    public static synchronized ExecutionStatistics get()
+    public static ExecutionStatistics get()
     {
-        Thread currentThread = Thread.currentThread();
-        if (stats.get(currentThread) == null)
+        ExecutionStatistics instance = threadStats.get();
+        if (instance == null || instance.merged)
         {
-            stats.put(currentThread, new ExecutionStatistics());
+            instance = new ExecutionStatistics();
+            threadStats.set(instance);
+            stats.put(Thread.currentThread(), instance);
         }
-        return stats.get(currentThread);
+        return instance;
     }
 
     public Map<String, TimingData> getExecutionInfo() {
@@ -62,18 +79,28 @@ public class ExecutionStatistics
     /**
      * Merge this ExecutionStatistics with all the statistics created within the child threads. All the child threads had to be created using Windup-specific
      * ThreadFactory in order to contain a reference to the parent thread.
+     * <p>
+     * The statistics of the child threads are only merged once. If a child thread records more data afterwards, then that will be merged by the next
+     * call to this method.
      */
     public void merge() {
         Thread currentThread = Thread.currentThread();
-        if(!stats.get(currentThread).equals(this) || currentThread instanceof WindupChildThread) {
+        if (threadStats.get() != this || currentThread instanceof WindupChildThread) {
             throw new IllegalArgumentException("Trying to merge executionstatistics from a "
                         + "different thread that is not registered as main thread of application run");
         }
 
-        for (Thread thread : stats.keySet())
+        for (Map.Entry<Thread, ExecutionStatistics> entry : stats.entrySet())
         {
+            Thread thread = entry.getKey();
             if(thread instanceof WindupChildThread && ((WindupChildThread) thread).getParentThread().equals(currentThread)) {
-                merge(stats.get(thread));
+                ExecutionStatistics childStatistics = entry.getValue();
+                synchronized (childStatistics)
+                {
+                    childStatistics.merged = true;
+                    merge(childStatistics);
+                }
+                stats.remove(thread, childStatistics);
             }
         }
     }
@@ -83,16 +110,14 @@ public class ExecutionStatistics
      * @param otherStatistics
      */
     private void merge(ExecutionStatistics otherStatistics) {
-        for (String s : otherStatistics.executionInfo.keySet())
-        {
-            TimingData thisStats = this.executionInfo.get(s);
-            TimingData otherStats = otherStatistics.executionInfo.get(s);
-            if(thisStats == null) {
-                this.executionInfo.put(s,otherStats);
-            } else {
-                thisStats.merge(otherStats);
+        for (Map.Entry<String, TimingData> entry : otherStatistics.executionInfo.entrySet())
+        {
+            TimingData thisStats = this.executionInfo.get(entry.getKey());
+            if (thisStats == null) {
+                thisStats = new TimingData(entry.getKey());
+                this.executionInfo.put(entry.getKey(), thisStats);
             }
-
+            thisStats.merge(entry.getValue());
         }
     }
 
@@ -102,6 +127,7 @@ public class ExecutionStatistics
     public void reset()
     {
         stats.remove(Thread.currentThread());
+        threadStats.remove();
         executionInfo.clear();
     }
 
@@ -115,14 +141,15 @@ public class ExecutionStatistics
 
         try (FileWriter fw = new FileWriter(outputPath.toFile()))
         {
-            fw.write("Number Of Executions, Total Milliseconds,  Milliseconds per execution, Type\n");
+            fw.write("Number Of Executions, Total Milliseconds,  Milliseconds per execution, P50 Milliseconds, P99 Milliseconds, Max Milliseconds, Type\n");
             for (Map.Entry<String, TimingData> timing : executionInfo.entrySet())
             {
                 TimingData data = timing.getValue();
                 long totalMillis = (data.totalNanos / 1000000);
                 double millisPerExecution = (double) totalMillis / (double) data.numberOfExecutions;
-                fw.write(String.format("%6d, %6d, %8.2f, %s\n",
+                fw.write(String.format("%6d, %6d, %8.2f, %8.2f, %8.2f, %8.2f, %s\n",
                     data.numberOfExecutions, totalMillis, millisPerExecution,
+                    nanosToMillis(data.getPercentile(0.5)), nanosToMillis(data.getPercentile(0.99)), nanosToMillis(data.maxNanos),
                     StringEscapeUtils.escapeCsv(timing.getKey())
                 ));
             }
@@ -133,6 +160,11 @@ public class ExecutionStatistics
         }
     }
 
+    private static double nanosToMillis(long nanos)
+    {
+        return nanos / 1000000d;
+    }
+
     public static <T> T performBenchmarked(String key, Task<T> operation)
     {
         ExecutionStatistics instance = ExecutionStatistics.get();
@@ -150,19 +182,13 @@ public class ExecutionStatistics
     /**
      * Start timing an operation with the given identifier.
      */
-    public void begin(String key)
+    public synchronized void begin(String key)
     {
         if (key == null)
         {
             return;
         }
-        TimingData data = executionInfo.get(key);
-        if (data == null)
-        {
-            data = new TimingData(key);
-            executionInfo.put(key, data);
-        }
-        data.begin();
+        getTimingData(key).begin();
     }
 
     /**
@@ -175,21 +201,70 @@ public class ExecutionStatistics
         {
             return;
         }
+
+        long nanos;
+        synchronized (this)
+        {
+            TimingData data = executionInfo.get(key);
+            if (data == null)
+            {
+                LOG.info("Called end with key: " + key + " without ever calling begin");
+                return;
+            }
+
+            nanos = data.stop();
+            if (nanos < 0)
+                return;
+            if (!merged)
+            {
+                data.record(nanos);
+                return;
+            }
+        }
+        // the operation began before this instance was merged, so it is recorded in the current instance of this thread
+        get().record(key, nanos);
+    }
+
+    private synchronized void record(String key, long nanos)
+    {
+        if (merged)
+            get().record(key, nanos);
+        else
+            getTimingData(key).record(nanos);
+    }
+
+    private TimingData getTimingData(String key)
+    {
         TimingData data = executionInfo.get(key);
         if (data == null)
         {
-            LOG.info("Called end with key: " + key + " without ever calling begin");
-            return;
+            data = new TimingData(key);
+            executionInfo.put(key, data);
         }
-        data.end();
+        return data;
     }
 
     public class TimingData
     {
+        /**
+         * Values below this are counted exactly, larger values are counted in {@link #SUB_BUCKETS} buckets per power of two (so the reported
+         * percentiles are within 25% of the actual values).
+         */
+        private static final int LINEAR_BUCKETS = 16;
+        private static final int SUB_BUCKETS = 4;
+        private static final int SUB_BUCKET_BITS = 2;
+        private static final int LINEAR_BITS = 4;
+
         private final String key;
         private long startTime;
         private long numberOfExecutions;
         private long totalNanos;
+        private long maxNanos;
+
+        /**
+         * The number of executions per bucket (see {@link #getBucket(long)}). This only grows as large as the longest execution requires.
+         */
+        private long[] histogram = new long[0];
 
         public TimingData(String key)
         {
@@ -202,24 +277,100 @@ public class ExecutionStatistics
         }
 
         public void end()
+        {
+            long nanos = stop();
+            if (nanos >= 0)
+                record(nanos);
+        }
+
+        /**
+         * Returns the time since {@link #begin()}, or -1 if it was not called.
+         */
+        private long stop()
         {
             if (this.startTime == 0)
             {
                 LOG.info("Called end with key: " + this.key + " without ever calling begin");
-                return;
+                return -1;
             }
-            this.totalNanos += (System.nanoTime() - startTime);
+            long nanos = System.nanoTime() - startTime;
             this.startTime = 0;
+            return nanos;
+        }
+
+        private void record(long nanos)
+        {
+            this.totalNanos += nanos;
             this.numberOfExecutions++;
+            this.maxNanos = Math.max(this.maxNanos, nanos);
+
+            int bucket = getBucket(nanos);
+            if (bucket >= histogram.length)
+                histogram = Arrays.copyOf(histogram, bucket + 1);
+            histogram[bucket]++;
         }
 
         public void merge(TimingData other) {
             this.numberOfExecutions += other.numberOfExecutions;
-            this.totalNanos = other.totalNanos;
+            this.totalNanos += other.totalNanos;
+            this.maxNanos = Math.max(this.maxNanos, other.maxNanos);
+
+            long[] otherHistogram = other.histogram;
+            if (otherHistogram.length > histogram.length)
+                histogram = Arrays.copyOf(histogram, otherHistogram.length);
+            for (int i = 0; i < otherHistogram.length; i++)
+                histogram[i] += otherHistogram[i];
         }
 
         public long getTotal() {
             return totalNanos;
         }
+
+        public long getNumberOfExecutions() {
+            return numberOfExecutions;
+        }
+
+        public long getMax() {
+            return maxNanos;
+        }
+
+        /**
+         * Gets the (approximate) execution time in nanoseconds that the given fraction (between 0 and 1) of executions took at most.
+         */
+        public long getPercentile(double fraction) {
+            if (numberOfExecutions == 0)
+                return 0;
+
+            long rank = Math.max(1, (long) Math.ceil(fraction * numberOfExecutions));
+            long count = 0;
+            for (int bucket = 0; bucket < histogram.length; bucket++)
+            {
+                count += histogram[bucket];
+                if (count >= rank)
+                    return Math.min(getBucketUpperBound(bucket), maxNanos);
+            }
+            return maxNanos;
+        }
+
+        private int getBucket(long nanos)
+        {
+            if (nanos < LINEAR_BUCKETS)
+                return (int) Math.max(0, nanos);
+
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+        }
+
+        private long getBucketUpperBound(int bucket)
+        {
+            if (bucket < LINEAR_BUCKETS)
+                return bucket;
+
+            int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+            int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+            long lowerBound = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+            return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
     }
 }
@@ -2,10 +2,15 @@ package org.jboss.windup.util;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -19,7 +24,6 @@ import java.util.zip.ZipInputStream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.jboss.forge.furnace.util.Streams;
 import org.jboss.windup.util.exception.WindupException;
 
 
@@ -31,6 +35,8 @@ public class ZipUtil
 {
     private static final Logger log = Logger.getLogger(ZipUtil.class.getName());
 
+    private static final int EXTRACT_BUFFER_SIZE = 256 * 1024;
+
     private static Set<String> supportedExtensions;
 
     /**
@@ -58,37 +64,72 @@ public class ZipUtil
      * Unzip the given {@link File} to the specified directory.
      */
     public static void unzipToFolder(File inputFile, File outputDir) throws IOException
+    {
+        extractToFolder(inputFile, outputDir);
+    }
+
+    /**
+     * Unzip the given {@link File} to the specified directory, and return the paths of the extracted files relative to the directory (with "/" as
+     * the separator). The paths are taken from the central directory of the archive, so the caller does not have to list the extracted files on
+     * disk. Entries that would be extracted outside of the output directory are skipped.
+     */
+    public static List<String> extractToFolder(File inputFile, File outputDir) throws IOException
     {
         if (inputFile == null)
             throw new IllegalArgumentException("Argument inputFile is null.");
         if (outputDir == null)
             throw new IllegalArgumentException("Argument outputDir is null.");
 
+        Path outputPath = outputDir.toPath().toAbsolutePath().normalize();
+        List<String> extracted = new ArrayList<>();
+        Set<Path> createdDirectories = new HashSet<>();
+        ByteBuffer buffer = ByteBuffer.allocate(EXTRACT_BUFFER_SIZE);
+
         try (ZipFile zipFile = new ZipFile(inputFile))
         {
             Enumeration<? extends ZipEntry> entryEnum = zipFile.entries();
             while (entryEnum.hasMoreElements())
             {
                 ZipEntry entry = entryEnum.nextElement();
-                String entryName = entry.getName();
-                File destFile = new File(outputDir, entryName);
-                if (!entry.isDirectory())
+                if (entry.isDirectory())
+                    continue;
+
+                Path destFile = outputPath.resolve(StringUtils.removeStart(entry.getName(), "/")).normalize();
+                if (!destFile.startsWith(outputPath) || destFile.equals(outputPath))
                 {
-                    File parentDir = destFile.getParentFile();
-                    if (!parentDir.isDirectory() && !parentDir.mkdirs())
+                    log.warning("Skipping entry: " + entry.getName() + " of " + inputFile + ", as it is outside of the archive root");
+                    continue;
+                }
+
+                Path parentDir = destFile.getParent();
+                if (createdDirectories.add(parentDir))
+                {
+                    try
+                    {
+                        Files.createDirectories(parentDir);
+                    }
+                    catch (IOException e)
                     {
-                        throw new WindupException("Unable to create directory: " + parentDir.getAbsolutePath());
+                        throw new WindupException("Unable to create directory: " + parentDir, e);
                     }
-                    try (InputStream zipInputStream = zipFile.getInputStream(entry))
+                }
+
+                try (ReadableByteChannel in = Channels.newChannel(zipFile.getInputStream(entry));
+                            FileChannel out = FileChannel.open(destFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                        StandardOpenOption.WRITE))
+                {
+                    while (in.read(buffer) != -1)
                     {
-                        try (FileOutputStream outputStream = new FileOutputStream(destFile))
-                        {
-                            Streams.write(zipInputStream, outputStream);
-                        }
+                        buffer.flip();
+                        while (buffer.hasRemaining())
+                            out.write(buffer);
+                        buffer.clear();
                     }
                 }
+                extracted.add(outputPath.relativize(destFile).toString().replace(File.separatorChar, '/'));
             }
         }
+        return extracted;
     }
 
     public static String getEndsWithZipRegularExpression()
@@ -0,0 +1,116 @@
+package org.jboss.windup.util.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.jboss.windup.util.exception.WindupException;
+
+/**
+ * Contains the MD5 and SHA-1 (and optionally SHA-256) hashes of a file. All of the hashes are computed while reading the contents only once.
+ */
+public class FileHashes
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String md5;
+    private final String sha1;
+    private final String sha256;
+
+    private FileHashes(String md5, String sha1, String sha256)
+    {
+        this.md5 = md5;
+        this.sha1 = sha1;
+        this.sha256 = sha256;
+    }
+
+    /**
+     * Computes the hashes of the given file.
+     */
+    public static FileHashes compute(Path file, boolean includeSHA256) throws IOException
+    {
+        try (InputStream is = Files.newInputStream(file))
+        {
+            return compute(is, includeSHA256);
+        }
+    }
+
+    /**
+     * Computes the hashes of the remaining contents of the given stream. The stream is not closed.
+     */
+    public static FileHashes compute(InputStream is, boolean includeSHA256) throws IOException
+    {
+        MessageDigest md5 = getDigest("MD5");
+        MessageDigest sha1 = getDigest("SHA-1");
+        MessageDigest sha256 = includeSHA256 ? getDigest("SHA-256") : null;
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = is.read(buffer)) != -1)
+        {
+            md5.update(buffer, 0, read);
+            sha1.update(buffer, 0, read);
+            if (sha256 != null)
+                sha256.update(buffer, 0, read);
+        }
+
+        return new FileHashes(toHex(md5.digest()), toHex(sha1.digest()), sha256 == null ? null : toHex(sha256.digest()));
+    }
+
+    /**
+     * Contains the MD5 hash as a lower case hex string.
+     */
+    public String getMD5Hash()
+    {
+        return md5;
+    }
+
+    /**
+     * Contains the SHA-1 hash as a lower case hex string.
+     */
+    public String getSHA1Hash()
+    {
+        return sha1;
+    }
+
+    /**
+     * Contains the SHA-256 hash as a lower case hex string, or null if it was not requested.
+     */
+    public String getSHA256Hash()
+    {
+        return sha256;
+    }
+
+    private static MessageDigest getDigest(String algorithm)
+    {
+        try
+        {
+            return MessageDigest.getInstance(algorithm);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new WindupException("Hash algorithm not available: " + algorithm, e);
+        }
+    }
+
+    private static String toHex(byte[] bytes)
+    {
+        char[] result = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++)
+        {
+            result[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            result[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(result);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FileHashes [md5=" + md5 + ", sha1=" + sha1 + (sha256 == null ? "" : ", sha256=" + sha256) + "]";
+    }
+}
@@ -0,0 +1,67 @@
+package org.jboss.windup.util.file;
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.jboss.windup.util.threading.WindupExecutors;
+
+/**
+ * Computes {@link FileHashes} in the background, so that the files can be hashed ahead of the point where the hashes are needed.
+ * {@link #close()} must be called once the service is no longer needed.
+ */
+public class FileHashingService implements AutoCloseable
+{
+    private final ExecutorService executor;
+    private final boolean includeSHA256;
+
+    public FileHashingService(int threadCount, boolean includeSHA256)
+    {
+        this.executor = WindupExecutors.newFixedThreadPool(threadCount);
+        this.includeSHA256 = includeSHA256;
+    }
+
+    /**
+     * Schedules the hashing of the given file.
+     */
+    public Future<FileHashes> submit(final Path file)
+    {
+        return executor.submit(new Callable<FileHashes>()
+        {
+            @Override
+            public FileHashes call() throws Exception
+            {
+                return FileHashes.compute(file, includeSHA256);
+            }
+        });
+    }
+
+    /**
+     * Waits for the result of {@link #submit(Path)}. Returns null if the file could not be hashed, in which case the caller may fall back to
+     * hashing the file itself in order to report the failure.
+     */
+    public static FileHashes getResult(Future<FileHashes> future)
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        catch (ExecutionException e)
+        {
+            return null;
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+}
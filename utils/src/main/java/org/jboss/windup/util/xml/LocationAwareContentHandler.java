@@ -138,7 +138,7 @@ public class LocationAwareContentHandler extends DefaultHandler2
 		}
 	}
 
-	public class Doctype {
+	public static class Doctype {
 		public String name;
 		public String publicId;
 		public String systemId;
@@ -0,0 +1,353 @@
+package org.jboss.windup.util.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.ProcessingInstruction;
+
+/**
+ * Converts {@link Document}s created by the {@link LocationAwareXmlReader} to and from a compact binary form.
+ * <p>
+ * Unlike the standard DOM serialization, this keeps the location and namespace information that the {@link LocationAwareContentHandler} stores in
+ * the user data of the nodes, so a deserialized {@link Document} can be used exactly like the originally parsed one. Element and attribute names and
+ * namespaces are only written once per document.
+ */
+public class LocationAwareDocumentSerializer
+{
+    private static final int VERSION = 1;
+    private static final int NULL = -1;
+
+    private static final DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
+
+    /**
+     * Serializes the given {@link Document}.
+     *
+     * @throws IllegalArgumentException if the document contains nodes that could not have been created by the {@link LocationAwareXmlReader}
+     */
+    public static byte[] serialize(Document document)
+    {
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            new Writer(new DataOutputStream(bytes)).writeDocument(document);
+            return bytes.toByteArray();
+        }
+        catch (IOException e)
+        {
+            // Not possible, as everything is written to memory
+            throw new IllegalStateException("Failed to serialize document due to: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recreates a {@link Document} from data returned by {@link #serialize(Document)}.
+     */
+    public static Document deserialize(byte[] data) throws IOException
+    {
+        Document document;
+        try
+        {
+            document = docBuilderFactory.newDocumentBuilder().newDocument();
+        }
+        catch (ParserConfigurationException e)
+        {
+            throw new RuntimeException("Can't create DOM builder.", e);
+        }
+
+        new Reader(new DataInputStream(new ByteArrayInputStream(data)), document).readDocument();
+        return document;
+    }
+
+    private static class Writer
+    {
+        private final DataOutputStream out;
+        private final Map<String, Integer> symbols = new HashMap<>();
+
+        public Writer(DataOutputStream out)
+        {
+            this.out = out;
+        }
+
+        @SuppressWarnings("unchecked")
+        public void writeDocument(Document document) throws IOException
+        {
+            out.writeInt(VERSION);
+
+            Set<String> namespaces = (Set<String>) document.getUserData(LocationAwareContentHandler.NAMESPACE_KEY_NAME);
+            if (namespaces == null)
+            {
+                out.writeInt(NULL);
+            }
+            else
+            {
+                out.writeInt(namespaces.size());
+                for (String namespace : namespaces)
+                    writeString(namespace);
+            }
+
+            LocationAwareContentHandler.Doctype doctype = (LocationAwareContentHandler.Doctype) document
+                        .getUserData(LocationAwareContentHandler.DOCTYPE_KEY_NAME);
+            out.writeBoolean(doctype != null);
+            if (doctype != null)
+            {
+                writeString(doctype.getName());
+                writeString(doctype.getPublicId());
+                writeString(doctype.getSystemId());
+                writeString(doctype.getBaseURI());
+            }
+
+            writeChildren(document);
+            out.flush();
+        }
+
+        private void writeChildren(Node parent) throws IOException
+        {
+            NodeList children = parent.getChildNodes();
+            out.writeInt(children.getLength());
+            for (int i = 0; i < children.getLength(); i++)
+                writeNode(children.item(i));
+        }
+
+        private void writeNode(Node node) throws IOException
+        {
+            out.writeByte(node.getNodeType());
+            switch (node.getNodeType())
+            {
+            case Node.ELEMENT_NODE:
+                writeName(node);
+                writeLocation(node);
+                NamedNodeMap attributes = node.getAttributes();
+                out.writeInt(attributes.getLength());
+                for (int i = 0; i < attributes.getLength(); i++)
+                {
+                    Node attribute = attributes.item(i);
+                    writeName(attribute);
+                    writeString(attribute.getNodeValue());
+                    writeLocation(attribute);
+                }
+                writeChildren(node);
+                break;
+            case Node.TEXT_NODE:
+            case Node.CDATA_SECTION_NODE:
+            case Node.COMMENT_NODE:
+                writeString(node.getNodeValue());
+                writeLocation(node);
+                break;
+            case Node.PROCESSING_INSTRUCTION_NODE:
+                writeString(((ProcessingInstruction) node).getTarget());
+                writeString(((ProcessingInstruction) node).getData());
+                writeLocation(node);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported node type: " + node.getNodeType());
+            }
+        }
+
+        private void writeName(Node node) throws IOException
+        {
+            boolean namespaceAware = node.getLocalName() != null;
+            out.writeBoolean(namespaceAware);
+            if (namespaceAware)
+                writeSymbol(node.getNamespaceURI());
+            writeSymbol(node.getNodeName());
+        }
+
+        private void writeLocation(Node node) throws IOException
+        {
+            writeInteger((Integer) node.getUserData(LocationAwareContentHandler.LINE_NUMBER_KEY_NAME));
+            writeInteger((Integer) node.getUserData(LocationAwareContentHandler.COLUMN_NUMBER_KEY_NAME));
+        }
+
+        private void writeInteger(Integer value) throws IOException
+        {
+            out.writeBoolean(value != null);
+            if (value != null)
+                out.writeInt(value);
+        }
+
+        /**
+         * Writes a reference to a previously written symbol, or the symbol itself if it has not been written before.
+         */
+        private void writeSymbol(String symbol) throws IOException
+        {
+            if (symbol == null)
+            {
+                out.writeInt(NULL);
+                return;
+            }
+
+            Integer index = symbols.get(symbol);
+            if (index != null)
+            {
+                out.writeInt(index);
+            }
+            else
+            {
+                out.writeInt(symbols.size());
+                writeString(symbol);
+                symbols.put(symbol, symbols.size());
+            }
+        }
+
+        private void writeString(String value) throws IOException
+        {
+            if (value == null)
+            {
+                out.writeInt(NULL);
+                return;
+            }
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static class Reader
+    {
+        private final DataInputStream in;
+        private final Document document;
+        private final List<String> symbols = new ArrayList<>();
+
+        public Reader(DataInputStream in, Document document)
+        {
+            this.in = in;
+            this.document = document;
+        }
+
+        public void readDocument() throws IOException
+        {
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported serialized document version: " + version);
+
+            int namespaceCount = in.readInt();
+            if (namespaceCount != NULL)
+            {
+                Set<String> namespaces = new HashSet<>();
+                for (int i = 0; i < namespaceCount; i++)
+                    namespaces.add(readString());
+                document.setUserData(LocationAwareContentHandler.NAMESPACE_KEY_NAME, namespaces, null);
+            }
+
+            if (in.readBoolean())
+            {
+                LocationAwareContentHandler.Doctype doctype = new LocationAwareContentHandler.Doctype(readString(), readString(), readString(),
+                            readString());
+                document.setUserData(LocationAwareContentHandler.DOCTYPE_KEY_NAME, doctype, null);
+            }
+
+            readChildren(document);
+        }
+
+        private void readChildren(Node parent) throws IOException
+        {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++)
+                parent.appendChild(readNode());
+        }
+
+        private Node readNode() throws IOException
+        {
+            byte type = in.readByte();
+            Node node;
+            switch (type)
+            {
+            case Node.ELEMENT_NODE:
+                Element element = readNamespaceAware() ? document.createElementNS(readSymbol(), readSymbol()) : document.createElement(readSymbol());
+                readLocation(element);
+                int attributeCount = in.readInt();
+                for (int i = 0; i < attributeCount; i++)
+                {
+                    boolean namespaceAware = readNamespaceAware();
+                    Attr attribute = namespaceAware ? document.createAttributeNS(readSymbol(), readSymbol()) : document.createAttribute(readSymbol());
+                    attribute.setValue(readString());
+                    readLocation(attribute);
+                    if (namespaceAware)
+                        element.setAttributeNodeNS(attribute);
+                    else
+                        element.setAttributeNode(attribute);
+                }
+                readChildren(element);
+                return element;
+            case Node.TEXT_NODE:
+                node = document.createTextNode(readString());
+                break;
+            case Node.CDATA_SECTION_NODE:
+                node = document.createCDATASection(readString());
+                break;
+            case Node.COMMENT_NODE:
+                node = document.createComment(readString());
+                break;
+            case Node.PROCESSING_INSTRUCTION_NODE:
+                node = document.createProcessingInstruction(readString(), readString());
+                break;
+            default:
+                throw new IOException("Unsupported node type: " + type);
+            }
+            readLocation(node);
+            return node;
+        }
+
+        private boolean readNamespaceAware() throws IOException
+        {
+            return in.readBoolean();
+        }
+
+        private void readLocation(Node node) throws IOException
+        {
+            Integer lineNumber = readInteger();
+            if (lineNumber != null)
+                node.setUserData(LocationAwareContentHandler.LINE_NUMBER_KEY_NAME, lineNumber, null);
+            Integer columnNumber = readInteger();
+            if (columnNumber != null)
+                node.setUserData(LocationAwareContentHandler.COLUMN_NUMBER_KEY_NAME, columnNumber, null);
+        }
+
+        private Integer readInteger() throws IOException
+        {
+            return in.readBoolean() ? in.readInt() : null;
+        }
+
+        private String readSymbol() throws IOException
+        {
+            int index = in.readInt();
+            if (index == NULL)
+                return null;
+
+            if (index == symbols.size())
+                symbols.add(readString());
+            return symbols.get(index);
+        }
+
+        private String readString() throws IOException
+        {
+            int length = in.readInt();
+            if (length == NULL)
+                return null;
+
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
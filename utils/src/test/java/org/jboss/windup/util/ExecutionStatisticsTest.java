@@ -1,12 +1,15 @@
 package org.jboss.windup.util;
 
 import org.jboss.windup.util.threading.WindupExecutors;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -17,6 +20,12 @@ public class ExecutionStatisticsTest
 
     public static final String STATISTICS_KEY = "key";
 
+    @After
+    public void tearDown()
+    {
+        ExecutionStatistics.get().reset();
+    }
+
     @Test
     public void testMultiThreadedStatistics() throws InterruptedException
     {
@@ -31,6 +40,102 @@ public class ExecutionStatisticsTest
         testExecutorService(executor,3000);
     }
 
+    @Test
+    public void testMergeAddsChildThreadTotals() throws InterruptedException
+    {
+        final String key = "mergeKey";
+        final ExecutorService executor = WindupExecutors.newFixedThreadPool(3);
+        for (int i = 0; i < 3; i++)
+        {
+            executor.submit(new Callable<Void>()
+            {
+                @Override
+                public Void call() throws Exception
+                {
+                    ExecutionStatistics.get().begin(key);
+                    Thread.sleep(200);
+                    ExecutionStatistics.get().end(key);
+                    return null;
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        ExecutionStatistics.get().merge();
+        ExecutionStatistics.TimingData data = ExecutionStatistics.get().getExecutionInfo().get(key);
+        Assert.assertEquals(3, data.getNumberOfExecutions());
+        Assert.assertTrue(nanoToMili(data.getTotal()) >= 600);
+
+        // Merging again must not count the child threads twice
+        ExecutionStatistics.get().merge();
+        Assert.assertEquals(3, ExecutionStatistics.get().getExecutionInfo().get(key).getNumberOfExecutions());
+    }
+
+    /**
+     * The child thread is still running, and in the middle of an operation, while it is merged. Nothing may be lost or counted twice.
+     */
+    @Test
+    public void testMergeWhileChildThreadIsRunning() throws Exception
+    {
+        final String key = "runningKey";
+        final CountDownLatch begun = new CountDownLatch(1);
+        final CountDownLatch merged = new CountDownLatch(1);
+        final ExecutorService executor = WindupExecutors.newSingleThreadExecutor();
+        Future<Void> future = executor.submit(new Callable<Void>()
+        {
+            @Override
+            public Void call() throws Exception
+            {
+                ExecutionStatistics statistics = ExecutionStatistics.get();
+                statistics.begin(key);
+                statistics.end(key);
+                statistics.begin(key);
+                begun.countDown();
+                merged.await();
+                statistics.end(key);
+
+                ExecutionStatistics.get().begin(key);
+                ExecutionStatistics.get().end(key);
+                return null;
+            }
+        });
+
+        Assert.assertTrue(begun.await(5, TimeUnit.SECONDS));
+        ExecutionStatistics.get().merge();
+        Assert.assertEquals(1, ExecutionStatistics.get().getExecutionInfo().get(key).getNumberOfExecutions());
+
+        merged.countDown();
+        future.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        ExecutionStatistics.get().merge();
+        Assert.assertEquals(3, ExecutionStatistics.get().getExecutionInfo().get(key).getNumberOfExecutions());
+    }
+
+    @Test
+    public void testPercentiles() throws InterruptedException
+    {
+        final String key = "percentileKey";
+        ExecutionStatistics statistics = ExecutionStatistics.get();
+        for (int i = 0; i < 99; i++)
+        {
+            statistics.begin(key);
+            statistics.end(key);
+        }
+        statistics.begin(key);
+        Thread.sleep(100);
+        statistics.end(key);
+
+        ExecutionStatistics.TimingData data = statistics.getExecutionInfo().get(key);
+        Assert.assertEquals(100, data.getNumberOfExecutions());
+        Assert.assertTrue(nanoToMili(data.getMax()) >= 100);
+        Assert.assertEquals(data.getMax(), data.getPercentile(1.0));
+        Assert.assertTrue(data.getPercentile(0.5) < data.getMax() / 100);
+        Assert.assertTrue(data.getPercentile(0.99) < data.getMax() / 100);
+    }
+
     private void testExecutorService(ExecutorService executor, int totalMilis) throws InterruptedException
     {
         Callable<Void> callable = new Callable<Void>() {
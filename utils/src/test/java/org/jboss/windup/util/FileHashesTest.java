@@ -0,0 +1,29 @@
+package org.jboss.windup.util;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.jboss.windup.util.file.FileHashes;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FileHashesTest
+{
+    @Test
+    public void testAllHashesFromOneRead() throws Exception
+    {
+        FileHashes hashes = FileHashes.compute(new ByteArrayInputStream("abc".getBytes(StandardCharsets.US_ASCII)), true);
+        Assert.assertEquals("900150983cd24fb0d6963f7d28e17f72", hashes.getMD5Hash());
+        Assert.assertEquals("a9993e364706816aba3e25717850c26c9cd0d89d", hashes.getSHA1Hash());
+        Assert.assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", hashes.getSHA256Hash());
+    }
+
+    @Test
+    public void testSHA256IsOptional() throws Exception
+    {
+        FileHashes hashes = FileHashes.compute(new ByteArrayInputStream(new byte[0]), false);
+        Assert.assertEquals("d41d8cd98f00b204e9800998ecf8427e", hashes.getMD5Hash());
+        Assert.assertEquals("da39a3ee5e6b4b0d3255bfef95601890afd80709", hashes.getSHA1Hash());
+        Assert.assertNull(hashes.getSHA256Hash());
+    }
+}
@@ -0,0 +1,83 @@
+package org.jboss.windup.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.jboss.windup.util.xml.LocationAwareContentHandler;
+import org.jboss.windup.util.xml.LocationAwareDocumentSerializer;
+import org.jboss.windup.util.xml.LocationAwareXmlReader;
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Testing the {@link LocationAwareDocumentSerializer}
+ */
+public class LocationAwareDocumentSerializerTest
+{
+    private static final String SIMPLE_DOCTYPE_XML_PATH = "src/test/resources/simple-doctype.xml";
+
+    private static final String NAMESPACED_XML = "<?xml version=\"1.0\"?>\n"
+                + "<beans xmlns=\"http://www.springframework.org/schema/beans\" xmlns:p=\"http://www.springframework.org/schema/p\">\n"
+                + "  <bean id=\"first\" class=\"org.example.First\" p:name=\"first\"/>\n"
+                + "  <bean id=\"second\">Some text &amp; more</bean>\n"
+                + "  <plain>text</plain>\n"
+                + "</beans>";
+
+    @Test
+    public void doctypeDocumentTest() throws Exception
+    {
+        Document document = LocationAwareXmlReader.readXML(new FileInputStream(new File(SIMPLE_DOCTYPE_XML_PATH)));
+        Document copy = LocationAwareDocumentSerializer.deserialize(LocationAwareDocumentSerializer.serialize(document));
+
+        LocationAwareContentHandler.Doctype docType = (LocationAwareContentHandler.Doctype) copy
+                    .getUserData(LocationAwareContentHandler.DOCTYPE_KEY_NAME);
+        Assert.assertEquals("http://www.objectweb.org/jonas/dtds/jonas-web-app_3_1.dtd", docType.getSystemId());
+        Assert.assertEquals("-//ObjectWeb//DTD JOnAS Web App 3.1//EN", docType.getPublicId());
+        assertSameNode(document, copy);
+    }
+
+    @Test
+    public void namespacedDocumentTest() throws Exception
+    {
+        Document document = LocationAwareXmlReader.readXML(new ByteArrayInputStream(NAMESPACED_XML.getBytes(StandardCharsets.UTF_8)));
+        Document copy = LocationAwareDocumentSerializer.deserialize(LocationAwareDocumentSerializer.serialize(document));
+
+        Assert.assertEquals(LocationAwareXmlReader.getNamespaces(document), LocationAwareXmlReader.getNamespaces(copy));
+        Assert.assertEquals(2, copy.getElementsByTagNameNS("http://www.springframework.org/schema/beans", "bean").getLength());
+        assertSameNode(document, copy);
+    }
+
+    private void assertSameNode(Node expected, Node actual)
+    {
+        Assert.assertEquals(expected.getNodeType(), actual.getNodeType());
+        Assert.assertEquals(expected.getNodeName(), actual.getNodeName());
+        Assert.assertEquals(expected.getNamespaceURI(), actual.getNamespaceURI());
+        Assert.assertEquals(expected.getLocalName(), actual.getLocalName());
+        Assert.assertEquals(expected.getNodeValue(), actual.getNodeValue());
+        Assert.assertEquals(expected.getUserData(LocationAwareContentHandler.LINE_NUMBER_KEY_NAME),
+                    actual.getUserData(LocationAwareContentHandler.LINE_NUMBER_KEY_NAME));
+        Assert.assertEquals(expected.getUserData(LocationAwareContentHandler.COLUMN_NUMBER_KEY_NAME),
+                    actual.getUserData(LocationAwareContentHandler.COLUMN_NUMBER_KEY_NAME));
+
+        NamedNodeMap expectedAttributes = expected.getAttributes();
+        if (expectedAttributes != null)
+        {
+            NamedNodeMap actualAttributes = actual.getAttributes();
+            Assert.assertEquals(expectedAttributes.getLength(), actualAttributes.getLength());
+            for (int i = 0; i < expectedAttributes.getLength(); i++)
+                assertSameNode(expectedAttributes.item(i), actualAttributes.item(i));
+        }
+
+        NodeList expectedChildren = expected.getChildNodes();
+        NodeList actualChildren = actual.getChildNodes();
+        Assert.assertEquals(expectedChildren.getLength(), actualChildren.getLength());
+        for (int i = 0; i < expectedChildren.getLength(); i++)
+            assertSameNode(expectedChildren.item(i), actualChildren.item(i));
+    }
+}
@@ -0,0 +1,53 @@
+package org.jboss.windup.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ZipUtilTest
+{
+    @Test
+    public void testExtractToFolderListsExtractedFiles() throws Exception
+    {
+        Path tempDir = Files.createTempDirectory("ZipUtilTest");
+        try
+        {
+            File zip = tempDir.resolve("test.jar").toFile();
+            try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zip)))
+            {
+                zos.putNextEntry(new ZipEntry("META-INF/"));
+                addEntry(zos, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0");
+                addEntry(zos, "com/example/Foo.class", "foo");
+                addEntry(zos, "../outside.txt", "outside");
+            }
+
+            File outputDir = tempDir.resolve("output").toFile();
+            List<String> extracted = ZipUtil.extractToFolder(zip, outputDir);
+
+            Assert.assertEquals(Arrays.asList("META-INF/MANIFEST.MF", "com/example/Foo.class"), extracted);
+            Assert.assertEquals("foo", FileUtils.readFileToString(new File(outputDir, "com/example/Foo.class")));
+            Assert.assertFalse(tempDir.resolve("outside.txt").toFile().exists());
+        }
+        finally
+        {
+            FileUtils.deleteQuietly(tempDir.toFile());
+        }
+    }
+
+    private void addEntry(ZipOutputStream zos, String name, String contents) throws Exception
+    {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(contents.getBytes(StandardCharsets.UTF_8));
+        zos.closeEntry();
+    }
+}